@@ -0,0 +1,179 @@
+package com.school.roster.school_roster_backend.benchmark;
+
+import com.school.roster.school_roster_backend.entity.Grade;
+import com.school.roster.school_roster_backend.entity.embedded.GradeArithmetic;
+import com.school.roster.school_roster_backend.entity.embedded.ScoreDetails;
+import com.school.roster.school_roster_backend.service.GradeCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One grade recalculation (clamp → totals → ps → ws → initialGrade → status), in ns/op.
+ * Run with {@code -prof gc} and compare gc.alloc.rate.norm for bytes allocated per recalculation.
+ *
+ * {@link #kernel} is the current GradeCalculator path over PackedScores and ScoreKernel;
+ * {@link #boxedBaseline} replays the previous ScoreDetails arithmetic (List&lt;Integer&gt;, streams,
+ * Integer/Double fields) so the two can be compared in one run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GradeKernelBenchmark {
+
+    private static final int SLOTS_PER_CATEGORY = 10;
+
+    private final GradeCalculator calculator = new GradeCalculator(GradeArithmetic.DOUBLE);
+
+    private ScoreDetails hps;
+    private Grade grade;
+
+    private BoxedScores boxedHps;
+    private BoxedScores boxedGrade;
+
+    @Setup
+    public void setUp() {
+        hps = new ScoreDetails();
+        ScoreDetails details = new ScoreDetails();
+        boxedHps = new BoxedScores();
+        boxedGrade = new BoxedScores();
+        for (int i = 0; i < SLOTS_PER_CATEGORY; i++) {
+            int max = 10 + i;
+            int score = (i * 7) % 15;
+            for (List<Integer> list : List.of(hps.getPerformanceScores(), hps.getQuizScores(),
+                    hps.getQuarterlyExamScores(), boxedHps.performanceScores, boxedHps.quizScores,
+                    boxedHps.quarterlyExamScores)) {
+                list.add(max);
+            }
+            for (List<Integer> list : List.of(details.getPerformanceScores(), details.getQuizScores(),
+                    details.getQuarterlyExamScores(), boxedGrade.performanceScores, boxedGrade.quizScores,
+                    boxedGrade.quarterlyExamScores)) {
+                list.add(score);
+            }
+        }
+        hps.recalcTotals();
+        hps.setPerformancePs(100.0);
+        hps.setQuizPs(100.0);
+        hps.setQuarterlyExamPs(100.0);
+        hps.setPerformanceWs(40.0);
+        hps.setQuizWs(40.0);
+        hps.setQuarterlyExamWs(20.0);
+        boxedHps.recalcTotals();
+        boxedHps.performancePs = 100.0;
+        boxedHps.quizPs = 100.0;
+        boxedHps.quarterlyExamPs = 100.0;
+        boxedHps.performanceWs = 40.0;
+        boxedHps.quizWs = 40.0;
+        boxedHps.quarterlyExamWs = 20.0;
+
+        grade = new Grade();
+        grade.setScoreDetails(details);
+    }
+
+    @Benchmark
+    public Grade kernel() {
+        calculator.clampAndRecalculate(grade, hps);
+        return grade;
+    }
+
+    @Benchmark
+    public BoxedScores boxedBaseline() {
+        boxedGrade.clampScoresAgainst(boxedHps);
+        boxedGrade.recalcTotals();
+        boxedGrade.recalcPs(boxedHps);
+        boxedGrade.recalcWs(boxedHps);
+        Double initialSum = boxedGrade.performanceWs + boxedGrade.quizWs + boxedGrade.quarterlyExamWs;
+        boxedGrade.initialGrade = Math.round(initialSum * 100.0) / 100.0;
+        boxedGrade.finalStatus = GradeCalculator.statusFor(boxedGrade.initialGrade);
+        return boxedGrade;
+    }
+
+    /**
+     * ScoreDetails as it computed before the primitive kernel (kept verbatim for the baseline).
+     */
+    public static class BoxedScores {
+        List<Integer> performanceScores = new ArrayList<>();
+        List<Integer> quizScores = new ArrayList<>();
+        List<Integer> quarterlyExamScores = new ArrayList<>();
+
+        Integer performanceTotal = 0;
+        Integer quizTotal = 0;
+        Integer quarterlyExamTotal = 0;
+
+        Double performancePs = 0.0;
+        Double quizPs = 0.0;
+        Double quarterlyExamPs = 0.0;
+
+        Double performanceWs = 0.0;
+        Double quizWs = 0.0;
+        Double quarterlyExamWs = 0.0;
+
+        Double initialGrade;
+        Object finalStatus;
+
+        void recalcTotals() {
+            performanceTotal = sumList(performanceScores);
+            quizTotal = sumList(quizScores);
+            quarterlyExamTotal = sumList(quarterlyExamScores);
+        }
+
+        void clampScoresAgainst(BoxedScores hps) {
+            clampList(performanceScores, hps.performanceScores);
+            clampList(quizScores, hps.quizScores);
+            clampList(quarterlyExamScores, hps.quarterlyExamScores);
+        }
+
+        void recalcPs(BoxedScores hps) {
+            performancePs = calculatePs(performanceTotal, hps.performanceTotal, hps.performancePs);
+            quizPs = calculatePs(quizTotal, hps.quizTotal, hps.quizPs);
+            quarterlyExamPs = calculatePs(quarterlyExamTotal, hps.quarterlyExamTotal, hps.quarterlyExamPs);
+        }
+
+        void recalcWs(BoxedScores hps) {
+            double perfRaw = performancePs * (hps.performanceWs / 100.0);
+            performanceWs = Math.round(perfRaw * 100.0) / 100.0;
+            double quizRaw = quizPs * (hps.quizWs / 100.0);
+            quizWs = Math.round(quizRaw * 100.0) / 100.0;
+            double examRaw = quarterlyExamPs * (hps.quarterlyExamWs / 100.0);
+            quarterlyExamWs = Math.round(examRaw * 100.0) / 100.0;
+        }
+
+        private Integer sumList(List<Integer> list) {
+            return list.stream().mapToInt(Integer::intValue).sum();
+        }
+
+        private void clampList(List<Integer> values, List<Integer> maxValues) {
+            for (int i = 0; i < values.size() && i < maxValues.size(); i++) {
+                int val = values.get(i);
+                int max = maxValues.get(i);
+                if (val < 0) {
+                    values.set(i, 0);
+                } else if (val > max) {
+                    values.set(i, max);
+                }
+            }
+        }
+
+        private Double calculatePs(Integer gradeTotal, Integer hpsTotal, Double hpsPs) {
+            if (hpsTotal == null || hpsTotal == 0) {
+                return 0.0;
+            }
+            double raw = (gradeTotal.doubleValue() / hpsTotal.doubleValue()) * hpsPs;
+            return Math.round(raw * 100.0) / 100.0;
+        }
+    }
+}
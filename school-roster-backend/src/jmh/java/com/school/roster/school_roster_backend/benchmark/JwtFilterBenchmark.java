@@ -0,0 +1,122 @@
+package com.school.roster.school_roster_backend.benchmark;
+
+import com.school.roster.school_roster_backend.security.JwtAuthenticationFilter;
+import com.school.roster.school_roster_backend.security.JwtSigningKeys;
+import com.school.roster.school_roster_backend.security.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.security.Key;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating a bearer token, three ways: the old path that built a new
+ * parser and verified the token twice (once for the subject, once for the roles), a single
+ * verification with the shared parser ({@code jwt.verified-cache.max-entries=0}), and the
+ * default filter, which serves a token it has already verified from the cache, also with eight
+ * threads sharing that cache.
+ *
+ * Every request carries the same token, as a logged-in client's requests do. The legacy path
+ * only parses; it does not build the authentication, so it slightly understates the old cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtFilterBenchmark {
+
+    private static final List<String> ROLES = List.of("TEACHER", "TEACHER_LEAD");
+
+    private Key legacyKey;
+    private String legacyToken;
+
+    private JwtAuthenticationFilter uncachedFilter;
+    private String uncachedToken;
+
+    private JwtAuthenticationFilter cachedFilter;
+    private String cachedToken;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        legacyKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+        legacyToken = Jwts.builder()
+                .setClaims(Map.of("roles", ROLES))
+                .setSubject("teacher@school.test")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 86400000))
+                .signWith(legacyKey)
+                .compact();
+
+        JwtSigningKeys signingKeys = new JwtSigningKeys("bench",
+                "bench:" + Base64.getEncoder().encodeToString(legacyKey.getEncoded()), "", "");
+
+        JwtUtils uncached = new JwtUtils(new SimpleMeterRegistry(), signingKeys, 0);
+        uncachedFilter = new JwtAuthenticationFilter(uncached);
+        uncachedToken = uncached.generateToken("123456789012", "teacher@school.test", ROLES);
+
+        JwtUtils cached = new JwtUtils(new SimpleMeterRegistry(), signingKeys, 10_000);
+        cachedFilter = new JwtAuthenticationFilter(cached);
+        cachedToken = cached.generateToken("123456789012", "teacher@school.test", ROLES);
+    }
+
+    @Benchmark
+    public Object legacyDoubleParse() {
+        Claims forSubject = Jwts.parserBuilder().setSigningKey(legacyKey).build()
+                .parseClaimsJws(legacyToken).getBody();
+        Claims forRoles = Jwts.parserBuilder().setSigningKey(legacyKey).build()
+                .parseClaimsJws(legacyToken).getBody();
+        return forSubject.getSubject().length() + forRoles.get("roles", List.class).size();
+    }
+
+    @Benchmark
+    public Authentication singleVerification() throws Exception {
+        return filter(uncachedFilter, uncachedToken);
+    }
+
+    @Benchmark
+    public Authentication cachedVerification() throws Exception {
+        return filter(cachedFilter, cachedToken);
+    }
+
+    // Many request threads authenticating through one shared cache, as under real load
+    @Benchmark
+    @Threads(8)
+    public Authentication cachedVerificationContended() throws Exception {
+        return filter(cachedFilter, cachedToken);
+    }
+
+    private static Authentication filter(JwtAuthenticationFilter filter, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
@@ -0,0 +1,177 @@
+package com.school.roster.school_roster_backend.benchmark;
+
+import com.school.roster.school_roster_backend.entity.embedded.ScoreDetails;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.Embedded;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gradebook load and save times for the packed binary score columns ({@link ScoreDetails})
+ * against the previous {@code @ElementCollection List<Integer>} mapping, on in-memory H2.
+ *
+ * "Load" reads every grade of a roster and walks its three score lists; "save" additionally
+ * bumps one score per grade and commits, which is what a roster-wide recalculation does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScoreStorageBenchmark {
+
+    private static final int SLOTS_PER_CATEGORY = 10;
+
+    @Param({"40", "200"})
+    public int students;
+
+    private SessionFactory sessionFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(PackedGrade.class)
+                .addAnnotatedClass(LegacyGrade.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:scores;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                // same batching settings as application.properties
+                .setProperty("hibernate.jdbc.batch_size", "50")
+                .setProperty("hibernate.order_updates", "true")
+                .setProperty("hibernate.order_inserts", "true")
+                .setProperty("hibernate.default_batch_fetch_size", "100")
+                .buildSessionFactory();
+
+        sessionFactory.inTransaction(session -> {
+            for (int i = 0; i < students; i++) {
+                PackedGrade packed = new PackedGrade();
+                LegacyGrade legacy = new LegacyGrade();
+                for (int slot = 0; slot < SLOTS_PER_CATEGORY; slot++) {
+                    int score = (i + slot) % 10;
+                    packed.scoreDetails.getPerformanceScores().add(score);
+                    packed.scoreDetails.getQuizScores().add(score);
+                    packed.scoreDetails.getQuarterlyExamScores().add(score);
+                    legacy.scores.performanceScores.add(score);
+                    legacy.scores.quizScores.add(score);
+                    legacy.scores.quarterlyExamScores.add(score);
+                }
+                session.persist(packed);
+                session.persist(legacy);
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public void loadPacked(Blackhole bh) {
+        try (Session session = sessionFactory.openSession()) {
+            for (PackedGrade grade : session.createQuery("from PackedGrade", PackedGrade.class).list()) {
+                ScoreDetails d = grade.scoreDetails;
+                bh.consume(sum(d.getPerformanceScores()) + sum(d.getQuizScores()) + sum(d.getQuarterlyExamScores()));
+            }
+        }
+    }
+
+    @Benchmark
+    public void loadLegacy(Blackhole bh) {
+        try (Session session = sessionFactory.openSession()) {
+            for (LegacyGrade grade : session.createQuery("from LegacyGrade", LegacyGrade.class).list()) {
+                LegacyScores s = grade.scores;
+                bh.consume(sum(s.performanceScores) + sum(s.quizScores) + sum(s.quarterlyExamScores));
+            }
+        }
+    }
+
+    @Benchmark
+    public void savePacked() {
+        sessionFactory.inTransaction(session -> {
+            for (PackedGrade grade : session.createQuery("from PackedGrade", PackedGrade.class).list()) {
+                bump(grade.scoreDetails.getQuizScores());
+            }
+        });
+    }
+
+    @Benchmark
+    public void saveLegacy() {
+        sessionFactory.inTransaction(session -> {
+            for (LegacyGrade grade : session.createQuery("from LegacyGrade", LegacyGrade.class).list()) {
+                bump(grade.scores.quizScores);
+            }
+        });
+    }
+
+    private static int sum(List<Integer> scores) {
+        int total = 0;
+        for (int i = 0; i < scores.size(); i++) {
+            total += scores.get(i);
+        }
+        return total;
+    }
+
+    private static void bump(List<Integer> scores) {
+        scores.set(0, (scores.get(0) + 1) % 10);
+    }
+
+    @Entity(name = "PackedGrade")
+    public static class PackedGrade {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+
+        @Embedded
+        ScoreDetails scoreDetails = new ScoreDetails();
+    }
+
+    @Entity(name = "LegacyGrade")
+    public static class LegacyGrade {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+
+        @Embedded
+        LegacyScores scores = new LegacyScores();
+    }
+
+    /**
+     * The score lists exactly as ScoreDetails mapped them before the packed columns.
+     */
+    @Embeddable
+    public static class LegacyScores {
+        @ElementCollection
+        List<Integer> performanceScores = new ArrayList<>();
+
+        @ElementCollection
+        List<Integer> quizScores = new ArrayList<>();
+
+        @ElementCollection
+        List<Integer> quarterlyExamScores = new ArrayList<>();
+    }
+}
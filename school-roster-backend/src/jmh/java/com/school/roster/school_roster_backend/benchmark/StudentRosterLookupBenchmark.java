@@ -0,0 +1,183 @@
+package com.school.roster.school_roster_backend.benchmark;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.JoinTable;
+import jakarta.persistence.ManyToMany;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Which rosters is this student in?" on in-memory H2, three ways:
+ * the old {@code findAll()} scan that walks every roster's student list, the entity join
+ * through {@code roster_students} used by {@code RosterRepository.findByStudentId}, and the
+ * header-column projection that {@code RosterRepository.findViewHeadersByStudentId} uses for
+ * {@code /api/rosters/getByStudent}.
+ *
+ * Each roster holds {@value #STUDENTS_PER_ROSTER} students drawn from a pool of five students
+ * per roster, so a student sits in about six rosters regardless of size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StudentRosterLookupBenchmark {
+
+    private static final int STUDENTS_PER_ROSTER = 30;
+
+    @Param({"100", "1000", "10000"})
+    public int rosters;
+
+    private SessionFactory sessionFactory;
+    private String studentId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(BenchStudent.class)
+                .addAnnotatedClass(BenchRoster.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:lookup;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                // same batching settings as application.properties
+                .setProperty("hibernate.jdbc.batch_size", "50")
+                .setProperty("hibernate.default_batch_fetch_size", "100")
+                .buildSessionFactory();
+
+        int pool = rosters * 5;
+        studentId = id(pool / 2);
+        sessionFactory.inTransaction(session -> session.doWork(connection -> {
+            try (PreparedStatement students = connection.prepareStatement("INSERT INTO bench_students (id) VALUES (?)");
+                 PreparedStatement rosterRows = connection.prepareStatement(
+                         "INSERT INTO bench_rosters (id, subjectName, gradeLevel, classGpa) VALUES (?, ?, ?, ?)");
+                 PreparedStatement links = connection.prepareStatement(
+                         "INSERT INTO bench_roster_students (roster_id, student_id) VALUES (?, ?)")) {
+                for (int i = 0; i < pool; i++) {
+                    students.setString(1, id(i));
+                    students.addBatch();
+                }
+                students.executeBatch();
+
+                SplittableRandom random = new SplittableRandom(42);
+                for (long r = 1; r <= rosters; r++) {
+                    rosterRows.setLong(1, r);
+                    rosterRows.setString(2, "Subject " + r);
+                    rosterRows.setString(3, "7");
+                    rosterRows.setFloat(4, 85f);
+                    rosterRows.addBatch();
+                    // consecutive block so a roster never lists the same student twice
+                    int first = random.nextInt(pool - STUDENTS_PER_ROSTER);
+                    for (int s = 0; s < STUDENTS_PER_ROSTER; s++) {
+                        links.setLong(1, r);
+                        links.setString(2, id(first + s));
+                        links.addBatch();
+                    }
+                }
+                rosterRows.executeBatch();
+                links.executeBatch();
+            }
+        }));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public void scanAll(Blackhole bh) {
+        try (Session session = sessionFactory.openSession()) {
+            List<BenchRoster> result = new ArrayList<>();
+            for (BenchRoster roster : session.createQuery("from BenchRoster", BenchRoster.class).list()) {
+                for (BenchStudent student : roster.students) {
+                    if (student.id.equals(studentId)) {
+                        result.add(roster);
+                        break;
+                    }
+                }
+            }
+            bh.consume(result);
+        }
+    }
+
+    @Benchmark
+    public void joinEntities(Blackhole bh) {
+        try (Session session = sessionFactory.openSession()) {
+            bh.consume(session.createQuery(
+                            "SELECT r FROM BenchRoster r JOIN r.students s WHERE s.id = :studentId ORDER BY r.id",
+                            BenchRoster.class)
+                    .setParameter("studentId", studentId)
+                    .list());
+        }
+    }
+
+    @Benchmark
+    public void projection(Blackhole bh) {
+        try (Session session = sessionFactory.openSession()) {
+            bh.consume(session.createQuery(
+                            "SELECT r.id, r.subjectName, r.gradeLevel, r.classGpa " +
+                                    "FROM BenchRoster r JOIN r.students s WHERE s.id = :studentId ORDER BY r.id",
+                            Object[].class)
+                    .setParameter("studentId", studentId)
+                    .list());
+        }
+    }
+
+    private static String id(int n) {
+        return String.format("%012d", n);
+    }
+
+    @Entity(name = "BenchStudent")
+    @jakarta.persistence.Table(name = "bench_students")
+    public static class BenchStudent {
+        @Id
+        String id;
+    }
+
+    /**
+     * Roster reduced to its header columns and the student join table, indexed as in Roster.
+     */
+    @Entity(name = "BenchRoster")
+    @jakarta.persistence.Table(name = "bench_rosters")
+    public static class BenchRoster {
+        @Id
+        Long id;
+
+        String subjectName;
+        String gradeLevel;
+        Float classGpa;
+
+        @ManyToMany
+        @JoinTable(
+                name = "bench_roster_students",
+                joinColumns = @JoinColumn(name = "roster_id"),
+                inverseJoinColumns = @JoinColumn(name = "student_id"),
+                indexes = @Index(name = "idx_bench_roster_students_student", columnList = "student_id, roster_id")
+        )
+        List<BenchStudent> students = new ArrayList<>();
+    }
+}
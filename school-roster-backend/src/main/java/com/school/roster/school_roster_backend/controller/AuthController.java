@@ -2,6 +2,7 @@ package com.school.roster.school_roster_backend.controller;
 
 import com.school.roster.school_roster_backend.entity.User;
 import com.school.roster.school_roster_backend.entity.enums.Role;
+import com.school.roster.school_roster_backend.security.AuthenticatedUser;
 import com.school.roster.school_roster_backend.service.AuthenticationService;
 import com.school.roster.school_roster_backend.service.UserService;
 import lombok.AllArgsConstructor;
@@ -9,7 +10,7 @@ import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Set;
@@ -54,12 +55,7 @@ public class AuthController {
     // === Who Am I ===
     @GetMapping("/me")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<UserInfoResponse> whoAmI(Authentication authentication) {
-        String email = authentication.getName(); // from JWT token
-
-        User user = userService.getUserByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
-
+    public ResponseEntity<UserInfoResponse> whoAmI(@AuthenticationPrincipal AuthenticatedUser user) {
         UserInfoResponse response = new UserInfoResponse(
                 user.getId(),
                 user.getEmail(),
@@ -0,0 +1,47 @@
+package com.school.roster.school_roster_backend.controller;
+
+import com.school.roster.school_roster_backend.service.ExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private final ExportService exportService;
+
+    // === Export all Rosters (format=ndjson|csv), streamed row by row ===
+    @GetMapping("/rosters")
+    @PreAuthorize("hasAnyRole('ADMIN', 'ADMINISTRATOR', 'OFFICE_ADMINISTRATOR')")
+    public ResponseEntity<StreamingResponseBody> exportRosters(@RequestParam(required = false) String format) {
+        ExportService.Format exportFormat = ExportService.Format.parse(format);
+        return attachment("rosters", exportFormat, out -> exportService.exportRosters(exportFormat, out));
+    }
+
+    // === Export Grades (all rosters, or one with rosterId), streamed row by row ===
+    @GetMapping("/gradebook")
+    @PreAuthorize("hasAnyRole('ADMIN', 'ADMINISTRATOR', 'OFFICE_ADMINISTRATOR')")
+    public ResponseEntity<StreamingResponseBody> exportGradebook(@RequestParam(required = false) Long rosterId,
+                                                                 @RequestParam(required = false) String format) {
+        ExportService.Format exportFormat = ExportService.Format.parse(format);
+        String name = rosterId != null ? "gradebook-" + rosterId : "gradebook";
+        return attachment(name, exportFormat, out -> exportService.exportGradebook(rosterId, exportFormat, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> attachment(String name, ExportService.Format format,
+                                                             StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + name + "." + format.extension() + "\"")
+                .body(body);
+    }
+}
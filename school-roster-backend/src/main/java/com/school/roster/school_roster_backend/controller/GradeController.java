@@ -1,16 +1,19 @@
 package com.school.roster.school_roster_backend.controller;
 
 import com.school.roster.school_roster_backend.entity.Grade;
-import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.security.AuthenticatedUser;
 import com.school.roster.school_roster_backend.service.GradeService;
+import com.school.roster.school_roster_backend.service.OptimisticRetry;
+import com.school.roster.school_roster_backend.service.RosterLockManager;
 import com.school.roster.school_roster_backend.service.RosterService;
 import com.school.roster.school_roster_backend.service.UserService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -24,43 +27,69 @@ public class GradeController {
     private final GradeService gradeService;
     private final RosterService rosterService;
     private final UserService userService;
+    private final RosterLockManager rosterLockManager;
+    private final OptimisticRetry optimisticRetry;
 
     // === Update Grade ===
     @PutMapping("/update")
-    public ResponseEntity<GradeResponse> updateGrade(@RequestBody UpdateGradeRequest request, Authentication authentication) {
-        User currentUser = getCurrentUser(authentication);
+    public ResponseEntity<GradeResponse> updateGrade(@RequestBody UpdateGradeRequest request, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        Long lockedRosterId = gradeService.getRosterIdForGrade(request.getGradeId());
 
-        if (!rosterService.canEditRoster(request.getRosterId(), currentUser)) {
-            throw new RuntimeException("Access denied: You are not allowed to update grades in this roster.");
+        // The grade's own roster is what gets locked and changed, so it is also what gets authorized
+        if (request.getRosterId() != null && !request.getRosterId().equals(lockedRosterId)) {
+            throw new RuntimeException("Grade " + request.getGradeId() + " does not belong to roster " + request.getRosterId() + ".");
         }
 
-        Grade updatedGrade = gradeService.updateGrade(
-                request.getGradeId(),
-                request.getPerformanceScores(),
-                request.getQuizScores(),
-                request.getQuarterlyExamScores()
-        );
-        return ResponseEntity.ok(buildGradeResponse(updatedGrade));
+        return rosterLockManager.withLock(lockedRosterId, () -> {
+            if (!rosterService.canEditRoster(lockedRosterId, currentUser)) {
+                throw new RuntimeException("Access denied: You are not allowed to update grades in this roster.");
+            }
+
+            // A concurrent commit elsewhere is retried; replaying a stale versioned edit fails its version check
+            Grade updatedGrade = optimisticRetry.execute("The update of grade " + request.getGradeId(),
+                    () -> gradeService.updateGrade(
+                            request.getGradeId(),
+                            request.getPerformanceScores(),
+                            request.getQuizScores(),
+                            request.getQuarterlyExamScores(),
+                            request.getVersion()
+                    ),
+                    () -> gradeService.getGradeById(request.getGradeId()));
+            return ResponseEntity.ok(buildGradeResponse(updatedGrade));
+        });
+    }
+
+    // === Bulk Update Grades (whole roster in one request) ===
+    @PutMapping("/updateBulk")
+    public ResponseEntity<List<GradeResponse>> updateGrades(@RequestBody BulkUpdateGradesRequest request, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return rosterLockManager.withLock(request.getRosterId(), () -> {
+            if (!rosterService.canEditRoster(request.getRosterId(), currentUser)) {
+                throw new RuntimeException("Access denied: You are not allowed to update grades in this roster.");
+            }
+
+            List<Grade> updatedGrades = gradeService.updateGrades(request.getRosterId(), request.getGrades());
+            return ResponseEntity.ok(updatedGrades.stream().map(this::buildGradeResponse).collect(Collectors.toList()));
+        });
     }
 
     // === Delete Grade ===
     @DeleteMapping("/delete")
-    public ResponseEntity<String> deleteGrade(@RequestBody GradeIdRequest request, Authentication authentication) {
-        User currentUser = getCurrentUser(authentication);
+    public ResponseEntity<String> deleteGrade(@RequestBody GradeIdRequest request, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        Long lockedRosterId = gradeService.getRosterIdForGrade(request.getGradeId());
 
-        if (!gradeService.canDeleteGrade(request.getGradeId(), currentUser)) {
-            throw new RuntimeException("Access denied: You are not allowed to delete this grade.");
-        }
+        return rosterLockManager.withLock(lockedRosterId, () -> {
+            if (!gradeService.canDeleteGrade(request.getGradeId(), currentUser)) {
+                throw new RuntimeException("Access denied: You are not allowed to delete this grade.");
+            }
 
-        gradeService.deleteGrade(request.getGradeId());
-        return ResponseEntity.ok("Grade deleted successfully.");
+            gradeService.deleteGrade(request.getGradeId());
+            return ResponseEntity.ok("Grade deleted successfully.");
+        });
     }
 
     // === Get Grade by ID ===
     @PostMapping("/getById")
-    public ResponseEntity<GradeResponse> getGradeById(@RequestBody GradeIdRequest request, Authentication authentication) {
-        User currentUser = getCurrentUser(authentication);
-
+    public ResponseEntity<GradeResponse> getGradeById(@RequestBody GradeIdRequest request, @AuthenticationPrincipal AuthenticatedUser currentUser) {
         if (!gradeService.canViewGrade(request.getGradeId(), currentUser)) {
             throw new RuntimeException("Access denied: You are not allowed to view this grade.");
         }
@@ -71,9 +100,7 @@ public class GradeController {
 
     // === Get Grades by Roster ===
     @PostMapping("/getByRoster")
-    public ResponseEntity<List<GradeResponse>> getGradesByRoster(@RequestBody RosterIdRequest request, Authentication authentication) {
-        User currentUser = getCurrentUser(authentication);
-
+    public ResponseEntity<List<GradeResponse>> getGradesByRoster(@RequestBody RosterIdRequest request, @AuthenticationPrincipal AuthenticatedUser currentUser) {
         if (!rosterService.canViewRoster(request.getRosterId(), currentUser)) {
             throw new RuntimeException("Access denied: You are not allowed to view grades in this roster.");
         }
@@ -84,9 +111,7 @@ public class GradeController {
 
     // === Get Grades by Student ===
     @PostMapping("/getByStudent")
-    public ResponseEntity<List<GradeResponse>> getGradesByStudent(@RequestBody StudentIdRequest request, Authentication authentication) {
-        User currentUser = getCurrentUser(authentication);
-
+    public ResponseEntity<List<GradeResponse>> getGradesByStudent(@RequestBody StudentIdRequest request, @AuthenticationPrincipal AuthenticatedUser currentUser) {
         if (!currentUser.getId().equals(request.getStudentId()) && !userService.hasAnyRole(currentUser, "ADMIN", "ADMINISTRATOR", "TEACHER", "TEACHER_LEAD")) {
             throw new RuntimeException("Access denied: You are not allowed to view grades of this student.");
         }
@@ -97,19 +122,12 @@ public class GradeController {
 
     // === Get My GPA ===
     @GetMapping("/myGpa")
-    public ResponseEntity<GradeService.StudentGpaResponse> getMyGpa(Authentication authentication) {
-        User currentUser = getCurrentUser(authentication);
-
+    public ResponseEntity<GradeService.StudentGpaResponse> getMyGpa(@AuthenticationPrincipal AuthenticatedUser currentUser) {
         GradeService.StudentGpaResponse gpaSummary = gradeService.getMyGpa(currentUser.getId());
         return ResponseEntity.ok(gpaSummary);
     }
 
     // === Helper Methods ===
-    private User getCurrentUser(Authentication authentication) {
-        return userService.getUserByEmail(authentication.getName())
-                .orElseThrow(() -> new RuntimeException("User not found."));
-    }
-
     private GradeResponse buildGradeResponse(Grade grade) {
         var details = grade.getScoreDetails(); // embedded ScoreDetails
 
@@ -156,13 +174,17 @@ public class GradeController {
                 details.getQuarterlyExamScores(),
                 details.getQuarterlyExamTotal(),
                 details.getQuarterlyExamPs(),
-                details.getQuarterlyExamWs()
+                details.getQuarterlyExamWs(),
+
+                // ─── optimistic-lock version (send back on update) ─────────────────
+                grade.getVersion()
         );
     }
 
 
     // === DTOs ===
     @Data
+    @NoArgsConstructor
     @AllArgsConstructor
     public static class UpdateGradeRequest {
         private Long rosterId;
@@ -170,6 +192,19 @@ public class GradeController {
         private List<Integer> performanceScores;
         private List<Integer> quizScores;
         private List<Integer> quarterlyExamScores;
+        private Long version; // optional: grade version the client edited; 409 if it has moved on
+
+        public UpdateGradeRequest(Long rosterId, Long gradeId, List<Integer> performanceScores,
+                                  List<Integer> quizScores, List<Integer> quarterlyExamScores) {
+            this(rosterId, gradeId, performanceScores, quizScores, quarterlyExamScores, null);
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class BulkUpdateGradesRequest {
+        private Long rosterId;
+        private List<GradeService.GradeScores> grades;
     }
 
     @Data
@@ -228,5 +263,8 @@ public class GradeController {
         private Integer quarterlyExamTotal;
         private Double quarterlyExamPs;
         private Double quarterlyExamWs;
+
+        // ─── Optimistic-lock version ──────────────────────────────────────
+        private Long version;
     }
 }
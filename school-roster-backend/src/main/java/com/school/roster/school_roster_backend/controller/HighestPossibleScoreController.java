@@ -1,19 +1,25 @@
 package com.school.roster.school_roster_backend.controller;
 
 import com.school.roster.school_roster_backend.entity.HighestPossibleScore;
-import com.school.roster.school_roster_backend.entity.User;
 import com.school.roster.school_roster_backend.entity.enums.CategoryType;
 import com.school.roster.school_roster_backend.entity.enums.OperationType;
+import com.school.roster.school_roster_backend.security.AuthenticatedUser;
 import com.school.roster.school_roster_backend.service.HighestPossibleScoreService;
+import com.school.roster.school_roster_backend.service.HpsEditCoalescer;
+import com.school.roster.school_roster_backend.service.HpsPropagationJobService;
+import com.school.roster.school_roster_backend.service.RosterLockManager;
 import com.school.roster.school_roster_backend.service.RosterService;
-import com.school.roster.school_roster_backend.service.UserService;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+
 /**
  * Controller for all HighestPossibleScore (HPS) operations.
  * All endpoints accept exactly one @RequestBody DTO, defined as nested classes below.
@@ -25,7 +31,9 @@ public class HighestPossibleScoreController {
 
     private final HighestPossibleScoreService hpsService;
     private final RosterService rosterService;
-    private final UserService userService;
+    private final RosterLockManager rosterLockManager;
+    private final HpsPropagationJobService jobService;
+    private final HpsEditCoalescer hpsEditCoalescer;
 
     /**
      * View (fetch) the HPS for a given roster.
@@ -34,10 +42,7 @@ public class HighestPossibleScoreController {
      */
     @PostMapping("/view")
     @PreAuthorize("hasAnyRole('TEACHER', 'TEACHER_LEAD')")
-    public ResponseEntity<HighestPossibleScore> getHps(@RequestBody GetHpsRequest req, Authentication authentication) {
-        String userEmail = authentication.getName();
-        User currentUser = userService.getUserByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found."));
+    public ResponseEntity<HighestPossibleScore> getHps(@RequestBody GetHpsRequest req, @AuthenticationPrincipal AuthenticatedUser currentUser) {
         if (!rosterService.canEditRoster(req.getRosterId(), currentUser)) {
             throw new RuntimeException("Access denied: You are not allowed to update this roster.");
         }
@@ -54,18 +59,17 @@ public class HighestPossibleScoreController {
      *   - operation  (String: "ADD" | "REMOVE")
      *   - index      (Integer, used only for REMOVE)
      *   - maxScore   (Integer, used only for ADD)
+     *   - version    (Long, optional; rejected with 409 and the current HPS if stale)
      */
     @PostMapping("/slots")
     @PreAuthorize("hasAnyRole('TEACHER', 'TEACHER_LEAD')")
-    public ResponseEntity<HighestPossibleScore> changeSlot(@RequestBody SlotChangeRequest req, Authentication authentication) {
-        String userEmail = authentication.getName();
-        User currentUser = userService.getUserByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found."));
+    public ResponseEntity<HighestPossibleScore> changeSlot(@RequestBody SlotChangeRequest req, @AuthenticationPrincipal AuthenticatedUser currentUser) {
         if (!rosterService.canEditRoster(req.getRosterId(), currentUser)) {
             throw new RuntimeException("Access denied: You are not allowed to update this roster.");
         }
 
-        HighestPossibleScore updated = hpsService.updateSlot(req);
+        // Rapid clicks on the same roster are merged into one propagation; the roster lock is taken there
+        HighestPossibleScore updated = hpsEditCoalescer.submit(req);
         return ResponseEntity.ok(updated);
     }
 
@@ -75,16 +79,15 @@ public class HighestPossibleScoreController {
      */
     @PostMapping("/ps")
     @PreAuthorize("hasAnyRole('TEACHER', 'TEACHER_LEAD')")
-    public ResponseEntity<HighestPossibleScore> updatePs(@RequestBody UpdatePsRequest req, Authentication authentication) {
-        String userEmail = authentication.getName();
-        User currentUser = userService.getUserByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found."));
-        if (!rosterService.canEditRoster(req.getRosterId(), currentUser)) {
-            throw new RuntimeException("Access denied: You are not allowed to update this roster.");
-        }
-
-        HighestPossibleScore updated = hpsService.updatePs(req);
-        return ResponseEntity.ok(updated);
+    public ResponseEntity<HighestPossibleScore> updatePs(@RequestBody UpdatePsRequest req, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return rosterLockManager.withLock(req.getRosterId(), () -> {
+            if (!rosterService.canEditRoster(req.getRosterId(), currentUser)) {
+                throw new RuntimeException("Access denied: You are not allowed to update this roster.");
+            }
+
+            HighestPossibleScore updated = hpsService.updatePs(req);
+            return ResponseEntity.ok(updated);
+        });
     }
 
     /**
@@ -93,16 +96,81 @@ public class HighestPossibleScoreController {
      */
     @PostMapping("/ws")
     @PreAuthorize("hasAnyRole('TEACHER', 'TEACHER_LEAD')")
-    public ResponseEntity<HighestPossibleScore> updateWs(@RequestBody UpdateWsRequest req, Authentication authentication) {
-        String userEmail = authentication.getName();
-        User currentUser = userService.getUserByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found."));
-        if (!rosterService.canEditRoster(req.getRosterId(), currentUser)) {
+    public ResponseEntity<HighestPossibleScore> updateWs(@RequestBody UpdateWsRequest req, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return rosterLockManager.withLock(req.getRosterId(), () -> {
+            if (!rosterService.canEditRoster(req.getRosterId(), currentUser)) {
+                throw new RuntimeException("Access denied: You are not allowed to update this roster.");
+            }
+
+            HighestPossibleScore updated = hpsService.updateWs(req);
+            return ResponseEntity.ok(updated);
+        });
+    }
+
+    /**
+     * Asynchronous variants of /slots, /ps and /ws for large rosters.
+     * Same request bodies; respond 202 with a job immediately and propagate in the background.
+     * Poll /jobs/status with the returned jobId for progress and the resulting HPS.
+     */
+    @PostMapping("/slots/async")
+    @PreAuthorize("hasAnyRole('TEACHER', 'TEACHER_LEAD')")
+    public ResponseEntity<JobStatusResponse> changeSlotAsync(@RequestBody SlotChangeRequest req, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        requireEditAccess(req.getRosterId(), currentUser);
+        return accepted(jobService.submitSlotChange(req));
+    }
+
+    @PostMapping("/ps/async")
+    @PreAuthorize("hasAnyRole('TEACHER', 'TEACHER_LEAD')")
+    public ResponseEntity<JobStatusResponse> updatePsAsync(@RequestBody UpdatePsRequest req, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        requireEditAccess(req.getRosterId(), currentUser);
+        return accepted(jobService.submitPsChange(req));
+    }
+
+    @PostMapping("/ws/async")
+    @PreAuthorize("hasAnyRole('TEACHER', 'TEACHER_LEAD')")
+    public ResponseEntity<JobStatusResponse> updateWsAsync(@RequestBody UpdateWsRequest req, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        requireEditAccess(req.getRosterId(), currentUser);
+        return accepted(jobService.submitWsChange(req));
+    }
+
+    /**
+     * Status of a background HPS job.
+     * Request body: { "jobId": "..." }
+     * Response: status (QUEUED | RUNNING | SUCCEEDED | FAILED), grades processed / total,
+     * the updated HPS once SUCCEEDED, or the error once FAILED.
+     */
+    @PostMapping("/jobs/status")
+    @PreAuthorize("hasAnyRole('TEACHER', 'TEACHER_LEAD')")
+    public ResponseEntity<JobStatusResponse> getJobStatus(@RequestBody JobStatusRequest req, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        HpsPropagationJobService.HpsJob job = jobService.getJob(req.getJobId());
+        requireEditAccess(job.getRosterId(), currentUser);
+        return ResponseEntity.ok(toResponse(job));
+    }
+
+    private void requireEditAccess(Long rosterId, AuthenticatedUser currentUser) {
+        if (!rosterService.canEditRoster(rosterId, currentUser)) {
             throw new RuntimeException("Access denied: You are not allowed to update this roster.");
         }
+    }
 
-        HighestPossibleScore updated = hpsService.updateWs(req);
-        return ResponseEntity.ok(updated);
+    private ResponseEntity<JobStatusResponse> accepted(HpsPropagationJobService.HpsJob job) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(toResponse(job));
+    }
+
+    private JobStatusResponse toResponse(HpsPropagationJobService.HpsJob job) {
+        return new JobStatusResponse(
+                job.getJobId(),
+                job.getRosterId(),
+                job.getKind(),
+                job.getStatus().name(),
+                job.getProcessed(),
+                job.getTotal(),
+                job.getSubmittedAt(),
+                job.getStartedAt(),
+                job.getFinishedAt(),
+                job.getError(),
+                job.getResult()
+        );
     }
 
     // ────────────────────────────────────────────────────────────────────────────
@@ -121,6 +189,7 @@ public class HighestPossibleScoreController {
         private OperationType operation;  // "ADD" or "REMOVE"
         private Integer index;     // used only for REMOVE (0-based index)
         private Integer maxScore;  // used only for ADD (max value of new slot)
+        private Long version;      // optional: HPS version the client edited; 409 if it has moved on
     }
 
     @Data
@@ -138,4 +207,25 @@ public class HighestPossibleScoreController {
         private Double quizWs;
         private Double quarterlyExamWs;
     }
+
+    @Data
+    public static class JobStatusRequest {
+        private String jobId;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class JobStatusResponse {
+        private String jobId;
+        private Long rosterId;
+        private String kind;       // "SLOTS", "PS" or "WS"
+        private String status;     // "QUEUED", "RUNNING", "SUCCEEDED" or "FAILED"
+        private int processed;     // grades recalculated so far
+        private int total;         // grades in the roster (0 until the job starts)
+        private Instant submittedAt;
+        private Instant startedAt;
+        private Instant finishedAt;
+        private String error;
+        private HighestPossibleScore result;
+    }
 }
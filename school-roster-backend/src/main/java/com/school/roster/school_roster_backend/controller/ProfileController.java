@@ -3,6 +3,8 @@ package com.school.roster.school_roster_backend.controller;
 import com.school.roster.school_roster_backend.entity.NonStudentProfile;
 import com.school.roster.school_roster_backend.entity.StudentProfile;
 import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.security.AuthenticatedUser;
+import com.school.roster.school_roster_backend.service.KeysetPage;
 import com.school.roster.school_roster_backend.service.ProfileService;
 import com.school.roster.school_roster_backend.service.RosterService;
 import com.school.roster.school_roster_backend.service.UserService;
@@ -13,7 +15,7 @@ import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -33,13 +35,8 @@ public class ProfileController {
     @PreAuthorize("hasAnyRole('TEACHER','TEACHER_LEAD','ADMINISTRATOR','ADMIN')")
     public ResponseEntity<StudentProfile> createStudentProfile(
             @RequestBody CreateStudentProfileRequest request,
-            Authentication authentication) {
-
-        // 1) Lookup the logged‐in user
-        String loggedInEmail = authentication.getName();
-        User loggedInUser = userService.getUserByEmail(loggedInEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @AuthenticationPrincipal AuthenticatedUser loggedInUser) {
+        // 1) The logged‐in user comes from the token
         // 2) Enforce roles at runtime too (defense in depth)
         if (!userService.hasAnyRole(loggedInUser, "TEACHER", "TEACHER_LEAD", "ADMINISTRATOR", "ADMIN")) {
             throw new RuntimeException("Access denied: insufficient permissions");
@@ -57,11 +54,7 @@ public class ProfileController {
     // === Update Student Profile ===
     @PutMapping("/student/update")
     @PreAuthorize("hasAnyRole('TEACHER','TEACHER_LEAD','ADMINISTRATOR','ADMIN')")
-    public ResponseEntity<StudentProfile> updateStudentProfile(@RequestBody UpdateStudentProfileRequest request, Authentication authentication) {
-        String loggedInEmail = authentication.getName();
-        User loggedInUser = userService.getUserByEmail(loggedInEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public ResponseEntity<StudentProfile> updateStudentProfile(@RequestBody UpdateStudentProfileRequest request, @AuthenticationPrincipal AuthenticatedUser loggedInUser) {
         if (!userService.hasAnyRole(loggedInUser, "TEACHER", "TEACHER_LEAD", "ADMINISTRATOR", "ADMIN")) {
             throw new RuntimeException("Access denied: insufficient permissions");
         }
@@ -80,11 +73,7 @@ public class ProfileController {
 
     @GetMapping("/student/list")
     @PreAuthorize("hasAnyRole('TEACHER','TEACHER_LEAD','ADMINISTRATOR','ADMIN')")
-    public ResponseEntity<List<StudentListItem>> getAllStudents(Authentication authentication) {
-        String loggedInEmail = authentication.getName();
-        User loggedInUser = userService.getUserByEmail(loggedInEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public ResponseEntity<List<StudentListItem>> getAllStudents(@AuthenticationPrincipal AuthenticatedUser loggedInUser) {
         if (!userService.hasAnyRole(loggedInUser, "TEACHER", "TEACHER_LEAD", "ADMINISTRATOR", "ADMIN")) {
             throw new RuntimeException("Access denied: insufficient permissions");
         }
@@ -99,12 +88,9 @@ public class ProfileController {
     @PostMapping("/nonstudent/create")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<NonStudentProfile> createNonStudentProfile(
-            Authentication authentication,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @RequestBody CreateNonStudentProfileRequest request
     ) {
-        User currentUser = userService.getUserByEmail(authentication.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
         boolean isAdmin = userService.hasAnyRole(currentUser,
                 "ADMIN", "ADMINISTRATOR", "OFFICE_ADMINISTRATOR");
 
@@ -129,11 +115,7 @@ public class ProfileController {
     // === Update Non-Student Profile ===
     @PutMapping("/nonstudent/update")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<NonStudentProfile> updateNonStudentProfile(@RequestBody UpdateNonStudentProfileRequest request, Authentication authentication) {
-        String loggedInEmail = authentication.getName();
-        User loggedInUser = userService.getUserByEmail(loggedInEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public ResponseEntity<NonStudentProfile> updateNonStudentProfile(@RequestBody UpdateNonStudentProfileRequest request, @AuthenticationPrincipal AuthenticatedUser loggedInUser) {
         if (!userService.hasAnyRole(loggedInUser, "ADMIN", "ADMINISTRATOR") &&
                 !request.getUpdatedProfile().getLinkedUser().getId().equals(loggedInUser.getId())) {
             throw new RuntimeException("Access denied: You can only update your own non-student profile.");
@@ -175,22 +157,21 @@ public class ProfileController {
         return ResponseEntity.ok(profile);
     }
 
-    // === Get All Profiles ===
-    @GetMapping("/getAll")
+    // === Keyset-paginated listing: pass nextCursor back as "after" for the next page ===
+    @GetMapping("/page")
     @PreAuthorize("hasAnyRole('ADMIN', 'ADMINISTRATOR', 'OFFICE_ADMINISTRATOR')")
-    public ResponseEntity<List<Object>> getAllProfiles() {
-        List<Object> profiles = profileService.getAllProfiles();
-        return ResponseEntity.ok(profiles);
+    public ResponseEntity<KeysetPage<ProfileListItem>> getProfilePage(
+            @RequestParam(required = false) String gradeLevel,
+            @RequestParam(required = false) String namePrefix,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(profileService.getProfilePage(gradeLevel, namePrefix, after, size));
     }
 
     // === Get My Profile ===
     @GetMapping("/getMyProfile")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<Object> getMyProfile(Authentication authentication) {
-        String loggedInEmail = authentication.getName();
-        User user = userService.getUserByEmail(loggedInEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public ResponseEntity<Object> getMyProfile(@AuthenticationPrincipal AuthenticatedUser user) {
         Object profile = profileService.getProfileByUserId(user.getId());
         return ResponseEntity.ok(profile);
     }
@@ -244,4 +225,16 @@ public class ProfileController {
         private String fullName;
         private String photoUrl;
     }
+
+    @Data
+    @AllArgsConstructor
+    public static class ProfileListItem {
+        private String type; // STUDENT or NON_STUDENT
+        private Long profileId;
+        private String userId;
+        private String firstName;
+        private String middleName;
+        private String lastName;
+        private String gradeLevel;
+    }
 }
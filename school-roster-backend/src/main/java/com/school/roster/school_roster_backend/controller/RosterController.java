@@ -2,18 +2,23 @@ package com.school.roster.school_roster_backend.controller;
 
 import com.school.roster.school_roster_backend.entity.Grade;
 import com.school.roster.school_roster_backend.entity.Roster;
-import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.security.AuthenticatedUser;
+import com.school.roster.school_roster_backend.service.KeysetPage;
+import com.school.roster.school_roster_backend.service.RosterLockManager;
 import com.school.roster.school_roster_backend.service.RosterService;
-import com.school.roster.school_roster_backend.service.UserService;
+import com.school.roster.school_roster_backend.service.RosterViewService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -22,26 +27,19 @@ import java.util.stream.Collectors;
 public class RosterController {
 
     private final RosterService rosterService;
-    private final UserService userService;
+    private final RosterLockManager rosterLockManager;
+    private final RosterViewService rosterViewService;
 
     @PostMapping("/create")
     @PreAuthorize("hasAnyRole('TEACHER', 'TEACHER_LEAD')")
-    public ResponseEntity<Roster> createRoster(@RequestBody Roster roster, Authentication authentication) {
-        String userEmail = authentication.getName();
-        User teacher = userService.getUserByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("Teacher not found."));
-
+    public ResponseEntity<Roster> createRoster(@RequestBody Roster roster, @AuthenticationPrincipal AuthenticatedUser teacher) {
         Roster created = rosterService.createRoster(roster, teacher.getId());
         return ResponseEntity.ok(created);
     }
 
     @PutMapping("/update")
     @PreAuthorize("hasAnyRole('TEACHER', 'TEACHER_LEAD')")
-    public ResponseEntity<Roster> updateRoster(@RequestBody UpdateRosterRequest request, Authentication authentication) {
-        String userEmail = authentication.getName();
-        User currentUser = userService.getUserByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found."));
-
+    public ResponseEntity<Roster> updateRoster(@RequestBody UpdateRosterRequest request, @AuthenticationPrincipal AuthenticatedUser currentUser) {
         if (!rosterService.canEditRoster(request.getRosterId(), currentUser)) {
             throw new RuntimeException("Access denied: You are not allowed to update this roster.");
         }
@@ -52,47 +50,41 @@ public class RosterController {
 
     @DeleteMapping("/delete")
     @PreAuthorize("hasAnyRole('TEACHER', 'TEACHER_LEAD')")
-    public ResponseEntity<String> deleteRoster(@RequestBody IdRequest request, Authentication authentication) {
-        String userEmail = authentication.getName();
-        User currentUser = userService.getUserByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found."));
+    public ResponseEntity<String> deleteRoster(@RequestBody IdRequest request, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return rosterLockManager.withLock(request.getId(), () -> {
+            if (!rosterService.canEditRoster(request.getId(), currentUser)) {
+                throw new RuntimeException("Access denied: You are not allowed to delete this roster.");
+            }
 
-        if (!rosterService.canEditRoster(request.getId(), currentUser)) {
-            throw new RuntimeException("Access denied: You are not allowed to delete this roster.");
-        }
-
-        rosterService.deleteRoster(request.getId());
-        return ResponseEntity.ok("Roster deleted successfully.");
+            rosterService.deleteRoster(request.getId());
+            return ResponseEntity.ok("Roster deleted successfully.");
+        });
     }
 
     @PostMapping("/addStudent")
     @PreAuthorize("hasAnyRole('TEACHER', 'TEACHER_LEAD')")
-    public ResponseEntity<Roster> addStudentToRoster(@RequestBody AddStudentRequest request, Authentication authentication) {
-        String userEmail = authentication.getName();
-        User currentUser = userService.getUserByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found."));
-
-        if (!rosterService.canEditRoster(request.getRosterId(), currentUser)) {
-            throw new RuntimeException("Access denied: You are not allowed to add students to this roster.");
-        }
+    public ResponseEntity<Roster> addStudentToRoster(@RequestBody AddStudentRequest request, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return rosterLockManager.withLock(request.getRosterId(), () -> {
+            if (!rosterService.canEditRoster(request.getRosterId(), currentUser)) {
+                throw new RuntimeException("Access denied: You are not allowed to add students to this roster.");
+            }
 
-        Roster updated = rosterService.addStudentToRoster(request.getRosterId(), request.getStudentId());
-        return ResponseEntity.ok(updated);
+            Roster updated = rosterService.addStudentToRoster(request.getRosterId(), request.getStudentId());
+            return ResponseEntity.ok(updated);
+        });
     }
 
     @PostMapping("/removeStudent")
     @PreAuthorize("hasAnyRole('TEACHER', 'TEACHER_LEAD')")
-    public ResponseEntity<Roster> removeStudentFromRoster(@RequestBody AddStudentRequest request, Authentication authentication) {
-        String userEmail = authentication.getName();
-        User currentUser = userService.getUserByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found."));
-
-        if (!rosterService.canEditRoster(request.getRosterId(), currentUser)) {
-            throw new RuntimeException("Access denied: You are not allowed to remove students from this roster.");
-        }
+    public ResponseEntity<Roster> removeStudentFromRoster(@RequestBody AddStudentRequest request, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return rosterLockManager.withLock(request.getRosterId(), () -> {
+            if (!rosterService.canEditRoster(request.getRosterId(), currentUser)) {
+                throw new RuntimeException("Access denied: You are not allowed to remove students from this roster.");
+            }
 
-        Roster updated = rosterService.removeStudentFromRoster(request.getRosterId(), request.getStudentId());
-        return ResponseEntity.ok(updated);
+            Roster updated = rosterService.removeStudentFromRoster(request.getRosterId(), request.getStudentId());
+            return ResponseEntity.ok(updated);
+        });
     }
 
     @PostMapping("/reassignTeacher")
@@ -104,53 +96,61 @@ public class RosterController {
 
     @PostMapping("/getById")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<RosterResponse> getRosterById(@RequestBody IdRequest request, Authentication authentication) {
-        String userEmail = authentication.getName();
-        User currentUser = userService.getUserByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found."));
-
+    public ResponseEntity<RosterResponse> getRosterById(@RequestBody IdRequest request, @AuthenticationPrincipal AuthenticatedUser currentUser) {
         if (!rosterService.canViewRoster(request.getId(), currentUser)) {
             throw new RuntimeException("Access denied: You are not allowed to view this roster.");
         }
 
-        Roster roster = rosterService.getRosterById(request.getId());
-        return ResponseEntity.ok(buildRosterResponse(roster));
+        return ResponseEntity.ok(rosterViewService.getRosterView(request.getId()));
     }
 
 
     @PostMapping("/getByStudent")
     @PreAuthorize("hasRole('STUDENT')")
-    public ResponseEntity<List<RosterResponse>> getRostersByStudent(Authentication authentication) {
-        String userEmail = authentication.getName();
-        User student = userService.getUserByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("Student not found."));
-
-        List<Roster> rosters = rosterService.getRostersByStudentId(student.getId());
-        return ResponseEntity.ok(rosters.stream().map(this::buildRosterResponse).collect(Collectors.toList()));
+    public ResponseEntity<List<RosterResponse>> getRostersByStudent(@AuthenticationPrincipal AuthenticatedUser student) {
+        return ResponseEntity.ok(rosterViewService.getRosterViewsByStudentId(student.getId()));
     }
 
 
     @PostMapping("/getByTeacher")
     @PreAuthorize("hasAnyRole('TEACHER', 'TEACHER_LEAD')")
-    public ResponseEntity<List<RosterResponse>> getRostersByTeacher(Authentication authentication) {
-        String userEmail = authentication.getName();
-        User teacher = userService.getUserByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("Teacher not found."));
-
-        List<Roster> rosters = rosterService.getRostersByTeacherId(teacher.getId());
-        return ResponseEntity.ok(rosters.stream().map(this::buildRosterResponse).collect(Collectors.toList()));
+    public ResponseEntity<List<RosterResponse>> getRostersByTeacher(@AuthenticationPrincipal AuthenticatedUser teacher) {
+        return ResponseEntity.ok(rosterViewService.getRosterViewsByTeacherId(teacher.getId()));
     }
 
 
+    // === Deprecated: capped at the first 1000 rosters; kept only until the frontend moves to /page ===
+    @Deprecated
     @GetMapping("/getAll")
     @PreAuthorize("hasAnyRole('ADMIN', 'ADMINISTRATOR', 'OFFICE_ADMINISTRATOR')")
     public ResponseEntity<List<RosterResponse>> getAllRosters() {
-        List<Roster> rosters = rosterService.getAllRosters();
-        return ResponseEntity.ok(rosters.stream().map(this::buildRosterResponse).collect(Collectors.toList()));
+        return ResponseEntity.ok()
+                .header("Deprecation", "true")
+                .header(HttpHeaders.LINK, "</api/rosters/page>; rel=\"successor-version\"")
+                .body(rosterViewService.getAllRosterViews());
+    }
+
+    // === Keyset-paginated listing: pass nextCursor back as "after" for the next page ===
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'ADMINISTRATOR', 'OFFICE_ADMINISTRATOR')")
+    public ResponseEntity<KeysetPage<RosterResponse>> getRosterPage(
+            @RequestParam(required = false) String gradeLevel,
+            @RequestParam(required = false) String subject,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(rosterViewService.getRosterViewPage(gradeLevel, subject, after, size));
     }
 
     // === Build Response ===
+    // From an already-loaded entity graph; the read endpoints use RosterViewService instead
     public RosterResponse buildRosterResponse(Roster roster) {
+        Map<String, Grade> gradesByStudent = new HashMap<>();
+        for (Grade grade : roster.getGrades()) {
+            if (grade.getStudent() != null) {
+                gradesByStudent.putIfAbsent(grade.getStudent().getId(), grade);
+            }
+        }
+
         return new RosterResponse(
                 roster.getId(),
                 roster.getSubjectName(),
@@ -163,10 +163,7 @@ public class RosterController {
                 roster.getTeacher() != null && roster.getTeacher().getNonStudentProfile() != null ? roster.getTeacher().getNonStudentProfile().getLastName() : null,
                 roster.getTeacher() != null && roster.getTeacher().getNonStudentProfile() != null ? roster.getTeacher().getNonStudentProfile().getProfilePicture() : null,
                 roster.getStudents().stream().map(student -> {
-                    Grade grade = roster.getGrades().stream()
-                            .filter(g -> g.getStudent() != null && g.getStudent().getId().equals(student.getId()))
-                            .findFirst()
-                            .orElse(null);
+                    Grade grade = gradesByStudent.get(student.getId());
                     return new StudentInfo(
                             student.getId(),
                             student.getStudentProfile() != null ? student.getStudentProfile().getProfilePicture() : null,
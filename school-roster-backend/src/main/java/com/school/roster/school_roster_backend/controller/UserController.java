@@ -2,18 +2,22 @@ package com.school.roster.school_roster_backend.controller;
 
 import com.school.roster.school_roster_backend.entity.User;
 import com.school.roster.school_roster_backend.entity.enums.Role;
+import com.school.roster.school_roster_backend.security.AuthenticatedUser;
+import com.school.roster.school_roster_backend.service.KeysetPage;
 import com.school.roster.school_roster_backend.service.ProfileService;
+import com.school.roster.school_roster_backend.service.RosterLockManager;
 import com.school.roster.school_roster_backend.service.UserService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.security.core.Authentication;
 
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/users")
@@ -22,13 +26,17 @@ public class UserController {
 
     private final UserService userService;
     private final ProfileService profileService;
+    private final RosterLockManager rosterLockManager;
 
-    // === Get All Users ===
-    @GetMapping
+    // === Keyset-paginated listing: pass nextCursor back as "after" for the next page ===
+    @GetMapping("/page")
     @PreAuthorize("hasAnyRole('ADMIN', 'ADMINISTRATOR', 'OFFICE_ADMINISTRATOR')")
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<KeysetPage<UserPageItem>> getUserPage(
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String namePrefix,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(userService.getUserPage(role, namePrefix, after, size));
     }
 
     // === Get User by ID ===
@@ -52,17 +60,20 @@ public class UserController {
     @DeleteMapping("/delete")
     @PreAuthorize("hasAnyRole('ADMIN', 'ADMINISTRATOR', 'OFFICE_ADMINISTRATOR')")
     public ResponseEntity<String> deleteUser(@RequestBody IdRequest request) {
-        userService.deleteUser(request.getId());
+        // Locks every roster whose GPA totals and membership the delete changes, in roster ID order
+        rosterLockManager.withLocks(userService.getRosterIdsForStudent(request.getId()), () -> {
+            userService.deleteUser(request.getId());
+            return null;
+        });
         return ResponseEntity.ok("User deleted successfully.");
     }
 
     // === Get Logged-in User Info ===
     @PostMapping("/getMyUser")
-    public ResponseEntity<User> getMyUser(Authentication authentication) {
-        String email = authentication.getName(); // From the JWT token
-
-        User user = userService.getUserByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
+    public ResponseEntity<User> getMyUser(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        // The full entity is the payload here, so load it; by primary key from the token, not by email
+        User user = userService.getUserById(currentUser.getId())
+                .orElseThrow(() -> new RuntimeException("User not found with email: " + currentUser.getEmail()));
 
         return ResponseEntity.ok(user);
     }
@@ -121,4 +132,15 @@ public class UserController {
         private String middleName;
         private String lastName;
     }
+
+    @Data
+    @AllArgsConstructor
+    public static class UserPageItem {
+        private String id;
+        private String email;
+        private Set<Role> roles;
+        private String firstName;
+        private String middleName;
+        private String lastName;
+    }
 }
@@ -5,6 +5,7 @@ import com.school.roster.school_roster_backend.entity.embedded.ScoreDetails;
 import com.school.roster.school_roster_backend.entity.enums.StudentGradeStatus;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -22,12 +23,12 @@ public class Grade {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id")
     @JsonBackReference(value = "student-grades")
     private User student;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "roster_id")
     @JsonBackReference(value = "roster-grades")
     private Roster roster;
@@ -39,4 +40,10 @@ public class Grade {
 
     @Enumerated(EnumType.STRING)
     private StudentGradeStatus finalStatus;
+
+    // Optimistic lock; existing rows start at 0 when the column is added
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
@@ -5,6 +5,7 @@ import com.school.roster.school_roster_backend.entity.embedded.ScoreDetails;
 import lombok.Data;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 /**
  * Entity representing the Highest Possible Score for a Roster.
@@ -31,6 +32,12 @@ public class HighestPossibleScore {
     @Embedded
     private ScoreDetails scoreDetails = new ScoreDetails();
 
+    // Optimistic lock; existing rows start at 0 when the column is added
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     public HighestPossibleScore() {
         // Default constructor
     }
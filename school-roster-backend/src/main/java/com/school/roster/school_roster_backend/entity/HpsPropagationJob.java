@@ -0,0 +1,66 @@
+package com.school.roster.school_roster_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Status row of one background HPS propagation job, shared by every application node so a status
+ * poll can land on any of them; see
+ * {@link com.school.roster.school_roster_backend.service.HpsPropagationJobService}.
+ */
+@Entity
+@Table(name = "hps_propagation_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+public class HpsPropagationJob {
+
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    public static final int MAX_ERROR_LENGTH = 1000;
+
+    @Id
+    @Column(name = "job_id", length = 36)
+    private String jobId;
+
+    @Column(name = "roster_id", nullable = false)
+    private Long rosterId;
+
+    @Column(name = "kind", length = 8, nullable = false)
+    private String kind;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 16, nullable = false)
+    private Status status;
+
+    private int processed;
+
+    private int total;
+
+    @Column(name = "submitted_at", nullable = false)
+    private Instant submittedAt;
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @Column(name = "error", length = MAX_ERROR_LENGTH)
+    private String error;
+
+    public HpsPropagationJob(String jobId, Long rosterId, String kind) {
+        this.jobId = jobId;
+        this.rosterId = rosterId;
+        this.kind = kind;
+        this.status = Status.QUEUED;
+        this.submittedAt = Instant.now();
+    }
+
+    // Exception messages (SQL errors especially) can be longer than the column
+    public void setError(String error) {
+        this.error = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
@@ -10,7 +10,12 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Entity
-@Table(name = "non_student_profiles")
+@Table(name = "non_student_profiles", indexes = {
+        // Keyset listing filters (NonStudentProfileRepository.findListPage)
+        @Index(name = "idx_non_student_profiles_grade_level", columnList = "grade_level, id"),
+        @Index(name = "idx_non_student_profiles_last_name", columnList = "last_name"),
+        @Index(name = "idx_non_student_profiles_first_name", columnList = "first_name")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -1,20 +1,30 @@
 package com.school.roster.school_roster_backend.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.school.roster.school_roster_backend.entity.embedded.GradeArithmetic;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @Entity
-@Table(name = "rosters")
+@Table(name = "rosters", indexes = {
+        // Keyset listing filters (RosterRepository.findViewHeadersPage)
+        @Index(name = "idx_rosters_grade_level", columnList = "grade_level, id"),
+        @Index(name = "idx_rosters_subject_name", columnList = "subject_name")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@DynamicUpdate
 public class Roster {
 
     @Id
@@ -36,10 +46,15 @@ public class Roster {
     @JoinTable(
             name = "roster_students",
             joinColumns = @JoinColumn(name = "roster_id"),
-            inverseJoinColumns = @JoinColumn(name = "student_id")
+            inverseJoinColumns = @JoinColumn(name = "student_id"),
+            // student → rosters lookups (getByStudent) read this index only
+            indexes = @Index(name = "idx_roster_students_student", columnList = "student_id, roster_id")
     )
+    // A set, not a bag: adding or removing one student writes one join-table row
+    // instead of deleting and re-inserting the roster's whole membership
+    @OrderBy("id")
     @JsonBackReference(value = "student-rosters")
-    private List<User> students = new ArrayList<>();
+    private Set<User> students = new LinkedHashSet<>();
 
     @OneToOne(
             mappedBy = "roster",
@@ -54,5 +69,39 @@ public class Roster {
     @JsonManagedReference(value = "roster-grades")
     private List<Grade> grades = new ArrayList<>();
 
+    // classGpa and its running totals are written only by RosterRepository's atomic updates
+    // (see RosterService.applyGradeDelta), never by flushing this entity, so a stale copy held by
+    // one request cannot overwrite a delta committed by another
+    @Column(updatable = false)
     private Float classGpa;
+
+    // Running totals behind classGpa, so a single grade change is an O(1) delta
+    // instead of re-averaging the whole grades collection (null until first reconciled)
+    @JsonIgnore
+    @Column(updatable = false)
+    private Double initialGradeSum;
+
+    @JsonIgnore
+    @Column(updatable = false)
+    private Integer gradeCount;
+
+    // Bumped only by RosterRepository.bumpMembershipVersion whenever the roster's teacher or students
+    // change; RosterMembershipIndex on every node polls it to decide whether to reload membership
+    @JsonIgnore
+    @Column(name = "membership_version", nullable = false, updatable = false)
+    private long membershipVersion;
+
+    /**
+     * Set the running totals and classGpa in memory: initial values before the first insert, or
+     * mirroring what RosterRepository just wrote (the columns are not updatable through the entity).
+     */
+    public void resetGradeTotals(double sum, long count) {
+        resetGradeTotals(sum, count, GradeArithmetic.DOUBLE);
+    }
+
+    public void resetGradeTotals(double sum, long count, GradeArithmetic arithmetic) {
+        this.gradeCount = (int) count;
+        this.initialGradeSum = count > 0 ? sum : 0.0;
+        this.classGpa = arithmetic.classGpa(this.initialGradeSum, count);
+    }
 }
@@ -3,10 +3,12 @@ package com.school.roster.school_roster_backend.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.school.roster.school_roster_backend.entity.enums.Role;
+import com.school.roster.school_roster_backend.security.UserIdentity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.springframework.data.domain.Persistable;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -20,7 +22,7 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class User {
+public class User implements Persistable<String>, UserIdentity {
 
     @Id
     @Column(name = "id", unique = true, nullable = false, length = 12)
@@ -36,6 +38,8 @@ public class User {
     private String password;
 
     @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"),
+            indexes = @Index(name = "idx_user_roles_role", columnList = "roles, user_id"))
     @Enumerated(EnumType.STRING)
     private Set<Role> roles = new HashSet<>();
 
@@ -62,4 +66,25 @@ public class User {
             inverseJoinColumns = @JoinColumn(name = "teacher_id")
     )
     private List<User> assignedTeachers = new ArrayList<>();
+
+    // IDs are assigned before saving, so Spring Data cannot tell a new user from its ID; without this
+    // save() would merge (a SELECT first) and could overwrite an existing row with the same ID
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Builder.Default
+    private boolean persisted = false;
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
 }
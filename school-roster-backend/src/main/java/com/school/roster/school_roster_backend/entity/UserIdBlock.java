@@ -0,0 +1,30 @@
+package com.school.roster.school_roster_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Shared counter behind user ID allocation. Each application node leases a block of counter
+ * values from this row and turns them into IDs locally; see
+ * {@link com.school.roster.school_roster_backend.service.UserIdAllocator}.
+ */
+@Entity
+@Table(name = "user_id_blocks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserIdBlock {
+
+    @Id
+    @Column(name = "name", length = 32)
+    private String name;
+
+    // First counter value not yet leased to any node
+    @Column(name = "next_value", nullable = false)
+    private long nextValue;
+
+    // Generated with the row and never changed: a new key would map old counter values to new IDs
+    @Column(name = "permutation_key", nullable = false)
+    private long permutationKey;
+}
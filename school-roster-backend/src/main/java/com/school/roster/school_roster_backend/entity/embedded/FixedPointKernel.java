@@ -0,0 +1,54 @@
+package com.school.roster.school_roster_backend.entity.embedded;
+
+/**
+ * Grade arithmetic in integer hundredths (85.37 is held as 8537), used by {@link GradeArithmetic#FIXED_POINT}.
+ *
+ * Each stage divides exact integers once and rounds half-up, instead of rounding a double product
+ * at every stage; values only become doubles again at the entity/API boundary.
+ */
+public final class FixedPointKernel {
+
+    private static final long HUNDRED_PERCENT_SQUARED = 100L * 100L;
+
+    private FixedPointKernel() {
+    }
+
+    public static long toHundredths(double value) {
+        return Math.round(value * 100.0);
+    }
+
+    public static double fromHundredths(long hundredths) {
+        return hundredths / 100.0;
+    }
+
+    /**
+     * ps = (gradeTotal / hpsTotal) * hpsPs, in hundredths; 0 when the HPS total is 0.
+     */
+    public static long ps(int gradeTotal, int hpsTotal, long hpsPsHundredths) {
+        if (hpsTotal == 0) {
+            return 0L;
+        }
+        return divideHalfUp(gradeTotal * hpsPsHundredths, hpsTotal);
+    }
+
+    /**
+     * ws = ps × (hpsWs ÷ 100), in hundredths.
+     */
+    public static long ws(long psHundredths, long hpsWsHundredths) {
+        return divideHalfUp(psHundredths * hpsWsHundredths, HUNDRED_PERCENT_SQUARED);
+    }
+
+    /**
+     * Mean of {@code count} values summing to {@code sumHundredths}, in hundredths; 0 for no values.
+     */
+    public static long average(long sumHundredths, long count) {
+        return count > 0 ? divideHalfUp(sumHundredths, count) : 0L;
+    }
+
+    /**
+     * round(numerator / denominator) with ties towards positive infinity, like Math.round; denominator > 0.
+     */
+    static long divideHalfUp(long numerator, long denominator) {
+        return Math.floorDiv(2 * numerator + denominator, 2 * denominator);
+    }
+}
@@ -0,0 +1,50 @@
+package com.school.roster.school_roster_backend.entity.embedded;
+
+/**
+ * How ps → ws → initialGrade and class GPA are computed (property {@code grading.arithmetic}).
+ *
+ * DOUBLE rounds a double to two decimals at every stage (the original behaviour); FIXED_POINT holds
+ * every percentage and weight as integer hundredths end to end. Both round at the same stages, but
+ * DOUBLE rounds a binary product that can land just below an exact .005 tie, so the two can differ by
+ * 0.01 per stage. Those differences add up: initialGrade can differ by up to 0.03 (one hundredth per
+ * category), and so finalStatus can differ for a grade within 0.03 of a status threshold. Switching
+ * an existing school over therefore needs a full recalculation, not a mix of old and new grades.
+ */
+public enum GradeArithmetic {
+
+    DOUBLE {
+        @Override
+        public double recalculate(ScoreDetails grade, ScoreDetails hps) {
+            grade.recalcPs(hps);
+            grade.recalcWs(hps);
+            return grade.initialGrade();
+        }
+
+        @Override
+        public float classGpa(double initialGradeSum, long gradeCount) {
+            double avg = gradeCount > 0 ? initialGradeSum / gradeCount : 0.0;
+            return (float) ScoreKernel.round2(avg);
+        }
+    },
+
+    FIXED_POINT {
+        @Override
+        public double recalculate(ScoreDetails grade, ScoreDetails hps) {
+            return FixedPointKernel.fromHundredths(grade.recalcInHundredths(hps));
+        }
+
+        @Override
+        public float classGpa(double initialGradeSum, long gradeCount) {
+            // initialGrades are whole hundredths, so their sum converts back exactly
+            long sum = FixedPointKernel.toHundredths(initialGradeSum);
+            return (float) FixedPointKernel.fromHundredths(FixedPointKernel.average(sum, gradeCount));
+        }
+    };
+
+    /**
+     * Recalculate ps and ws of {@code grade} (totals must be current) and return its initialGrade.
+     */
+    public abstract double recalculate(ScoreDetails grade, ScoreDetails hps);
+
+    public abstract float classGpa(double initialGradeSum, long gradeCount);
+}
@@ -0,0 +1,128 @@
+package com.school.roster.school_roster_backend.entity.embedded;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Growable list of scores backed by a primitive {@code int[]} instead of boxed Integers.
+ * Persisted as a single binary column through {@link PackedScoresConverter}.
+ */
+public final class PackedScores extends AbstractList<Integer> implements RandomAccess, Serializable {
+
+    private static final int[] EMPTY = new int[0];
+
+    private int[] values;
+    private int size;
+
+    public PackedScores() {
+        this.values = EMPTY;
+    }
+
+    private PackedScores(int[] values, int size) {
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * Copy any list of scores (null is treated as an empty list).
+     */
+    public static PackedScores copyOf(Collection<? extends Integer> scores) {
+        if (scores == null || scores.isEmpty()) {
+            return new PackedScores();
+        }
+        if (scores instanceof PackedScores packed) {
+            return new PackedScores(Arrays.copyOf(packed.values, packed.size), packed.size);
+        }
+        int[] copy = new int[scores.size()];
+        int i = 0;
+        for (Integer score : scores) {
+            copy[i++] = Objects.requireNonNull(score, "score must not be null");
+        }
+        return new PackedScores(copy, copy.length);
+    }
+
+    /**
+     * Take ownership of {@code values[0..size)} without copying (used by the converter).
+     */
+    static PackedScores wrap(int[] values, int size) {
+        return new PackedScores(values, size);
+    }
+
+    public static PackedScores of(int... scores) {
+        return new PackedScores(Arrays.copyOf(scores, scores.length), scores.length);
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    public int getInt(int index) {
+        Objects.checkIndex(index, size);
+        return values[index];
+    }
+
+    @Override
+    public Integer set(int index, Integer score) {
+        Objects.checkIndex(index, size);
+        int previous = values[index];
+        values[index] = Objects.requireNonNull(score, "score must not be null");
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Integer score) {
+        Objects.checkIndex(index, size + 1);
+        int value = Objects.requireNonNull(score, "score must not be null");
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(4, size * 2));
+        }
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public Integer remove(int index) {
+        Objects.checkIndex(index, size);
+        int previous = values[index];
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        modCount++;
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Sum of all scores, without boxing.
+     */
+    public int sum() {
+        return ScoreKernel.sum(values, size);
+    }
+
+    /**
+     * Clamp each score into [0, max] of the matching slot in {@code maxScores}, in place.
+     */
+    public void clampTo(PackedScores maxScores) {
+        ScoreKernel.clamp(values, size, maxScores.values, maxScores.size);
+    }
+
+    public int[] toIntArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
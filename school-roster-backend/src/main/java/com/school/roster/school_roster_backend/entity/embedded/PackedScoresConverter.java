@@ -0,0 +1,72 @@
+package com.school.roster.school_roster_backend.entity.embedded;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Stores a {@link PackedScores} list in one binary column instead of an element-collection table.
+ *
+ * Layout: one format byte, then each score as a zig-zag varint (scores 0..63 take one byte).
+ * An empty list is written as the format byte alone; a NULL column reads back as an empty list.
+ */
+@Converter
+public class PackedScoresConverter implements AttributeConverter<PackedScores, byte[]> {
+
+    static final byte FORMAT_VARINT = 1;
+
+    @Override
+    public byte[] convertToDatabaseColumn(PackedScores scores) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 + (scores == null ? 0 : scores.size()));
+        out.write(FORMAT_VARINT);
+        if (scores != null) {
+            for (int i = 0; i < scores.size(); i++) {
+                writeVarint(out, zigZag(scores.getInt(i)));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public PackedScores convertToEntityAttribute(byte[] column) {
+        if (column == null || column.length == 0) {
+            return new PackedScores();
+        }
+        if (column[0] != FORMAT_VARINT) {
+            throw new IllegalStateException("Unknown packed score format: " + column[0]);
+        }
+
+        // Every score takes at least one byte, so this is an upper bound
+        int[] values = new int[column.length - 1];
+        int count = 0;
+        int pos = 1;
+        while (pos < column.length) {
+            int raw = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (pos >= column.length) {
+                    throw new IllegalStateException("Truncated packed score column");
+                }
+                b = column[pos++];
+                raw |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            values[count++] = (raw >>> 1) ^ -(raw & 1);
+        }
+        return PackedScores.wrap(values, count);
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
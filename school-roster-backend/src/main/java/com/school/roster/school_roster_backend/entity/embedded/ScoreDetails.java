@@ -1,9 +1,9 @@
 package com.school.roster.school_roster_backend.entity.embedded;
 
-import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import lombok.Data;
 import jakarta.persistence.Embeddable;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -13,14 +13,21 @@ import java.util.List;
 @Data
 public class ScoreDetails {
 
-    @ElementCollection
-    private List<Integer> performanceScores = new ArrayList<>();
+    private static final int PACKED_COLUMN_LENGTH = 1024;
 
-    @ElementCollection
-    private List<Integer> quizScores = new ArrayList<>();
+    // Each category is packed into one binary column on the owning row (see PackedScoresConverter)
+    // rather than an @ElementCollection table; legacy tables are copied over by LegacyScoreMigration.
+    @Convert(converter = PackedScoresConverter.class)
+    @Column(name = "performance_scores", length = PACKED_COLUMN_LENGTH)
+    private PackedScores performanceScores = new PackedScores();
 
-    @ElementCollection
-    private List<Integer> quarterlyExamScores = new ArrayList<>();
+    @Convert(converter = PackedScoresConverter.class)
+    @Column(name = "quiz_scores", length = PACKED_COLUMN_LENGTH)
+    private PackedScores quizScores = new PackedScores();
+
+    @Convert(converter = PackedScoresConverter.class)
+    @Column(name = "quarterly_exam_scores", length = PACKED_COLUMN_LENGTH)
+    private PackedScores quarterlyExamScores = new PackedScores();
 
     private Integer performanceTotal = 0;
     private Integer quizTotal = 0;
@@ -34,13 +41,45 @@ public class ScoreDetails {
     private Double quizWs = 0.0;
     private Double quarterlyExamWs = 0.0;
 
+    public void setPerformanceScores(List<Integer> scores) {
+        this.performanceScores = PackedScores.copyOf(scores);
+    }
+
+    public void setQuizScores(List<Integer> scores) {
+        this.quizScores = PackedScores.copyOf(scores);
+    }
+
+    public void setQuarterlyExamScores(List<Integer> scores) {
+        this.quarterlyExamScores = PackedScores.copyOf(scores);
+    }
+
+    /**
+     * Independent copy (lists included), e.g. for a point-in-time snapshot of an HPS.
+     */
+    public ScoreDetails copy() {
+        ScoreDetails copy = new ScoreDetails();
+        copy.setPerformanceScores(performanceScores);
+        copy.setQuizScores(quizScores);
+        copy.setQuarterlyExamScores(quarterlyExamScores);
+        copy.performanceTotal = performanceTotal;
+        copy.quizTotal = quizTotal;
+        copy.quarterlyExamTotal = quarterlyExamTotal;
+        copy.performancePs = performancePs;
+        copy.quizPs = quizPs;
+        copy.quarterlyExamPs = quarterlyExamPs;
+        copy.performanceWs = performanceWs;
+        copy.quizWs = quizWs;
+        copy.quarterlyExamWs = quarterlyExamWs;
+        return copy;
+    }
+
     /**
      * Recalculate totals for each score list.
      */
     public void recalcTotals() {
-        this.performanceTotal = sumList(performanceScores);
-        this.quizTotal = sumList(quizScores);
-        this.quarterlyExamTotal = sumList(quarterlyExamScores);
+        this.performanceTotal = performanceScores.sum();
+        this.quizTotal = quizScores.sum();
+        this.quarterlyExamTotal = quarterlyExamScores.sum();
     }
 
     /**
@@ -48,9 +87,9 @@ public class ScoreDetails {
      * @param hps The HPS ScoreDetails containing max values in its lists.
      */
     public void clampScoresAgainst(ScoreDetails hps) {
-        clampList(performanceScores, hps.performanceScores);
-        clampList(quizScores, hps.quizScores);
-        clampList(quarterlyExamScores, hps.quarterlyExamScores);
+        performanceScores.clampTo(hps.performanceScores);
+        quizScores.clampTo(hps.quizScores);
+        quarterlyExamScores.clampTo(hps.quarterlyExamScores);
     }
 
     /**
@@ -58,66 +97,57 @@ public class ScoreDetails {
      * @param hps The HPS ScoreDetails containing hpsTotals and hpsPs values.
      */
     public void recalcPs(ScoreDetails hps) {
-        this.performancePs = calculatePs(this.performanceTotal, hps.performanceTotal, hps.performancePs);
-        this.quizPs = calculatePs(this.quizTotal, hps.quizTotal, hps.quizPs);
-        this.quarterlyExamPs = calculatePs(this.quarterlyExamTotal, hps.quarterlyExamTotal, hps.quarterlyExamPs);
+        this.performancePs = ScoreKernel.ps(performanceTotal, orZero(hps.performanceTotal), hps.performancePs);
+        this.quizPs = ScoreKernel.ps(quizTotal, orZero(hps.quizTotal), hps.quizPs);
+        this.quarterlyExamPs = ScoreKernel.ps(quarterlyExamTotal, orZero(hps.quarterlyExamTotal), hps.quarterlyExamPs);
     }
 
     /**
      * Recalculate ws values using this instance's ps and HPS ws.
-     * @param hps The HPS ScoreDetails containing hpsWs values.
+     * @param hpsDetails The HPS ScoreDetails containing hpsWs values.
      */
     public void recalcWs(ScoreDetails hpsDetails) {
-        // PERFORMANCE WS = (performancePs × (HPS.performanceWs ÷ 100)), rounded to 2 decimals
-        double perfRaw = this.performancePs * (hpsDetails.getPerformanceWs() / 100.0);
-        this.performanceWs = Math.round(perfRaw * 100.0) / 100.0;
-
-        // QUIZ WS = (quizPs × (HPS.quizWs ÷ 100)), rounded to 2 decimals
-        double quizRaw = this.quizPs * (hpsDetails.getQuizWs() / 100.0);
-        this.quizWs = Math.round(quizRaw * 100.0) / 100.0;
-
-        // EXAM WS = (quarterlyExamPs × (HPS.quarterlyExamWs ÷ 100)), rounded to 2 decimals
-        double examRaw = this.quarterlyExamPs * (hpsDetails.getQuarterlyExamWs() / 100.0);
-        this.quarterlyExamWs = Math.round(examRaw * 100.0) / 100.0;
+        // WS = ps × (HPS ws ÷ 100), rounded to 2 decimals
+        this.performanceWs = ScoreKernel.ws(this.performancePs, hpsDetails.getPerformanceWs());
+        this.quizWs = ScoreKernel.ws(this.quizPs, hpsDetails.getQuizWs());
+        this.quarterlyExamWs = ScoreKernel.ws(this.quarterlyExamPs, hpsDetails.getQuarterlyExamWs());
     }
 
     /**
-     * Helper to sum a list of integers. Empty list returns 0.
+     * initialGrade = sum of the three ws values, rounded to 2 decimals.
      */
-    private Integer sumList(List<Integer> list) {
-        return list.stream().mapToInt(Integer::intValue).sum();
+    public double initialGrade() {
+        return ScoreKernel.initialGrade(performanceWs, quizWs, quarterlyExamWs);
     }
 
     /**
-     * Clamp each element of 'values' to the corresponding element in 'maxValues'.
+     * Fixed-point variant of recalcPs → recalcWs → initialGrade: everything in integer hundredths,
+     * converted to the Double columns only when stored.
+     * @return initialGrade in hundredths.
      */
-    private void clampList(List<Integer> values, List<Integer> maxValues) {
-        for (int i = 0; i < values.size() && i < maxValues.size(); i++) {
-            int val = values.get(i);
-            int max = maxValues.get(i);
-            if (val < 0) {
-                values.set(i, 0);
-            } else if (val > max) {
-                values.set(i, max);
-            }
-        }
+    public long recalcInHundredths(ScoreDetails hps) {
+        long perfPs = FixedPointKernel.ps(performanceTotal, orZero(hps.performanceTotal),
+                FixedPointKernel.toHundredths(hps.performancePs));
+        long quizPsH = FixedPointKernel.ps(quizTotal, orZero(hps.quizTotal),
+                FixedPointKernel.toHundredths(hps.quizPs));
+        long examPs = FixedPointKernel.ps(quarterlyExamTotal, orZero(hps.quarterlyExamTotal),
+                FixedPointKernel.toHundredths(hps.quarterlyExamPs));
+
+        long perfWs = FixedPointKernel.ws(perfPs, FixedPointKernel.toHundredths(hps.performanceWs));
+        long quizWsH = FixedPointKernel.ws(quizPsH, FixedPointKernel.toHundredths(hps.quizWs));
+        long examWs = FixedPointKernel.ws(examPs, FixedPointKernel.toHundredths(hps.quarterlyExamWs));
+
+        this.performancePs = FixedPointKernel.fromHundredths(perfPs);
+        this.quizPs = FixedPointKernel.fromHundredths(quizPsH);
+        this.quarterlyExamPs = FixedPointKernel.fromHundredths(examPs);
+        this.performanceWs = FixedPointKernel.fromHundredths(perfWs);
+        this.quizWs = FixedPointKernel.fromHundredths(quizWsH);
+        this.quarterlyExamWs = FixedPointKernel.fromHundredths(examWs);
+
+        return perfWs + quizWsH + examWs;
     }
 
-    /**
-     * Calculate a single ps: (gradeTotal / hpsTotal) * hpsPs, rounded to two decimals.
-     */
-    private Double calculatePs(Integer gradeTotal, Integer hpsTotal, Double hpsPs) {
-        if (hpsTotal == null || hpsTotal == 0) {
-            return 0.0;
-        }
-        double raw = (gradeTotal.doubleValue() / hpsTotal.doubleValue()) * hpsPs;
-        return roundToTwoDecimals(raw);
-    }
-
-    /**
-     * Round a double to two decimal places, half-up.
-     */
-    private Double roundToTwoDecimals(Double value) {
-        return Math.round(value * 100.0) / 100.0;
+    private static int orZero(Integer value) {
+        return value != null ? value : 0;
     }
 }
@@ -0,0 +1,62 @@
+package com.school.roster.school_roster_backend.entity.embedded;
+
+/**
+ * Primitive-only grade arithmetic behind {@link ScoreDetails}: no boxing, no streams, no allocation.
+ * Every rounding step matches the original formulas exactly (half-up to two decimals via Math.round).
+ */
+public final class ScoreKernel {
+
+    private ScoreKernel() {
+    }
+
+    /**
+     * Clamp values[i] into [0, max[i]] for every slot both arrays have.
+     */
+    public static void clamp(int[] values, int size, int[] max, int maxSize) {
+        int n = Math.min(size, maxSize);
+        for (int i = 0; i < n; i++) {
+            int val = values[i];
+            if (val < 0) {
+                values[i] = 0;
+            } else if (val > max[i]) {
+                values[i] = max[i];
+            }
+        }
+    }
+
+    public static int sum(int[] values, int size) {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += values[i];
+        }
+        return total;
+    }
+
+    /**
+     * ps = (gradeTotal / hpsTotal) * hpsPs, rounded to two decimals; 0 when the HPS total is 0.
+     */
+    public static double ps(int gradeTotal, int hpsTotal, double hpsPs) {
+        if (hpsTotal == 0) {
+            return 0.0;
+        }
+        return round2(((double) gradeTotal / (double) hpsTotal) * hpsPs);
+    }
+
+    /**
+     * ws = ps × (hpsWs ÷ 100), rounded to two decimals.
+     */
+    public static double ws(double ps, double hpsWs) {
+        return round2(ps * (hpsWs / 100.0));
+    }
+
+    /**
+     * initialGrade = performanceWs + quizWs + examWs, rounded to two decimals.
+     */
+    public static double initialGrade(double performanceWs, double quizWs, double quarterlyExamWs) {
+        return round2(performanceWs + quizWs + quarterlyExamWs);
+    }
+
+    public static double round2(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.school.roster.school_roster_backend.exception;
+
+/**
+ * A write lost an optimistic-locking race (or was based on a stale version).
+ * Carries the current state of the entity so the client can merge instead of reloading everything.
+ * Mapped to 409 by {@link GlobalExceptionHandler}.
+ */
+public class ConflictException extends RuntimeException {
+
+    private final transient Object current;
+
+    public ConflictException(String message, Object current) {
+        super(message);
+        this.current = current;
+    }
+
+    public Object getCurrent() {
+        return current;
+    }
+}
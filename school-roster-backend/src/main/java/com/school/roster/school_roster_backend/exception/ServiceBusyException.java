@@ -0,0 +1,12 @@
+package com.school.roster.school_roster_backend.exception;
+
+/**
+ * A bounded resource (e.g. the password-hashing pool) is saturated and the request was shed
+ * rather than queued. Mapped to 503 with a Retry-After header by {@link GlobalExceptionHandler}.
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
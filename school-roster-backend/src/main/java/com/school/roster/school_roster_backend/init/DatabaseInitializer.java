@@ -3,6 +3,7 @@ package com.school.roster.school_roster_backend.init;
 import com.school.roster.school_roster_backend.entity.User;
 import com.school.roster.school_roster_backend.entity.enums.Role;
 import com.school.roster.school_roster_backend.repository.UserRepository;
+import com.school.roster.school_roster_backend.service.UserIdAllocator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
@@ -17,6 +18,7 @@ public class DatabaseInitializer {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserIdAllocator userIdAllocator;
 
     @Bean
     public CommandLineRunner initializeDatabase() {
@@ -26,7 +28,7 @@ public class DatabaseInitializer {
 
             if (!adminExists) {
                 User admin = new User();
-                admin.setId(generateRandom12DigitId());
+                admin.setId(userIdAllocator.nextId());
                 admin.setEmail("admin@school.com");
                 admin.setPassword(passwordEncoder.encode("admin123"));
                 admin.setRoles(Set.of(Role.ADMIN));
@@ -36,9 +38,4 @@ public class DatabaseInitializer {
             }
         };
     }
-
-    private String generateRandom12DigitId() {
-        long number = (long) (Math.random() * 900000000000L) + 100000000000L;
-        return String.valueOf(number);
-    }
 }
@@ -0,0 +1,151 @@
+package com.school.roster.school_roster_backend.init;
+
+import com.school.roster.school_roster_backend.entity.embedded.PackedScores;
+import com.school.roster.school_roster_backend.entity.embedded.PackedScoresConverter;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves scores from the old {@code @ElementCollection} tables (grade_quiz_scores, ...) into the
+ * packed binary columns that replaced them. Owner rows whose packed column is still NULL are filled
+ * in, then the legacy rows are deleted in the same transaction (they still hold foreign keys to
+ * grades / highest_possible_score and would otherwise block deletes). Idempotent, so it runs on
+ * every start-up; the emptied legacy tables can be dropped once every environment has migrated.
+ *
+ * A score's position in its list is data, and SQL guarantees no row order without ORDER BY, so rows
+ * are read ordered by owner and by the table's one other column (its list index or surrogate key).
+ * A legacy table that still holds rows but has no such column fails the migration, and so the
+ * start-up, instead of packing scores in whatever order the database happens to return them.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class LegacyScoreMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacyScoreMigration.class);
+
+    private static final PackedScoresConverter CONVERTER = new PackedScoresConverter();
+
+    private static final List<LegacyTable> LEGACY_TABLES = List.of(
+            new LegacyTable("grade_performance_scores", "grade_id", "performance_scores", "grades", "id"),
+            new LegacyTable("grade_quiz_scores", "grade_id", "quiz_scores", "grades", "id"),
+            new LegacyTable("grade_quarterly_exam_scores", "grade_id", "quarterly_exam_scores", "grades", "id"),
+            new LegacyTable("highest_possible_score_performance_scores", "highest_possible_score_roster_id",
+                    "performance_scores", "highest_possible_score", "roster_id"),
+            new LegacyTable("highest_possible_score_quiz_scores", "highest_possible_score_roster_id",
+                    "quiz_scores", "highest_possible_score", "roster_id"),
+            new LegacyTable("highest_possible_score_quarterly_exam_scores", "highest_possible_score_roster_id",
+                    "quarterly_exam_scores", "highest_possible_score", "roster_id")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Bean
+    public CommandLineRunner migrateLegacyScoreCollections() {
+        return args -> migrate();
+    }
+
+    /**
+     * @return the number of owner rows whose packed column was filled in.
+     */
+    public int migrate() {
+        int migrated = 0;
+        for (LegacyTable table : LEGACY_TABLES) {
+            if (!exists(table.name())) {
+                continue;
+            }
+            Integer rows = transactionTemplate.execute(status -> migrate(table));
+            migrated += rows != null ? rows : 0;
+        }
+        return migrated;
+    }
+
+    private int migrate(LegacyTable table) {
+        Set<Long> pending = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT " + table.ownerId() + " FROM " + table.owner() + " WHERE " + table.column() + " IS NULL",
+                Long.class));
+        if (pending.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM " + table.name());
+            return 0;
+        }
+
+        Map<Long, List<Integer>> scoresByOwner = new LinkedHashMap<>();
+        Long legacyRows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table.name(), Long.class);
+        if (legacyRows != null && legacyRows > 0) {
+            String orderColumn = orderColumn(table);
+            jdbcTemplate.query("SELECT " + table.foreignKey() + ", " + table.column() + " FROM " + table.name()
+                    + " ORDER BY " + table.foreignKey() + ", " + orderColumn, rs -> {
+                long ownerId = rs.getLong(1);
+                if (pending.contains(ownerId)) {
+                    int score = rs.getInt(2);
+                    scoresByOwner.computeIfAbsent(ownerId, id -> new ArrayList<>()).add(score);
+                }
+            });
+        }
+
+        List<Object[]> updates = new ArrayList<>(pending.size());
+        for (Long ownerId : pending) {
+            List<Integer> scores = scoresByOwner.getOrDefault(ownerId, List.of());
+            updates.add(new Object[]{CONVERTER.convertToDatabaseColumn(PackedScores.copyOf(scores)), ownerId});
+        }
+        jdbcTemplate.batchUpdate(
+                "UPDATE " + table.owner() + " SET " + table.column() + " = ? WHERE " + table.ownerId() + " = ?",
+                updates);
+        jdbcTemplate.update("DELETE FROM " + table.name());
+
+        log.info("Packed {} legacy score lists from {} into {}.{}",
+                updates.size(), table.name(), table.owner(), table.column());
+        return updates.size();
+    }
+
+    /**
+     * The column that orders one owner's rows: whichever column the legacy table has besides the
+     * foreign key and the score (an {@code @OrderColumn} index or a surrogate key added for the migration).
+     */
+    private String orderColumn(LegacyTable table) {
+        List<String> candidates = jdbcTemplate.query("SELECT * FROM " + table.name() + " WHERE 1 = 0", rs -> {
+            ResultSetMetaData meta = rs.getMetaData();
+            List<String> columns = new ArrayList<>();
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                String name = meta.getColumnName(i);
+                if (!name.equalsIgnoreCase(table.foreignKey()) && !name.equalsIgnoreCase(table.column())) {
+                    columns.add(name);
+                }
+            }
+            return columns;
+        });
+        if (candidates == null || candidates.size() != 1) {
+            throw new IllegalStateException("Cannot migrate " + table.name() + ": it needs exactly one column besides "
+                    + table.foreignKey() + " and " + table.column() + " that orders each list (found " + candidates
+                    + "). Add an auto-increment key to it before starting the application.");
+        }
+        return candidates.get(0);
+    }
+
+    private boolean exists(String tableName) {
+        try {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + tableName + " WHERE 1 = 0", Long.class);
+            return true;
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+
+    private record LegacyTable(String name, String foreignKey, String column, String owner, String ownerId) {
+    }
+}
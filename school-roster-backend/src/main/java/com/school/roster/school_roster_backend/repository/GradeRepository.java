@@ -1,11 +1,78 @@
 package com.school.roster.school_roster_backend.repository;
 
 import com.school.roster.school_roster_backend.entity.Grade;
+import com.school.roster.school_roster_backend.entity.enums.StudentGradeStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface GradeRepository extends JpaRepository<Grade, Long> {
     List<Grade> findByStudentId(String studentId);
     List<Grade> findByRosterId(Long rosterId);
+    List<Grade> findByRosterIdAndStudentIdIn(Long rosterId, Collection<String> studentIds);
+
+    @Query("SELECT g.roster.id FROM Grade g WHERE g.id = :gradeId")
+    Optional<Long> findRosterIdById(@Param("gradeId") Long gradeId);
+
+    @Query("SELECT r.id AS rosterId, s.id AS studentId FROM Grade g LEFT JOIN g.roster r LEFT JOIN g.student s " +
+            "WHERE g.id = :gradeId")
+    Optional<GradeOwnership> findOwnershipById(@Param("gradeId") Long gradeId);
+
+    @Query("SELECT g.roster.id AS rosterId, COALESCE(SUM(g.initialGrade), 0) AS gradeSum, COUNT(g) AS gradeCount " +
+            "FROM Grade g WHERE g.roster.id = :rosterId GROUP BY g.roster.id")
+    Optional<GradeTotals> sumInitialGradesByRosterId(@Param("rosterId") Long rosterId);
+
+    @Query("SELECT g.roster.id AS rosterId, COALESCE(SUM(g.initialGrade), 0) AS gradeSum, COUNT(g) AS gradeCount " +
+            "FROM Grade g GROUP BY g.roster.id")
+    List<GradeTotals> sumInitialGradesByRoster();
+
+    @Query("SELECT g.roster.id AS rosterId, COALESCE(SUM(g.initialGrade), 0) AS gradeSum, COUNT(g) AS gradeCount " +
+            "FROM Grade g WHERE g.roster.id = :rosterId AND g.student.id IN :studentIds GROUP BY g.roster.id")
+    Optional<GradeTotals> sumInitialGradesByRosterIdAndStudentIdIn(@Param("rosterId") Long rosterId,
+                                                                  @Param("studentIds") Collection<String> studentIds);
+
+    @Query("SELECT g.roster.id AS rosterId, COALESCE(SUM(g.initialGrade), 0) AS gradeSum, COUNT(g) AS gradeCount " +
+            "FROM Grade g WHERE g.student.id = :studentId GROUP BY g.roster.id")
+    List<GradeTotals> sumInitialGradesByStudentIdGroupByRoster(@Param("studentId") String studentId);
+
+    // === Bulk deletes: one statement each; pending changes are flushed first and the persistence context cleared after ===
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Grade g WHERE g.roster.id = :rosterId AND g.student.id IN :studentIds")
+    int deleteByRosterIdAndStudentIdIn(@Param("rosterId") Long rosterId, @Param("studentIds") Collection<String> studentIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Grade g WHERE g.roster.id = :rosterId")
+    int deleteByRosterId(@Param("rosterId") Long rosterId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Grade g WHERE g.student.id = :studentId")
+    int deleteByStudentId(@Param("studentId") String studentId);
+
+    @Query("SELECT g.roster.id AS rosterId, g.student.id AS studentId, g.initialGrade AS initialGrade, " +
+            "g.finalStatus AS finalStatus FROM Grade g WHERE g.roster.id IN :rosterIds ORDER BY g.id")
+    List<RosterViewGrade> findViewGrades(@Param("rosterIds") Collection<Long> rosterIds);
+
+    interface RosterViewGrade {
+        Long getRosterId();
+        String getStudentId();
+        Double getInitialGrade();
+        StudentGradeStatus getFinalStatus();
+    }
+
+    interface GradeTotals {
+        Long getRosterId();
+        Double getGradeSum();
+        Long getGradeCount();
+    }
+
+    interface GradeOwnership {
+        Long getRosterId();
+        String getStudentId();
+    }
 }
@@ -0,0 +1,25 @@
+package com.school.roster.school_roster_backend.repository;
+
+import com.school.roster.school_roster_backend.entity.HpsPropagationJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface HpsPropagationJobRepository extends JpaRepository<HpsPropagationJob, String> {
+
+    @Modifying
+    @Query("DELETE FROM HpsPropagationJob j WHERE j.finishedAt < :cutoff")
+    int deleteFinishedBefore(@Param("cutoff") Instant cutoff);
+
+    // Jobs whose node died, or whose last status write failed, never reach finishedAt on their own
+    @Modifying
+    @Query("UPDATE HpsPropagationJob j SET j.status = :failed, j.finishedAt = :now, j.error = :error "
+            + "WHERE j.finishedAt IS NULL AND j.submittedAt < :cutoff")
+    int failUnfinishedSubmittedBefore(@Param("cutoff") Instant cutoff,
+                                      @Param("now") Instant now,
+                                      @Param("failed") HpsPropagationJob.Status failed,
+                                      @Param("error") String error);
+}
@@ -1,10 +1,14 @@
 package com.school.roster.school_roster_backend.repository;
 
 import com.school.roster.school_roster_backend.entity.Roster;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +17,141 @@ public interface RosterRepository extends JpaRepository<Roster, Long> {
 
     @Query("SELECT r FROM Roster r LEFT JOIN FETCH r.teacher LEFT JOIN FETCH r.students WHERE r.id = :id")
     Optional<Roster> findByIdWithTeacherAndStudents(@Param("id") Long id);
+
+    @Query("SELECT r.id AS rosterId, r.initialGradeSum AS gradeSum, r.gradeCount AS gradeCount FROM Roster r")
+    List<GradeRepository.GradeTotals> findStoredGradeTotals();
+
+    @Query("SELECT r.id AS rosterId, r.initialGradeSum AS gradeSum, r.gradeCount AS gradeCount FROM Roster r " +
+            "WHERE r.id = :rosterId")
+    Optional<GradeRepository.GradeTotals> findStoredGradeTotalsById(@Param("rosterId") Long rosterId);
+
+    // === Running class-GPA totals: only ever written here, as single statements ===
+
+    // Atomic increment; the row lock it takes serializes concurrent deltas on every node.
+    // Matches nothing for a roster whose totals were never seeded (gradeCount IS NULL).
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Roster r SET r.initialGradeSum = r.initialGradeSum + :sumDelta, " +
+            "r.gradeCount = r.gradeCount + :countDelta WHERE r.id = :rosterId AND r.gradeCount IS NOT NULL")
+    int addToGradeTotals(@Param("rosterId") Long rosterId, @Param("sumDelta") double sumDelta,
+                         @Param("countDelta") int countDelta);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Roster r SET r.classGpa = :classGpa WHERE r.id = :rosterId")
+    int updateClassGpa(@Param("rosterId") Long rosterId, @Param("classGpa") float classGpa);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Roster r SET r.initialGradeSum = :sum, r.gradeCount = :count, r.classGpa = :classGpa " +
+            "WHERE r.id = :rosterId")
+    int setGradeTotals(@Param("rosterId") Long rosterId, @Param("sum") double sum, @Param("count") int count,
+                       @Param("classGpa") float classGpa);
+
+    // Compare-and-set: overwrites the totals only if they still hold what the caller read
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Roster r SET r.initialGradeSum = :sum, r.gradeCount = :count, r.classGpa = :classGpa " +
+            "WHERE r.id = :rosterId AND ((:readCount IS NULL AND r.gradeCount IS NULL) " +
+            "OR (r.gradeCount = :readCount AND r.initialGradeSum = :readSum))")
+    int replaceGradeTotals(@Param("rosterId") Long rosterId, @Param("sum") double sum, @Param("count") int count,
+                           @Param("classGpa") float classGpa, @Param("readSum") Double readSum,
+                           @Param("readCount") Integer readCount);
+
+    // Walks roster_students from the student side (idx_roster_students_student) instead of scanning every roster
+    @Query("SELECT r FROM Roster r JOIN r.students s WHERE s.id = :studentId ORDER BY r.id")
+    List<Roster> findByStudentId(@Param("studentId") String studentId);
+
+    // Startup load for RosterMembershipIndex: one row per roster, one row per enrolment
+    @Query("SELECT r.id AS rosterId, t.id AS memberId FROM Roster r LEFT JOIN r.teacher t")
+    List<MembershipLink> findAllTeacherLinks();
+
+    @Query("SELECT r.id AS rosterId, s.id AS memberId FROM Roster r JOIN r.students s")
+    List<MembershipLink> findAllStudentLinks();
+
+    @Query("SELECT r.id FROM Roster r JOIN r.students s WHERE s.id = :studentId ORDER BY r.id")
+    List<Long> findIdsByStudentId(@Param("studentId") String studentId);
+
+    // roster_students has no entity of its own, so the set-based unlinks are native
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM roster_students WHERE roster_id = :rosterId AND student_id IN (:studentIds)", nativeQuery = true)
+    int deleteStudentLinks(@Param("rosterId") Long rosterId, @Param("studentIds") Collection<String> studentIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM roster_students WHERE student_id = :studentId", nativeQuery = true)
+    int deleteStudentLinksByStudentId(@Param("studentId") String studentId);
+
+    interface MembershipLink {
+        Long getRosterId();
+        String getMemberId();
+    }
+
+    // Joins the changing transaction, or runs on its own when the change was made without one
+    @Transactional
+    @Modifying
+    @Query("UPDATE Roster r SET r.membershipVersion = r.membershipVersion + 1 WHERE r.id = :rosterId")
+    int bumpMembershipVersion(@Param("rosterId") Long rosterId);
+
+    // One aggregate over rosters, not roster_students: moves whenever a roster is added, removed or bumped
+    @Query("SELECT COUNT(r) AS rosters, COALESCE(SUM(r.id), 0) AS idSum, " +
+            "COALESCE(SUM(r.membershipVersion), 0) AS versionSum FROM Roster r")
+    MembershipFingerprint findMembershipFingerprint();
+
+    interface MembershipFingerprint {
+        Long getRosters();
+        Long getIdSum();
+        Long getVersionSum();
+    }
+
+    // === Roster view read path (RosterViewService): header + teacher profile, then students, then grades ===
+
+    String VIEW_HEADER_SELECT = "SELECT r.id AS rosterId, r.subjectName AS subjectName, r.period AS period, " +
+            "r.nickname AS nickname, r.gradeLevel AS gradeLevel, r.classGpa AS classGpa, t.id AS teacherId, " +
+            "tp.id AS teacherProfileId, tp.firstName AS teacherFirstName, tp.middleName AS teacherMiddleName, " +
+            "tp.lastName AS teacherLastName, tp.profilePicture AS teacherPhoto " +
+            "FROM Roster r LEFT JOIN r.teacher t LEFT JOIN t.nonStudentProfile tp ";
+
+    @Query(VIEW_HEADER_SELECT + "WHERE r.id = :rosterId")
+    Optional<RosterViewHeader> findViewHeaderById(@Param("rosterId") Long rosterId);
+
+    @Query(VIEW_HEADER_SELECT + "WHERE t.id = :teacherId ORDER BY r.id")
+    List<RosterViewHeader> findViewHeadersByTeacherId(@Param("teacherId") String teacherId);
+
+    @Query(VIEW_HEADER_SELECT + "WHERE r.id IN (SELECT r2.id FROM Roster r2 JOIN r2.students s WHERE s.id = :studentId) " +
+            "ORDER BY r.id")
+    List<RosterViewHeader> findViewHeadersByStudentId(@Param("studentId") String studentId);
+
+    // Keyset page: filters are skipped when null; subjectPrefix is a LIKE pattern escaped with '!'
+    @Query(VIEW_HEADER_SELECT + "WHERE (:gradeLevel IS NULL OR r.gradeLevel = :gradeLevel) " +
+            "AND (:subjectPrefix IS NULL OR r.subjectName LIKE :subjectPrefix ESCAPE '!') " +
+            "AND (:afterId IS NULL OR r.id > :afterId) ORDER BY r.id")
+    List<RosterViewHeader> findViewHeadersPage(@Param("gradeLevel") String gradeLevel,
+                                               @Param("subjectPrefix") String subjectPrefix,
+                                               @Param("afterId") Long afterId,
+                                               Limit limit);
+
+    @Query("SELECT r.id AS rosterId, s.id AS studentId, sp.profilePicture AS studentPhoto, " +
+            "sp.firstName AS firstName, sp.middleName AS middleName, sp.lastName AS lastName " +
+            "FROM Roster r JOIN r.students s LEFT JOIN s.studentProfile sp WHERE r.id IN :rosterIds")
+    List<RosterViewStudent> findViewStudents(@Param("rosterIds") Collection<Long> rosterIds);
+
+    interface RosterViewHeader {
+        Long getRosterId();
+        String getSubjectName();
+        String getPeriod();
+        String getNickname();
+        String getGradeLevel();
+        Float getClassGpa();
+        String getTeacherId();
+        Long getTeacherProfileId();
+        String getTeacherFirstName();
+        String getTeacherMiddleName();
+        String getTeacherLastName();
+        String getTeacherPhoto();
+    }
+
+    interface RosterViewStudent {
+        Long getRosterId();
+        String getStudentId();
+        String getStudentPhoto();
+        String getFirstName();
+        String getMiddleName();
+        String getLastName();
+    }
 }
@@ -1,7 +1,32 @@
 package com.school.roster.school_roster_backend.repository;
 
 import com.school.roster.school_roster_backend.entity.StudentProfile;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface StudentProfileRepository extends JpaRepository<StudentProfile, Long> {
+
+    // Keyset page: filters are skipped when null; namePrefix is a LIKE pattern escaped with '!'
+    @Query("SELECT p.id AS profileId, p.linkedUser.id AS userId, p.firstName AS firstName, " +
+            "p.middleName AS middleName, p.lastName AS lastName, p.gradeLevel AS gradeLevel " +
+            "FROM StudentProfile p WHERE (:gradeLevel IS NULL OR p.gradeLevel = :gradeLevel) " +
+            "AND (:namePrefix IS NULL OR p.lastName LIKE :namePrefix ESCAPE '!' OR p.firstName LIKE :namePrefix ESCAPE '!') " +
+            "AND (:afterId IS NULL OR p.id > :afterId) ORDER BY p.id")
+    List<ProfileListRow> findListPage(@Param("gradeLevel") String gradeLevel,
+                                      @Param("namePrefix") String namePrefix,
+                                      @Param("afterId") Long afterId,
+                                      Limit limit);
+
+    interface ProfileListRow {
+        Long getProfileId();
+        String getUserId();
+        String getFirstName();
+        String getMiddleName();
+        String getLastName();
+        String getGradeLevel();
+    }
 }
@@ -0,0 +1,18 @@
+package com.school.roster.school_roster_backend.repository;
+
+import com.school.roster.school_roster_backend.entity.UserIdBlock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface UserIdBlockRepository extends JpaRepository<UserIdBlock, String> {
+
+    // Row lock so concurrent nodes lease disjoint blocks
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM UserIdBlock b WHERE b.name = :name")
+    Optional<UserIdBlock> findForUpdate(@Param("name") String name);
+}
@@ -2,8 +2,12 @@ package com.school.roster.school_roster_backend.repository;
 
 import com.school.roster.school_roster_backend.entity.User;
 import com.school.roster.school_roster_backend.entity.enums.Role;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +17,53 @@ public interface UserRepository extends JpaRepository<User, String> {
     boolean existsByEmail(String email);
 
     List<User> findAllByRoles(Role role);
+
+    // Profiles are the inverse side of a one-to-one and always load eagerly; fetch them in the same query
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.studentProfile LEFT JOIN FETCH u.nonStudentProfile WHERE u.id IN :ids")
+    List<User> findAllWithProfilesByIdIn(@Param("ids") Collection<String> ids);
+
+    // Non-ADMIN lookups: the role filter runs in SQL, and roles and (eager) profiles arrive in the same statement
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles LEFT JOIN FETCH u.studentProfile " +
+            "LEFT JOIN FETCH u.nonStudentProfile WHERE u.id = :id " +
+            "AND com.school.roster.school_roster_backend.entity.enums.Role.ADMIN NOT MEMBER OF u.roles")
+    Optional<User> findNonAdminById(@Param("id") String id);
+
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles LEFT JOIN FETCH u.studentProfile " +
+            "LEFT JOIN FETCH u.nonStudentProfile WHERE u.email = :email " +
+            "AND com.school.roster.school_roster_backend.entity.enums.Role.ADMIN NOT MEMBER OF u.roles")
+    Optional<User> findNonAdminByEmail(@Param("email") String email);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
+
+    // Keyset page of non-ADMIN users: filters are skipped when null; namePrefix is a LIKE pattern escaped with '!'
+    @Query("SELECT u.id AS id, u.email AS email, " +
+            "COALESCE(sp.firstName, np.firstName) AS firstName, COALESCE(sp.middleName, np.middleName) AS middleName, " +
+            "COALESCE(sp.lastName, np.lastName) AS lastName " +
+            "FROM User u LEFT JOIN u.studentProfile sp LEFT JOIN u.nonStudentProfile np " +
+            "WHERE com.school.roster.school_roster_backend.entity.enums.Role.ADMIN NOT MEMBER OF u.roles " +
+            "AND (:role IS NULL OR :role MEMBER OF u.roles) " +
+            "AND (:namePrefix IS NULL OR sp.lastName LIKE :namePrefix ESCAPE '!' OR sp.firstName LIKE :namePrefix ESCAPE '!' " +
+            "OR np.lastName LIKE :namePrefix ESCAPE '!' OR np.firstName LIKE :namePrefix ESCAPE '!') " +
+            "AND (:afterId IS NULL OR u.id > :afterId) ORDER BY u.id")
+    List<UserListRow> findListPage(@Param("role") Role role,
+                                   @Param("namePrefix") String namePrefix,
+                                   @Param("afterId") String afterId,
+                                   Limit limit);
+
+    @Query("SELECT u.id AS userId, r AS role FROM User u JOIN u.roles r WHERE u.id IN :ids")
+    List<UserRoleRow> findRolesByUserIdIn(@Param("ids") Collection<String> ids);
+
+    interface UserListRow {
+        String getId();
+        String getEmail();
+        String getFirstName();
+        String getMiddleName();
+        String getLastName();
+    }
+
+    interface UserRoleRow {
+        String getUserId();
+        Role getRole();
+    }
 }
@@ -0,0 +1,29 @@
+package com.school.roster.school_roster_backend.security;
+
+import com.school.roster.school_roster_backend.entity.enums.Role;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.security.Principal;
+import java.util.Set;
+
+/**
+ * Request principal built from a verified JWT by {@link JwtAuthenticationFilter}.
+ *
+ * Carries the user ID and roles from the token, so controllers inject it with
+ * {@code @AuthenticationPrincipal} instead of loading the user by email on every request.
+ * {@link #getName()} is the email, which keeps {@code Authentication.getName()} unchanged.
+ */
+@Getter
+@AllArgsConstructor
+public class AuthenticatedUser implements UserIdentity, Principal {
+
+    private final String id;
+    private final String email;
+    private final Set<Role> roles;
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -0,0 +1,162 @@
+package com.school.roster.school_roster_backend.security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.WeakKeyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * HS256 keys for signing and verifying JWTs, by key ID.
+ *
+ * Every node loads the same keys from configuration ({@code jwt.keys}) and/or a PKCS12 keystore
+ * ({@code jwt.keystore.*}), so a token issued by one node verifies on any other and survives
+ * restarts. New tokens are signed with {@code jwt.active-key-id} and carry it as their
+ * {@code kid} header; the other keys only verify. To rotate, deploy the new key everywhere, then
+ * make it active, then drop the old key once the tokens it signed have expired (24 hours).
+ *
+ * Without any configured key each node generates its own at startup, which only suits a single
+ * development instance.
+ */
+@Component
+public class JwtSigningKeys {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtSigningKeys.class);
+
+    private final String activeKeyId;
+    private final Map<String, SecretKey> keys;
+
+    public JwtSigningKeys(@Value("${jwt.active-key-id:}") String activeKeyId,
+                          @Value("${jwt.keys:}") String keys,
+                          @Value("${jwt.keystore.path:}") String keystorePath,
+                          @Value("${jwt.keystore.password:}") String keystorePassword) {
+        Map<String, SecretKey> loaded = new LinkedHashMap<>();
+        parseKeys(keys, loaded);
+        if (!keystorePath.isBlank()) {
+            loadKeystore(Path.of(keystorePath), keystorePassword.toCharArray(), loaded);
+        }
+        if (loaded.isEmpty()) {
+            log.warn("No jwt.keys or jwt.keystore.path configured; using a per-node key. "
+                    + "Tokens will not verify on other nodes or after a restart.");
+            loaded.put(randomKeyId(), Keys.secretKeyFor(SignatureAlgorithm.HS256));
+        }
+        this.activeKeyId = resolveActiveKeyId(activeKeyId, loaded);
+        this.keys = Collections.unmodifiableMap(loaded);
+    }
+
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    public SecretKey getActiveKey() {
+        return keys.get(activeKeyId);
+    }
+
+    public Set<String> getKeyIds() {
+        return keys.keySet();
+    }
+
+    /**
+     * @return the key a token with this {@code kid} header was signed with, or null for a missing
+     *         or unknown key ID (including keys that have been retired).
+     */
+    public SecretKey getVerificationKey(String keyId) {
+        return keyId == null ? null : keys.get(keyId);
+    }
+
+    // "id:base64,id:base64" — whitespace around entries is ignored
+    private static void parseKeys(String spec, Map<String, SecretKey> into) {
+        if (spec == null || spec.isBlank()) {
+            return;
+        }
+        for (String entry : spec.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int colon = trimmed.indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalStateException("jwt.keys entries must be <key-id>:<base64 secret>");
+            }
+            String keyId = trimmed.substring(0, colon).trim();
+            byte[] secret;
+            try {
+                secret = Base64.getDecoder().decode(trimmed.substring(colon + 1).trim());
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalStateException("JWT key " + keyId + " is not valid Base64", ex);
+            }
+            add(into, keyId, secret);
+        }
+    }
+
+    // Secret-key entries (keytool -genseckey -keyalg HmacSHA256); the alias is the key ID
+    private static void loadKeystore(Path path, char[] password, Map<String, SecretKey> into) {
+        try (InputStream in = Files.newInputStream(path)) {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(in, password);
+            Enumeration<String> aliases = keyStore.aliases();
+            while (aliases.hasMoreElements()) {
+                String alias = aliases.nextElement();
+                Key key = keyStore.isKeyEntry(alias) ? keyStore.getKey(alias, password) : null;
+                if (key instanceof SecretKey) {
+                    add(into, alias, key.getEncoded());
+                }
+            }
+        } catch (IOException | GeneralSecurityException ex) {
+            throw new IllegalStateException("Cannot load JWT keys from keystore " + path, ex);
+        }
+    }
+
+    private static void add(Map<String, SecretKey> into, String keyId, byte[] secret) {
+        if (keyId.isEmpty() || keyId.contains(",")) {
+            throw new IllegalStateException("Invalid JWT key ID: '" + keyId + "'");
+        }
+        if (into.containsKey(keyId)) {
+            throw new IllegalStateException("Duplicate JWT key ID: " + keyId);
+        }
+        try {
+            into.put(keyId, Keys.hmacShaKeyFor(secret));
+        } catch (WeakKeyException ex) {
+            throw new IllegalStateException("JWT key " + keyId + " must be at least 256 bits", ex);
+        }
+    }
+
+    private static String resolveActiveKeyId(String activeKeyId, Map<String, SecretKey> keys) {
+        if (activeKeyId == null || activeKeyId.isBlank()) {
+            if (keys.size() != 1) {
+                throw new IllegalStateException("jwt.active-key-id must name one of the JWT keys " + keys.keySet());
+            }
+            return keys.keySet().iterator().next();
+        }
+        if (!keys.containsKey(activeKeyId)) {
+            throw new IllegalStateException("jwt.active-key-id " + activeKeyId + " is not one of the JWT keys "
+                    + keys.keySet());
+        }
+        return activeKeyId;
+    }
+
+    private static String randomKeyId() {
+        byte[] suffix = new byte[4];
+        new SecureRandom().nextBytes(suffix);
+        return "local-" + HexFormat.of().formatHex(suffix);
+    }
+}
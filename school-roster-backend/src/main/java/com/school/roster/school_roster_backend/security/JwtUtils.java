@@ -1,30 +1,73 @@
 package com.school.roster.school_roster_backend.security;
 
+import com.school.roster.school_roster_backend.entity.enums.Role;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies the HS256 tokens used by {@link JwtAuthenticationFilter}.
+ *
+ * Tokens are signed with the active key of {@link JwtSigningKeys} and name it in their
+ * {@code kid} header; verification picks the key by that header, so tokens signed before a key
+ * rotation keep working on every node until they expire.
+ *
+ * The parser is immutable and thread-safe, so it is built once rather than per call, and
+ * {@link #extractPrincipal} serves repeat tokens from a {@link VerifiedTokenCache}: a request
+ * decodes and verifies its token at most once, and usually not at all.
+ */
 @Component
 public class JwtUtils {
 
-    // 🗝️ Secret Key for signing tokens
-    private final Key secretKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+    // 🗝️ Keys for signing (active key) and verifying (any configured key) tokens
+    private final JwtSigningKeys signingKeys;
 
     // 🕑 Token expiration: 24 hours
     private final long jwtExpirationMs = 86400000;
 
+    private final JwtParser parser;
+
+    private final VerifiedTokenCache verifiedTokens;
+
+    public JwtUtils(MeterRegistry registry, JwtSigningKeys signingKeys,
+                    @Value("${jwt.verified-cache.max-entries:10000}") int maxCachedTokens) {
+        this.signingKeys = signingKeys;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        Key key = signingKeys.getVerificationKey(header.getKeyId());
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown JWT signing key: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+        this.verifiedTokens = new VerifiedTokenCache(registry, maxCachedTokens, System::currentTimeMillis);
+    }
+
     // === Generate Token ===
-    public String generateToken(String username, List<String> roles) {
+    public String generateToken(String userId, String username, List<String> roles) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put("uid", userId);
         claims.put("roles", roles);
 
         return Jwts.builder()
@@ -32,7 +75,8 @@ public class JwtUtils {
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(secretKey)
+                .setHeaderParam(JwsHeader.KEY_ID, signingKeys.getActiveKeyId())
+                .signWith(signingKeys.getActiveKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -63,11 +107,7 @@ public class JwtUtils {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public List<String> extractRoles(String token) {
@@ -75,4 +115,27 @@ public class JwtUtils {
         return (List<String>) claims.get("roles");
     }
 
+    // === Extract Principal (verified once per token, then cached until it expires) ===
+    public AuthenticatedUser extractPrincipal(String token) {
+        return verifiedTokens.get(token, () -> verify(token));
+    }
+
+    private VerifiedTokenCache.Verified verify(String token) {
+        Claims claims = extractAllClaims(token);
+        String userId = claims.get("uid", String.class);
+        if (userId == null || claims.getSubject() == null || claims.getExpiration() == null) {
+            return new VerifiedTokenCache.Verified(null, 0);
+        }
+        Set<Role> roles = EnumSet.noneOf(Role.class);
+        List<?> roleNames = claims.get("roles", List.class);
+        if (roleNames != null) {
+            for (Object role : roleNames) {
+                roles.add(Role.valueOf(role.toString()));
+            }
+        }
+        AuthenticatedUser principal =
+                new AuthenticatedUser(userId, claims.getSubject(), Collections.unmodifiableSet(roles));
+        return new VerifiedTokenCache.Verified(principal, claims.getExpiration().getTime());
+    }
+
 }
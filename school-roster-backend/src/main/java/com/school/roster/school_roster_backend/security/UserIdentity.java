@@ -0,0 +1,17 @@
+package com.school.roster.school_roster_backend.security;
+
+import com.school.roster.school_roster_backend.entity.enums.Role;
+
+import java.util.Set;
+
+/**
+ * What authorization checks need to know about a caller: who they are and which roles they hold.
+ * Implemented by the {@code User} entity and by the token-backed {@link AuthenticatedUser}, so the
+ * same checks serve a loaded user and a request principal.
+ */
+public interface UserIdentity {
+
+    String getId();
+
+    Set<Role> getRoles();
+}
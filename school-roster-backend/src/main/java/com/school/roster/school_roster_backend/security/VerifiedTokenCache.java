@@ -0,0 +1,159 @@
+package com.school.roster.school_roster_backend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of JWTs whose signature has already been verified, mapped to their principal.
+ *
+ * A client sends the same token on every request until it expires, so after the first request
+ * the filter only hashes the token instead of decoding it and re-checking the HMAC. Keys are the
+ * token's SHA-256 digest, so raw bearer tokens are not kept on the heap. An entry is served only
+ * until the token's own {@code exp}; tokens that fail verification are never cached.
+ *
+ * This sits on every authenticated request, so a hit takes no lock: entries live in a
+ * {@link ConcurrentHashMap} and recency is the insertion count when the entry was last used.
+ * Eviction is approximate LRU: once the map outgrows {@code maxEntries}, one thread drops expired
+ * entries and then the least recently used down to 90% of the bound, while other threads carry on.
+ *
+ * Metrics: jwt.verified.cache tagged result=hit|miss (counters), jwt.verified.cache.size (gauge).
+ */
+class VerifiedTokenCache {
+
+    record Verified(AuthenticatedUser principal, long expiresAtMillis) {
+    }
+
+    private static final class Entry {
+        private final AuthenticatedUser principal;
+        private final long expiresAtMillis;
+        private volatile long lastUsed;
+
+        private Entry(AuthenticatedUser principal, long expiresAtMillis, long lastUsed) {
+            this.principal = principal;
+            this.expiresAtMillis = expiresAtMillis;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private record Candidate(String key, Entry entry, long lastUsed) {
+    }
+
+    private final int maxEntries;
+    private final int evictTo;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // Bumped only on inserts, so hits read it without contending on a shared write
+    private final AtomicLong insertions = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    VerifiedTokenCache(MeterRegistry registry, int maxEntries, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.evictTo = maxEntries - maxEntries / 10;
+        this.clock = clock;
+        this.hits = Counter.builder("jwt.verified.cache").tag("result", "hit")
+                .description("Requests whose token was already verified")
+                .register(registry);
+        this.misses = Counter.builder("jwt.verified.cache").tag("result", "miss")
+                .description("Requests whose token had to be parsed and verified")
+                .register(registry);
+        Gauge.builder("jwt.verified.cache.size", this, VerifiedTokenCache::size)
+                .description("Cached verified tokens")
+                .register(registry);
+    }
+
+    /**
+     * Principal for the token, verifying (and caching) it on a miss. {@code verify} throws for an
+     * invalid or expired token, which propagates as before.
+     */
+    AuthenticatedUser get(String token, Supplier<Verified> verify) {
+        if (maxEntries <= 0) {
+            return verify.get().principal();
+        }
+        String key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAtMillis > clock.getAsLong()) {
+            long now = insertions.get();
+            // skip the write when nothing was inserted since, so hot tokens do not bounce a cache line
+            if (entry.lastUsed != now) {
+                entry.lastUsed = now;
+            }
+            hits.increment();
+            return entry.principal;
+        }
+        if (entry != null) {
+            entries.remove(key, entry);
+        }
+
+        misses.increment();
+        Verified verified = verify.get();
+        if (verified.principal() != null) {
+            entries.put(key, new Entry(verified.principal(), verified.expiresAtMillis(), insertions.incrementAndGet()));
+            if (entries.size() > maxEntries) {
+                evict();
+            }
+        }
+        return verified.principal();
+    }
+
+    // Re-checked after each pass: inserts that found the lock taken rely on its holder to catch them
+    private void evict() {
+        while (entries.size() > maxEntries && evictionLock.tryLock()) {
+            try {
+                evictOnce();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void evictOnce() {
+        long now = clock.getAsLong();
+        entries.values().removeIf(entry -> entry.expiresAtMillis <= now);
+        int excess = entries.size() - evictTo;
+        if (excess <= 0) {
+            return;
+        }
+        // lastUsed is captured once so the sort sees stable values while hits keep updating it
+        List<Candidate> candidates = new ArrayList<>(entries.size());
+        entries.forEach((key, entry) -> candidates.add(new Candidate(key, entry, entry.lastUsed)));
+        candidates.sort(Comparator.comparingLong(Candidate::lastUsed));
+        for (int i = 0; i < excess && i < candidates.size(); i++) {
+            entries.remove(candidates.get(i).key(), candidates.get(i).entry());
+        }
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            // Every JRE ships SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+}
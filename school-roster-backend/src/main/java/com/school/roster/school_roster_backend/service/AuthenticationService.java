@@ -1,6 +1,7 @@
 package com.school.roster.school_roster_backend.service;
 
 import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.exception.ServiceBusyException;
 import com.school.roster.school_roster_backend.repository.UserRepository;
 import com.school.roster.school_roster_backend.security.JwtUtils;
 import lombok.RequiredArgsConstructor;
@@ -9,7 +10,6 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.security.core.context.SecurityContextHolder;
 
@@ -21,7 +21,6 @@ import java.util.stream.Collectors;
 public class AuthenticationService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
     private final JwtUtils jwtUtils;
     private final AuthenticationManager authenticationManager;
 
@@ -51,9 +50,13 @@ public class AuthenticationService {
             );
             SecurityContextHolder.getContext().setAuthentication(authToken);
 
-            return jwtUtils.generateToken(user.getEmail(), roles);
+            return jwtUtils.generateToken(user.getId(), user.getEmail(), roles);
 
         } catch (AuthenticationException ex) {
+            // A full hashing pool is not a wrong password: the provider may wrap it, so surface it as 503
+            if (ex.getCause() instanceof ServiceBusyException busy) {
+                throw busy;
+            }
             throw new RuntimeException("Invalid email or password.");
         }
     }
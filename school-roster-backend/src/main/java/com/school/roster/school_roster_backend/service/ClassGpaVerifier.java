@@ -0,0 +1,84 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.repository.GradeRepository;
+import com.school.roster.school_roster_backend.repository.RosterRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Periodically checks every roster's running grade totals (see {@link RosterService#applyGradeDelta})
+ * against a full aggregate of the grades table and repairs any roster that has drifted.
+ *
+ * A repair is a compare-and-set on the totals that were read, so a grade change committed while
+ * the check runs (on this node or another) is never overwritten; that roster is re-checked next run.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class ClassGpaVerifier {
+
+    private static final Logger log = LoggerFactory.getLogger(ClassGpaVerifier.class);
+
+    // Doubles summed in a different order can differ in the last bits
+    private static final double SUM_TOLERANCE = 1e-6;
+
+    private final RosterRepository rosterRepository;
+    private final GradeRepository gradeRepository;
+    private final GradeCalculator gradeCalculator;
+
+    /**
+     * @return the number of rosters whose totals were corrected.
+     */
+    @Scheduled(
+            initialDelayString = "${roster.class-gpa.verify-initial-delay-ms:60000}",
+            fixedDelayString = "${roster.class-gpa.verify-interval-ms:3600000}"
+    )
+    public int reconcileAll() {
+        // Stored totals first: a delta committed after this read changes them, and the
+        // compare-and-set below then skips the roster instead of writing a stale aggregate over it
+        List<GradeRepository.GradeTotals> stored = rosterRepository.findStoredGradeTotals();
+        Map<Long, GradeRepository.GradeTotals> actual = gradeRepository.sumInitialGradesByRoster().stream()
+                .collect(Collectors.toMap(GradeRepository.GradeTotals::getRosterId, Function.identity()));
+
+        int repaired = 0;
+        for (GradeRepository.GradeTotals current : stored) {
+            GradeRepository.GradeTotals expected = actual.get(current.getRosterId());
+            double expectedSum = expected != null ? expected.getGradeSum() : 0.0;
+            long expectedCount = expected != null ? expected.getGradeCount() : 0L;
+
+            if (matches(current, expectedSum, expectedCount)) {
+                continue;
+            }
+
+            float classGpa = gradeCalculator.getArithmetic().classGpa(expectedSum, expectedCount);
+            Integer readCount = current.getGradeCount() != null ? Math.toIntExact(current.getGradeCount()) : null;
+            int updated = rosterRepository.replaceGradeTotals(current.getRosterId(), expectedSum,
+                    Math.toIntExact(expectedCount), classGpa, current.getGradeSum(), readCount);
+            if (updated == 0) {
+                log.info("Roster {} changed while its classGpa was being verified; leaving it to the next run",
+                        current.getRosterId());
+                continue;
+            }
+            log.warn("Roster {} classGpa drifted (sum={}, count={}); resetting to sum={}, count={}",
+                    current.getRosterId(), current.getGradeSum(), current.getGradeCount(), expectedSum, expectedCount);
+            repaired++;
+        }
+        return repaired;
+    }
+
+    private boolean matches(GradeRepository.GradeTotals current, double expectedSum, long expectedCount) {
+        return current.getGradeSum() != null
+                && current.getGradeCount() != null
+                && current.getGradeCount() == expectedCount
+                && Math.abs(current.getGradeSum() - expectedSum) <= SUM_TOLERANCE;
+    }
+}
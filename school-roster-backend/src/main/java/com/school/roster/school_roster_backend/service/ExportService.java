@@ -0,0 +1,206 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Streaming exports of rosters and gradebooks as newline-delimited JSON or CSV.
+ *
+ * Rows are read through a forward-only JDBC cursor with a bounded fetch size and written to the
+ * response as they arrive, so no entity, DTO or full result list is held in memory: heap use is
+ * one fetch batch plus the output buffer however large the school is. On MySQL the fetch size
+ * only takes effect with {@code useCursorFetch=true} on the JDBC URL; without it Connector/J
+ * buffers the whole result set.
+ */
+@Service
+public class ExportService {
+
+    private static final String ROSTERS_SQL = "SELECT r.id AS roster_id, r.subject_name, r.period, r.nickname, " +
+            "r.grade_level, r.class_gpa, r.teacher_id, tp.first_name AS teacher_first_name, " +
+            "tp.last_name AS teacher_last_name, " +
+            "(SELECT COUNT(*) FROM roster_students rs WHERE rs.roster_id = r.id) AS student_count " +
+            "FROM rosters r LEFT JOIN non_student_profiles tp ON tp.user_id = r.teacher_id ORDER BY r.id";
+
+    private static final List<String> ROSTER_COLUMNS = List.of("roster_id", "subject_name", "period", "nickname",
+            "grade_level", "class_gpa", "teacher_id", "teacher_first_name", "teacher_last_name", "student_count");
+
+    private static final String GRADEBOOK_SQL = "SELECT g.roster_id, r.subject_name, r.grade_level, r.period, " +
+            "g.student_id, sp.first_name, sp.middle_name, sp.last_name, " +
+            "g.performance_total, g.quiz_total, g.quarterly_exam_total, " +
+            "g.performance_ws, g.quiz_ws, g.quarterly_exam_ws, g.initial_grade, g.final_status " +
+            "FROM grades g JOIN rosters r ON r.id = g.roster_id " +
+            "LEFT JOIN student_profiles sp ON sp.user_id = g.student_id ";
+
+    private static final List<String> GRADEBOOK_COLUMNS = List.of("roster_id", "subject_name", "grade_level", "period",
+            "student_id", "first_name", "middle_name", "last_name",
+            "performance_total", "quiz_total", "quarterly_exam_total",
+            "performance_ws", "quiz_ws", "quarterly_exam_ws", "initial_grade", "final_status");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ExportService(DataSource dataSource, ObjectMapper objectMapper,
+                         @Value("${export.fetch-size:500}") int fetchSize) {
+        // A dedicated template so the fetch size does not leak into other JDBC work
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.objectMapper = objectMapper;
+    }
+
+    public enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format parse(String format) {
+            if (format == null || format.isBlank()) {
+                return NDJSON;
+            }
+            try {
+                return valueOf(format.trim().toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                throw new RuntimeException("Unsupported export format: " + format);
+            }
+        }
+    }
+
+    // === Rosters: one row per roster with its teacher and enrolment count ===
+    public void exportRosters(Format format, OutputStream out) throws IOException {
+        stream(ROSTERS_SQL, new Object[0], ROSTER_COLUMNS, format, out);
+    }
+
+    // === Gradebook: one row per grade, optionally for a single roster ===
+    public void exportGradebook(Long rosterId, Format format, OutputStream out) throws IOException {
+        if (rosterId == null) {
+            stream(GRADEBOOK_SQL + "ORDER BY g.roster_id, g.id", new Object[0], GRADEBOOK_COLUMNS, format, out);
+        } else {
+            stream(GRADEBOOK_SQL + "WHERE g.roster_id = ? ORDER BY g.id", new Object[]{rosterId},
+                    GRADEBOOK_COLUMNS, format, out);
+        }
+    }
+
+    private void stream(String sql, Object[] args, List<String> columns, Format format, OutputStream out)
+            throws IOException {
+        RowWriter writer = format == Format.CSV ? new CsvRowWriter(out, columns) : new NdjsonRowWriter(out, columns);
+        try {
+            jdbcTemplate.query(sql, rs -> {
+                try {
+                    writer.write(rs);
+                } catch (IOException ex) {
+                    // Usually the client went away; abort the query rather than reading on
+                    throw new UncheckedIOException(ex);
+                }
+            }, args);
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        writer.finish();
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private final List<String> columns;
+
+        NdjsonRowWriter(OutputStream out, List<String> columns) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.columns = columns;
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (String column : columns) {
+                generator.writeFieldName(column);
+                generator.writeObject(rs.getObject(column));
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private final List<String> columns;
+
+        CsvRowWriter(OutputStream out, List<String> columns) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.columns = columns;
+            writeLine(columns);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = rs.getObject(columns.get(i));
+                if (value != null) {
+                    writer.write(escape(value.toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private void writeLine(List<String> values) throws IOException {
+            writer.write(String.join(",", values));
+            writer.write("\r\n");
+        }
+
+        // RFC 4180 quoting
+        static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
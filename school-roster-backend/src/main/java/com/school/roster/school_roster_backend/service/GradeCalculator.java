@@ -0,0 +1,69 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.entity.Grade;
+import com.school.roster.school_roster_backend.entity.embedded.GradeArithmetic;
+import com.school.roster.school_roster_backend.entity.embedded.ScoreDetails;
+import com.school.roster.school_roster_backend.entity.enums.StudentGradeStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pure, in-memory grade pipeline shared by single-grade edits and roster-wide recalculation.
+ * Runs clamp → totals → ps → ws → initialGrade → finalStatus without touching the database;
+ * the arithmetic itself lives in the primitive ScoreKernel.
+ */
+@Component
+public class GradeCalculator {
+
+    private final GradeArithmetic arithmetic;
+
+    /**
+     * @param arithmetic DOUBLE (default) or FIXED_POINT, from {@code grading.arithmetic}.
+     */
+    public GradeCalculator(@Value("${grading.arithmetic:DOUBLE}") GradeArithmetic arithmetic) {
+        this.arithmetic = arithmetic;
+    }
+
+    public GradeArithmetic getArithmetic() {
+        return arithmetic;
+    }
+
+    /**
+     * Clamp the grade's scores against the HPS maxima, then recalculate everything derived from them.
+     */
+    public void clampAndRecalculate(Grade grade, ScoreDetails hpsDetails) {
+        grade.getScoreDetails().clampScoresAgainst(hpsDetails);
+        recalculate(grade, hpsDetails);
+    }
+
+    /**
+     * Recalculate totals → ps → ws → initialGrade → finalStatus for one grade.
+     */
+    public void recalculate(Grade grade, ScoreDetails hpsDetails) {
+        var gDetails = grade.getScoreDetails();
+
+        // (1) Recalculate totals for this grade
+        gDetails.recalcTotals();
+
+        // (2) PS = (gradeTotal / hpsTotal) * hpsPs, (3) WS = gradePs * hpsWs,
+        // (4) initialGrade = sum of the three ws values
+        double initialGrade = arithmetic.recalculate(gDetails, hpsDetails);
+        grade.setInitialGrade(initialGrade);
+
+        // (5) Determine finalStatus based on initialGrade
+        grade.setFinalStatus(statusFor(initialGrade));
+    }
+
+    public static StudentGradeStatus statusFor(Double gpa) {
+        if (gpa == null) return StudentGradeStatus.FAILED;
+        return statusFor(gpa.doubleValue());
+    }
+
+    public static StudentGradeStatus statusFor(double gpa) {
+        if (gpa >= 98) return StudentGradeStatus.WITH_HIGHEST_HONORS;
+        if (gpa >= 95) return StudentGradeStatus.WITH_HIGH_HONORS;
+        if (gpa >= 90) return StudentGradeStatus.WITH_HONORS;
+        if (gpa >= 75) return StudentGradeStatus.PASSED;
+        return StudentGradeStatus.FAILED;
+    }
+}
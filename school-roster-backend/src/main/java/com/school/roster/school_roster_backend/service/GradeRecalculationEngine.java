@@ -0,0 +1,101 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.entity.Grade;
+import com.school.roster.school_roster_backend.entity.embedded.ScoreDetails;
+import com.school.roster.school_roster_backend.entity.enums.CategoryType;
+import com.school.roster.school_roster_backend.entity.enums.OperationType;
+import com.school.roster.school_roster_backend.repository.GradeRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Roster-wide grade recalculation in a single pass.
+ *
+ * Loads the roster's grades once, runs every grade through {@link GradeCalculator} in memory,
+ * writes them back as one JDBC batch (see hibernate.jdbc.batch_size) and shifts the
+ * roster's classGpa by the summed change once at the end, instead of once per grade.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class GradeRecalculationEngine {
+
+    private final GradeRepository gradeRepository;
+    private final RosterService rosterService;
+    private final GradeCalculator gradeCalculator;
+    private final RecalculationProgress progress;
+
+    /**
+     * Recalculate every grade of a roster against the given HPS.
+     * @param slotChange optional per-grade list mutation applied before clamping (null for none).
+     */
+    public List<Grade> recalculateRoster(Long rosterId, ScoreDetails hpsDetails, Consumer<ScoreDetails> slotChange) {
+        List<Grade> grades = gradeRepository.findByRosterId(rosterId);
+        return recalculateGrades(rosterId, grades, hpsDetails, slotChange);
+    }
+
+    /**
+     * Recalculate an already-loaded set of grades belonging to one roster.
+     */
+    public List<Grade> recalculateGrades(Long rosterId, List<Grade> grades, ScoreDetails hpsDetails,
+                                         Consumer<ScoreDetails> slotChange) {
+        RecalculationProgress.Listener listener = progress.listenerFor(rosterId);
+        int total = grades.size();
+        int processed = 0;
+
+        double sumDelta = 0.0;
+        for (Grade grade : grades) {
+            if (slotChange != null) {
+                slotChange.accept(grade.getScoreDetails());
+            }
+            double before = grade.getInitialGrade() != null ? grade.getInitialGrade() : 0.0;
+            gradeCalculator.clampAndRecalculate(grade, hpsDetails);
+            sumDelta += grade.getInitialGrade() - before;
+            if (listener != null) {
+                listener.onProgress(++processed, total);
+            }
+        }
+
+        // One flush → batched UPDATEs for the whole roster
+        List<Grade> saved = gradeRepository.saveAll(grades);
+        gradeRepository.flush();
+
+        // classGpa once, after every grade is written (works for a subset of the roster too)
+        rosterService.applyGradeDelta(rosterId, sumDelta, 0);
+
+        return saved;
+    }
+
+    /**
+     * Build the per-grade mutation that mirrors an HPS slot ADD/REMOVE.
+     * UPDATE only changes the HPS maximum, so the grade lists keep their shape (clamping handles the rest).
+     */
+    public static Consumer<ScoreDetails> slotChange(CategoryType category, OperationType operation, Integer index) {
+        return details -> {
+            List<Integer> scores;
+            switch (category) {
+                case PERFORMANCE:
+                    scores = details.getPerformanceScores();
+                    break;
+                case QUIZ:
+                    scores = details.getQuizScores();
+                    break;
+                case EXAM:
+                    scores = details.getQuarterlyExamScores();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown category: " + category);
+            }
+
+            if (operation == OperationType.ADD) {
+                scores.add(0);
+            } else if (operation == OperationType.REMOVE) {
+                scores.remove((int) index);
+            }
+        };
+    }
+}
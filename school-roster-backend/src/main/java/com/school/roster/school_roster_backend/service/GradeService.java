@@ -4,22 +4,30 @@ import com.school.roster.school_roster_backend.entity.Grade;
 import com.school.roster.school_roster_backend.entity.HighestPossibleScore;
 import com.school.roster.school_roster_backend.entity.Roster;
 import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.entity.embedded.PackedScoresConverter;
 import com.school.roster.school_roster_backend.entity.embedded.ScoreDetails;
 import com.school.roster.school_roster_backend.entity.enums.CategoryType;
 import com.school.roster.school_roster_backend.entity.enums.OperationType;
 import com.school.roster.school_roster_backend.entity.enums.StudentGradeStatus;
+import com.school.roster.school_roster_backend.exception.ConflictException;
 import com.school.roster.school_roster_backend.repository.GradeRepository;
 import com.school.roster.school_roster_backend.repository.HighestPossibleScoreRepository;
 import com.school.roster.school_roster_backend.repository.RosterRepository;
 import com.school.roster.school_roster_backend.repository.UserRepository;
+import com.school.roster.school_roster_backend.security.UserIdentity;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -31,6 +39,17 @@ public class GradeService {
     private final UserRepository userRepository;
     private final RosterService rosterService;
     private final HighestPossibleScoreRepository hpsRepository;
+    private final GradeCalculator gradeCalculator;
+    private final GradeRecalculationEngine recalculationEngine;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Grade ids are IDENTITY, which turns off Hibernate insert batching; enrolment inserts through JDBC instead
+    private static final String INSERT_GRADE_SQL = "INSERT INTO grades (student_id, roster_id, " +
+            "performance_scores, quiz_scores, quarterly_exam_scores, " +
+            "performance_total, quiz_total, quarterly_exam_total, " +
+            "performance_ps, quiz_ps, quarterly_exam_ps, performance_ws, quiz_ws, quarterly_exam_ws, " +
+            "initial_grade, final_status, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final int INSERT_BATCH_SIZE = 50;
 
     public Grade createGrade(Roster roster, User student) {
         HighestPossibleScore hps = hpsRepository.findByRosterId(roster.getId())
@@ -58,18 +77,89 @@ public class GradeService {
 
         Grade saved = gradeRepository.save(grade);
 
-        // 7. Recalculate classGpa for the roster
-        rosterService.recalculateClassGpa(roster.getId());
+        // 7. One more (zero) grade in the roster's classGpa
+        rosterService.applyGradeDelta(roster.getId(), 0.0, 1);
 
         return saved;
     }
 
+    // === Create Grades for a batch of newly enrolled students ===
+
+    /**
+     * Zero-filled grades for every student, from one HPS read: one JDBC batch insert, one query to
+     * read the new rows back as entities, and a single classGpa update for the whole batch.
+     */
+    public List<Grade> createGrades(Roster roster, List<User> students) {
+        if (students.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        HighestPossibleScore hps = hpsRepository.findByRosterId(roster.getId())
+                .orElseThrow(() -> new RuntimeException("HPS not found for roster " + roster.getId()));
+
+        // Every new grade has the same shape: one '0' per HPS slot, zero totals
+        ScoreDetails hpsDetails = hps.getScoreDetails();
+        ScoreDetails zeros = new ScoreDetails();
+        hpsDetails.getPerformanceScores().forEach(maxVal -> zeros.getPerformanceScores().add(0));
+        hpsDetails.getQuizScores().forEach(maxVal -> zeros.getQuizScores().add(0));
+        hpsDetails.getQuarterlyExamScores().forEach(maxVal -> zeros.getQuarterlyExamScores().add(0));
+        zeros.recalcTotals();
+
+        PackedScoresConverter converter = new PackedScoresConverter();
+        byte[] performance = converter.convertToDatabaseColumn(zeros.getPerformanceScores());
+        byte[] quiz = converter.convertToDatabaseColumn(zeros.getQuizScores());
+        byte[] quarterlyExam = converter.convertToDatabaseColumn(zeros.getQuarterlyExamScores());
+        String status = calculateGradeStatus(0.0).name();
+
+        jdbcTemplate.batchUpdate(INSERT_GRADE_SQL, students, INSERT_BATCH_SIZE, (ps, student) -> {
+            ps.setString(1, student.getId());
+            ps.setLong(2, roster.getId());
+            ps.setBytes(3, performance);
+            ps.setBytes(4, quiz);
+            ps.setBytes(5, quarterlyExam);
+            ps.setInt(6, zeros.getPerformanceTotal());
+            ps.setInt(7, zeros.getQuizTotal());
+            ps.setInt(8, zeros.getQuarterlyExamTotal());
+            ps.setDouble(9, zeros.getPerformancePs());
+            ps.setDouble(10, zeros.getQuizPs());
+            ps.setDouble(11, zeros.getQuarterlyExamPs());
+            ps.setDouble(12, zeros.getPerformanceWs());
+            ps.setDouble(13, zeros.getQuizWs());
+            ps.setDouble(14, zeros.getQuarterlyExamWs());
+            ps.setDouble(15, 0.0);
+            ps.setString(16, status);
+        });
+
+        List<String> studentIds = students.stream().map(User::getId).toList();
+        List<Grade> created = gradeRepository.findByRosterIdAndStudentIdIn(roster.getId(), studentIds);
+
+        // N more (zero) grades in the roster's classGpa
+        rosterService.applyGradeDelta(roster.getId(), 0.0, created.size());
+
+        return created;
+    }
+
     public Grade updateGrade(Long gradeId, List<Integer> newPerformanceScores,
                              List<Integer> newQuizScores,
                              List<Integer> newQuarterlyExamScores) {
+        return updateGrade(gradeId, newPerformanceScores, newQuizScores, newQuarterlyExamScores, null);
+    }
+
+    /**
+     * @param expectedVersion the grade version the client edited, or null to skip the check.
+     *                        A mismatch is a real conflict: 409 with the current grade, no retry.
+     */
+    public Grade updateGrade(Long gradeId, List<Integer> newPerformanceScores,
+                             List<Integer> newQuizScores,
+                             List<Integer> newQuarterlyExamScores,
+                             Long expectedVersion) {
         // 1. Fetch Grade and its Roster/HPS
         Grade grade = gradeRepository.findById(gradeId)
                 .orElseThrow(() -> new RuntimeException("Grade not found: " + gradeId));
+        if (expectedVersion != null && !expectedVersion.equals(grade.getVersion())) {
+            throw new ConflictException("Grade " + gradeId + " was changed by someone else (version "
+                    + grade.getVersion() + ", you had " + expectedVersion + ").", grade);
+        }
         Long rosterId = grade.getRoster().getId();
 
         HighestPossibleScore hps = hpsRepository.findByRosterId(rosterId)
@@ -83,25 +173,68 @@ public class GradeService {
         gDetails.setQuarterlyExamScores(newQuarterlyExamScores);
 
         // 3. Clamp to [0, hpsMax] and recalc totals → ps → ws → initialGrade → status
-        gDetails.clampScoresAgainst(hpsDetails);
-        recalcSingleGrade(grade, hpsDetails);
+        double previousInitial = initialOf(grade);
+        gradeCalculator.clampAndRecalculate(grade, hpsDetails);
 
         // 4. Persist updated grade
         Grade updated = gradeRepository.save(grade);
 
-        // 5. Recalculate classGpa
-        rosterService.recalculateClassGpa(rosterId);
+        // 5. Shift classGpa by this grade's change
+        rosterService.applyGradeDelta(rosterId, initialOf(updated) - previousInitial, 0);
 
         return updated;
     }
 
+    // === Bulk Update Grades (one roster) ===
+    public List<Grade> updateGrades(Long rosterId, List<GradeScores> rows) {
+        if (rows == null || rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // 1. Load every requested grade in one query and make sure they all belong to this roster
+        Map<Long, GradeScores> rowsById = new LinkedHashMap<>();
+        for (GradeScores row : rows) {
+            if (rowsById.put(row.getGradeId(), row) != null) {
+                throw new RuntimeException("Duplicate grade ID in request: " + row.getGradeId());
+            }
+        }
+
+        Map<Long, Grade> gradesById = new HashMap<>();
+        for (Grade grade : gradeRepository.findAllById(rowsById.keySet())) {
+            if (!grade.getRoster().getId().equals(rosterId)) {
+                throw new RuntimeException("Grade " + grade.getId() + " does not belong to roster " + rosterId);
+            }
+            gradesById.put(grade.getId(), grade);
+        }
+
+        // 2. HPS once for the whole roster
+        HighestPossibleScore hps = hpsRepository.findByRosterId(rosterId)
+                .orElseThrow(() -> new RuntimeException("HPS not found for roster " + rosterId));
+
+        // 3. Overwrite each grade's lists, keeping the request order
+        List<Grade> grades = new ArrayList<>(rowsById.size());
+        for (GradeScores row : rowsById.values()) {
+            Grade grade = gradesById.get(row.getGradeId());
+            if (grade == null) {
+                throw new RuntimeException("Grade not found: " + row.getGradeId());
+            }
+            var gDetails = grade.getScoreDetails();
+            gDetails.setPerformanceScores(row.getPerformanceScores());
+            gDetails.setQuizScores(row.getQuizScores());
+            gDetails.setQuarterlyExamScores(row.getQuarterlyExamScores());
+            grades.add(grade);
+        }
+
+        // 4. Clamp + recalc in memory, one batch write, one classGpa update
+        return recalculationEngine.recalculateGrades(rosterId, grades, hps.getScoreDetails(), null);
+    }
+
     private StudentGradeStatus calculateGradeStatus(Double gpa) {
-        if (gpa == null) return StudentGradeStatus.FAILED;
-        if (gpa >= 98) return StudentGradeStatus.WITH_HIGHEST_HONORS;
-        if (gpa >= 95) return StudentGradeStatus.WITH_HIGH_HONORS;
-        if (gpa >= 90) return StudentGradeStatus.WITH_HONORS;
-        if (gpa >= 75) return StudentGradeStatus.PASSED;
-        return StudentGradeStatus.FAILED;
+        return GradeCalculator.statusFor(gpa);
+    }
+
+    private static double initialOf(Grade grade) {
+        return grade.getInitialGrade() != null ? grade.getInitialGrade() : 0.0;
     }
 
     // === Delete Grade ===
@@ -111,11 +244,17 @@ public class GradeService {
         Long rosterId = grade.getRoster().getId();
 
         gradeRepository.delete(grade);
-        // After deletion, recalc classGpa
-        rosterService.recalculateClassGpa(rosterId);
+        // After deletion, take the grade out of classGpa
+        rosterService.applyGradeDelta(rosterId, -initialOf(grade), -1);
     }
 
     // === Get Grade by ID ===
+    public Long getRosterIdForGrade(Long gradeId) {
+        // scalar lookup so callers can take the roster lock before any entity is loaded
+        return gradeRepository.findRosterIdById(gradeId)
+                .orElseThrow(() -> new RuntimeException("Grade not found with ID: " + gradeId));
+    }
+
     public Grade getGradeById(Long id) {
         return gradeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Grade not found with ID: " + id));
@@ -194,7 +333,7 @@ public class GradeService {
 
     // Only showing the new helper methods to add at the bottom of GradeService:
 
-    public boolean canUpdateGrade(Long gradeId, User currentUser) {
+    public boolean canUpdateGrade(Long gradeId, UserIdentity currentUser) {
         Grade grade = getGradeById(gradeId);
         Roster roster = grade.getRoster();
 
@@ -206,7 +345,7 @@ public class GradeService {
                                 role.name().equals("TEACHER_LEAD")));
     }
 
-    public boolean canDeleteGrade(Long gradeId, User currentUser) {
+    public boolean canDeleteGrade(Long gradeId, UserIdentity currentUser) {
         Grade grade = getGradeById(gradeId);
         Roster roster = grade.getRoster();
 
@@ -217,161 +356,57 @@ public class GradeService {
                                 role.name().equals("ADMINISTRATOR")));
     }
 
-    public boolean canViewGrade(Long gradeId, User currentUser) {
-        Grade grade = getGradeById(gradeId);
+    public boolean canViewGrade(Long gradeId, UserIdentity currentUser) {
+        // IDs only: the roster decision itself comes from RosterService's access cache
+        GradeRepository.GradeOwnership grade = gradeRepository.findOwnershipById(gradeId)
+                .orElseThrow(() -> new RuntimeException("Grade not found with ID: " + gradeId));
 
-        return (grade.getStudent() != null && grade.getStudent().getId().equals(currentUser.getId())) // owner student
-                || (grade.getRoster() != null && rosterService.canViewRoster(grade.getRoster().getId(), currentUser)); // teacher/admin
+        return (grade.getStudentId() != null && grade.getStudentId().equals(currentUser.getId())) // owner student
+                || (grade.getRosterId() != null && rosterService.canViewRoster(grade.getRosterId(), currentUser)); // teacher/admin
     }
 
     public void propagateSlotChange(Long rosterId, CategoryType category, OperationType operation, Integer index) {
         // 1. Fetch HPS to get current max‐values and totals
         HighestPossibleScore hps = hpsRepository.findByRosterId(rosterId)
                 .orElseThrow(() -> new RuntimeException("HPS not found for roster " + rosterId));
-        var hpsDetails = hps.getScoreDetails();
-
-        // 2. Fetch all grades in that roster
-        List<Grade> grades = gradeRepository.findByRosterId(rosterId);
-
-        for (Grade grade : grades) {
-            var gDetails = grade.getScoreDetails();
-
-            // 3. Add or remove the corresponding slot in Grade’s embedded lists
-            switch (category) {
-                case PERFORMANCE:
-                    if (operation == OperationType.ADD) {
-                        gDetails.getPerformanceScores().add(0);
-                    } else if(operation == OperationType.REMOVE){
-                        gDetails.getPerformanceScores().remove((int) index);
-                    } else {
-                        break;
-                    }
-                    break;
-                case QUIZ:
-                    if (operation == OperationType.ADD) {
-                        gDetails.getQuizScores().add(0);
-                    } else if(operation == OperationType.REMOVE){
-                        gDetails.getQuizScores().remove((int) index);
-                    } else {
-                        break;
-                    }
-                    break;
-                case EXAM:
-                    if (operation == OperationType.ADD) {
-                        gDetails.getQuarterlyExamScores().add(0);
-                    } else if(operation == OperationType.REMOVE){
-                        gDetails.getQuarterlyExamScores().remove((int) index);
-                    } else {
-                        break;
-                    }
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unknown category: " + category);
-            }
-
-            // 4. Clamp grade’s scores against new HPS maxima
-            gDetails.clampScoresAgainst(hpsDetails);
 
-            // 5. Recalculate totals → ps → ws → initialGrade → finalStatus
-            recalcSingleGrade(grade, hpsDetails);
+        // 2. Add/remove the slot on every grade, clamp, recalc and batch-save in one pass
+        recalculationEngine.recalculateRoster(rosterId, hps.getScoreDetails(),
+                GradeRecalculationEngine.slotChange(category, operation, index));
+    }
 
-            // 6. Persist updated grade
-            gradeRepository.save(grade);
+    /**
+     * Several slot changes (in order) applied to every grade in one pass, e.g. a coalesced batch of HPS edits.
+     */
+    public void propagateSlotChanges(Long rosterId, List<Consumer<ScoreDetails>> slotChanges) {
+        HighestPossibleScore hps = hpsRepository.findByRosterId(rosterId)
+                .orElseThrow(() -> new RuntimeException("HPS not found for roster " + rosterId));
 
-            // 7. Recalculate class GPA for this roster after each grade update
-            rosterService.recalculateClassGpa(rosterId);
-        }
+        recalculationEngine.recalculateRoster(rosterId, hps.getScoreDetails(),
+                details -> slotChanges.forEach(change -> change.accept(details)));
     }
 
     public void updateAllGradesPs(Long rosterId, HighestPossibleScore hps) {
-        var hpsDetails = hps.getScoreDetails();
-
-        // Fetch all grades
-        List<Grade> grades = gradeRepository.findByRosterId(rosterId);
-
-        for (Grade grade : grades) {
-            var gDetails = grade.getScoreDetails();
-
-            // Recalculate PS (grade.ps = (gradeTotal / hpsTotal) * hpsPs)
-            gDetails.recalcPs(hpsDetails);
-
-            // Recalculate WS (grade.ws = grade.ps * hps.ws) and initialGrade
-            gDetails.recalcWs(hpsDetails);
-
-            // Compute and set initialGrade = sum of the three ws fields
-            double initialSum = gDetails.getPerformanceWs()
-                    + gDetails.getQuizWs()
-                    + gDetails.getQuarterlyExamWs();
-            grade.setInitialGrade(roundToTwoDecimals(initialSum));
-
-            // Assign finalStatus based on initialGrade
-            grade.setFinalStatus(calculateGradeStatus(grade.getInitialGrade()));
-
-            // Save grade
-            gradeRepository.save(grade);
-
-            // Update classGpa after each grade change
-            rosterService.recalculateClassGpa(rosterId);
-        }
+        // PS → WS → initialGrade for every grade, one batch write, one classGpa update
+        recalculationEngine.recalculateRoster(rosterId, hps.getScoreDetails(), null);
     }
 
     public void updateAllGradesWs(Long rosterId, HighestPossibleScore hps) {
-        var hpsDetails = hps.getScoreDetails();
-
-        // Fetch all grades
-        List<Grade> grades = gradeRepository.findByRosterId(rosterId);
-
-        for (Grade grade : grades) {
-            var gDetails = grade.getScoreDetails();
-
-            // Recalculate WS (grade.ws = grade.ps * hps.ws)
-            gDetails.recalcWs(hpsDetails);
-
-            // Compute and set new initialGrade
-            double initialSum = gDetails.getPerformanceWs()
-                    + gDetails.getQuizWs()
-                    + gDetails.getQuarterlyExamWs();
-            grade.setInitialGrade(roundToTwoDecimals(initialSum));
-
-            // Assign finalStatus
-            grade.setFinalStatus(calculateGradeStatus(grade.getInitialGrade()));
-
-            // Save grade
-            gradeRepository.save(grade);
-
-            // Update classGpa
-            rosterService.recalculateClassGpa(rosterId);
-        }
+        // WS → initialGrade for every grade, one batch write, one classGpa update
+        recalculationEngine.recalculateRoster(rosterId, hps.getScoreDetails(), null);
     }
 
-    private void recalcSingleGrade(Grade grade, com.school.roster.school_roster_backend.entity.embedded.ScoreDetails hpsDetails) {
-        var gDetails = grade.getScoreDetails();
-
-        // (1) Recalculate totals for this grade
-        gDetails.recalcTotals();
-
-        // (2) Recalculate PS: (gradeTotal / hpsTotal) * hpsPs
-        gDetails.recalcPs(hpsDetails);
-
-        // (3) Recalculate WS: gradePs * hpsWs
-        gDetails.recalcWs(hpsDetails);
-
-        // (4) Compute initialGrade = sum of the three ws values
-        double initialSum = gDetails.getPerformanceWs()
-                + gDetails.getQuizWs()
-                + gDetails.getQuarterlyExamWs();
-        grade.setInitialGrade(roundToTwoDecimals(initialSum));
 
-        // (5) Determine finalStatus based on initialGrade
-        grade.setFinalStatus(calculateGradeStatus(grade.getInitialGrade()));
-    }
-
-    private Double roundToTwoDecimals(Double value) {
-        return Math.round(value * 100.0) / 100.0;
+    // === DTOs ===
+    @Data
+    @AllArgsConstructor
+    public static class GradeScores {
+        private Long gradeId;
+        private List<Integer> performanceScores;
+        private List<Integer> quizScores;
+        private List<Integer> quarterlyExamScores;
     }
 
-
-    // === DTOs ===
     @Data
     @AllArgsConstructor
     public static class StudentGpaResponse {
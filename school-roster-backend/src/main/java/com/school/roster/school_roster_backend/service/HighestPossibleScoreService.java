@@ -3,15 +3,21 @@ package com.school.roster.school_roster_backend.service;
 import com.school.roster.school_roster_backend.controller.HighestPossibleScoreController;
 import com.school.roster.school_roster_backend.entity.HighestPossibleScore;
 import com.school.roster.school_roster_backend.entity.Roster;
+import com.school.roster.school_roster_backend.entity.embedded.ScoreDetails;
 import com.school.roster.school_roster_backend.entity.enums.CategoryType;
 import com.school.roster.school_roster_backend.entity.enums.OperationType;
+import com.school.roster.school_roster_backend.exception.ConflictException;
 import com.school.roster.school_roster_backend.repository.HighestPossibleScoreRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.context.annotation.Lazy;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Service to manage HighestPossibleScore operations.
@@ -23,12 +29,16 @@ public class HighestPossibleScoreService {
 
     private final HighestPossibleScoreRepository hpsRepository;
     private final GradeService gradeService;
+    private final OptimisticRetry optimisticRetry;
+
     public HighestPossibleScoreService(
             HighestPossibleScoreRepository hpsRepository,
-            @Lazy GradeService gradeService
+            @Lazy GradeService gradeService,
+            OptimisticRetry optimisticRetry
     ) {
         this.hpsRepository = hpsRepository;
         this.gradeService = gradeService;
+        this.optimisticRetry = optimisticRetry;
     }
 
     /**
@@ -68,106 +78,142 @@ public class HighestPossibleScoreService {
 
     /**
      * Add or remove a slot in the specified category. Does NOT hard-code PS values.
-     * Delegates all grade updates to GradeService.propagateSlotChange(...).
+     * Delegates all grade updates to GradeService (see updateSlots).
      */
-
     public HighestPossibleScore updateSlot(HighestPossibleScoreController.SlotChangeRequest req) {
-        Long rosterId = req.getRosterId();
-        CategoryType category = req.getCategory();   // "PERFORMANCE", "QUIZ", or "EXAM"
-        OperationType operation = req.getOperation();        // "ADD" or "REMOVE"
-        Integer index = req.getIndex();        // used only for REMOVE
-        Integer maxScore = req.getMaxScore();  // used only for ADD
+        return updateSlots(req.getRosterId(), List.of(req)).get(0).orThrow();
+    }
 
-        // 1) Fetch and mutate HPS’s score lists
+    /**
+     * Apply several slot edits for one roster in order, then propagate them to the grades in one pass.
+     * Each edit is validated against the sheet as the edits before it left it; an invalid or stale edit
+     * fails on its own without blocking the others. Once one edit has applied, the sheet counts as a new
+     * version, so a later versioned edit made against the loaded version is stale even though nothing
+     * has committed yet. Each outcome holds the HPS as it stood right after that edit (or, for a
+     * conflict, when it was rejected), carrying the version the whole batch committed with.
+     */
+    public List<SlotOutcome> updateSlots(Long rosterId, List<HighestPossibleScoreController.SlotChangeRequest> reqs) {
+        // 1) Fetch HPS once; remember the version every client edited against
         HighestPossibleScore hps = getByRosterId(rosterId);
         var hpsDetails = hps.getScoreDetails();
+        Long loadedVersion = hps.getVersion();
+        boolean sheetMoved = false;
 
-        if (operation == OperationType.REMOVE || operation == OperationType.UPDATE) {
-            if (index == null || index < 0) {
-                throw new IllegalArgumentException("Index must be provided and non-negative for REMOVE/UPDATE.");
-            }
+        List<SlotOutcome> outcomes = new ArrayList<>();
+        List<HighestPossibleScore> snapshots = new ArrayList<>();
+        List<Consumer<ScoreDetails>> gradeChanges = new ArrayList<>();
 
-            // Determine which list to validate against
-            List<Integer> targetList;
-            switch (category) {
-                case PERFORMANCE:
-                    targetList = hpsDetails.getPerformanceScores();
-                    break;
-                case QUIZ:
-                    targetList = hpsDetails.getQuizScores();
-                    break;
-                case EXAM:
-                    targetList = hpsDetails.getQuarterlyExamScores();
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unknown category: " + category);
-            }
+        // 2) Mutate HPS’s score lists edit by edit, recording the matching per-grade change
+        for (HighestPossibleScoreController.SlotChangeRequest req : reqs) {
+            try {
+                // Slot edits are index-based, so a stale client view is a real conflict (no auto-retry)
+                if (req.getVersion() != null && !req.getVersion().equals(loadedVersion)) {
+                    throw conflict(rosterId, hps, snapshots, "(version " + loadedVersion + ", you had " + req.getVersion() + ").");
+                }
+                // Two clients at the same version in one batch: the first edit's indexes are the only safe ones
+                if (req.getVersion() != null && sheetMoved) {
+                    throw conflict(rosterId, hps, snapshots, "(another edit to version " + loadedVersion + " was applied just before yours).");
+                }
+                applySlotChange(hpsDetails, req);
+                // Recalculate HPS totals (HPS.ps remains whatever was already set)
+                hpsDetails.recalcTotals();
+                gradeChanges.add(GradeRecalculationEngine.slotChange(req.getCategory(), req.getOperation(), req.getIndex()));
 
-            if (index >= targetList.size()) {
-                throw new IllegalArgumentException(
-                        "Invalid index for " + category + " " + operation +
-                                ": " + index + " (valid range is 0 to " + (targetList.size() - 1) + ")"
-                );
+                HighestPossibleScore snapshot = snapshot(hps);
+                snapshots.add(snapshot);
+                outcomes.add(new SlotOutcome(snapshot, null));
+                sheetMoved = true;
+            } catch (RuntimeException e) {
+                outcomes.add(new SlotOutcome(null, e));
             }
         }
 
+        if (!gradeChanges.isEmpty()) {
+            // 3) Every grade gets the net change set in one recalculation
+            gradeService.propagateSlotChanges(rosterId, gradeChanges);
+
+            // 4) Persist HPS; flushing assigns the new version the snapshots report
+            HighestPossibleScore saved = hpsRepository.saveAndFlush(hps);
+            snapshots.forEach(snapshot -> snapshot.setVersion(saved.getVersion()));
+        }
+        return outcomes;
+    }
+
+    // The snapshot joins the batch's snapshots so it also reports the version the batch commits with
+    private static ConflictException conflict(Long rosterId, HighestPossibleScore hps,
+                                              List<HighestPossibleScore> snapshots, String detail) {
+        HighestPossibleScore current = snapshot(hps);
+        snapshots.add(current);
+        return new ConflictException("The score sheet for roster " + rosterId + " was changed by someone else " + detail, current);
+    }
+
+    private void applySlotChange(ScoreDetails hpsDetails, HighestPossibleScoreController.SlotChangeRequest req) {
+        CategoryType category = req.getCategory();   // "PERFORMANCE", "QUIZ", or "EXAM"
+        OperationType operation = req.getOperation();        // "ADD" or "REMOVE"
+        Integer index = req.getIndex();        // used only for REMOVE
+        Integer maxScore = req.getMaxScore();  // used only for ADD
+
+        List<Integer> targetList;
         switch (category) {
             case PERFORMANCE:
-                if (operation == OperationType.ADD) {
-                    hpsDetails.getPerformanceScores().add(maxScore);
-                }
-                else if (operation == OperationType.REMOVE) {
-                    hpsDetails.getPerformanceScores().remove((int) index);
-                }
-                else {
-                    hpsDetails.getPerformanceScores().set(index, maxScore);
-                }
+                targetList = hpsDetails.getPerformanceScores();
                 break;
-
             case QUIZ:
-                if (operation == OperationType.ADD) {
-                    hpsDetails.getQuizScores().add(maxScore);
-                }
-                else if (operation == OperationType.REMOVE) {
-                    hpsDetails.getQuizScores().remove((int) index);
-                }
-                else {
-                    hpsDetails.getQuizScores().set(index, maxScore);
-                }
+                targetList = hpsDetails.getQuizScores();
                 break;
-
             case EXAM:
-                if (operation == OperationType.ADD) {
-                    hpsDetails.getQuarterlyExamScores().add(maxScore);
-                }
-                else if (operation == OperationType.REMOVE) {
-                    hpsDetails.getQuarterlyExamScores().remove((int) index);
-                }
-                else {
-                    hpsDetails.getQuarterlyExamScores().set(index, maxScore);
-                }
+                targetList = hpsDetails.getQuarterlyExamScores();
                 break;
             default:
                 throw new IllegalArgumentException("Unknown category: " + category);
         }
 
-        // 2) Recalculate HPS totals (HPS.ps remains whatever was already set)
-        hpsDetails.recalcTotals();
+        if (operation == OperationType.REMOVE || operation == OperationType.UPDATE) {
+            if (index == null || index < 0) {
+                throw new IllegalArgumentException("Index must be provided and non-negative for REMOVE/UPDATE.");
+            }
+            if (index >= targetList.size()) {
+                throw new IllegalArgumentException(
+                        "Invalid index for " + category + " " + operation +
+                                ": " + index + " (valid range is 0 to " + (targetList.size() - 1) + ")"
+                );
+            }
+        }
 
-        // 3) Delegate grade propagation to GradeService
-        //    You will need a method in GradeService like:
-        //    void propagateSlotChange(Long rosterId, String category, String operation, Integer index);
-        gradeService.propagateSlotChange(rosterId, category, operation, index);
+        if (operation == OperationType.ADD) {
+            targetList.add(maxScore);
+        }
+        else if (operation == OperationType.REMOVE) {
+            targetList.remove((int) index);
+        }
+        else {
+            targetList.set(index, maxScore);
+        }
+    }
 
-        // 4) Persist and return updated HPS
-        return hpsRepository.save(hps);
+    /**
+     * Detached copy of the HPS as it is right now, for one caller's response.
+     */
+    private static HighestPossibleScore snapshot(HighestPossibleScore hps) {
+        HighestPossibleScore snapshot = new HighestPossibleScore();
+        snapshot.setId(hps.getId());
+        snapshot.setRoster(hps.getRoster());
+        snapshot.setScoreDetails(hps.getScoreDetails().copy());
+        snapshot.setVersion(hps.getVersion());
+        return snapshot;
     }
 
     /**
      * Update the PS values on HPS and propagate to all Grades.
      * Delegates actual grade PS→WS→initialGrade logic to GradeService.updateAllGradesPs(...).
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public HighestPossibleScore updatePs(HighestPossibleScoreController.UpdatePsRequest req) {
+        // PS → WS → initialGrade is a pure recompute, so replaying it on newer state is safe
+        return withRetry(req.getRosterId(), "PS update", () -> applyPs(req));
+    }
+
+    private HighestPossibleScore applyPs(HighestPossibleScoreController.UpdatePsRequest req) {
         Long rosterId = req.getRosterId();
 
         // 1) Fetch and update only the PS fields (no hardcoding)
@@ -191,7 +237,12 @@ public class HighestPossibleScoreService {
      * Update the WS values on HPS and propagate to all Grades.
      * Delegates actual grade WS→initialGrade logic to GradeService.updateAllGradesWs(...).
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public HighestPossibleScore updateWs(HighestPossibleScoreController.UpdateWsRequest req) {
+        return withRetry(req.getRosterId(), "WS update", () -> applyWs(req));
+    }
+
+    private HighestPossibleScore applyWs(HighestPossibleScoreController.UpdateWsRequest req) {
         Long rosterId = req.getRosterId();
 
         // 1) Fetch and update only the WS fields
@@ -209,4 +260,34 @@ public class HighestPossibleScoreService {
         // 3) Save and return updated HPS
         return hpsRepository.save(hps);
     }
+
+    /**
+     * Run a replayable HPS change through {@link OptimisticRetry}; if it still conflicts after the
+     * last attempt, report the current HPS so the client can re-apply its change on top of it.
+     */
+    private HighestPossibleScore withRetry(Long rosterId, String operation,
+                                           Supplier<HighestPossibleScore> work) {
+        return optimisticRetry.execute("The " + operation + " for roster " + rosterId, work,
+                () -> getByRosterId(rosterId));
+    }
+
+    /**
+     * Result of one edit in {@link #updateSlots}: the HPS right after it, or why it was rejected.
+     */
+    public static class SlotOutcome {
+        private final HighestPossibleScore hps;
+        private final RuntimeException error;
+
+        SlotOutcome(HighestPossibleScore hps, RuntimeException error) {
+            this.hps = hps;
+            this.error = error;
+        }
+
+        public HighestPossibleScore orThrow() {
+            if (error != null) {
+                throw error;
+            }
+            return hps;
+        }
+    }
 }
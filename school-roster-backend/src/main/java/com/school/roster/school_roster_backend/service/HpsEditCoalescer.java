@@ -0,0 +1,141 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.controller.HighestPossibleScoreController;
+import com.school.roster.school_roster_backend.entity.HighestPossibleScore;
+import com.school.roster.school_roster_backend.exception.ServiceBusyException;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Merges HPS slot edits that arrive for the same roster within a short window into one propagation.
+ *
+ * The first edit for a roster opens a batch and waits {@code hps.coalesce.window-ms}; edits arriving
+ * meanwhile join it. The opening thread then applies the whole batch under the roster lock with
+ * {@link HighestPossibleScoreService#updateSlots}: HPS edits in arrival order, grades recalculated once.
+ * Every caller blocks until the batch commits and gets the HPS as it stood after its own edit (or its
+ * own error). A window of 0 turns coalescing off.
+ *
+ * A caller waits at most the window plus {@code roster.lock.timeout-ms} for its batch; past that it gets
+ * {@link ServiceBusyException} (503) rather than holding its request thread indefinitely.
+ */
+@Service
+public class HpsEditCoalescer {
+
+    private final HighestPossibleScoreService hpsService;
+    private final RosterLockManager rosterLockManager;
+    private final EntityManager entityManager;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final long awaitMillis;
+
+    private final Map<Long, Batch> openBatches = new ConcurrentHashMap<>();
+
+    public HpsEditCoalescer(HighestPossibleScoreService hpsService,
+                            RosterLockManager rosterLockManager,
+                            EntityManager entityManager,
+                            @Value("${hps.coalesce.window-ms:150}") long windowMillis,
+                            @Value("${hps.coalesce.max-batch-size:50}") int maxBatchSize) {
+        this.hpsService = hpsService;
+        this.rosterLockManager = rosterLockManager;
+        this.entityManager = entityManager;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.awaitMillis = windowMillis + rosterLockManager.timeoutMillis();
+    }
+
+    public HighestPossibleScore submit(HighestPossibleScoreController.SlotChangeRequest req) {
+        Long rosterId = req.getRosterId();
+        if (windowMillis <= 0) {
+            return runBatch(rosterId, List.of(req)).get(0).orThrow();
+        }
+
+        CompletableFuture<HighestPossibleScoreService.SlotOutcome> own = new CompletableFuture<>();
+        Batch[] opened = new Batch[1];
+        openBatches.compute(rosterId, (id, open) -> {
+            Batch batch = open;
+            if (batch == null || batch.edits.size() >= maxBatchSize) {
+                batch = new Batch();
+                opened[0] = batch;
+            }
+            batch.edits.add(req);
+            batch.waiters.add(own);
+            return batch;
+        });
+
+        // The thread that opened the batch closes it after the window and runs it for everyone
+        if (opened[0] != null) {
+            sleepWindow();
+            // after this no one can join, and the map's per-key locking publishes every join to us
+            openBatches.remove(rosterId, opened[0]);
+            runAndComplete(rosterId, opened[0]);
+        }
+        return await(own).orThrow();
+    }
+
+    private void runAndComplete(Long rosterId, Batch batch) {
+        List<CompletableFuture<HighestPossibleScoreService.SlotOutcome>> waiters = batch.waiters;
+        try {
+            List<HighestPossibleScoreService.SlotOutcome> outcomes = runBatch(rosterId, batch.edits);
+            for (int i = 0; i < waiters.size(); i++) {
+                waiters.get(i).complete(outcomes.get(i));
+            }
+        } catch (Throwable e) {
+            // Errors too: a waiter that is never completed would block until its await times out
+            waiters.forEach(waiter -> waiter.completeExceptionally(e));
+        }
+    }
+
+    private List<HighestPossibleScoreService.SlotOutcome> runBatch(
+            Long rosterId, List<HighestPossibleScoreController.SlotChangeRequest> edits) {
+        return rosterLockManager.withLock(rosterId, () -> {
+            // The opener's request already loaded this roster (and its HPS) for the access check,
+            // before the lock; drop it so the batch reads committed state.
+            entityManager.clear();
+            return hpsService.updateSlots(rosterId, edits);
+        });
+    }
+
+    private void sleepWindow() {
+        try {
+            Thread.sleep(windowMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private HighestPossibleScoreService.SlotOutcome await(
+            CompletableFuture<HighestPossibleScoreService.SlotOutcome> future) {
+        try {
+            return future.get(awaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the score sheet update.", e);
+        } catch (TimeoutException e) {
+            throw new ServiceBusyException(
+                    "The score sheet update is taking too long. Reload the sheet to check whether it was saved.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static final class Batch {
+        private final List<HighestPossibleScoreController.SlotChangeRequest> edits = new ArrayList<>();
+        private final List<CompletableFuture<HighestPossibleScoreService.SlotOutcome>> waiters = new ArrayList<>();
+    }
+}
@@ -0,0 +1,236 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.controller.HighestPossibleScoreController;
+import com.school.roster.school_roster_backend.entity.HighestPossibleScore;
+import com.school.roster.school_roster_backend.entity.HpsPropagationJob;
+import com.school.roster.school_roster_backend.exception.ServiceBusyException;
+import com.school.roster.school_roster_backend.repository.HpsPropagationJobRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs HPS slot / PS / WS changes in the background for rosters too large to propagate within one request.
+ *
+ * Jobs run on a small bounded pool (a full queue is rejected, not buffered without limit), each under the
+ * roster's {@link RosterLockManager} lock and inside the same single transaction the synchronous endpoints
+ * use, so readers see either the old HPS and grades or the new ones — never a half-propagated roster.
+ *
+ * Job status lives in the {@link HpsPropagationJob} table, written in its own short transactions (progress
+ * at most every {@code hps.jobs.progress-interval-ms}), so a status poll answers on whichever node it
+ * reaches. A succeeded job reports the roster's HPS as it is when polled. Finished jobs are kept for
+ * {@code hps.jobs.retention-minutes}. A job still QUEUED or RUNNING after that long (its node stopped, or
+ * its last status write failed) is marked FAILED, and then expires like any other finished job.
+ */
+@Service
+public class HpsPropagationJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(HpsPropagationJobService.class);
+
+    private final HighestPossibleScoreService hpsService;
+    private final RosterLockManager rosterLockManager;
+    private final RecalculationProgress progress;
+    private final HpsPropagationJobRepository jobRepository;
+    private final TransactionTemplate jobTransaction;
+    private final ThreadPoolExecutor executor;
+    private final Duration retention;
+    private final long progressIntervalMillis;
+
+    public HpsPropagationJobService(HighestPossibleScoreService hpsService,
+                                    RosterLockManager rosterLockManager,
+                                    RecalculationProgress progress,
+                                    HpsPropagationJobRepository jobRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${hps.jobs.pool-size:2}") int poolSize,
+                                    @Value("${hps.jobs.queue-capacity:20}") int queueCapacity,
+                                    @Value("${hps.jobs.retention-minutes:60}") long retentionMinutes,
+                                    @Value("${hps.jobs.progress-interval-ms:500}") long progressIntervalMillis) {
+        this.hpsService = hpsService;
+        this.rosterLockManager = rosterLockManager;
+        this.progress = progress;
+        this.jobRepository = jobRepository;
+        // Status writes commit on their own: progress is reported from inside the job's long transaction
+        this.jobTransaction = new TransactionTemplate(transactionManager);
+        this.jobTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.progressIntervalMillis = progressIntervalMillis;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "hps-propagation-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // === Submit ===
+    public HpsJob submitSlotChange(HighestPossibleScoreController.SlotChangeRequest req) {
+        return submit(req.getRosterId(), "SLOTS", () -> hpsService.updateSlot(req));
+    }
+
+    public HpsJob submitPsChange(HighestPossibleScoreController.UpdatePsRequest req) {
+        return submit(req.getRosterId(), "PS", () -> hpsService.updatePs(req));
+    }
+
+    public HpsJob submitWsChange(HighestPossibleScoreController.UpdateWsRequest req) {
+        return submit(req.getRosterId(), "WS", () -> hpsService.updateWs(req));
+    }
+
+    // === Status ===
+    public HpsJob getJob(String jobId) {
+        HpsPropagationJob job = jobTransaction.execute(status -> jobRepository.findById(jobId).orElse(null));
+        if (job == null || isExpired(job)) {
+            throw new RuntimeException("Job not found or expired: " + jobId);
+        }
+        HighestPossibleScore result = job.getStatus() == HpsPropagationJob.Status.SUCCEEDED
+                ? hpsService.getByRosterId(job.getRosterId())
+                : null;
+        return new HpsJob(job, result);
+    }
+
+    private HpsJob submit(Long rosterId, String kind, Supplier<HighestPossibleScore> work) {
+        HpsPropagationJob job = new HpsPropagationJob(UUID.randomUUID().toString(), rosterId, kind);
+        jobTransaction.executeWithoutResult(status -> {
+            Instant now = Instant.now();
+            jobRepository.deleteFinishedBefore(now.minus(retention));
+            jobRepository.failUnfinishedSubmittedBefore(now.minus(retention), now, HpsPropagationJob.Status.FAILED,
+                    "The job did not finish; the server running it may have stopped. Please submit it again.");
+            jobRepository.save(job);
+        });
+        try {
+            executor.execute(() -> run(job, work));
+        } catch (RejectedExecutionException e) {
+            jobTransaction.executeWithoutResult(status -> jobRepository.deleteById(job.getJobId()));
+            throw new ServiceBusyException("Too many score sheet updates are queued. Please try again shortly.");
+        }
+        return new HpsJob(job, null);
+    }
+
+    // The worker owns its job row after submit, so each write saves the whole row
+    private void run(HpsPropagationJob job, Supplier<HighestPossibleScore> work) {
+        Long rosterId = job.getRosterId();
+        try {
+            rosterLockManager.withLock(rosterId, () -> {
+                job.setStatus(HpsPropagationJob.Status.RUNNING);
+                job.setStartedAt(Instant.now());
+                store(job);
+                progress.watch(rosterId, new ProgressWriter(job));
+                try {
+                    return work.get();
+                } finally {
+                    progress.unwatch(rosterId);
+                }
+            });
+            job.setStatus(HpsPropagationJob.Status.SUCCEEDED);
+        } catch (RuntimeException e) {
+            log.warn("HPS {} job {} for roster {} failed: {}", job.getKind(), job.getJobId(), rosterId, e.getMessage());
+            job.setError(e.getMessage());
+            job.setStatus(HpsPropagationJob.Status.FAILED);
+        } finally {
+            job.setFinishedAt(Instant.now());
+            store(job);
+        }
+    }
+
+    private void store(HpsPropagationJob job) {
+        try {
+            jobTransaction.executeWithoutResult(status -> jobRepository.save(job));
+        } catch (RuntimeException e) {
+            // A lost status write must not fail (or roll back) the propagation itself
+            log.warn("Could not record status of HPS job {}: {}", job.getJobId(), e.getMessage());
+        }
+    }
+
+    private boolean isExpired(HpsPropagationJob job) {
+        return job.getFinishedAt() != null && job.getFinishedAt().isBefore(Instant.now().minus(retention));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Records recalculation progress on the job row, throttled so a large roster does not write per grade.
+     */
+    private final class ProgressWriter implements RecalculationProgress.Listener {
+        private final HpsPropagationJob job;
+        private long lastWrite;
+
+        private ProgressWriter(HpsPropagationJob job) {
+            this.job = job;
+        }
+
+        @Override
+        public void onProgress(int processed, int total) {
+            job.setProcessed(processed);
+            job.setTotal(total);
+            long now = System.currentTimeMillis();
+            if (processed >= total || now - lastWrite >= progressIntervalMillis) {
+                lastWrite = now;
+                store(job);
+            }
+        }
+    }
+
+    /**
+     * One background job as read from its status row, plus the roster's HPS once it has succeeded.
+     */
+    public static class HpsJob {
+        private final String jobId;
+        private final Long rosterId;
+        private final String kind;
+        private final HpsPropagationJob.Status status;
+        private final int processed;
+        private final int total;
+        private final Instant submittedAt;
+        private final Instant startedAt;
+        private final Instant finishedAt;
+        private final String error;
+        private final HighestPossibleScore result;
+
+        HpsJob(HpsPropagationJob job, HighestPossibleScore result) {
+            this.jobId = job.getJobId();
+            this.rosterId = job.getRosterId();
+            this.kind = job.getKind();
+            this.status = job.getStatus();
+            this.processed = job.getProcessed();
+            this.total = job.getTotal();
+            this.submittedAt = job.getSubmittedAt();
+            this.startedAt = job.getStartedAt();
+            this.finishedAt = job.getFinishedAt();
+            this.error = job.getError();
+            this.result = result;
+        }
+
+        public String getJobId() { return jobId; }
+        public Long getRosterId() { return rosterId; }
+        public String getKind() { return kind; }
+        public HpsPropagationJob.Status getStatus() { return status; }
+        public int getProcessed() { return processed; }
+        public int getTotal() { return total; }
+        public Instant getSubmittedAt() { return submittedAt; }
+        public Instant getStartedAt() { return startedAt; }
+        public Instant getFinishedAt() { return finishedAt; }
+        public String getError() { return error; }
+        public HighestPossibleScore getResult() { return result; }
+    }
+}
@@ -0,0 +1,105 @@
+package com.school.roster.school_roster_backend.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing.
+ *
+ * Listings sort on a unique key and fetch {@code size + 1} rows after the cursor's key, so a page
+ * costs one index range scan however deep the client has paged. {@code nextCursor} is opaque:
+ * clients pass it back as {@code after} to continue, and it is null once the listing is exhausted.
+ */
+@Data
+@AllArgsConstructor
+public class KeysetPage<T> {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+
+    // LIKE escape character; '!' because a backslash is itself an escape inside MySQL string literals
+    public static final char LIKE_ESCAPE = '!';
+
+    private List<T> items;
+    private String nextCursor;
+
+    public static int clampSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_SIZE;
+        }
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    /**
+     * Builds a page from rows fetched with a limit of {@code size + 1}; the extra row only signals
+     * that another page exists and is not returned.
+     */
+    public static <R, T> KeysetPage<T> of(List<R> rows, int size, Function<R, T> mapper, Function<R, String> key) {
+        boolean more = rows.size() > size;
+        List<R> included = more ? rows.subList(0, size) : rows;
+        List<T> items = new ArrayList<>(included.size());
+        for (R row : included) {
+            items.add(mapper.apply(row));
+        }
+        String nextCursor = more ? encodeCursor(key.apply(included.get(included.size() - 1))) : null;
+        return new KeysetPage<>(items, nextCursor);
+    }
+
+    public static String encodeCursor(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the key encoded in the cursor, or null for a missing cursor (first page).
+     */
+    public static String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public static Long decodeLongCursor(String cursor) {
+        String key = decodeCursor(cursor);
+        if (key == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(key);
+        } catch (NumberFormatException ex) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * @return a LIKE pattern matching values that start with {@code prefix} (escaped with
+     *         {@link #LIKE_ESCAPE}), or null for a blank prefix so the filter is skipped.
+     */
+    public static String likePrefix(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return null;
+        }
+        StringBuilder pattern = new StringBuilder();
+        for (char c : prefix.trim().toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+
+    public static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -0,0 +1,96 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.exception.ConflictException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a unit of work in a fresh transaction when it loses an optimistic-lock race.
+ *
+ * Only for operations that are safe to replay against newer state (HPS PS/WS recompute: the
+ * new values are re-applied and every grade recalculated from whatever is current). Each attempt
+ * clears the persistence context first, so the retry reads committed rows instead of the stale
+ * entities open-session-in-view kept from the failed attempt. Backoff doubles per attempt, with jitter.
+ */
+@Component
+public class OptimisticRetry {
+
+    private static final Logger log = LoggerFactory.getLogger(OptimisticRetry.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    public OptimisticRetry(PlatformTransactionManager transactionManager,
+                           EntityManager entityManager,
+                           @Value("${grading.optimistic-retry.max-attempts:4}") int maxAttempts,
+                           @Value("${grading.optimistic-retry.backoff-ms:25}") long backoffMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = backoffMillis;
+    }
+
+    /**
+     * Run {@code work} in its own transaction, retrying on optimistic-lock failures.
+     * Once {@code maxAttempts} is reached the last failure is rethrown as an
+     * {@link OptimisticLockingFailureException}. Must not be called inside an outer transaction:
+     * a failed attempt would mark it rollback-only and the retry could not succeed.
+     */
+    public <T> T execute(String operation, Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                entityManager.clear();
+                if (attempt >= maxAttempts) {
+                    log.warn("{} still conflicting after {} attempts", operation, attempt);
+                    throw e instanceof OptimisticLockingFailureException springFailure
+                            ? springFailure
+                            : new OptimisticLockingFailureException(e.getMessage(), e);
+                }
+                log.debug("{} hit an optimistic-lock conflict (attempt {}), retrying", operation, attempt);
+                sleep(attempt);
+            }
+        }
+    }
+
+    /**
+     * Like {@link #execute(String, Supplier)}, but once the attempts are used up the failure becomes a
+     * {@link ConflictException} carrying {@code current}, read in a fresh transaction after the last
+     * attempt, so the client gets the state it lost to instead of a bare 409.
+     */
+    public <T> T execute(String operation, Supplier<T> work, Supplier<?> current) {
+        try {
+            return execute(operation, work);
+        } catch (OptimisticLockingFailureException e) {
+            Object snapshot = transactionTemplate.execute(status -> current.get());
+            throw new ConflictException(operation + " kept conflicting with changes made by someone else. "
+                    + "Review the current state and try again.", snapshot);
+        }
+    }
+
+    private void sleep(int attempt) {
+        if (backoffMillis <= 0) {
+            return;
+        }
+        long base = backoffMillis << (attempt - 1);
+        try {
+            Thread.sleep(base + ThreadLocalRandom.current().nextLong(base + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying an optimistic-lock conflict.", e);
+        }
+    }
+}
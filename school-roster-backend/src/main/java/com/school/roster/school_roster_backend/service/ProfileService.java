@@ -15,6 +15,7 @@ import com.school.roster.school_roster_backend.repository.StudentProfileReposito
 import com.school.roster.school_roster_backend.repository.UserRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -30,6 +31,10 @@ public class ProfileService {
     private final StudentProfileRepository studentProfileRepository;
     private final NonStudentProfileRepository nonStudentProfileRepository;
 
+    // Cursor key prefixes for getProfilePage
+    private static final String STUDENT_CURSOR = "S:";
+    private static final String NON_STUDENT_CURSOR = "N:";
+
     // === Create Student Profile ===
     public StudentProfile createStudentProfile(String userId, StudentProfile studentProfile) {
         User user = userRepository.findById(userId)
@@ -365,11 +370,59 @@ public class ProfileService {
     }
 
 
-    // === Get All Profiles Combined ===
-    public List<Object> getAllProfiles() {
-        List<Object> profiles = new ArrayList<>();
-        profiles.addAll(studentProfileRepository.findAll());
-        profiles.addAll(nonStudentProfileRepository.findAll());
-        return profiles;
+    // === Keyset-paginated listing of all profiles ===
+    // Student profiles first, then non-student profiles, each in ID order; the cursor key records
+    // which table the previous page stopped in ("S:<id>" or "N:<id>").
+    public KeysetPage<ProfileController.ProfileListItem> getProfilePage(String gradeLevel, String namePrefix,
+                                                                         String after, Integer size) {
+        int pageSize = KeysetPage.clampSize(size);
+        String level = KeysetPage.blankToNull(gradeLevel);
+        String name = KeysetPage.likePrefix(namePrefix);
+
+        String key = KeysetPage.decodeCursor(after);
+        if (key != null && !key.startsWith(STUDENT_CURSOR) && !key.startsWith(NON_STUDENT_CURSOR)) {
+            throw new RuntimeException("Invalid cursor: " + after);
+        }
+        Long afterId = key != null ? parseCursorId(key, after) : null;
+
+        List<ProfileController.ProfileListItem> items = new ArrayList<>();
+        if (key == null || key.startsWith(STUDENT_CURSOR)) {
+            KeysetPage<ProfileController.ProfileListItem> students = KeysetPage.of(
+                    studentProfileRepository.findListPage(level, name, afterId, Limit.of(pageSize + 1)), pageSize,
+                    row -> toProfileListItem("STUDENT", row), row -> STUDENT_CURSOR + row.getProfileId());
+            if (students.getNextCursor() != null) {
+                return students;
+            }
+            items.addAll(students.getItems());
+            afterId = null;
+        }
+
+        int remaining = pageSize - items.size();
+        if (remaining == 0) {
+            // Student profiles filled this page exactly; the next page starts on non-student profiles
+            return new KeysetPage<>(items, KeysetPage.encodeCursor(NON_STUDENT_CURSOR));
+        }
+        KeysetPage<ProfileController.ProfileListItem> nonStudents = KeysetPage.of(
+                nonStudentProfileRepository.findListPage(level, name, afterId, Limit.of(remaining + 1)), remaining,
+                row -> toProfileListItem("NON_STUDENT", row), row -> NON_STUDENT_CURSOR + row.getProfileId());
+        items.addAll(nonStudents.getItems());
+        return new KeysetPage<>(items, nonStudents.getNextCursor());
+    }
+
+    private Long parseCursorId(String key, String cursor) {
+        String id = key.substring(2);
+        if (id.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException ex) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private ProfileController.ProfileListItem toProfileListItem(String type, StudentProfileRepository.ProfileListRow row) {
+        return new ProfileController.ProfileListItem(type, row.getProfileId(), row.getUserId(),
+                row.getFirstName(), row.getMiddleName(), row.getLastName(), row.getGradeLevel());
     }
 }
@@ -0,0 +1,39 @@
+package com.school.roster.school_roster_backend.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lets a caller follow a roster-wide recalculation without threading a callback through every service.
+ *
+ * {@link GradeRecalculationEngine} reports grades processed per roster; whoever registered a listener
+ * for that roster (an async HPS job) receives the counts. Roster writes are serialized by
+ * {@link RosterLockManager}, so at most one recalculation per roster reports at a time.
+ */
+@Component
+public class RecalculationProgress {
+
+    @FunctionalInterface
+    public interface Listener {
+        void onProgress(int processed, int total);
+    }
+
+    private final Map<Long, Listener> listeners = new ConcurrentHashMap<>();
+
+    public void watch(Long rosterId, Listener listener) {
+        listeners.put(rosterId, listener);
+    }
+
+    public void unwatch(Long rosterId) {
+        listeners.remove(rosterId);
+    }
+
+    /**
+     * Listener for a roster, or null when nobody is watching (the common, synchronous case).
+     */
+    public Listener listenerFor(Long rosterId) {
+        return listeners.get(rosterId);
+    }
+}
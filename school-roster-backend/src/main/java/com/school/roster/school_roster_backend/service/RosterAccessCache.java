@@ -0,0 +1,193 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.entity.enums.Role;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL-evicting cache of roster authorization decisions keyed by (user ID, roles, roster ID).
+ *
+ * Roles come from the caller's JWT rather than the database, so they are part of the key: a token
+ * issued before a role change computes and reads its own entry and never hands its decision to a
+ * token carrying the new roles (or the other way round).
+ *
+ * One entry holds both the view and the edit decision, so a request that checks either reuses it.
+ * Entries are dropped precisely when their inputs change: membership events for the roster
+ * (enrol, remove, reassign, delete) and {@link UserAccessChanged} for the user's roles. Both are
+ * applied after commit, after {@link RosterMembershipIndex} has taken the same event, and bump a
+ * generation counter so a decision computed from pre-change state is never stored afterwards.
+ * Changes made on another node reach this cache when the index's periodic rebuild picks them up.
+ *
+ * Metrics: roster.access.cache tagged result=hit|miss (counters), roster.access.cache.size (gauge).
+ */
+@Component
+public class RosterAccessCache {
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier clock;
+
+    private final LinkedHashMap<Key, Entry> entries;
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public RosterAccessCache(MeterRegistry registry) {
+        this(registry, 60, 10_000, System::nanoTime);
+    }
+
+    @Autowired
+    public RosterAccessCache(
+            MeterRegistry registry,
+            @Value("${roster.access-cache.ttl-seconds:60}") long ttlSeconds,
+            @Value("${roster.access-cache.max-entries:10000}") int maxEntries
+    ) {
+        this(registry, ttlSeconds, maxEntries, System::nanoTime);
+    }
+
+    RosterAccessCache(MeterRegistry registry, long ttlSeconds, int maxEntries, LongSupplier clock) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        // access order: the eldest entry is the least recently used one
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > RosterAccessCache.this.maxEntries;
+            }
+        };
+        this.hits = Counter.builder("roster.access.cache").tag("result", "hit")
+                .description("Roster authorization decisions served from the cache")
+                .register(registry);
+        this.misses = Counter.builder("roster.access.cache").tag("result", "miss")
+                .description("Roster authorization decisions that had to be computed")
+                .register(registry);
+        Gauge.builder("roster.access.cache.size", this, RosterAccessCache::size)
+                .description("Cached roster authorization decisions")
+                .register(registry);
+    }
+
+    public record Decision(boolean canView, boolean canEdit) {
+    }
+
+    /**
+     * Published when a user's roles change or the user is deleted.
+     */
+    public record UserAccessChanged(String userId) {
+    }
+
+    private record Key(String userId, Set<Role> roles, Long rosterId) {
+    }
+
+    private record Entry(Decision decision, long expiresAt) {
+    }
+
+    /**
+     * Cached decision for the user, role set and roster, computing (and caching) it on a miss.
+     * Anonymous users (no ID) are never cached.
+     */
+    public Decision get(String userId, Set<Role> roles, Long rosterId, Supplier<Decision> compute) {
+        if (userId == null || rosterId == null) {
+            return compute.get();
+        }
+        Key key = new Key(userId, roles != null ? Set.copyOf(roles) : Set.of(), rosterId);
+        long startGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt() - clock.getAsLong() > 0) {
+                hits.increment();
+                return entry.decision();
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+            startGeneration = generation;
+        }
+
+        misses.increment();
+        Decision decision = compute.get();
+        synchronized (this) {
+            if (generation == startGeneration) {
+                entries.put(key, new Entry(decision, clock.getAsLong() + ttlNanos));
+            }
+        }
+        return decision;
+    }
+
+    // === Invalidation ===
+
+    public synchronized void invalidateRoster(Long rosterId) {
+        generation++;
+        entries.keySet().removeIf(key -> key.rosterId().equals(rosterId));
+    }
+
+    public synchronized void invalidateUser(String userId) {
+        generation++;
+        entries.keySet().removeIf(key -> key.userId().equals(userId));
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    @Order(RosterMembershipIndex.EVENT_ORDER + 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(RosterMembershipIndex.MembersChanged event) {
+        invalidateRoster(event.rosterId());
+    }
+
+    @Order(RosterMembershipIndex.EVENT_ORDER + 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(RosterMembershipIndex.TeacherChanged event) {
+        invalidateRoster(event.rosterId());
+    }
+
+    @Order(RosterMembershipIndex.EVENT_ORDER + 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(RosterMembershipIndex.RosterRemoved event) {
+        invalidateRoster(event.rosterId());
+    }
+
+    @Order(RosterMembershipIndex.EVENT_ORDER + 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(RosterMembershipIndex.StudentsRemoved event) {
+        invalidateRoster(event.rosterId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(UserAccessChanged event) {
+        invalidateUser(event.userId());
+    }
+
+    @EventListener
+    public void on(RosterMembershipIndex.Rebuilt event) {
+        clear();
+    }
+
+    // === Stats ===
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public double hitRate() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0.0 : hits.count() / total;
+    }
+}
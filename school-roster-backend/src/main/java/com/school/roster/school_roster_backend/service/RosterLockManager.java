@@ -0,0 +1,160 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes gradebook mutations (grade edits, HPS slot/PS/WS changes, enrolment) within one roster.
+ *
+ * Locks are keyed by roster ID and created on demand, then dropped once no thread holds or waits
+ * for them, so edits on different rosters never share a lock. Callers take the lock in the
+ * controller, around the transactional service call and before any of the roster's entities are
+ * loaded, so the lock is held across the commit and the next holder reads committed state.
+ *
+ * A wait that outlasts {@code roster.lock.timeout-ms} fails with {@link ServiceBusyException} (503), so the
+ * client can retry.
+ *
+ * Metrics: roster.lock.wait (timer), roster.lock.contended, roster.lock.timeouts (counters),
+ * roster.lock.active (gauge of rosters with a live lock).
+ */
+@Component
+public class RosterLockManager {
+
+    private final ConcurrentHashMap<Long, RosterLock> locks = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+
+    private final Timer waitTimer;
+    private final Counter contended;
+    private final Counter timeouts;
+
+    public RosterLockManager(MeterRegistry registry, @Value("${roster.lock.timeout-ms:10000}") long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.waitTimer = Timer.builder("roster.lock.wait")
+                .description("Time spent waiting for a roster lock")
+                .register(registry);
+        this.contended = Counter.builder("roster.lock.contended")
+                .description("Roster lock acquisitions that had to wait for another holder")
+                .register(registry);
+        this.timeouts = Counter.builder("roster.lock.timeouts")
+                .description("Roster lock acquisitions that gave up after roster.lock.timeout-ms")
+                .register(registry);
+        Gauge.builder("roster.lock.active", locks, ConcurrentHashMap::size)
+                .description("Rosters with a lock currently held or awaited")
+                .register(registry);
+    }
+
+    public <T> T withLock(Long rosterId, Supplier<T> action) {
+        RosterLock rosterLock = acquire(rosterId);
+        try {
+            return action.get();
+        } finally {
+            release(rosterId, rosterLock);
+        }
+    }
+
+    public void withLock(Long rosterId, Runnable action) {
+        withLock(rosterId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the action holding the locks of every given roster. Locks are taken in ascending roster ID
+     * order, so two callers spanning overlapping rosters cannot deadlock, and released in reverse.
+     */
+    public <T> T withLocks(Collection<Long> rosterIds, Supplier<T> action) {
+        List<Long> ordered = new ArrayList<>(new TreeSet<>(rosterIds));
+        Deque<RosterLock> held = new ArrayDeque<>();
+        try {
+            for (Long rosterId : ordered) {
+                held.push(acquire(rosterId));
+            }
+            return action.get();
+        } finally {
+            while (!held.isEmpty()) {
+                release(ordered.get(held.size() - 1), held.pop());
+            }
+        }
+    }
+
+    private RosterLock acquire(Long rosterId) {
+        if (rosterId == null) {
+            throw new RuntimeException("Roster ID is required.");
+        }
+        RosterLock rosterLock = locks.compute(rosterId, (id, existing) -> {
+            RosterLock entry = existing != null ? existing : new RosterLock();
+            entry.users++;
+            return entry;
+        });
+
+        if (rosterLock.lock.tryLock()) {
+            waitTimer.record(0, TimeUnit.NANOSECONDS);
+            return rosterLock;
+        }
+
+        contended.increment();
+        long start = System.nanoTime();
+        boolean acquired = false;
+        try {
+            acquired = rosterLock.lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                forget(rosterId);
+            }
+        }
+        if (!acquired) {
+            timeouts.increment();
+            throw new ServiceBusyException("Roster " + rosterId + " is busy with another change. Please try again.");
+        }
+        return rosterLock;
+    }
+
+    private void release(Long rosterId, RosterLock rosterLock) {
+        rosterLock.lock.unlock();
+        forget(rosterId);
+    }
+
+    private void forget(Long rosterId) {
+        locks.computeIfPresent(rosterId, (id, entry) -> --entry.users == 0 ? null : entry);
+    }
+
+    /**
+     * How long an acquisition waits before giving up, from {@code roster.lock.timeout-ms}.
+     */
+    public long timeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Number of rosters that currently have a lock held or awaited.
+     */
+    public int activeLocks() {
+        return locks.size();
+    }
+
+    private static final class RosterLock {
+        private final ReentrantLock lock = new ReentrantLock();
+        // guarded by the map's per-key compute
+        private int users;
+    }
+}
@@ -0,0 +1,384 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.entity.Roster;
+import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.repository.RosterRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * In-memory teacher → roster → student membership, so authorization checks are hash lookups
+ * instead of loading rosters with their student lists.
+ *
+ * Built from the roster/teacher and roster_students join columns once the application is ready,
+ * then kept current by the membership events RosterService and UserService publish; those are
+ * applied after the publishing transaction commits, so a rolled-back enrolment never shows up.
+ * Lookups before the first build, or for a roster the index has not seen, are reported as misses
+ * and callers fall back to the database.
+ *
+ * Readers see one immutable {@link Snapshot} through a volatile reference; every change, and every
+ * reload, builds the next snapshot off to the side and publishes it in a single write, so a lookup
+ * never observes a half-applied change or a half-reloaded index.
+ *
+ * Events only reach the node that made the change, so each one also bumps the roster's
+ * {@code membership_version} inside the changing transaction. Every
+ * {@code roster.membership.refresh-interval-ms} each node reads one aggregate over the rosters table
+ * and reloads roster_students only if it moved, or once {@code roster.membership.full-reload-interval-ms}
+ * has passed as a backstop for changes made outside these events. A reload that changes anything
+ * publishes {@link Rebuilt} so decisions cached from the old membership are dropped too.
+ *
+ * Metrics: roster.membership.rosters, roster.membership.enrolments (gauges),
+ * roster.membership.lookups tagged result=hit|miss (counters), roster.membership.reloads (counter).
+ */
+@Component
+public class RosterMembershipIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(RosterMembershipIndex.class);
+
+    // After-commit listeners that read the index (e.g. RosterAccessCache) must order after this
+    public static final int EVENT_ORDER = 0;
+
+    private final RosterRepository rosterRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long fullReloadIntervalNanos;
+
+    // Null until the first build
+    private volatile Snapshot snapshot;
+    private Fingerprint loadedFingerprint;
+    private long loadedAtNanos;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter reloads;
+
+    public RosterMembershipIndex(RosterRepository rosterRepository, ApplicationEventPublisher eventPublisher,
+                                 MeterRegistry registry,
+                                 @Value("${roster.membership.full-reload-interval-ms:3600000}") long fullReloadIntervalMillis) {
+        this.rosterRepository = rosterRepository;
+        this.eventPublisher = eventPublisher;
+        this.fullReloadIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fullReloadIntervalMillis);
+        this.hits = Counter.builder("roster.membership.lookups").tag("result", "hit")
+                .description("Authorization checks answered from the membership index")
+                .register(registry);
+        this.misses = Counter.builder("roster.membership.lookups").tag("result", "miss")
+                .description("Authorization checks that fell back to the database")
+                .register(registry);
+        this.reloads = Counter.builder("roster.membership.reloads")
+                .description("Full reloads of roster membership from the database")
+                .register(registry);
+        Gauge.builder("roster.membership.rosters", this, RosterMembershipIndex::size)
+                .description("Rosters held in the membership index")
+                .register(registry);
+        Gauge.builder("roster.membership.enrolments", this, RosterMembershipIndex::enrolments)
+                .description("Roster/student pairs held in the membership index")
+                .register(registry);
+    }
+
+    /**
+     * Teacher and student IDs of one roster. Immutable; replaced as a whole on every change.
+     */
+    public record Membership(String teacherId, Set<String> studentIds) {
+    }
+
+    /**
+     * Everything the index knows at one moment; never modified once published.
+     */
+    private record Snapshot(Map<Long, Membership> rosters, Map<String, Set<Long>> rostersByTeacher) {
+    }
+
+    private record Fingerprint(long rosters, long idSum, long versionSum) {
+    }
+
+    // === Events (published inside the changing transaction, applied after commit) ===
+
+    /**
+     * An event that changes one roster's membership.
+     */
+    public sealed interface MembershipChange permits MembersChanged, TeacherChanged, RosterRemoved, StudentsRemoved {
+        Long rosterId();
+    }
+
+    /**
+     * The roster's full membership after the change.
+     */
+    public record MembersChanged(Long rosterId, String teacherId, Set<String> studentIds) implements MembershipChange {
+        public static MembersChanged of(Roster roster) {
+            Set<String> studentIds = new HashSet<>();
+            for (User student : roster.getStudents()) {
+                studentIds.add(student.getId());
+            }
+            String teacherId = roster.getTeacher() != null ? roster.getTeacher().getId() : null;
+            return new MembersChanged(roster.getId(), teacherId, studentIds);
+        }
+
+        public Membership membership() {
+            return new Membership(teacherId, Collections.unmodifiableSet(studentIds));
+        }
+    }
+
+    public record TeacherChanged(Long rosterId, String teacherId) implements MembershipChange {
+    }
+
+    public record RosterRemoved(Long rosterId) implements MembershipChange {
+    }
+
+    /**
+     * Students unlinked from one roster by a bulk delete; the rest of the membership is unchanged.
+     */
+    public record StudentsRemoved(Long rosterId, Set<String> studentIds) implements MembershipChange {
+    }
+
+    /**
+     * A periodic reload found membership changed outside this node's events (published immediately).
+     */
+    public record Rebuilt() {
+    }
+
+    // === Build ===
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        load(fingerprint());
+        log.info("Roster membership index built: {} rosters, {} enrolments", size(), enrolments());
+    }
+
+    /**
+     * Reloads the index from the database if the membership fingerprint moved (or the full-reload
+     * interval has passed), publishing {@link Rebuilt} if the reloaded membership differed.
+     *
+     * @return whether anything changed.
+     */
+    @Scheduled(
+            initialDelayString = "${roster.membership.refresh-interval-ms:30000}",
+            fixedDelayString = "${roster.membership.refresh-interval-ms:30000}"
+    )
+    public boolean refresh() {
+        boolean changed;
+        synchronized (this) {
+            // Read before the reload: a change committed in between is reloaded now and seen again next time
+            Fingerprint current = fingerprint();
+            if (current.equals(loadedFingerprint) && System.nanoTime() - loadedAtNanos < fullReloadIntervalNanos) {
+                return false;
+            }
+            Snapshot before = snapshot;
+            load(current);
+            changed = before == null || !before.rosters().equals(snapshot.rosters());
+        }
+        if (changed) {
+            log.debug("Roster membership index refreshed with outside changes: {} rosters", size());
+            eventPublisher.publishEvent(new Rebuilt());
+        }
+        return changed;
+    }
+
+    private Fingerprint fingerprint() {
+        RosterRepository.MembershipFingerprint row = rosterRepository.findMembershipFingerprint();
+        return new Fingerprint(row.getRosters(), row.getIdSum(), row.getVersionSum());
+    }
+
+    private void load(Fingerprint fingerprint) {
+        Map<Long, String> teachers = new HashMap<>();
+        for (RosterRepository.MembershipLink link : rosterRepository.findAllTeacherLinks()) {
+            teachers.put(link.getRosterId(), link.getMemberId());
+        }
+        Map<Long, Set<String>> students = new HashMap<>();
+        for (RosterRepository.MembershipLink link : rosterRepository.findAllStudentLinks()) {
+            students.computeIfAbsent(link.getRosterId(), id -> new HashSet<>()).add(link.getMemberId());
+        }
+
+        Builder next = new Builder(null);
+        teachers.forEach((rosterId, teacherId) ->
+                next.put(rosterId, teacherId, students.getOrDefault(rosterId, Set.of())));
+        snapshot = next.build();
+        loadedFingerprint = fingerprint;
+        loadedAtNanos = System.nanoTime();
+        reloads.increment();
+    }
+
+    // === Updates ===
+
+    /**
+     * Marks the roster changed for the other nodes, inside the transaction making the change.
+     */
+    @EventListener
+    public void recordChange(MembershipChange change) {
+        rosterRepository.bumpMembershipVersion(change.rosterId());
+    }
+
+    @Order(EVENT_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void on(MembersChanged event) {
+        update(next -> next.put(event.rosterId(), event.teacherId(), event.studentIds()));
+    }
+
+    @Order(EVENT_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void on(TeacherChanged event) {
+        update(next -> {
+            Membership current = next.rosters.get(event.rosterId());
+            if (current != null) {
+                next.put(event.rosterId(), event.teacherId(), current.studentIds());
+            }
+        });
+    }
+
+    @Order(EVENT_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void on(RosterRemoved event) {
+        update(next -> next.remove(event.rosterId()));
+    }
+
+    @Order(EVENT_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void on(StudentsRemoved event) {
+        update(next -> {
+            Membership current = next.rosters.get(event.rosterId());
+            if (current != null) {
+                Set<String> remaining = new HashSet<>(current.studentIds());
+                remaining.removeAll(event.studentIds());
+                next.put(event.rosterId(), current.teacherId(), remaining);
+            }
+        });
+    }
+
+    // Before the first build there is nothing to update: the build reads the committed state
+    private void update(Consumer<Builder> change) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        Builder next = new Builder(current);
+        change.accept(next);
+        snapshot = next.build();
+    }
+
+    /**
+     * The next snapshot: shallow copies of the current maps, copying a teacher's roster set only when it changes.
+     */
+    private static final class Builder {
+        private final Map<Long, Membership> rosters;
+        private final Map<String, Set<Long>> rostersByTeacher;
+
+        private Builder(Snapshot from) {
+            this.rosters = from != null ? new HashMap<>(from.rosters()) : new HashMap<>();
+            this.rostersByTeacher = from != null ? new HashMap<>(from.rostersByTeacher()) : new HashMap<>();
+        }
+
+        private void put(Long rosterId, String teacherId, Set<String> studentIds) {
+            Membership previous = rosters.put(rosterId,
+                    new Membership(teacherId, Collections.unmodifiableSet(new HashSet<>(studentIds))));
+            if (previous != null && previous.teacherId() != null && !previous.teacherId().equals(teacherId)) {
+                unlinkTeacher(rosterId, previous.teacherId());
+            }
+            if (teacherId != null) {
+                Set<Long> ids = new HashSet<>(rostersByTeacher.getOrDefault(teacherId, Set.of()));
+                ids.add(rosterId);
+                rostersByTeacher.put(teacherId, Collections.unmodifiableSet(ids));
+            }
+        }
+
+        private void remove(Long rosterId) {
+            Membership removed = rosters.remove(rosterId);
+            if (removed != null) {
+                unlinkTeacher(rosterId, removed.teacherId());
+            }
+        }
+
+        private void unlinkTeacher(Long rosterId, String teacherId) {
+            if (teacherId == null) {
+                return;
+            }
+            Set<Long> ids = new HashSet<>(rostersByTeacher.getOrDefault(teacherId, Set.of()));
+            ids.remove(rosterId);
+            if (ids.isEmpty()) {
+                rostersByTeacher.remove(teacherId);
+            } else {
+                rostersByTeacher.put(teacherId, Collections.unmodifiableSet(ids));
+            }
+        }
+
+        private Snapshot build() {
+            return new Snapshot(Collections.unmodifiableMap(rosters), Collections.unmodifiableMap(rostersByTeacher));
+        }
+    }
+
+    // === Lookups ===
+
+    /**
+     * @return the roster's membership, or empty (a miss) if the index cannot answer for it.
+     */
+    public Optional<Membership> lookup(Long rosterId) {
+        Snapshot current = snapshot;
+        Membership membership = current != null ? current.rosters().get(rosterId) : null;
+        (membership != null ? hits : misses).increment();
+        return Optional.ofNullable(membership);
+    }
+
+    /**
+     * @return whether the student is enrolled in any of the teacher's rosters,
+     *         or empty (a miss) before the index is built.
+     */
+    public Optional<Boolean> isStudentUnderTeacher(String teacherId, String studentId) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        for (Long rosterId : current.rostersByTeacher().getOrDefault(teacherId, Set.of())) {
+            Membership membership = current.rosters().get(rosterId);
+            if (membership != null && membership.studentIds().contains(studentId)) {
+                return Optional.of(true);
+            }
+        }
+        return Optional.of(false);
+    }
+
+    // === Stats ===
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    public int size() {
+        Snapshot current = snapshot;
+        return current != null ? current.rosters().size() : 0;
+    }
+
+    public long enrolments() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return 0;
+        }
+        long total = 0;
+        for (Membership membership : current.rosters().values()) {
+            total += membership.studentIds().size();
+        }
+        return total;
+    }
+
+    public double hitRate() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0.0 : hits.count() / total;
+    }
+}
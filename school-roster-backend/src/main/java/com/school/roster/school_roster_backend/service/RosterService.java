@@ -1,20 +1,30 @@
 package com.school.roster.school_roster_backend.service;
 
-import com.school.roster.school_roster_backend.entity.Grade;
 import com.school.roster.school_roster_backend.entity.HighestPossibleScore;
 import com.school.roster.school_roster_backend.entity.Roster;
 import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.entity.enums.Role;
 import com.school.roster.school_roster_backend.repository.GradeRepository;
 import com.school.roster.school_roster_backend.repository.RosterRepository;
 import com.school.roster.school_roster_backend.repository.UserRepository;
+import com.school.roster.school_roster_backend.security.UserIdentity;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.context.annotation.Lazy;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -25,19 +35,34 @@ public class RosterService {
     private final GradeRepository gradeRepository;
     private final GradeService gradeService;
     private final HighestPossibleScoreService highestPossibleScoreService;
+    private final GradeCalculator gradeCalculator;
+    private final RosterMembershipIndex membershipIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RosterAccessCache accessCache;
+    private final EntityManager entityManager;
 
     public RosterService(
             RosterRepository rosterRepository,
             UserRepository userRepository,
             GradeRepository gradeRepository,
             @Lazy GradeService gradeService,
-            HighestPossibleScoreService highestPossibleScoreService
+            HighestPossibleScoreService highestPossibleScoreService,
+            GradeCalculator gradeCalculator,
+            RosterMembershipIndex membershipIndex,
+            ApplicationEventPublisher eventPublisher,
+            RosterAccessCache accessCache,
+            EntityManager entityManager
     ) {
         this.rosterRepository = rosterRepository;
         this.userRepository = userRepository;
         this.gradeRepository = gradeRepository;
         this.gradeService = gradeService;
         this.highestPossibleScoreService = highestPossibleScoreService;
+        this.gradeCalculator = gradeCalculator;
+        this.membershipIndex = membershipIndex;
+        this.eventPublisher = eventPublisher;
+        this.accessCache = accessCache;
+        this.entityManager = entityManager;
     }
 
     // === Create Roster ===
@@ -51,44 +76,66 @@ public class RosterService {
         roster.setNickname(incomingRoster.getNickname());
         roster.setGradeLevel(incomingRoster.getGradeLevel());
         roster.setTeacher(teacher);
-        roster.setStudents(new ArrayList<>());
+        roster.setStudents(new LinkedHashSet<>());
         roster.setGrades(new ArrayList<>());
-        roster.setClassGpa(0f);
+        roster.resetGradeTotals(0.0, 0);
 
         Roster savedRoster = rosterRepository.save(roster);
 
         HighestPossibleScore hps = highestPossibleScoreService.createHighestPossibleScore(savedRoster);
         savedRoster.setHighestPossibleScore(hps);
 
-        return rosterRepository.save(savedRoster);
+        Roster result = rosterRepository.save(savedRoster);
+        eventPublisher.publishEvent(RosterMembershipIndex.MembersChanged.of(result));
+        return result;
     }
 
-    public void recalculateClassGpa(Long rosterId) {
-        // 1) Fetch the roster (including its grades collection)
-        Roster roster = rosterRepository.findById(rosterId)
+    // === Class GPA ===
+
+    /**
+     * Apply one grade change to the roster's running totals (O(1), no grades collection load).
+     * The increment is a single UPDATE, so concurrent deltas - from any node - never overwrite
+     * each other; classGpa is then derived from the totals that update produced, under the row
+     * lock it still holds. Rosters that predate the running totals are seeded from a full
+     * aggregate on first use.
+     */
+    public void applyGradeDelta(Long rosterId, double sumDelta, int countDelta) {
+        if (rosterRepository.addToGradeTotals(rosterId, sumDelta, countDelta) == 0) {
+            // Not seeded (or missing); the update flushed first, so the aggregate includes this change
+            recalculateClassGpa(rosterId);
+            return;
+        }
+        GradeRepository.GradeTotals totals = rosterRepository.findStoredGradeTotalsById(rosterId)
                 .orElseThrow(() -> new RuntimeException("Roster not found with ID: " + rosterId));
+        float classGpa = gradeCalculator.getArithmetic().classGpa(totals.getGradeSum(), totals.getGradeCount());
+        rosterRepository.updateClassGpa(rosterId, classGpa);
+        syncManagedRoster(rosterId, totals.getGradeSum(), totals.getGradeCount());
+    }
 
-        var grades = roster.getGrades();
-        if (grades == null || grades.isEmpty()) {
-            roster.setClassGpa(0.0f);
-        } else {
-            double sum = 0.0;
-            int count = 0;
-            for (var grade : grades) {
-                Double initial = grade.getInitialGrade();
-                if (initial != null) {
-                    sum += initial;
-                }
-                count++;
-            }
-            double avg = (count > 0) ? (sum / count) : 0.0;
-            // Round to two decimals, then cast to float
-            float roundedAvg = (float) (Math.round(avg * 100.0) / 100.0);
-            roster.setClassGpa(roundedAvg);
+    /**
+     * Full recalculation of classGpa from the grades table; also resets the running totals.
+     */
+    public void recalculateClassGpa(Long rosterId) {
+        if (!rosterRepository.existsById(rosterId)) {
+            throw new RuntimeException("Roster not found with ID: " + rosterId);
+        }
+        Optional<GradeRepository.GradeTotals> totals = gradeRepository.sumInitialGradesByRosterId(rosterId);
+        double sum = totals.map(GradeRepository.GradeTotals::getGradeSum).orElse(0.0);
+        long count = totals.map(GradeRepository.GradeTotals::getGradeCount).orElse(0L);
+        if (count == 0) {
+            sum = 0.0;
         }
+        rosterRepository.setGradeTotals(rosterId, sum, Math.toIntExact(count),
+                gradeCalculator.getArithmetic().classGpa(sum, count));
+        syncManagedRoster(rosterId, sum, count);
+    }
 
-        // 2) Save the roster so the new GPA is persisted
-        rosterRepository.save(roster);
+    // A roster already loaded in this persistence context would otherwise keep the old totals
+    private void syncManagedRoster(Long rosterId, double sum, long count) {
+        Roster managed = entityManager.getReference(Roster.class, rosterId);
+        if (managed != null && Hibernate.isInitialized(managed)) {
+            managed.resetGradeTotals(sum, count, gradeCalculator.getArithmetic());
+        }
     }
 
     // === Assign Student to Roster ===
@@ -96,23 +143,45 @@ public class RosterService {
         Roster roster = rosterRepository.findById(rosterId)
                 .orElseThrow(() -> new RuntimeException("Roster not found with ID: " + rosterId));
 
-        for (String studentId : studentIds) {
-            User student = userRepository.findById(studentId)
-                    .orElseThrow(() -> new RuntimeException("Student not found with ID: " + studentId));
+        // One IN query for every requested user; repeated IDs in the request collapse to one
+        Set<String> requestedIds = new LinkedHashSet<>(studentIds);
+        Map<String, User> usersById = new HashMap<>();
+        for (User user : userRepository.findAllWithProfilesByIdIn(requestedIds)) {
+            usersById.put(user.getId(), user);
+        }
 
-            if (!roster.getStudents().contains(student)) {
-                roster.getStudents().add(student);
+        Set<String> enrolledIds = new HashSet<>();
+        for (User enrolled : roster.getStudents()) {
+            enrolledIds.add(enrolled.getId());
+        }
 
-                // Create an empty Grade object when a new student is added
-                Grade grade = gradeService.createGrade(roster, student);
-                roster.getGrades().add(grade);
+        List<User> newStudents = new ArrayList<>();
+        for (String studentId : requestedIds) {
+            User student = usersById.get(studentId);
+            if (student == null) {
+                throw new RuntimeException("Student not found with ID: " + studentId);
+            }
+            if (enrolledIds.add(studentId)) {
+                newStudents.add(student);
             }
         }
 
-        return rosterRepository.save(roster);
+        roster.getStudents().addAll(newStudents);
+
+        // Create an empty Grade for every new student in one batch
+        roster.getGrades().addAll(gradeService.createGrades(roster, newStudents));
+
+        Roster saved = rosterRepository.save(roster);
+        eventPublisher.publishEvent(RosterMembershipIndex.MembersChanged.of(saved));
+        return saved;
     }
 
     public boolean isStudentUnderTeacher(String teacherId, String studentId) {
+        Optional<Boolean> indexed = membershipIndex.isStudentUnderTeacher(teacherId, studentId);
+        if (indexed.isPresent()) {
+            return indexed.get();
+        }
+
         List<Roster> rosters = rosterRepository.findByTeacherId(teacherId);
         for (Roster roster : rosters) {
             for (User student : roster.getStudents()) {
@@ -127,26 +196,33 @@ public class RosterService {
 
     // === Remove Student from Roster ===
     public Roster removeStudentFromRoster(Long rosterId, List<String> studentIds) {
-        Roster roster = rosterRepository.findById(rosterId)
-                .orElseThrow(() -> new RuntimeException("Roster not found with ID: " + rosterId));
+        if (!rosterRepository.existsById(rosterId)) {
+            throw new RuntimeException("Roster not found with ID: " + rosterId);
+        }
 
-        // Fetch all grades for this roster once
-        List<Grade> allGrades = gradeRepository.findByRosterId(rosterId);
+        // Unknown IDs still fail the whole request before anything is deleted
+        Set<String> requestedIds = new LinkedHashSet<>(studentIds);
+        Set<String> existingIds = new HashSet<>(userRepository.findExistingIds(requestedIds));
+        for (String studentId : requestedIds) {
+            if (!existingIds.contains(studentId)) {
+                throw new RuntimeException("Student not found with ID: " + studentId);
+            }
+        }
 
-        for (String studentId : studentIds) {
-            User student = userRepository.findById(studentId)
-                    .orElseThrow(() -> new RuntimeException("Student not found with ID: " + studentId));
+        // Set-based deletes sized by the removed students: their grades, then their roster_students rows
+        Optional<GradeRepository.GradeTotals> removed =
+                gradeRepository.sumInitialGradesByRosterIdAndStudentIdIn(rosterId, requestedIds);
+        gradeRepository.deleteByRosterIdAndStudentIdIn(rosterId, requestedIds);
+        rosterRepository.deleteStudentLinks(rosterId, requestedIds);
 
-            // Remove student from roster if present
-            roster.getStudents().remove(student);
+        removed.ifPresent(totals ->
+                applyGradeDelta(rosterId, -totals.getGradeSum(), -Math.toIntExact(totals.getGradeCount())));
 
-            // Delete any grades linked to this roster + student
-            allGrades.stream()
-                    .filter(g -> g.getStudent().getId().equals(studentId))
-                    .forEach(gradeRepository::delete);
-        }
+        eventPublisher.publishEvent(new RosterMembershipIndex.StudentsRemoved(rosterId, requestedIds));
 
-        return rosterRepository.save(roster);
+        // The bulk deletes cleared the persistence context; hand back the roster as it now stands
+        return rosterRepository.findById(rosterId)
+                .orElseThrow(() -> new RuntimeException("Roster not found with ID: " + rosterId));
     }
 
     // === Update Roster Details ===
@@ -172,23 +248,24 @@ public class RosterService {
 
         roster.setTeacher(newTeacher);
 
-        return rosterRepository.save(roster);
+        Roster saved = rosterRepository.save(roster);
+        eventPublisher.publishEvent(new RosterMembershipIndex.TeacherChanged(rosterId, newTeacherId));
+        return saved;
     }
 
     // === Delete Roster (and all Grades linked to it) ===
     public void deleteRoster(Long rosterId) {
-        Roster roster = rosterRepository.findById(rosterId)
-                .orElseThrow(() -> new RuntimeException("Roster not found with ID: " + rosterId));
-
-        // Delete all Grades linked to this Roster
-        List<Grade> grades = gradeRepository.findByRosterId(rosterId);
-        gradeRepository.deleteAll(grades);
+        if (!rosterRepository.existsById(rosterId)) {
+            throw new RuntimeException("Roster not found with ID: " + rosterId);
+        }
 
-        // Unlink Students (optional: to clear join table if needed)
-        roster.getStudents().clear();
+        // Delete all Grades linked to this Roster in one statement
+        gradeRepository.deleteByRosterId(rosterId);
 
-        // Then delete Roster
-        rosterRepository.delete(roster);
+        // Then delete the Roster: Hibernate removes its roster_students rows in one statement
+        // and cascades to the HPS, without loading the students
+        rosterRepository.deleteById(rosterId);
+        eventPublisher.publishEvent(new RosterMembershipIndex.RosterRemoved(rosterId));
     }
 
     // === Find Roster by ID ===
@@ -199,17 +276,7 @@ public class RosterService {
 
     // === Find Rosters by Student ID ===
     public List<Roster> getRostersByStudentId(String studentId) {
-        List<Roster> result = new ArrayList<>();
-        List<Roster> allRosters = rosterRepository.findAll();
-        for (Roster roster : allRosters) {
-            for (User student : roster.getStudents()) {
-                if (student.getId().equals(studentId)) {
-                    result.add(roster);
-                    break;
-                }
-            }
-        }
-        return result;
+        return rosterRepository.findByStudentId(studentId);
     }
 
     // === Find Rosters by Teacher ID ===
@@ -222,39 +289,37 @@ public class RosterService {
         return rosterRepository.findAll();
     }
 
-    public boolean canEditRoster(Long rosterId, User currentUser) {
-        Roster roster = getRosterById(rosterId);
-
-        // ✅ If the current user is the teacher assigned to the roster
-        if (roster.getTeacher() != null && roster.getTeacher().getId().equals(currentUser.getId())) {
-            return true;
-        }
+    public boolean canEditRoster(Long rosterId, UserIdentity currentUser) {
+        return accessCache.get(currentUser.getId(), currentUser.getRoles(), rosterId, () -> decideAccess(rosterId, currentUser)).canEdit();
+    }
 
-        // ✅ Or if user is admin, administrator, teacher_lead
-        return currentUser.getRoles().stream()
-                .anyMatch(role -> role.name().equals("ADMIN") ||
-                        role.name().equals("ADMINISTRATOR") ||
-                        role.name().equals("TEACHER_LEAD"));
+    public boolean canViewRoster(Long rosterId, UserIdentity currentUser) {
+        return accessCache.get(currentUser.getId(), currentUser.getRoles(), rosterId, () -> decideAccess(rosterId, currentUser)).canView();
     }
 
-    public boolean canViewRoster(Long rosterId, User currentUser) {
-        Roster roster = getRosterById(rosterId);
+    // Both decisions at once, so one cache entry serves view and edit checks
+    private RosterAccessCache.Decision decideAccess(Long rosterId, UserIdentity currentUser) {
+        RosterMembershipIndex.Membership membership = membershipOf(rosterId);
+        Set<Role> roles = currentUser.getRoles() != null ? currentUser.getRoles() : Set.of();
 
-        // ✅ If the current user is the teacher assigned
-        if (roster.getTeacher() != null && roster.getTeacher().getId().equals(currentUser.getId())) {
-            return true;
-        }
+        // ✅ The teacher assigned to the roster can view and edit it
+        boolean isTeacher = membership.teacherId() != null && membership.teacherId().equals(currentUser.getId());
 
-        // ✅ If the current user is a student in this roster
-        if (roster.getStudents().stream().anyMatch(student -> student.getId().equals(currentUser.getId()))) {
-            return true;
-        }
+        // ✅ A student in this roster can view it
+        boolean isStudent = currentUser.getId() != null && membership.studentIds().contains(currentUser.getId());
+
+        boolean isAdmin = roles.contains(Role.ADMIN) || roles.contains(Role.ADMINISTRATOR);
+
+        // ✅ Or admin, administrator, office administrator (view) / teacher_lead (edit)
+        boolean canView = isTeacher || isStudent || isAdmin || roles.contains(Role.OFFICE_ADMINISTRATOR);
+        boolean canEdit = isTeacher || isAdmin || roles.contains(Role.TEACHER_LEAD);
+        return new RosterAccessCache.Decision(canView, canEdit);
+    }
 
-        // ✅ Or if user is admin, administrator, office administrator
-        return currentUser.getRoles().stream()
-                .anyMatch(role -> role.name().equals("ADMIN") ||
-                        role.name().equals("ADMINISTRATOR") ||
-                        role.name().equals("OFFICE_ADMINISTRATOR"));
+    // Index first; a miss loads the roster (and throws "Roster not found" as before)
+    private RosterMembershipIndex.Membership membershipOf(Long rosterId) {
+        return membershipIndex.lookup(rosterId)
+                .orElseGet(() -> RosterMembershipIndex.MembersChanged.of(getRosterById(rosterId)).membership());
     }
 
 }
@@ -0,0 +1,137 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.controller.RosterController;
+import com.school.roster.school_roster_backend.repository.GradeRepository;
+import com.school.roster.school_roster_backend.repository.RosterRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read path for roster views ({@link RosterController.RosterResponse}) that never touches the lazy
+ * entity graph.
+ *
+ * Three tuple queries per batch of up to {@value #BATCH_SIZE} rosters: roster headers with the
+ * teacher's profile, enrolled students with their profiles, and grades. Grades are joined to
+ * students through a hash map keyed by (roster, student), so assembly is O(students + grades).
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class RosterViewService {
+
+    static final int BATCH_SIZE = 500;
+
+    // Hard cap on the deprecated unpaginated listing
+    static final int ALL_ROSTERS_LIMIT = 1000;
+
+    private final RosterRepository rosterRepository;
+    private final GradeRepository gradeRepository;
+
+    public RosterController.RosterResponse getRosterView(Long rosterId) {
+        RosterRepository.RosterViewHeader header = rosterRepository.findViewHeaderById(rosterId)
+                .orElseThrow(() -> new RuntimeException("Roster not found with ID: " + rosterId));
+        return assemble(List.of(header)).get(0);
+    }
+
+    public List<RosterController.RosterResponse> getRosterViewsByTeacherId(String teacherId) {
+        return assemble(rosterRepository.findViewHeadersByTeacherId(teacherId));
+    }
+
+    public List<RosterController.RosterResponse> getRosterViewsByStudentId(String studentId) {
+        return assemble(rosterRepository.findViewHeadersByStudentId(studentId));
+    }
+
+    /**
+     * The first {@value #ALL_ROSTERS_LIMIT} rosters in ID order.
+     *
+     * @deprecated unbounded by design; use {@link #getRosterViewPage} instead.
+     */
+    @Deprecated
+    public List<RosterController.RosterResponse> getAllRosterViews() {
+        return assemble(rosterRepository.findViewHeadersPage(null, null, null, Limit.of(ALL_ROSTERS_LIMIT)));
+    }
+
+    /**
+     * One keyset page of roster views in ID order, optionally filtered by grade level and subject prefix.
+     */
+    public KeysetPage<RosterController.RosterResponse> getRosterViewPage(String gradeLevel, String subjectPrefix,
+                                                                         String after, Integer size) {
+        int pageSize = KeysetPage.clampSize(size);
+        List<RosterRepository.RosterViewHeader> headers = rosterRepository.findViewHeadersPage(
+                KeysetPage.blankToNull(gradeLevel), KeysetPage.likePrefix(subjectPrefix),
+                KeysetPage.decodeLongCursor(after), Limit.of(pageSize + 1));
+
+        // Students and grades are only loaded for the rosters on this page
+        KeysetPage<RosterRepository.RosterViewHeader> page =
+                KeysetPage.of(headers, pageSize, header -> header, header -> String.valueOf(header.getRosterId()));
+        return new KeysetPage<>(assemble(page.getItems()), page.getNextCursor());
+    }
+
+    private List<RosterController.RosterResponse> assemble(List<RosterRepository.RosterViewHeader> headers) {
+        List<RosterController.RosterResponse> responses = new ArrayList<>(headers.size());
+        for (int from = 0; from < headers.size(); from += BATCH_SIZE) {
+            responses.addAll(assembleBatch(headers.subList(from, Math.min(from + BATCH_SIZE, headers.size()))));
+        }
+        return responses;
+    }
+
+    private List<RosterController.RosterResponse> assembleBatch(List<RosterRepository.RosterViewHeader> headers) {
+        List<Long> rosterIds = new ArrayList<>(headers.size());
+        for (RosterRepository.RosterViewHeader header : headers) {
+            rosterIds.add(header.getRosterId());
+        }
+
+        // First grade per (roster, student), matching the previous findFirst over roster.getGrades()
+        Map<GradeKey, GradeRepository.RosterViewGrade> grades = new HashMap<>();
+        for (GradeRepository.RosterViewGrade grade : gradeRepository.findViewGrades(rosterIds)) {
+            if (grade.getStudentId() != null) {
+                grades.putIfAbsent(new GradeKey(grade.getRosterId(), grade.getStudentId()), grade);
+            }
+        }
+
+        Map<Long, List<RosterController.StudentInfo>> students = new HashMap<>();
+        for (RosterRepository.RosterViewStudent student : rosterRepository.findViewStudents(rosterIds)) {
+            GradeRepository.RosterViewGrade grade = grades.get(new GradeKey(student.getRosterId(), student.getStudentId()));
+            students.computeIfAbsent(student.getRosterId(), id -> new ArrayList<>()).add(new RosterController.StudentInfo(
+                    student.getStudentId(),
+                    student.getStudentPhoto(),
+                    student.getFirstName(),
+                    student.getMiddleName(),
+                    student.getLastName(),
+                    grade != null ? grade.getInitialGrade() : null,
+                    grade != null && grade.getFinalStatus() != null ? grade.getFinalStatus().name() : null
+            ));
+        }
+
+        List<RosterController.RosterResponse> responses = new ArrayList<>(headers.size());
+        for (RosterRepository.RosterViewHeader header : headers) {
+            // Teacher fields are only filled when the teacher has a profile, as before
+            boolean teacherProfile = header.getTeacherProfileId() != null;
+            responses.add(new RosterController.RosterResponse(
+                    header.getRosterId(),
+                    header.getSubjectName(),
+                    header.getPeriod(),
+                    header.getNickname(),
+                    header.getGradeLevel(),
+                    teacherProfile ? header.getTeacherId() : null,
+                    teacherProfile ? header.getTeacherFirstName() : null,
+                    teacherProfile ? header.getTeacherMiddleName() : null,
+                    teacherProfile ? header.getTeacherLastName() : null,
+                    teacherProfile ? header.getTeacherPhoto() : null,
+                    students.getOrDefault(header.getRosterId(), new ArrayList<>()),
+                    header.getClassGpa()
+            ));
+        }
+        return responses;
+    }
+
+    private record GradeKey(Long rosterId, String studentId) {
+    }
+}
@@ -2,6 +2,7 @@ package com.school.roster.school_roster_backend.service;
 
 import com.school.roster.school_roster_backend.entity.User;
 import com.school.roster.school_roster_backend.repository.UserRepository;
+import com.school.roster.school_roster_backend.security.UserIdentity;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -15,7 +16,7 @@ public class TeacherLeadService {
 
     private final UserRepository userRepository;
 
-    public void addTeacher(String leadId, String teacherId, User caller) {
+    public void addTeacher(String leadId, String teacherId, UserIdentity caller) {
         User lead = userRepository.findById(leadId)
                 .orElseThrow(() -> new RuntimeException("Lead not found"));
         User teacher = userRepository.findById(teacherId)
@@ -30,7 +31,7 @@ public class TeacherLeadService {
         userRepository.save(lead);
     }
 
-    public void removeTeacher(String leadId, String teacherId, User caller) {
+    public void removeTeacher(String leadId, String teacherId, UserIdentity caller) {
         User lead = userRepository.findById(leadId)
                 .orElseThrow(() -> new RuntimeException("Lead not found"));
 
@@ -42,7 +43,7 @@ public class TeacherLeadService {
         userRepository.save(lead);
     }
 
-    public List<User> getMyTeachers(User caller) {
+    public List<User> getMyTeachers(UserIdentity caller) {
         User lead = userRepository.findById(caller.getId())
                 .orElseThrow(() -> new RuntimeException("Lead not found"));
         return lead.getAssignedTeachers();
@@ -54,7 +55,7 @@ public class TeacherLeadService {
         return lead.getAssignedTeachers();
     }
 
-    private boolean canManageLead(User lead, User caller) {
+    private boolean canManageLead(User lead, UserIdentity caller) {
         return lead.getId().equals(caller.getId()) ||
                 caller.getRoles().stream().anyMatch(role ->
                         role.name().equals("ADMIN") || role.name().equals("ADMINISTRATOR")
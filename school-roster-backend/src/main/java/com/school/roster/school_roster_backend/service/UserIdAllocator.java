@@ -0,0 +1,116 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.entity.UserIdBlock;
+import com.school.roster.school_roster_backend.repository.UserIdBlockRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.SecureRandom;
+
+/**
+ * Hands out unique, non-sequential 12-digit user IDs without a per-ID database lookup.
+ *
+ * A node leases a block of {@code blockSize} counter values from the shared {@link UserIdBlock}
+ * row (one locked read-and-bump in its own transaction) and then allocates from it in memory.
+ * Each counter value goes through a keyed Feistel permutation over [0, 10^12), a bijection, so
+ * distinct counter values always give distinct IDs while consecutive signups do not get
+ * guessable neighbouring IDs. Values left in a block when a node stops are simply never used.
+ *
+ * IDs issued before this allocator (random draws) are not part of the counter, so one could in
+ * principle coincide with a permuted value; {@code User} is {@code Persistable}, which turns that
+ * into a primary-key violation rather than a silent overwrite.
+ */
+@Component
+public class UserIdAllocator {
+
+    static final String BLOCK_NAME = "users";
+    static final long ID_SPACE = 1_000_000_000_000L;
+
+    private static final long HALF_SPACE = 1_000_000L;
+    private static final int ROUNDS = 6;
+
+    private final UserIdBlockRepository blockRepository;
+    private final TransactionTemplate leaseTransaction;
+    private final int blockSize;
+
+    // Guarded by this
+    private long next;
+    private long limit;
+    private long[] roundKeys;
+
+    public UserIdAllocator(UserIdBlockRepository blockRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${user-id.block-size:100}") int blockSize) {
+        this.blockRepository = blockRepository;
+        // The lease commits on its own so the row lock is not held for the caller's whole transaction
+        this.leaseTransaction = new TransactionTemplate(transactionManager);
+        this.leaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    public synchronized String nextId() {
+        if (next >= limit) {
+            lease();
+        }
+        return String.format("%012d", permute(next++, roundKeys));
+    }
+
+    private void lease() {
+        UserIdBlock block;
+        try {
+            block = leaseTransaction.execute(status -> reserveBlock());
+        } catch (DataIntegrityViolationException ex) {
+            // Another node created the row first; it exists now, so lease from it
+            block = leaseTransaction.execute(status -> reserveBlock());
+        }
+        long start = block.getNextValue() - blockSize;
+        next = start;
+        limit = block.getNextValue();
+        roundKeys = roundKeys(block.getPermutationKey());
+    }
+
+    // Returns the row after bumping it; the reserved block is [nextValue - blockSize, nextValue)
+    private UserIdBlock reserveBlock() {
+        UserIdBlock block = blockRepository.findForUpdate(BLOCK_NAME).orElse(null);
+        if (block == null) {
+            return blockRepository.saveAndFlush(new UserIdBlock(BLOCK_NAME, blockSize, new SecureRandom().nextLong()));
+        }
+        if (block.getNextValue() + blockSize > ID_SPACE) {
+            throw new RuntimeException("User ID space exhausted.");
+        }
+        block.setNextValue(block.getNextValue() + blockSize);
+        return block;
+    }
+
+    private static long[] roundKeys(long key) {
+        long[] keys = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            key += 0x9E3779B97F4A7C15L;
+            keys[i] = mix(key);
+        }
+        return keys;
+    }
+
+    // Balanced Feistel network on two base-10^6 halves; every round is invertible, so the whole map is
+    static long permute(long value, long[] roundKeys) {
+        long left = value / HALF_SPACE;
+        long right = value % HALF_SPACE;
+        for (long roundKey : roundKeys) {
+            long mixed = (left + Math.floorMod(mix(right ^ roundKey), HALF_SPACE)) % HALF_SPACE;
+            left = right;
+            right = mixed;
+        }
+        return left * HALF_SPACE + right;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
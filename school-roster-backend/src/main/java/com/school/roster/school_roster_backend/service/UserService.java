@@ -1,18 +1,25 @@
 package com.school.roster.school_roster_backend.service;
 
 import com.school.roster.school_roster_backend.controller.AuthController;
+import com.school.roster.school_roster_backend.controller.UserController;
 import com.school.roster.school_roster_backend.entity.*;
 import com.school.roster.school_roster_backend.entity.enums.Role;
 import com.school.roster.school_roster_backend.repository.*;
+import com.school.roster.school_roster_backend.security.UserIdentity;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -24,25 +31,14 @@ public class UserService {
     private final NonStudentProfileRepository nonStudentProfileRepository;
     private final RosterRepository rosterRepository;
     private final GradeRepository gradeRepository;
-
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-    private static final Random RANDOM = new SecureRandom();
+    private final RosterService rosterService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserIdAllocator userIdAllocator;
+    private final PasswordEncoder passwordEncoder;
 
     // === Generate Unique 12-Digit ID ===
     public String generateUniqueUserId() {
-        String id;
-        do {
-            id = generateRandom12DigitNumber();
-        } while (userRepository.existsById(id));
-        return id;
-    }
-
-    private String generateRandom12DigitNumber() {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < 12; i++) {
-            sb.append(RANDOM.nextInt(10));
-        }
-        return sb.toString();
+        return userIdAllocator.nextId();
     }
 
     // === Create New User ===
@@ -52,24 +48,51 @@ public class UserService {
         return userRepository.save(user);
     }
 
-    public List<User> getAllUsers() {
-        List<User> allUsers = userRepository.findAll();
-        return allUsers.stream()
-                .filter(user -> user.getRoles().stream()
-                        .noneMatch(role -> role.name().equalsIgnoreCase("ADMIN")))
+    // === Keyset-paginated listing of non-ADMIN users, optionally filtered by role and name prefix ===
+    public KeysetPage<UserController.UserPageItem> getUserPage(String role, String namePrefix, String after, Integer size) {
+        int pageSize = KeysetPage.clampSize(size);
+        KeysetPage<UserRepository.UserListRow> rows = KeysetPage.of(
+                userRepository.findListPage(parseRole(role), KeysetPage.likePrefix(namePrefix),
+                        KeysetPage.decodeCursor(after), Limit.of(pageSize + 1)),
+                pageSize, row -> row, UserRepository.UserListRow::getId);
+
+        return new KeysetPage<>(toPageItems(rows.getItems()), rows.getNextCursor());
+    }
+
+    private List<UserController.UserPageItem> toPageItems(List<UserRepository.UserListRow> rows) {
+        // Roles for all rows in one query instead of each user's eager collection
+        List<String> ids = rows.stream().map(UserRepository.UserListRow::getId).toList();
+        Map<String, Set<Role>> rolesById = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (UserRepository.UserRoleRow row : userRepository.findRolesByUserIdIn(ids)) {
+                rolesById.computeIfAbsent(row.getUserId(), id -> EnumSet.noneOf(Role.class)).add(row.getRole());
+            }
+        }
+
+        return rows.stream()
+                .map(row -> new UserController.UserPageItem(row.getId(), row.getEmail(),
+                        rolesById.getOrDefault(row.getId(), Set.of()),
+                        row.getFirstName(), row.getMiddleName(), row.getLastName()))
                 .toList();
     }
 
+    private Role parseRole(String role) {
+        if (role == null || role.isBlank()) {
+            return null;
+        }
+        try {
+            return Role.valueOf(role.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new RuntimeException("Unknown role: " + role);
+        }
+    }
+
     public Optional<User> getUserById(String id) {
-        return userRepository.findById(id)
-                .filter(user -> user.getRoles().stream()
-                        .noneMatch(role -> role.name().equalsIgnoreCase("ADMIN")));
+        return userRepository.findNonAdminById(id);
     }
 
     public Optional<User> getUserByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .filter(user -> user.getRoles().stream()
-                        .noneMatch(role -> role.name().equalsIgnoreCase("ADMIN")));
+        return userRepository.findNonAdminByEmail(email);
     }
 
     public User updateUser(String id, User updatedUserData) {
@@ -90,6 +113,7 @@ public class UserService {
 
         if (updatedUserData.getRoles() != null && !updatedUserData.getRoles().isEmpty()) {
             existingUser.setRoles(updatedUserData.getRoles());
+            eventPublisher.publishEvent(new RosterAccessCache.UserAccessChanged(id));
         }
 
         return userRepository.save(existingUser);
@@ -100,12 +124,12 @@ public class UserService {
         return userRepository.findAllByRoles(role);
     }
 
-    public boolean hasRole(User user, String role) {
+    public boolean hasRole(UserIdentity user, String role) {
         return user.getRoles().stream()
                 .anyMatch(r -> r.name().equalsIgnoreCase(role));
     }
 
-    public boolean hasAnyRole(User user, String... roles) {
+    public boolean hasAnyRole(UserIdentity user, String... roles) {
         for (String role : roles) {
             if (user.getRoles().stream().anyMatch(r -> r.name().equalsIgnoreCase(role))) {
                 return true;
@@ -117,6 +141,7 @@ public class UserService {
     public AuthController.UserInfoResponse updateRole(AuthController.RoleUpdate roleUpdate){
         User user = getUserById(roleUpdate.getUserId()).get();
         user.setRoles(roleUpdate.getRoles());
+        eventPublisher.publishEvent(new RosterAccessCache.UserAccessChanged(user.getId()));
         AuthController.UserInfoResponse response = new AuthController.UserInfoResponse(
                 user.getId(),
                 user.getEmail(),
@@ -126,6 +151,15 @@ public class UserService {
     }
 
     // === Full Clean Delete User ===
+    // === Rosters whose grades or membership deleteUser touches; callers lock these first ===
+    public Set<Long> getRosterIdsForStudent(String id) {
+        Set<Long> rosterIds = new HashSet<>(rosterRepository.findIdsByStudentId(id));
+        for (GradeRepository.GradeTotals totals : gradeRepository.sumInitialGradesByStudentIdGroupByRoster(id)) {
+            rosterIds.add(totals.getRosterId());
+        }
+        return rosterIds;
+    }
+
     public void deleteUser(String id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + id));
@@ -146,7 +180,26 @@ public class UserService {
             }
         }
 
-        // === 2. Delete linked Profile (Student or Non-Student) ===
+        // === 2. Delete all Grades where user is Student, keeping each roster's GPA totals in step ===
+        List<GradeRepository.GradeTotals> gradeTotals = gradeRepository.sumInitialGradesByStudentIdGroupByRoster(id);
+        gradeRepository.deleteByStudentId(id);
+        for (GradeRepository.GradeTotals totals : gradeTotals) {
+            rosterService.applyGradeDelta(totals.getRosterId(), -totals.getGradeSum(),
+                    -Math.toIntExact(totals.getGradeCount()));
+        }
+
+        // === 3. Unlink user from every roster_students row in one statement ===
+        List<Long> rosterIds = rosterRepository.findIdsByStudentId(id);
+        rosterRepository.deleteStudentLinksByStudentId(id);
+        for (Long rosterId : rosterIds) {
+            eventPublisher.publishEvent(new RosterMembershipIndex.StudentsRemoved(rosterId, Set.of(id)));
+        }
+
+        // The bulk deletes cleared the persistence context; reload before the cascading deletes
+        user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found with ID: " + id));
+
+        // === 4. Delete linked Profile (Student or Non-Student) ===
         if (user.getStudentProfile() != null) {
             studentProfileRepository.delete(user.getStudentProfile());
         }
@@ -154,18 +207,9 @@ public class UserService {
             nonStudentProfileRepository.delete(user.getNonStudentProfile());
         }
 
-        // === 3. Unlink user from all Roster students lists ===
-        List<Roster> allRosters = rosterRepository.findAll();
-        for (Roster roster : allRosters) {
-            roster.getStudents().remove(user);
-        }
-
-        // === 4. Delete all Grades where user is Student ===
-        List<Grade> studentGrades = gradeRepository.findByStudentId(user.getId());
-        gradeRepository.deleteAll(studentGrades);
-
         // === 5. Finally, Delete User ===
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new RosterAccessCache.UserAccessChanged(id));
     }
 
 }
@@ -1,20 +1,40 @@
 package com.school.roster.school_roster_backend.controller;
 
 import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.entity.enums.Role;
+import com.school.roster.school_roster_backend.exception.GlobalExceptionHandler;
+import com.school.roster.school_roster_backend.repository.UserRepository;
+import com.school.roster.school_roster_backend.security.AuthenticatedUser;
+import com.school.roster.school_roster_backend.security.BoundedPasswordEncoder;
+import com.school.roster.school_roster_backend.security.JwtUtils;
 import com.school.roster.school_roster_backend.service.AuthenticationService;
 import com.school.roster.school_roster_backend.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 class AuthControllerTest {
 
@@ -24,9 +44,6 @@ class AuthControllerTest {
     @Mock
     private AuthenticationService authenticationService;
 
-    @Mock
-    private Authentication authentication;
-
     @InjectMocks
     private AuthController authController;
 
@@ -68,15 +85,9 @@ class AuthControllerTest {
     @Test
     void whoAmI_shouldReturnUserInfo() {
         String email = "test@example.com";
-        User user = new User();
-        user.setId("123456789012");
-        user.setEmail(email);
-        user.setRoles(Set.of());
+        AuthenticatedUser user = new AuthenticatedUser("123456789012", email, Set.of());
 
-        when(authentication.getName()).thenReturn(email);
-        when(userService.getUserByEmail(email)).thenReturn(java.util.Optional.of(user));
-
-        ResponseEntity<AuthController.UserInfoResponse> response = authController.whoAmI(authentication);
+        ResponseEntity<AuthController.UserInfoResponse> response = authController.whoAmI(user);
 
         assertEquals(200, response.getStatusCodeValue());
         assertEquals(user.getId(), response.getBody().id());
@@ -84,16 +95,68 @@ class AuthControllerTest {
     }
 
     @Test
-    void whoAmI_shouldThrowIfUserNotFound() {
-        String email = "notfound@example.com";
+    void whoAmI_shouldAnswerFromTokenWithoutLoadingUser() {
+        AuthenticatedUser user = new AuthenticatedUser("123456789012", "test@example.com", Set.of(Role.TEACHER));
 
-        when(authentication.getName()).thenReturn(email);
-        when(userService.getUserByEmail(email)).thenReturn(java.util.Optional.empty());
+        ResponseEntity<AuthController.UserInfoResponse> response = authController.whoAmI(user);
 
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            authController.whoAmI(authentication);
-        });
+        assertEquals(Set.of(Role.TEACHER), response.getBody().roles());
+        verifyNoInteractions(userService);
+    }
 
-        assertEquals("User not found with email: " + email, exception.getMessage());
+    @Test
+    void login_whenThePasswordHashPoolIsSaturated_shouldAnswer503WithRetryAfter() throws Exception {
+        // Pool of one thread and one queue slot: hold the thread, fill the slot, and the next hash is refused
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hashed:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking, 1, 1, registry);
+        try {
+            CompletableFuture.runAsync(() -> encoder.encode("running"));
+            CompletableFuture.runAsync(() -> encoder.encode("queued"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (registry.get("password.hash.queue").gauge().value() < 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+
+            // The real login path: ProviderManager -> DaoAuthenticationProvider -> AuthenticationService
+            DaoAuthenticationProvider provider = new DaoAuthenticationProvider(encoder);
+            provider.setUserDetailsService(new InMemoryUserDetailsManager(
+                    org.springframework.security.core.userdetails.User.withUsername("test@example.com")
+                            .password("hashed:password123").roles("STUDENT").build()));
+            AuthenticationService realAuthenticationService = new AuthenticationService(
+                    mock(UserRepository.class), mock(JwtUtils.class), new ProviderManager(provider));
+            MockMvc mockMvc = MockMvcBuilders
+                    .standaloneSetup(new AuthController(userService, realAuthenticationService))
+                    .setControllerAdvice(new GlobalExceptionHandler())
+                    .build();
+
+            for (String email : List.of("test@example.com", "unknown@example.com")) {
+                mockMvc.perform(post("/api/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"email\":\"" + email + "\",\"password\":\"password123\"}"))
+                        .andExpect(status().isServiceUnavailable())
+                        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                        .andExpect(jsonPath("$.error").value("Too many sign-ins are in progress. Please try again shortly."));
+            }
+        } finally {
+            release.countDown();
+            encoder.shutdown();
+        }
     }
 }
@@ -0,0 +1,60 @@
+package com.school.roster.school_roster_backend.controller;
+
+import com.school.roster.school_roster_backend.service.ExportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportControllerTest {
+
+    @Mock
+    private ExportService exportService;
+
+    @InjectMocks
+    private ExportController controller;
+
+    @Test
+    void exportRosters_shouldStreamNdjsonAttachmentByDefault() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = controller.exportRosters(null);
+
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        assertEquals("attachment; filename=\"rosters.ndjson\"",
+                response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+
+        // Nothing is read until the body is written
+        verifyNoInteractions(exportService);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        verify(exportService).exportRosters(ExportService.Format.NDJSON, out);
+    }
+
+    @Test
+    void exportGradebook_shouldStreamCsvForOneRoster() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = controller.exportGradebook(7L, "csv");
+
+        assertEquals("text/csv", response.getHeaders().getContentType().toString());
+        assertEquals("attachment; filename=\"gradebook-7.csv\"",
+                response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        verify(exportService).exportGradebook(7L, ExportService.Format.CSV, out);
+    }
+
+    @Test
+    void export_shouldRejectUnknownFormats() {
+        assertThrows(RuntimeException.class, () -> controller.exportRosters("xlsx"));
+        verifyNoInteractions(exportService);
+    }
+}
@@ -5,17 +5,25 @@ import com.school.roster.school_roster_backend.entity.Roster;
 import com.school.roster.school_roster_backend.entity.User;
 import com.school.roster.school_roster_backend.entity.embedded.ScoreDetails;
 import com.school.roster.school_roster_backend.entity.enums.StudentGradeStatus;
+import com.school.roster.school_roster_backend.security.AuthenticatedUser;
+import com.school.roster.school_roster_backend.exception.ConflictException;
 import com.school.roster.school_roster_backend.service.GradeService;
+import com.school.roster.school_roster_backend.service.OptimisticRetry;
+import com.school.roster.school_roster_backend.service.RosterLockManager;
 import com.school.roster.school_roster_backend.service.RosterService;
 import com.school.roster.school_roster_backend.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,25 +35,22 @@ class GradeControllerTest {
     private RosterService rosterService;
     private UserService userService;
     private GradeController controller;
-    private Authentication authentication;
 
     @BeforeEach
     void setUp() {
         gradeService = mock(GradeService.class);
         rosterService = mock(RosterService.class);
         userService = mock(UserService.class);
-        authentication = mock(Authentication.class);
-        controller = new GradeController(gradeService, rosterService, userService);
-
-        when(authentication.getName()).thenReturn("user@example.com");
+        controller = new GradeController(gradeService, rosterService, userService,
+                new RosterLockManager(new SimpleMeterRegistry(), 10_000),
+                new OptimisticRetry(mock(PlatformTransactionManager.class), mock(EntityManager.class), 2, 0));
+        when(gradeService.getRosterIdForGrade(anyLong())).thenReturn(1L);
     }
 
     @Test
     void updateGrade_shouldUpdateAndReturnGradeResponse() {
         // Prepare user and authorization
-        User user = new User();
-        when(userService.getUserByEmail("user@example.com"))
-                .thenReturn(Optional.of(user));
+        AuthenticatedUser user = new AuthenticatedUser(null, "user@example.com", Set.of());
         when(rosterService.canEditRoster(1L, user)).thenReturn(true);
 
         // Prepare a Grade with minimal ScoreDetails so that GradeResponse can build
@@ -102,7 +107,8 @@ class GradeControllerTest {
                 eq(1L),
                 anyList(),
                 anyList(),
-                anyList()
+                anyList(),
+                isNull()
         )).thenReturn(grade);
 
         // Build request: (rosterId=1, gradeId=1, perf=[9], quiz=[8,7], exam=[18])
@@ -115,7 +121,7 @@ class GradeControllerTest {
         );
 
         ResponseEntity<GradeController.GradeResponse> response =
-                controller.updateGrade(request, authentication);
+                controller.updateGrade(request, user);
 
         assertNotNull(response.getBody());
         GradeController.GradeResponse body = response.getBody();
@@ -157,14 +163,12 @@ class GradeControllerTest {
 
     @Test
     void deleteGrade_shouldDeleteGradeSuccessfully() {
-        User user = new User();
-        when(userService.getUserByEmail("user@example.com"))
-                .thenReturn(Optional.of(user));
+        AuthenticatedUser user = new AuthenticatedUser(null, "user@example.com", Set.of());
         when(gradeService.canDeleteGrade(1L, user)).thenReturn(true);
 
         ResponseEntity<String> response = controller.deleteGrade(
                 new GradeController.GradeIdRequest(1L),
-                authentication
+                user
         );
 
         verify(gradeService).deleteGrade(1L);
@@ -173,9 +177,7 @@ class GradeControllerTest {
 
     @Test
     void getGradeById_shouldReturnGradeResponse() {
-        User user = new User();
-        when(userService.getUserByEmail("user@example.com"))
-                .thenReturn(Optional.of(user));
+        AuthenticatedUser user = new AuthenticatedUser(null, "user@example.com", Set.of());
         when(gradeService.canViewGrade(1L, user)).thenReturn(true);
 
         Grade grade = createMockGrade();
@@ -183,7 +185,7 @@ class GradeControllerTest {
 
         ResponseEntity<GradeController.GradeResponse> response = controller.getGradeById(
                 new GradeController.GradeIdRequest(1L),
-                authentication
+                user
         );
 
         GradeController.GradeResponse body = response.getBody();
@@ -195,9 +197,7 @@ class GradeControllerTest {
 
     @Test
     void getGradesByRoster_shouldReturnListOfGradeResponses() {
-        User user = new User();
-        when(userService.getUserByEmail("user@example.com"))
-                .thenReturn(Optional.of(user));
+        AuthenticatedUser user = new AuthenticatedUser(null, "user@example.com", Set.of());
         when(rosterService.canViewRoster(1L, user)).thenReturn(true);
 
         Grade grade = createMockGrade();
@@ -205,7 +205,7 @@ class GradeControllerTest {
 
         ResponseEntity<List<GradeController.GradeResponse>> response = controller.getGradesByRoster(
                 new GradeController.RosterIdRequest(1L),
-                authentication
+                user
         );
 
         List<GradeController.GradeResponse> list = response.getBody();
@@ -215,10 +215,7 @@ class GradeControllerTest {
 
     @Test
     void getGradesByStudent_shouldReturnListOfGradeResponses() {
-        User user = new User();
-        user.setId("studentId");
-        when(userService.getUserByEmail("user@example.com"))
-                .thenReturn(Optional.of(user));
+        AuthenticatedUser user = new AuthenticatedUser("studentId", "user@example.com", Set.of());
 
         Grade grade = createMockGrade();
         when(gradeService.getGradesByStudentId("studentId"))
@@ -226,7 +223,7 @@ class GradeControllerTest {
 
         ResponseEntity<List<GradeController.GradeResponse>> response = controller.getGradesByStudent(
                 new GradeController.StudentIdRequest("studentId"),
-                authentication
+                user
         );
 
         List<GradeController.GradeResponse> list = response.getBody();
@@ -237,10 +234,7 @@ class GradeControllerTest {
 
     @Test
     void getMyGpa_shouldReturnStudentGpa() {
-        User user = new User();
-        user.setId("studentId");
-        when(userService.getUserByEmail("user@example.com"))
-                .thenReturn(Optional.of(user));
+        AuthenticatedUser user = new AuthenticatedUser("studentId", "user@example.com", Set.of());
 
         // Mock SubjectGrade list
         GradeService.SubjectGrade sg = new GradeService.SubjectGrade(
@@ -265,7 +259,7 @@ class GradeControllerTest {
         when(gradeService.getMyGpa("studentId"))
                 .thenReturn(gpaResponse);
 
-        ResponseEntity<GradeService.StudentGpaResponse> response = controller.getMyGpa(authentication);
+        ResponseEntity<GradeService.StudentGpaResponse> response = controller.getMyGpa(user);
 
         assertEquals(80.0, response.getBody().getStudentGpa());
         assertThat(response.getBody().getSubjects()).hasSize(1);
@@ -314,7 +308,10 @@ class GradeControllerTest {
                 examList,
                 18,
                 90.0,
-                18.0
+                18.0,
+
+                // version
+                3L
         );
 
         // Spot‐check a few fields
@@ -403,11 +400,7 @@ class GradeControllerTest {
 
     @Test
     void updateGrade_shouldThrowAccessDeniedIfCannotUpdate() {
-        when(authentication.getName()).thenReturn("user@example.com");
-        User user = new User();
-        user.setId("u1");
-        when(userService.getUserByEmail("user@example.com"))
-                .thenReturn(Optional.of(user));
+        AuthenticatedUser user = new AuthenticatedUser("u1", "user@example.com", Set.of());
 
         // Simulate no access
         when(rosterService.canEditRoster(anyLong(), eq(user))).thenReturn(false);
@@ -421,69 +414,156 @@ class GradeControllerTest {
         );
 
         RuntimeException ex = assertThrows(RuntimeException.class, () ->
-                controller.updateGrade(request, authentication)
+                controller.updateGrade(request, user)
+        );
+        assertEquals("Access denied: You are not allowed to update grades in this roster.", ex.getMessage());
+    }
+
+    @Test
+    void updateGrade_shouldReportTheCurrentGradeWhenRetriesRunOut() {
+        AuthenticatedUser user = new AuthenticatedUser("u1", "user@example.com", Set.of());
+        when(rosterService.canEditRoster(1L, user)).thenReturn(true);
+        when(gradeService.updateGrade(eq(1L), anyList(), anyList(), anyList(), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Grade.class, 1L));
+        Grade current = new Grade();
+        current.setId(1L);
+        current.setVersion(7L);
+        when(gradeService.getGradeById(1L)).thenReturn(current);
+
+        GradeController.UpdateGradeRequest request = new GradeController.UpdateGradeRequest(
+                1L, 1L, List.of(90), List.of(85), List.of(88));
+
+        ConflictException ex = assertThrows(ConflictException.class, () -> controller.updateGrade(request, user));
+
+        assertThat(ex.getCurrent()).isSameAs(current);
+        assertThat(ex.getMessage()).startsWith("The update of grade 1 kept conflicting");
+        verify(gradeService, times(2)).updateGrade(eq(1L), anyList(), anyList(), anyList(), any());
+    }
+
+    @Test
+    void updateGrade_shouldRejectRosterIdThatIsNotTheGradesRoster() {
+        AuthenticatedUser user = new AuthenticatedUser("u1", "user@example.com", Set.of());
+        // Grade 5 lives in roster 1, but the caller names roster 2, which they may edit
+        when(gradeService.getRosterIdForGrade(5L)).thenReturn(1L);
+        when(rosterService.canEditRoster(2L, user)).thenReturn(true);
+
+        GradeController.UpdateGradeRequest request = new GradeController.UpdateGradeRequest(
+                2L, 5L, List.of(90), List.of(85), List.of(88));
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> controller.updateGrade(request, user));
+
+        assertEquals("Grade 5 does not belong to roster 2.", ex.getMessage());
+        verify(gradeService, never()).updateGrade(anyLong(), anyList(), anyList(), anyList(), any());
+    }
+
+    @Test
+    void updateGrade_shouldAuthorizeTheGradesOwnRosterWhenRequestOmitsIt() {
+        AuthenticatedUser user = new AuthenticatedUser("u1", "user@example.com", Set.of());
+        when(gradeService.getRosterIdForGrade(5L)).thenReturn(1L);
+        when(rosterService.canEditRoster(1L, user)).thenReturn(false);
+
+        GradeController.UpdateGradeRequest request = new GradeController.UpdateGradeRequest(
+                null, 5L, List.of(90), List.of(85), List.of(88));
+
+        assertThrows(RuntimeException.class, () -> controller.updateGrade(request, user));
+
+        verify(rosterService).canEditRoster(1L, user);
+        verify(gradeService, never()).updateGrade(anyLong(), anyList(), anyList(), anyList(), any());
+    }
+
+    @Test
+    void updateGrades_shouldAuthorizeOnceAndReturnEveryRow() {
+        AuthenticatedUser user = new AuthenticatedUser(null, "user@example.com", Set.of());
+        when(rosterService.canEditRoster(1L, user)).thenReturn(true);
+
+        Roster roster = new Roster();
+        roster.setId(1L);
+        List<Grade> updated = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            User student = new User();
+            student.setId("student" + id);
+            Grade grade = new Grade();
+            grade.setId(id);
+            grade.setRoster(roster);
+            grade.setStudent(student);
+            grade.setScoreDetails(new ScoreDetails());
+            updated.add(grade);
+        }
+
+        List<GradeService.GradeScores> rows = List.of(
+                new GradeService.GradeScores(1L, List.of(9), List.of(8), List.of(18)),
+                new GradeService.GradeScores(2L, List.of(7), List.of(6), List.of(15)),
+                new GradeService.GradeScores(3L, List.of(5), List.of(4), List.of(12))
+        );
+        when(gradeService.updateGrades(1L, rows)).thenReturn(updated);
+
+        ResponseEntity<List<GradeController.GradeResponse>> response =
+                controller.updateGrades(new GradeController.BulkUpdateGradesRequest(1L, rows), user);
+
+        assertThat(response.getBody())
+                .extracting(GradeController.GradeResponse::getGradeId)
+                .containsExactly(1L, 2L, 3L);
+        verify(rosterService, times(1)).canEditRoster(1L, user);
+        verify(gradeService, never()).updateGrade(anyLong(), anyList(), anyList(), anyList(), any());
+    }
+
+    @Test
+    void updateGrades_shouldThrowAccessDeniedIfCannotUpdate() {
+        AuthenticatedUser user = new AuthenticatedUser(null, "user@example.com", Set.of());
+        when(rosterService.canEditRoster(1L, user)).thenReturn(false);
+
+        var request = new GradeController.BulkUpdateGradesRequest(1L, List.of(
+                new GradeService.GradeScores(1L, List.of(9), List.of(8), List.of(18))));
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () ->
+                controller.updateGrades(request, user)
         );
         assertEquals("Access denied: You are not allowed to update grades in this roster.", ex.getMessage());
+        verify(gradeService, never()).updateGrades(anyLong(), anyList());
     }
 
     @Test
     void deleteGrade_shouldThrowAccessDeniedIfCannotDelete() {
-        when(authentication.getName()).thenReturn("user@example.com");
-        User user = new User();
-        user.setId("u1");
-        when(userService.getUserByEmail("user@example.com"))
-                .thenReturn(Optional.of(user));
+        AuthenticatedUser user = new AuthenticatedUser("u1", "user@example.com", Set.of());
         when(gradeService.canDeleteGrade(1L, user)).thenReturn(false);
 
         GradeController.GradeIdRequest request = new GradeController.GradeIdRequest(1L);
 
         RuntimeException ex = assertThrows(RuntimeException.class, () ->
-                controller.deleteGrade(request, authentication)
+                controller.deleteGrade(request, user)
         );
         assertEquals("Access denied: You are not allowed to delete this grade.", ex.getMessage());
     }
 
     @Test
     void getGradeById_shouldThrowAccessDeniedIfCannotView() {
-        when(authentication.getName()).thenReturn("user@example.com");
-        User user = new User();
-        user.setId("u1");
-        when(userService.getUserByEmail("user@example.com"))
-                .thenReturn(Optional.of(user));
+        AuthenticatedUser user = new AuthenticatedUser("u1", "user@example.com", Set.of());
         when(gradeService.canViewGrade(1L, user)).thenReturn(false);
 
         GradeController.GradeIdRequest request = new GradeController.GradeIdRequest(1L);
 
         RuntimeException ex = assertThrows(RuntimeException.class, () ->
-                controller.getGradeById(request, authentication)
+                controller.getGradeById(request, user)
         );
         assertEquals("Access denied: You are not allowed to view this grade.", ex.getMessage());
     }
 
     @Test
     void getGradesByRoster_shouldThrowAccessDeniedIfCannotViewRoster() {
-        when(authentication.getName()).thenReturn("user@example.com");
-        User user = new User();
-        user.setId("u1");
-        when(userService.getUserByEmail("user@example.com"))
-                .thenReturn(Optional.of(user));
+        AuthenticatedUser user = new AuthenticatedUser("u1", "user@example.com", Set.of());
         when(rosterService.canViewRoster(1L, user)).thenReturn(false);
 
         GradeController.RosterIdRequest request = new GradeController.RosterIdRequest(1L);
 
         RuntimeException ex = assertThrows(RuntimeException.class, () ->
-                controller.getGradesByRoster(request, authentication)
+                controller.getGradesByRoster(request, user)
         );
         assertEquals("Access denied: You are not allowed to view grades in this roster.", ex.getMessage());
     }
 
     @Test
     void getGradesByStudent_shouldThrowAccessDeniedIfCannotViewStudentGrades() {
-        when(authentication.getName()).thenReturn("user@example.com");
-        User user = new User();
-        user.setId("u1");
-        when(userService.getUserByEmail("user@example.com"))
-                .thenReturn(Optional.of(user));
+        AuthenticatedUser user = new AuthenticatedUser("u1", "user@example.com", Set.of());
 
         // Simulate no roles that allow viewing
         when(userService.hasAnyRole(user, "ADMIN", "ADMINISTRATOR", "TEACHER", "TEACHER_LEAD"))
@@ -493,7 +573,7 @@ class GradeControllerTest {
         GradeController.StudentIdRequest request = new GradeController.StudentIdRequest("student123");
 
         RuntimeException ex = assertThrows(RuntimeException.class, () ->
-                controller.getGradesByStudent(request, authentication)
+                controller.getGradesByStudent(request, user)
         );
         assertEquals("Access denied: You are not allowed to view grades of this student.", ex.getMessage());
     }
@@ -0,0 +1,70 @@
+package com.school.roster.school_roster_backend.controller;
+
+import com.school.roster.school_roster_backend.exception.GlobalExceptionHandler;
+import com.school.roster.school_roster_backend.exception.ServiceBusyException;
+import com.school.roster.school_roster_backend.security.AuthenticatedUser;
+import com.school.roster.school_roster_backend.service.HighestPossibleScoreService;
+import com.school.roster.school_roster_backend.service.HpsEditCoalescer;
+import com.school.roster.school_roster_backend.service.HpsPropagationJobService;
+import com.school.roster.school_roster_backend.service.RosterLockManager;
+import com.school.roster.school_roster_backend.service.RosterService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class HighestPossibleScoreControllerTest {
+
+    private HpsPropagationJobService jobService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        jobService = mock(HpsPropagationJobService.class);
+        RosterService rosterService = mock(RosterService.class);
+        when(rosterService.canEditRoster(anyLong(), any())).thenReturn(true);
+
+        HighestPossibleScoreController controller = new HighestPossibleScoreController(
+                mock(HighestPossibleScoreService.class), rosterService, mock(RosterLockManager.class),
+                jobService, mock(HpsEditCoalescer.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        AuthenticatedUser teacher = new AuthenticatedUser("t1", "teacher@example.com", Set.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(teacher, null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void asyncSubmit_whenTheJobQueueIsFull_shouldAnswer503WithRetryAfter() throws Exception {
+        when(jobService.submitPsChange(any()))
+                .thenThrow(new ServiceBusyException("Too many score sheet updates are queued. Please try again shortly."));
+
+        mockMvc.perform(post("/api/hps/ps/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rosterId\":1,\"performancePs\":90,\"quizPs\":100,\"quarterlyExamPs\":100}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.error").value("Too many score sheet updates are queued. Please try again shortly."));
+    }
+}
@@ -4,13 +4,14 @@ import com.school.roster.school_roster_backend.entity.NonStudentProfile;
 import com.school.roster.school_roster_backend.entity.StudentProfile;
 import com.school.roster.school_roster_backend.entity.User;
 import com.school.roster.school_roster_backend.entity.enums.Role;
+import com.school.roster.school_roster_backend.security.AuthenticatedUser;
+import com.school.roster.school_roster_backend.service.KeysetPage;
 import com.school.roster.school_roster_backend.service.ProfileService;
 import com.school.roster.school_roster_backend.service.RosterService;
 import com.school.roster.school_roster_backend.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 
 import java.util.List;
 import java.util.Optional;
@@ -26,17 +27,13 @@ class ProfileControllerTest {
     private UserService userService;
     private RosterService rosterService;
     private ProfileController controller;
-    private Authentication authentication;
 
     @BeforeEach
     void setUp() {
         profileService = mock(ProfileService.class);
         userService = mock(UserService.class);
         rosterService = mock(RosterService.class);
-        authentication = mock(Authentication.class);
         controller = new ProfileController(profileService, userService, rosterService);
-
-        when(authentication.getName()).thenReturn("user@example.com");
     }
 
     @Test
@@ -49,32 +46,28 @@ class ProfileControllerTest {
 
     @Test
     void createNonStudentProfile_shouldCreateSuccessfully() {
-        User user = new User();
-        user.setId("userId");
-        when(userService.getUserByEmail("user@example.com")).thenReturn(Optional.of(user));
+        AuthenticatedUser user = new AuthenticatedUser("userId", "user@example.com", Set.of());
         when(userService.hasAnyRole(user, "ADMIN", "ADMINISTRATOR", "OFFICE_ADMINISTRATOR")).thenReturn(true);
 
         NonStudentProfile profile = new NonStudentProfile();
         when(profileService.createNonStudentProfile(any(), any())).thenReturn(profile);
 
         ProfileController.CreateNonStudentProfileRequest request = new ProfileController.CreateNonStudentProfileRequest("userId", new NonStudentProfile());
-        ResponseEntity<NonStudentProfile> response = controller.createNonStudentProfile(authentication, request);
+        ResponseEntity<NonStudentProfile> response = controller.createNonStudentProfile(user, request);
 
         assertEquals(profile, response.getBody());
     }
 
     @Test
     void updateNonStudentProfile_shouldUpdateSuccessfully() {
-        User user = new User();
-        user.setId("userId");
-        when(userService.getUserByEmail("user@example.com")).thenReturn(Optional.of(user));
+        AuthenticatedUser user = new AuthenticatedUser("userId", "user@example.com", Set.of());
         when(userService.hasAnyRole(any(), eq("ADMIN"), eq("ADMINISTRATOR"))).thenReturn(true);
 
         NonStudentProfile updatedProfile = new NonStudentProfile();
         when(profileService.updateNonStudentProfile(anyLong(), any())).thenReturn(updatedProfile);
 
         ProfileController.UpdateNonStudentProfileRequest request = new ProfileController.UpdateNonStudentProfileRequest(1L, new NonStudentProfile());
-        ResponseEntity<NonStudentProfile> response = controller.updateNonStudentProfile(request, authentication);
+        ResponseEntity<NonStudentProfile> response = controller.updateNonStudentProfile(request, user);
 
         assertEquals(updatedProfile, response.getBody());
     }
@@ -118,53 +111,46 @@ class ProfileControllerTest {
     }
 
     @Test
-    void getAllProfiles_shouldReturnList() {
-        List<Object> profiles = List.of(new StudentProfile(), new NonStudentProfile());
-        when(profileService.getAllProfiles()).thenReturn(profiles);
+    void getProfilePage_shouldPassFiltersAndCursorThrough() {
+        ProfileController.ProfileListItem item =
+                new ProfileController.ProfileListItem("STUDENT", 1L, "userId", "Sam", null, "Reyes", "7");
+        when(profileService.getProfilePage("7", "Re", null, 10)).thenReturn(new KeysetPage<>(List.of(item), "next"));
 
-        ResponseEntity<List<Object>> response = controller.getAllProfiles();
+        ResponseEntity<KeysetPage<ProfileController.ProfileListItem>> response =
+                controller.getProfilePage("7", "Re", null, 10);
 
-        assertEquals(2, response.getBody().size());
+        assertEquals(List.of(item), response.getBody().getItems());
+        assertEquals("next", response.getBody().getNextCursor());
     }
 
     @Test
     void getMyProfile_shouldReturnProfile() {
-        User user = new User();
-        user.setId("userId");
-        when(userService.getUserByEmail("user@example.com")).thenReturn(Optional.of(user));
+        AuthenticatedUser user = new AuthenticatedUser("userId", "user@example.com", Set.of());
 
         StudentProfile profile = new StudentProfile();
         when(profileService.getProfileByUserId("userId")).thenReturn(profile);
 
-        ResponseEntity<Object> response = controller.getMyProfile(authentication);
+        ResponseEntity<Object> response = controller.getMyProfile(user);
 
         assertEquals(profile, response.getBody());
     }
 
     @Test
     void createStudentProfile_shouldDenyIfStudentNotUnderTeacher() {
-        User teacher = new User();
-        teacher.setId("t1");
-        teacher.setRoles(Set.of(Role.TEACHER));
-        when(authentication.getName()).thenReturn("teacher@example.com");
-        when(userService.getUserByEmail("teacher@example.com")).thenReturn(Optional.of(teacher));
+        AuthenticatedUser teacher = new AuthenticatedUser("t1", "teacher@example.com", Set.of(Role.TEACHER));
         when(userService.hasRole(teacher, "TEACHER")).thenReturn(true);
         when(rosterService.isStudentUnderTeacher("t1", "stu123")).thenReturn(false);
 
         var request = new ProfileController.CreateStudentProfileRequest("stu123", new StudentProfile());
 
         RuntimeException ex = assertThrows(RuntimeException.class, () ->
-                controller.createStudentProfile(request, authentication));
+                controller.createStudentProfile(request, teacher));
         assertEquals("Access denied: insufficient permissions", ex.getMessage());
     }
 
     @Test
     void updateStudentProfile_shouldDenyIfStudentNotUnderTeacher() {
-        User teacher = new User();
-        teacher.setId("t1");
-        teacher.setRoles(Set.of(Role.TEACHER));
-        when(authentication.getName()).thenReturn("teacher@example.com");
-        when(userService.getUserByEmail("teacher@example.com")).thenReturn(Optional.of(teacher));
+        AuthenticatedUser teacher = new AuthenticatedUser("t1", "teacher@example.com", Set.of(Role.TEACHER));
         when(userService.hasRole(teacher, "TEACHER")).thenReturn(true);
 
         StudentProfile profile = new StudentProfile();
@@ -177,48 +163,39 @@ class ProfileControllerTest {
         var request = new ProfileController.UpdateStudentProfileRequest(1L, profile);
 
         RuntimeException ex = assertThrows(RuntimeException.class, () ->
-                controller.updateStudentProfile(request, authentication));
+                controller.updateStudentProfile(request, teacher));
         assertEquals("Access denied: insufficient permissions", ex.getMessage());
     }
 
     @Test
     void createNonStudentProfile_shouldDenyIfUserNotOwner() {
-        User user = new User();
-        user.setId("u1");
-        when(authentication.getName()).thenReturn("user@example.com");
-        when(userService.getUserByEmail("user@example.com")).thenReturn(Optional.of(user));
+        AuthenticatedUser user = new AuthenticatedUser("u1", "user@example.com", Set.of());
         when(userService.hasAnyRole(eq(user), any())).thenReturn(false); // not admin
         when(userService.hasRole(user, "STUDENT")).thenReturn(false); // not student
 
         var request = new ProfileController.CreateNonStudentProfileRequest("anotherId", new NonStudentProfile());
 
         RuntimeException ex = assertThrows(RuntimeException.class, () ->
-                controller.createNonStudentProfile(authentication, request));
+                controller.createNonStudentProfile(user, request));
         assertEquals("You can only create your own non-student profile.", ex.getMessage());
     }
 
     @Test
     void createNonStudentProfile_shouldDenyIfUserIsStudent() {
-        User user = new User();
-        user.setId("u1");
-        when(authentication.getName()).thenReturn("user@example.com");
-        when(userService.getUserByEmail("user@example.com")).thenReturn(Optional.of(user));
+        AuthenticatedUser user = new AuthenticatedUser("u1", "user@example.com", Set.of());
         when(userService.hasAnyRole(eq(user), any())).thenReturn(false); // not admin
         when(userService.hasRole(user, "STUDENT")).thenReturn(true); // is student
 
         var request = new ProfileController.CreateNonStudentProfileRequest("u1", new NonStudentProfile());
 
         RuntimeException ex = assertThrows(RuntimeException.class, () ->
-                controller.createNonStudentProfile(authentication, request));
+                controller.createNonStudentProfile(user, request));
         assertEquals("Students are not allowed to create non-student profiles.", ex.getMessage());
     }
 
     @Test
     void updateNonStudentProfile_shouldDenyIfUserNotOwnerOrAdmin() {
-        User user = new User();
-        user.setId("u1");
-        when(authentication.getName()).thenReturn("user@example.com");
-        when(userService.getUserByEmail("user@example.com")).thenReturn(Optional.of(user));
+        AuthenticatedUser user = new AuthenticatedUser("u1", "user@example.com", Set.of());
         when(userService.hasAnyRole(eq(user), any())).thenReturn(false); // not admin
 
         NonStudentProfile profile = new NonStudentProfile();
@@ -229,7 +206,7 @@ class ProfileControllerTest {
         var request = new ProfileController.UpdateNonStudentProfileRequest(1L, profile);
 
         RuntimeException ex = assertThrows(RuntimeException.class, () ->
-                controller.updateNonStudentProfile(request, authentication));
+                controller.updateNonStudentProfile(request, user));
         assertEquals("Access denied: You can only update your own non-student profile.", ex.getMessage());
     }
 
@@ -3,20 +3,27 @@ package com.school.roster.school_roster_backend.controller;
 import com.school.roster.school_roster_backend.entity.*;
 import com.school.roster.school_roster_backend.entity.embedded.ScoreDetails;
 import com.school.roster.school_roster_backend.entity.enums.StudentGradeStatus;
+import com.school.roster.school_roster_backend.security.AuthenticatedUser;
+import com.school.roster.school_roster_backend.service.KeysetPage;
+import com.school.roster.school_roster_backend.service.RosterLockManager;
 import com.school.roster.school_roster_backend.service.RosterService;
+import com.school.roster.school_roster_backend.service.RosterViewService;
 import com.school.roster.school_roster_backend.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -32,21 +39,19 @@ class RosterControllerTest {
     @Mock
     private UserService userService;
     @Mock
-    private Authentication authentication;
+    private RosterViewService rosterViewService;
+    @Spy
+    private RosterLockManager rosterLockManager = new RosterLockManager(new SimpleMeterRegistry(), 10_000);
     @InjectMocks
     private RosterController controller;
 
     @BeforeEach
     void setUp() {
-        lenient().when(authentication.getName()).thenReturn("teacher@example.com");
     }
 
     @Test
     void createRoster_shouldCreateRoster() {
-        User teacher = new User();
-        teacher.setId("teacherId");
-
-        when(userService.getUserByEmail("teacher@example.com")).thenReturn(Optional.of(teacher));
+        AuthenticatedUser teacher = new AuthenticatedUser("teacherId", "teacher@example.com", Set.of());
         when(rosterService.createRoster(any(Roster.class), eq("teacherId")))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -55,7 +60,7 @@ class RosterControllerTest {
         incomingRoster.setPeriod("First");
         incomingRoster.setNickname("Algebra");
 
-        ResponseEntity<Roster> response = controller.createRoster(incomingRoster, authentication);
+        ResponseEntity<Roster> response = controller.createRoster(incomingRoster, teacher);
 
         assertNotNull(response.getBody());
         assertEquals("Math", response.getBody().getSubjectName());
@@ -65,8 +70,7 @@ class RosterControllerTest {
 
     @Test
     void updateRoster_shouldUpdateSuccessfully() {
-        User teacher = new User();
-        when(userService.getUserByEmail(anyString())).thenReturn(Optional.of(teacher));
+        AuthenticatedUser teacher = new AuthenticatedUser(null, "teacher@example.com", Set.of());
         when(rosterService.canEditRoster(anyLong(), eq(teacher))).thenReturn(true);
 
         Roster roster = new Roster();
@@ -74,19 +78,18 @@ class RosterControllerTest {
 
         RosterController.UpdateRosterRequest request =
                 new RosterController.UpdateRosterRequest(1L, new Roster());
-        Roster result = controller.updateRoster(request, authentication).getBody();
+        Roster result = controller.updateRoster(request, teacher).getBody();
 
         assertEquals(roster, result);
     }
 
     @Test
     void deleteRoster_shouldDeleteSuccessfully() {
-        User teacher = new User();
-        when(userService.getUserByEmail(anyString())).thenReturn(Optional.of(teacher));
+        AuthenticatedUser teacher = new AuthenticatedUser(null, "teacher@example.com", Set.of());
         when(rosterService.canEditRoster(anyLong(), eq(teacher))).thenReturn(true);
 
         RosterController.IdRequest request = new RosterController.IdRequest(1L);
-        ResponseEntity<String> response = controller.deleteRoster(request, authentication);
+        ResponseEntity<String> response = controller.deleteRoster(request, teacher);
 
         verify(rosterService).deleteRoster(1L);
         assertEquals("Roster deleted successfully.", response.getBody());
@@ -95,8 +98,7 @@ class RosterControllerTest {
     @Test
     void addStudentToRoster_shouldAddSuccessfully() {
         // Arrange
-        User teacher = new User();
-        when(userService.getUserByEmail(anyString())).thenReturn(Optional.of(teacher));
+        AuthenticatedUser teacher = new AuthenticatedUser(null, "teacher@example.com", Set.of());
         when(rosterService.canEditRoster(anyLong(), eq(teacher))).thenReturn(true);
 
         Roster roster = new Roster();
@@ -107,7 +109,7 @@ class RosterControllerTest {
                 new RosterController.AddStudentRequest(1L, userIds);
 
         // Act
-        Roster result = controller.addStudentToRoster(request, authentication).getBody();
+        Roster result = controller.addStudentToRoster(request, teacher).getBody();
 
         // Assert
         assertEquals(roster, result);
@@ -116,8 +118,7 @@ class RosterControllerTest {
     @Test
     void removeStudentFromRoster_shouldRemoveSuccessfully() {
         // Arrange
-        User teacher = new User();
-        when(userService.getUserByEmail(anyString())).thenReturn(Optional.of(teacher));
+        AuthenticatedUser teacher = new AuthenticatedUser(null, "teacher@example.com", Set.of());
         when(rosterService.canEditRoster(anyLong(), eq(teacher))).thenReturn(true);
 
         Roster roster = new Roster();
@@ -128,7 +129,7 @@ class RosterControllerTest {
                 new RosterController.AddStudentRequest(1L, userIds);
 
         // Act
-        Roster result = controller.removeStudentFromRoster(request, authentication).getBody();
+        Roster result = controller.removeStudentFromRoster(request, teacher).getBody();
 
         // Assert
         assertEquals(roster, result);
@@ -149,34 +150,27 @@ class RosterControllerTest {
 
     @Test
     void getRosterById_shouldReturnRosterResponse() {
-        User teacher = new User();
-        when(userService.getUserByEmail(anyString())).thenReturn(Optional.of(teacher));
+        AuthenticatedUser teacher = new AuthenticatedUser(null, "teacher@example.com", Set.of());
         when(rosterService.canViewRoster(anyLong(), eq(teacher))).thenReturn(true);
 
-        Roster roster = new Roster();
-        roster.setId(1L);
-        when(rosterService.getRosterById(1L)).thenReturn(roster);
+        when(rosterViewService.getRosterView(1L)).thenReturn(view(1L));
 
         RosterController.IdRequest request = new RosterController.IdRequest(1L);
         RosterController.RosterResponse result =
-                controller.getRosterById(request, authentication).getBody();
+                controller.getRosterById(request, teacher).getBody();
 
         assertEquals(1L, result.getRosterId());
     }
 
     @Test
     void getRostersByStudent_shouldReturnRosterResponses() {
-        User student = new User();
-        student.setId("studentId");
-        when(userService.getUserByEmail(anyString())).thenReturn(Optional.of(student));
+        AuthenticatedUser student = new AuthenticatedUser("studentId", "teacher@example.com", Set.of());
 
-        Roster roster = new Roster();
-        roster.setId(2L);
-        when(rosterService.getRostersByStudentId("studentId"))
-                .thenReturn(List.of(roster));
+        when(rosterViewService.getRosterViewsByStudentId("studentId"))
+                .thenReturn(List.of(view(2L)));
 
         List<RosterController.RosterResponse> result =
-                controller.getRostersByStudent(authentication).getBody();
+                controller.getRostersByStudent(student).getBody();
 
         assertEquals(1, result.size());
         assertEquals(2L, result.get(0).getRosterId());
@@ -184,17 +178,13 @@ class RosterControllerTest {
 
     @Test
     void getRostersByTeacher_shouldReturnRosterResponses() {
-        User teacher = new User();
-        teacher.setId("teacherId");
-        when(userService.getUserByEmail(anyString())).thenReturn(Optional.of(teacher));
+        AuthenticatedUser teacher = new AuthenticatedUser("teacherId", "teacher@example.com", Set.of());
 
-        Roster roster = new Roster();
-        roster.setId(3L);
-        when(rosterService.getRostersByTeacherId("teacherId"))
-                .thenReturn(List.of(roster));
+        when(rosterViewService.getRosterViewsByTeacherId("teacherId"))
+                .thenReturn(List.of(view(3L)));
 
         List<RosterController.RosterResponse> result =
-                controller.getRostersByTeacher(authentication).getBody();
+                controller.getRostersByTeacher(teacher).getBody();
 
         assertEquals(1, result.size());
         assertEquals(3L, result.get(0).getRosterId());
@@ -202,15 +192,26 @@ class RosterControllerTest {
 
     @Test
     void getAllRosters_shouldReturnRosterResponses() {
-        Roster roster = new Roster();
-        roster.setId(4L);
-        when(rosterService.getAllRosters()).thenReturn(List.of(roster));
+        when(rosterViewService.getAllRosterViews()).thenReturn(List.of(view(4L)));
 
-        List<RosterController.RosterResponse> result =
-                controller.getAllRosters().getBody();
+        ResponseEntity<List<RosterController.RosterResponse>> response = controller.getAllRosters();
 
-        assertEquals(1, result.size());
-        assertEquals(4L, result.get(0).getRosterId());
+        assertEquals(1, response.getBody().size());
+        assertEquals(4L, response.getBody().get(0).getRosterId());
+        assertEquals("true", response.getHeaders().getFirst("Deprecation"));
+        assertThat(response.getHeaders().getFirst(HttpHeaders.LINK)).contains("/api/rosters/page");
+    }
+
+    @Test
+    void getRosterPage_shouldPassFiltersAndCursorThrough() {
+        when(rosterViewService.getRosterViewPage("7", "Ma", "cursor", 20))
+                .thenReturn(new KeysetPage<>(List.of(view(5L)), "next"));
+
+        KeysetPage<RosterController.RosterResponse> page =
+                controller.getRosterPage("7", "Ma", "cursor", 20).getBody();
+
+        assertEquals(5L, page.getItems().get(0).getRosterId());
+        assertEquals("next", page.getNextCursor());
     }
 
     @Test
@@ -248,7 +249,7 @@ class RosterControllerTest {
         roster.setNickname("Algebra Fun");
         roster.setGradeLevel("1");
         roster.setTeacher(teacher);
-        roster.setStudents(List.of(student));
+        roster.setStudents(Set.of(student));
         roster.setGrades(List.of(grade));
         roster.setClassGpa(92f);
 
@@ -277,10 +278,7 @@ class RosterControllerTest {
 
     @Test
     void updateRoster_shouldThrowIfUserCannotEdit() {
-        User teacher = new User();
-        when(authentication.getName()).thenReturn("teacher@example.com");
-        when(userService.getUserByEmail("teacher@example.com"))
-                .thenReturn(Optional.of(teacher));
+        AuthenticatedUser teacher = new AuthenticatedUser(null, "teacher@example.com", Set.of());
         when(rosterService.canEditRoster(eq(1L), eq(teacher))).thenReturn(false);
 
         RosterController.UpdateRosterRequest request =
@@ -288,34 +286,28 @@ class RosterControllerTest {
 
         RuntimeException ex = assertThrows(
                 RuntimeException.class,
-                () -> controller.updateRoster(request, authentication)
+                () -> controller.updateRoster(request, teacher)
         );
         assertEquals("Access denied: You are not allowed to update this roster.", ex.getMessage());
     }
 
     @Test
     void deleteRoster_shouldThrowIfUserCannotEdit() {
-        User teacher = new User();
-        when(authentication.getName()).thenReturn("teacher@example.com");
-        when(userService.getUserByEmail("teacher@example.com"))
-                .thenReturn(Optional.of(teacher));
+        AuthenticatedUser teacher = new AuthenticatedUser(null, "teacher@example.com", Set.of());
         when(rosterService.canEditRoster(eq(1L), eq(teacher))).thenReturn(false);
 
         RosterController.IdRequest request = new RosterController.IdRequest(1L);
 
         RuntimeException ex = assertThrows(
                 RuntimeException.class,
-                () -> controller.deleteRoster(request, authentication)
+                () -> controller.deleteRoster(request, teacher)
         );
         assertEquals("Access denied: You are not allowed to delete this roster.", ex.getMessage());
     }
 
     @Test
     void addStudent_shouldThrowIfUserCannotEdit() {
-        User teacher = new User();
-        when(authentication.getName()).thenReturn("teacher@example.com");
-        when(userService.getUserByEmail("teacher@example.com"))
-                .thenReturn(Optional.of(teacher));
+        AuthenticatedUser teacher = new AuthenticatedUser(null, "teacher@example.com", Set.of());
         when(rosterService.canEditRoster(eq(1L), eq(teacher))).thenReturn(false);
         List<String> userId = new ArrayList<>();
         userId.add("studentId");
@@ -324,17 +316,14 @@ class RosterControllerTest {
 
         RuntimeException ex = assertThrows(
                 RuntimeException.class,
-                () -> controller.addStudentToRoster(request, authentication)
+                () -> controller.addStudentToRoster(request, teacher)
         );
         assertEquals("Access denied: You are not allowed to add students to this roster.", ex.getMessage());
     }
 
     @Test
     void removeStudent_shouldThrowIfUserCannotEdit() {
-        User teacher = new User();
-        when(authentication.getName()).thenReturn("teacher@example.com");
-        when(userService.getUserByEmail("teacher@example.com"))
-                .thenReturn(Optional.of(teacher));
+        AuthenticatedUser teacher = new AuthenticatedUser(null, "teacher@example.com", Set.of());
         when(rosterService.canEditRoster(eq(1L), eq(teacher))).thenReturn(false);
         List<String> userId = new ArrayList<>();
         userId.add("studentId");
@@ -343,24 +332,21 @@ class RosterControllerTest {
 
         RuntimeException ex = assertThrows(
                 RuntimeException.class,
-                () -> controller.removeStudentFromRoster(request, authentication)
+                () -> controller.removeStudentFromRoster(request, teacher)
         );
         assertEquals("Access denied: You are not allowed to remove students from this roster.", ex.getMessage());
     }
 
     @Test
     void getRosterById_shouldThrowIfUserCannotView() {
-        User user = new User();
-        when(authentication.getName()).thenReturn("teacher@example.com");
-        when(userService.getUserByEmail("teacher@example.com"))
-                .thenReturn(Optional.of(user));
+        AuthenticatedUser user = new AuthenticatedUser(null, "teacher@example.com", Set.of());
         when(rosterService.canViewRoster(eq(1L), eq(user))).thenReturn(false);
 
         RosterController.IdRequest request = new RosterController.IdRequest(1L);
 
         RuntimeException ex = assertThrows(
                 RuntimeException.class,
-                () -> controller.getRosterById(request, authentication)
+                () -> controller.getRosterById(request, user)
         );
         assertEquals("Access denied: You are not allowed to view this roster.", ex.getMessage());
     }
@@ -373,4 +359,9 @@ class RosterControllerTest {
 
         assertEquals(roster, request.getRosterData());
     }
+
+    private static RosterController.RosterResponse view(Long rosterId) {
+        return new RosterController.RosterResponse(rosterId, null, null, null, null, null, null, null, null, null,
+                new ArrayList<>(), 0f);
+    }
 }
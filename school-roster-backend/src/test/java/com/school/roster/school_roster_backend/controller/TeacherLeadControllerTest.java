@@ -1,6 +1,7 @@
 package com.school.roster.school_roster_backend.controller;
 
 import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.security.AuthenticatedUser;
 import com.school.roster.school_roster_backend.service.TeacherLeadService;
 import com.school.roster.school_roster_backend.service.UserService;
 import org.junit.jupiter.api.Test;
@@ -9,10 +10,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -26,20 +27,15 @@ class TeacherLeadControllerTest {
     @Mock
     private UserService userService;
 
-    @Mock
-    private Authentication authentication;
-
     @InjectMocks
     private TeacherLeadController controller;
 
     @Test
     void addTeacher_shouldAddSuccessfully() {
-        User caller = new User();
-        when(authentication.getName()).thenReturn("lead@example.com");
-        when(userService.getUserByEmail("lead@example.com")).thenReturn(Optional.of(caller));
+        AuthenticatedUser caller = new AuthenticatedUser(null, "lead@example.com", Set.of());
 
         TeacherLeadController.ManageTeacherRequest request = new TeacherLeadController.ManageTeacherRequest("leadId", "teacherId");
-        ResponseEntity<String> response = controller.addTeacher(request, authentication);
+        ResponseEntity<String> response = controller.addTeacher(request, caller);
 
         verify(teacherLeadService).addTeacher("leadId", "teacherId", caller);
         assertEquals("Teacher added to lead.", response.getBody());
@@ -47,12 +43,10 @@ class TeacherLeadControllerTest {
 
     @Test
     void removeTeacher_shouldRemoveSuccessfully() {
-        User caller = new User();
-        when(authentication.getName()).thenReturn("lead@example.com");
-        when(userService.getUserByEmail("lead@example.com")).thenReturn(Optional.of(caller));
+        AuthenticatedUser caller = new AuthenticatedUser(null, "lead@example.com", Set.of());
 
         TeacherLeadController.ManageTeacherRequest request = new TeacherLeadController.ManageTeacherRequest("leadId", "teacherId");
-        ResponseEntity<String> response = controller.removeTeacher(request, authentication);
+        ResponseEntity<String> response = controller.removeTeacher(request, caller);
 
         verify(teacherLeadService).removeTeacher("leadId", "teacherId", caller);
         assertEquals("Teacher removed from lead.", response.getBody());
@@ -60,14 +54,12 @@ class TeacherLeadControllerTest {
 
     @Test
     void getMyTeachers_shouldReturnTeachers() {
-        User caller = new User();
-        when(authentication.getName()).thenReturn("lead@example.com");
-        when(userService.getUserByEmail("lead@example.com")).thenReturn(Optional.of(caller));
+        AuthenticatedUser caller = new AuthenticatedUser(null, "lead@example.com", Set.of());
 
         List<User> teachers = List.of(new User(), new User());
         when(teacherLeadService.getMyTeachers(caller)).thenReturn(teachers);
 
-        ResponseEntity<List<User>> response = controller.getMyTeachers(authentication);
+        ResponseEntity<List<User>> response = controller.getMyTeachers(caller);
 
         assertEquals(2, response.getBody().size());
         verify(teacherLeadService).getMyTeachers(caller);
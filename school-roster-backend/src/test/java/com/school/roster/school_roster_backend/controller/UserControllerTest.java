@@ -1,17 +1,23 @@
 package com.school.roster.school_roster_backend.controller;
 
 import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.entity.enums.Role;
+import com.school.roster.school_roster_backend.security.AuthenticatedUser;
+import com.school.roster.school_roster_backend.service.KeysetPage;
+import com.school.roster.school_roster_backend.service.RosterLockManager;
 import com.school.roster.school_roster_backend.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -22,21 +28,22 @@ class UserControllerTest {
     @Mock
     private UserService userService;
 
-    @Mock
-    private Authentication authentication;
+    @Spy
+    private RosterLockManager rosterLockManager = new RosterLockManager(new SimpleMeterRegistry(), 10_000);
 
     @InjectMocks
     private UserController controller;
 
     @Test
-    void getAllUsers_shouldReturnListOfUsers() {
-        List<User> users = List.of(new User(), new User());
-        when(userService.getAllUsers()).thenReturn(users);
+    void getUserPage_shouldPassFiltersAndCursorThrough() {
+        UserController.UserPageItem item =
+                new UserController.UserPageItem("userId", "a@b.c", Set.of(Role.TEACHER), "Ana", null, "Santos");
+        when(userService.getUserPage("TEACHER", "San", null, null)).thenReturn(new KeysetPage<>(List.of(item), null));
 
-        ResponseEntity<List<User>> response = controller.getAllUsers();
+        KeysetPage<UserController.UserPageItem> page = controller.getUserPage("TEACHER", "San", null, null).getBody();
 
-        assertEquals(2, response.getBody().size());
-        verify(userService).getAllUsers();
+        assertEquals(List.of(item), page.getItems());
+        assertNull(page.getNextCursor());
     }
 
     @Test
@@ -85,15 +92,28 @@ class UserControllerTest {
     }
 
     @Test
-    void getMyUser_shouldReturnCurrentUser() {
-        when(authentication.getName()).thenReturn("user@example.com");
+    void deleteUser_shouldHoldTheLockOfEveryRosterTheStudentIsIn() {
+        when(userService.getRosterIdsForStudent("userId")).thenReturn(Set.of(3L, 1L));
+        doAnswer(invocation -> {
+            assertEquals(2, rosterLockManager.activeLocks());
+            return null;
+        }).when(userService).deleteUser("userId");
+
+        controller.deleteUser(new UserController.IdRequest("userId"));
+
+        verify(rosterLockManager).withLocks(eq(Set.of(3L, 1L)), any());
+        assertEquals(0, rosterLockManager.activeLocks());
+    }
 
+    @Test
+    void getMyUser_shouldLoadUserByIdFromToken() {
+        AuthenticatedUser principal = new AuthenticatedUser("userId", "user@example.com", Set.of());
         User user = new User();
-        when(userService.getUserByEmail("user@example.com")).thenReturn(Optional.of(user));
+        when(userService.getUserById("userId")).thenReturn(Optional.of(user));
 
-        ResponseEntity<User> response = controller.getMyUser(authentication);
+        ResponseEntity<User> response = controller.getMyUser(principal);
 
         assertEquals(user, response.getBody());
-        verify(userService).getUserByEmail("user@example.com");
+        verify(userService, never()).getUserByEmail(anyString());
     }
 }
@@ -0,0 +1,176 @@
+package com.school.roster.school_roster_backend.entity.embedded;
+
+import com.school.roster.school_roster_backend.entity.Grade;
+import com.school.roster.school_roster_backend.service.GradeCalculator;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.Size;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * The FIXED_POINT arithmetic agrees with the DOUBLE path within one hundredth at every stage.
+ * (The two only differ at exact .005 ties, where the double product lands a hair below the tie.)
+ * Those per-stage differences do not cancel, so from raw scores the initialGrade can differ by up to
+ * one hundredth per category, and the finalStatus only where that straddles a status threshold.
+ */
+class FixedPointKernelProperties {
+
+    private static final double ONE_HUNDREDTH = 0.01 + 1e-9;
+    private static final double THREE_HUNDREDTHS = 0.03 + 1e-9;
+    private static final double[] STATUS_THRESHOLDS = {75, 90, 95, 98};
+
+    private static final GradeCalculator DOUBLE = new GradeCalculator(GradeArithmetic.DOUBLE);
+    private static final GradeCalculator FIXED_POINT = new GradeCalculator(GradeArithmetic.FIXED_POINT);
+
+    @Property
+    void psAgreesWithDoublePath(@ForAll @IntRange(max = 1_000) int gradeTotal,
+                                @ForAll @IntRange(max = 1_000) int hpsTotal,
+                                @ForAll @IntRange(max = 10_000) int hpsPsHundredths) {
+        double hpsPs = hpsPsHundredths / 100.0;
+
+        double fixed = FixedPointKernel.fromHundredths(FixedPointKernel.ps(gradeTotal, hpsTotal, hpsPsHundredths));
+
+        assertThat(fixed).isCloseTo(ScoreKernel.ps(gradeTotal, hpsTotal, hpsPs), within(ONE_HUNDREDTH));
+    }
+
+    @Property
+    void wsAgreesWithDoublePath(@ForAll @IntRange(max = 10_000) int psHundredths,
+                                @ForAll @IntRange(max = 10_000) int hpsWsHundredths) {
+        double fixed = FixedPointKernel.fromHundredths(FixedPointKernel.ws(psHundredths, hpsWsHundredths));
+
+        double expected = ScoreKernel.ws(psHundredths / 100.0, hpsWsHundredths / 100.0);
+        assertThat(fixed).isCloseTo(expected, within(ONE_HUNDREDTH));
+    }
+
+    @Property
+    void initialGradeAgreesWithDoublePath(@ForAll @IntRange(max = 4_000) int performanceWs,
+                                          @ForAll @IntRange(max = 4_000) int quizWs,
+                                          @ForAll @IntRange(max = 2_000) int examWs) {
+        long fixed = (long) performanceWs + quizWs + examWs;
+
+        double expected = ScoreKernel.initialGrade(performanceWs / 100.0, quizWs / 100.0, examWs / 100.0);
+        assertThat(FixedPointKernel.fromHundredths(fixed)).isCloseTo(expected, within(ONE_HUNDREDTH));
+    }
+
+    @Property
+    void classGpaAgreesWithDoublePath(@ForAll @Size(max = 60) List<@IntRange(max = 10_000) Integer> initialGrades) {
+        double sum = 0.0;
+        for (int hundredths : initialGrades) {
+            sum += hundredths / 100.0;
+        }
+
+        float fixed = GradeArithmetic.FIXED_POINT.classGpa(sum, initialGrades.size());
+        float dbl = GradeArithmetic.DOUBLE.classGpa(sum, initialGrades.size());
+
+        // both are narrowed to float for the classGpa column, so allow float precision on top
+        assertThat((double) fixed).isCloseTo(dbl, within(ONE_HUNDREDTH + 1e-4));
+    }
+
+    @Property
+    void gradePipelineStaysWithinOneHundredthPerStage(
+            @ForAll @Size(min = 1, max = 5) List<@IntRange(min = 1, max = 100) Integer> hpsSlots,
+            @ForAll @IntRange(max = 100) int scorePercent,
+            @ForAll @IntRange(max = 10_000) int hpsPsHundredths,
+            @ForAll @IntRange(max = 10_000) int hpsWsHundredths) {
+        ScoreDetails hps = new ScoreDetails();
+        hps.setPerformanceScores(hpsSlots);
+        hps.setQuizScores(hpsSlots);
+        hps.setQuarterlyExamScores(hpsSlots);
+        hps.recalcTotals();
+        hps.setPerformancePs(hpsPsHundredths / 100.0);
+        hps.setQuizPs(100.0);
+        hps.setQuarterlyExamPs(hpsPsHundredths / 100.0);
+        hps.setPerformanceWs(hpsWsHundredths / 100.0);
+        hps.setQuizWs(40.0);
+        hps.setQuarterlyExamWs(20.0);
+
+        ScoreDetails viaDouble = gradeScoring(hpsSlots, scorePercent);
+        ScoreDetails viaFixed = gradeScoring(hpsSlots, scorePercent);
+        GradeArithmetic.DOUBLE.recalculate(viaDouble, hps);
+        double fixedInitial = GradeArithmetic.FIXED_POINT.recalculate(viaFixed, hps);
+
+        assertThat(viaFixed.getPerformancePs()).isCloseTo(viaDouble.getPerformancePs(), within(ONE_HUNDREDTH));
+        assertThat(viaFixed.getQuizPs()).isCloseTo(viaDouble.getQuizPs(), within(ONE_HUNDREDTH));
+        assertThat(viaFixed.getQuarterlyExamPs()).isCloseTo(viaDouble.getQuarterlyExamPs(), within(ONE_HUNDREDTH));
+
+        // ws from the fixed path's own ps agrees with the double formula on that same ps
+        assertThat(viaFixed.getPerformanceWs()).isCloseTo(
+                ScoreKernel.ws(viaFixed.getPerformancePs(), hps.getPerformanceWs()), within(ONE_HUNDREDTH));
+        assertThat(fixedInitial).isCloseTo(
+                ScoreKernel.initialGrade(viaFixed.getPerformanceWs(), viaFixed.getQuizWs(), viaFixed.getQuarterlyExamWs()),
+                within(ONE_HUNDREDTH));
+    }
+
+    @Property
+    void initialGradeAndStatusFromRawScoresStayWithinTheDocumentedBound(
+            @ForAll @Size(min = 1, max = 5) List<@IntRange(min = 1, max = 100) Integer> performanceSlots,
+            @ForAll @Size(min = 1, max = 5) List<@IntRange(min = 1, max = 100) Integer> quizSlots,
+            @ForAll @Size(min = 1, max = 3) List<@IntRange(min = 1, max = 100) Integer> examSlots,
+            @ForAll @Size(min = 13, max = 13) List<@IntRange(max = 100) Integer> scorePercents,
+            @ForAll @Size(min = 3, max = 3) List<@IntRange(max = 10_000) Integer> hpsPsHundredths,
+            @ForAll @Size(min = 3, max = 3) List<@IntRange(max = 10_000) Integer> hpsWsHundredths) {
+        ScoreDetails hps = new ScoreDetails();
+        hps.setPerformanceScores(performanceSlots);
+        hps.setQuizScores(quizSlots);
+        hps.setQuarterlyExamScores(examSlots);
+        hps.recalcTotals();
+        hps.setPerformancePs(hpsPsHundredths.get(0) / 100.0);
+        hps.setQuizPs(hpsPsHundredths.get(1) / 100.0);
+        hps.setQuarterlyExamPs(hpsPsHundredths.get(2) / 100.0);
+        hps.setPerformanceWs(hpsWsHundredths.get(0) / 100.0);
+        hps.setQuizWs(hpsWsHundredths.get(1) / 100.0);
+        hps.setQuarterlyExamWs(hpsWsHundredths.get(2) / 100.0);
+
+        Grade viaDouble = rawGrade(performanceSlots, quizSlots, examSlots, scorePercents);
+        Grade viaFixed = rawGrade(performanceSlots, quizSlots, examSlots, scorePercents);
+        DOUBLE.clampAndRecalculate(viaDouble, hps);
+        FIXED_POINT.clampAndRecalculate(viaFixed, hps);
+
+        assertThat(viaFixed.getInitialGrade()).isCloseTo(viaDouble.getInitialGrade(), within(THREE_HUNDREDTHS));
+        if (viaFixed.getFinalStatus() != viaDouble.getFinalStatus()) {
+            assertThat(distanceToNearestThreshold(viaDouble.getInitialGrade())).isLessThanOrEqualTo(THREE_HUNDREDTHS);
+        }
+    }
+
+    private static Grade rawGrade(List<Integer> performanceSlots, List<Integer> quizSlots, List<Integer> examSlots,
+                                  List<Integer> scorePercents) {
+        Grade grade = new Grade();
+        ScoreDetails details = grade.getScoreDetails();
+        int p = 0;
+        for (int max : performanceSlots) {
+            details.getPerformanceScores().add(max * scorePercents.get(p++) / 100);
+        }
+        for (int max : quizSlots) {
+            details.getQuizScores().add(max * scorePercents.get(p++) / 100);
+        }
+        for (int max : examSlots) {
+            details.getQuarterlyExamScores().add(max * scorePercents.get(p++) / 100);
+        }
+        return grade;
+    }
+
+    private static double distanceToNearestThreshold(double initialGrade) {
+        double nearest = Double.MAX_VALUE;
+        for (double threshold : STATUS_THRESHOLDS) {
+            nearest = Math.min(nearest, Math.abs(initialGrade - threshold));
+        }
+        return nearest;
+    }
+
+    private static ScoreDetails gradeScoring(List<Integer> hpsSlots, int percent) {
+        ScoreDetails grade = new ScoreDetails();
+        for (int max : hpsSlots) {
+            int score = max * percent / 100;
+            grade.getPerformanceScores().add(score);
+            grade.getQuizScores().add(score);
+            grade.getQuarterlyExamScores().add(score);
+        }
+        grade.recalcTotals();
+        return grade;
+    }
+}
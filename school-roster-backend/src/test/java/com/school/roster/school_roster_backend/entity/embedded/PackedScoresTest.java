@@ -0,0 +1,67 @@
+package com.school.roster.school_roster_backend.entity.embedded;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedScoresTest {
+
+    private final PackedScoresConverter converter = new PackedScoresConverter();
+
+    @Test
+    void listOperations_shouldBehaveLikeArrayList() {
+        PackedScores scores = new PackedScores();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            scores.add(i * 3);
+            expected.add(i * 3);
+        }
+        scores.add(0, 99);
+        expected.add(0, 99);
+        scores.set(4, 7);
+        expected.set(4, 7);
+        scores.remove(2);
+        expected.remove(2);
+
+        assertEquals(expected, scores);
+        assertEquals(expected.hashCode(), scores.hashCode());
+        assertEquals(expected.stream().mapToInt(Integer::intValue).sum(), scores.sum());
+        assertThrows(IndexOutOfBoundsException.class, () -> scores.get(scores.size()));
+        assertThrows(NullPointerException.class, () -> scores.add(null));
+    }
+
+    @Test
+    void copyOf_shouldNotAliasTheSource() {
+        List<Integer> source = new ArrayList<>(List.of(1, 2, 3));
+        PackedScores copy = PackedScores.copyOf(source);
+        source.set(0, 50);
+
+        assertEquals(List.of(1, 2, 3), copy);
+        assertTrue(PackedScores.copyOf(null).isEmpty());
+    }
+
+    @Test
+    void converter_shouldRoundTripScores() {
+        PackedScores scores = PackedScores.of(0, 10, 63, 64, 100, -1, Integer.MAX_VALUE, Integer.MIN_VALUE);
+
+        byte[] column = converter.convertToDatabaseColumn(scores);
+
+        assertEquals(scores, converter.convertToEntityAttribute(column));
+    }
+
+    @Test
+    void converter_shouldUseOneByteForTypicalScores() {
+        // format byte + one byte per score in 0..63
+        assertThat(converter.convertToDatabaseColumn(PackedScores.of(10, 20, 30))).hasSize(4);
+        assertThat(converter.convertToDatabaseColumn(new PackedScores())).hasSize(1);
+    }
+
+    @Test
+    void converter_nullColumn_shouldReadAsEmptyList() {
+        assertTrue(converter.convertToEntityAttribute(null).isEmpty());
+    }
+}
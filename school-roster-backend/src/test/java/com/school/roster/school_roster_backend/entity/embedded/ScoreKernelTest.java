@@ -0,0 +1,108 @@
+package com.school.roster.school_roster_backend.entity.embedded;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreKernelTest {
+
+    @Test
+    void kernel_shouldMatchOriginalBoxedFormulasExactly() {
+        Random random = new Random(42);
+        for (int run = 0; run < 10_000; run++) {
+            int gradeTotal = random.nextInt(500);
+            int hpsTotal = random.nextInt(500);
+            double hpsPs = random.nextInt(10_001) / 100.0;
+            double hpsWs = random.nextInt(10_001) / 100.0;
+
+            double ps = ScoreKernel.ps(gradeTotal, hpsTotal, hpsPs);
+            assertEquals(boxedPs(gradeTotal, hpsTotal, hpsPs), ps);
+            assertEquals(boxedWs(ps, hpsWs), ScoreKernel.ws(ps, hpsWs));
+        }
+    }
+
+    @Test
+    void recalc_shouldMatchOriginalPipelineOnRandomGrades() {
+        Random random = new Random(7);
+        for (int run = 0; run < 1_000; run++) {
+            ScoreDetails hps = new ScoreDetails();
+            ScoreDetails grade = new ScoreDetails();
+            List<List<Integer>> expectedLists = new ArrayList<>();
+            for (List<Integer>[] pair : pairs(hps, grade)) {
+                List<Integer> expected = new ArrayList<>();
+                int slots = random.nextInt(6);
+                for (int i = 0; i < slots; i++) {
+                    int max = random.nextInt(101);
+                    int score = random.nextInt(141) - 20;
+                    pair[0].add(max);
+                    pair[1].add(score);
+                    expected.add(Math.max(0, Math.min(score, max)));
+                }
+                // grades may carry an extra unclamped slot the HPS does not have
+                if (random.nextBoolean()) {
+                    pair[1].add(150);
+                    expected.add(150);
+                }
+                expectedLists.add(expected);
+            }
+            hps.recalcTotals();
+            hps.setPerformancePs(100.0);
+            hps.setQuizPs(random.nextInt(10_001) / 100.0);
+            hps.setQuarterlyExamPs(100.0);
+            hps.setPerformanceWs(random.nextInt(4_001) / 100.0);
+            hps.setQuizWs(40.0);
+            hps.setQuarterlyExamWs(random.nextInt(2_001) / 100.0);
+
+            grade.clampScoresAgainst(hps);
+            grade.recalcTotals();
+            grade.recalcPs(hps);
+            grade.recalcWs(hps);
+
+            assertEquals(expectedLists.get(0), grade.getPerformanceScores());
+            assertEquals(expectedLists.get(1), grade.getQuizScores());
+            assertEquals(expectedLists.get(2), grade.getQuarterlyExamScores());
+
+            double perfPs = boxedPs(sum(expectedLists.get(0)), hps.getPerformanceTotal(), hps.getPerformancePs());
+            double quizPs = boxedPs(sum(expectedLists.get(1)), hps.getQuizTotal(), hps.getQuizPs());
+            double examPs = boxedPs(sum(expectedLists.get(2)), hps.getQuarterlyExamTotal(), hps.getQuarterlyExamPs());
+            assertEquals(perfPs, grade.getPerformancePs());
+            assertEquals(boxedWs(perfPs, hps.getPerformanceWs()), grade.getPerformanceWs());
+            assertEquals(boxedWs(quizPs, hps.getQuizWs()), grade.getQuizWs());
+            assertEquals(boxedWs(examPs, hps.getQuarterlyExamWs()), grade.getQuarterlyExamWs());
+
+            Double boxedInitial = grade.getPerformanceWs() + grade.getQuizWs() + grade.getQuarterlyExamWs();
+            assertEquals(Math.round(boxedInitial * 100.0) / 100.0, grade.initialGrade());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<List<Integer>[]> pairs(ScoreDetails hps, ScoreDetails grade) {
+        return List.of(
+                new List[]{hps.getPerformanceScores(), grade.getPerformanceScores()},
+                new List[]{hps.getQuizScores(), grade.getQuizScores()},
+                new List[]{hps.getQuarterlyExamScores(), grade.getQuarterlyExamScores()});
+    }
+
+    private static Integer sum(List<Integer> list) {
+        return list.stream().mapToInt(Integer::intValue).sum();
+    }
+
+    // --- the formulas as ScoreDetails wrote them before the kernel, boxed types included ---
+
+    private static Double boxedPs(Integer gradeTotal, Integer hpsTotal, Double hpsPs) {
+        if (hpsTotal == null || hpsTotal == 0) {
+            return 0.0;
+        }
+        double raw = (gradeTotal.doubleValue() / hpsTotal.doubleValue()) * hpsPs;
+        return Math.round(raw * 100.0) / 100.0;
+    }
+
+    private static Double boxedWs(Double ps, Double hpsWs) {
+        double raw = ps * (hpsWs / 100.0);
+        return Math.round(raw * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,146 @@
+package com.school.roster.school_roster_backend.init;
+
+import com.school.roster.school_roster_backend.entity.Grade;
+import com.school.roster.school_roster_backend.entity.HighestPossibleScore;
+import com.school.roster.school_roster_backend.entity.Roster;
+import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.entity.embedded.ScoreDetails;
+import com.school.roster.school_roster_backend.entity.enums.Role;
+import com.school.roster.school_roster_backend.support.JpaSliceTest;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JpaSliceTest
+@Import(LegacyScoreMigration.class)
+class LegacyScoreMigrationTest {
+
+    @Autowired
+    private LegacyScoreMigration migration;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrate_shouldPackLegacyCollectionRowsInOrderAndClearThem() {
+        Long gradeId = seedGradeWithLegacyRows(true);
+
+        int migrated = migration.migrate();
+        entityManager.clear();
+
+        // 3 grade columns + 3 HPS columns
+        assertThat(migrated).isEqualTo(6);
+        Grade grade = entityManager.find(Grade.class, gradeId);
+        assertThat(grade.getScoreDetails().getPerformanceScores()).containsExactly(9, 7, 8);
+        assertThat(grade.getScoreDetails().getQuizScores()).isEmpty();
+        assertThat(grade.getScoreDetails().getQuarterlyExamScores()).containsExactly(40);
+
+        HighestPossibleScore hps = entityManager.find(HighestPossibleScore.class, grade.getRoster().getId());
+        assertThat(hps.getScoreDetails().getPerformanceScores()).containsExactly(10, 10, 10);
+        assertThat(hps.getScoreDetails().getQuizScores()).containsExactly(20);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM grade_performance_scores", Long.class)).isZero();
+        assertThat(migration.migrate()).isZero();
+    }
+
+    @Test
+    void migrate_shouldRefuseLegacyRowsWithNoColumnToOrderThem() {
+        seedGradeWithLegacyRows(false);
+
+        assertThatThrownBy(() -> migration.migrate())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("grade_performance_scores");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM grade_performance_scores", Long.class)).isEqualTo(3);
+    }
+
+    /**
+     * Persist a roster/HPS/grade, then fake the pre-migration layout: packed columns NULL and the
+     * scores sitting in the old element-collection tables, optionally with a surrogate key whose
+     * order differs from the insertion order.
+     */
+    private Long seedGradeWithLegacyRows(boolean withOrderColumn) {
+        // DDL commits in H2, so create the legacy tables before anything else is written
+        String orderColumn = withOrderColumn ? "legacy_id BIGINT PRIMARY KEY, " : "";
+        for (String category : new String[]{"performance_scores", "quiz_scores", "quarterly_exam_scores"}) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS grade_" + category);
+            jdbcTemplate.execute("CREATE TABLE grade_" + category + " (" + orderColumn
+                    + "grade_id BIGINT NOT NULL REFERENCES grades(id), " + category + " INTEGER)");
+            jdbcTemplate.execute("DROP TABLE IF EXISTS highest_possible_score_" + category);
+            jdbcTemplate.execute("CREATE TABLE highest_possible_score_" + category + " (" + orderColumn
+                    + "highest_possible_score_roster_id BIGINT NOT NULL, " + category + " INTEGER)");
+        }
+
+        User teacher = user("000000000001", "teacher@school.test", Role.TEACHER);
+        User student = user("000000000002", "student@school.test", Role.STUDENT);
+
+        Roster roster = new Roster();
+        roster.setSubjectName("Math");
+        roster.setGradeLevel("7");
+        roster.setTeacher(teacher);
+        roster.setStudents(new LinkedHashSet<>());
+        roster.setGrades(new ArrayList<>());
+        entityManager.persist(roster);
+
+        HighestPossibleScore hps = new HighestPossibleScore();
+        hps.setRoster(roster);
+        entityManager.persist(hps);
+
+        Grade grade = new Grade();
+        grade.setRoster(roster);
+        grade.setStudent(student);
+        grade.setScoreDetails(new ScoreDetails());
+        entityManager.persist(grade);
+        entityManager.flush();
+
+        jdbcTemplate.update("UPDATE grades SET performance_scores = NULL, quiz_scores = NULL, quarterly_exam_scores = NULL");
+        jdbcTemplate.update("UPDATE highest_possible_score SET performance_scores = NULL, quiz_scores = NULL, "
+                + "quarterly_exam_scores = NULL");
+
+        // list order is 9, 7, 8; inserted out of order so only the key recovers it
+        int[][] performance = {{3, 8}, {1, 9}, {2, 7}};
+        for (int[] row : performance) {
+            insert(withOrderColumn, "grade_performance_scores", "grade_id", "performance_scores", row[0], grade.getId(), row[1]);
+        }
+        insert(withOrderColumn, "grade_quarterly_exam_scores", "grade_id", "quarterly_exam_scores", 1, grade.getId(), 40);
+        for (int i = 1; i <= 3; i++) {
+            insert(withOrderColumn, "highest_possible_score_performance_scores", "highest_possible_score_roster_id",
+                    "performance_scores", i, roster.getId(), 10);
+        }
+        insert(withOrderColumn, "highest_possible_score_quiz_scores", "highest_possible_score_roster_id",
+                "quiz_scores", 1, roster.getId(), 20);
+        return grade.getId();
+    }
+
+    private void insert(boolean withOrderColumn, String table, String foreignKey, String column,
+                        long legacyId, Long ownerId, int score) {
+        if (withOrderColumn) {
+            jdbcTemplate.update("INSERT INTO " + table + " (legacy_id, " + foreignKey + ", " + column + ") VALUES (?, ?, ?)",
+                    legacyId, ownerId, score);
+        } else {
+            jdbcTemplate.update("INSERT INTO " + table + " (" + foreignKey + ", " + column + ") VALUES (?, ?)",
+                    ownerId, score);
+        }
+    }
+
+    private User user(String id, String email, Role role) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setPassword("secret");
+        user.setRoles(Set.of(role));
+        entityManager.persist(user);
+        return user;
+    }
+}
@@ -119,8 +119,8 @@ class ProfileControllerIntegrationTest {
     }
 
     @Test
-    void getAllProfiles_shouldReturnAccessDeniedForStudent() throws Exception {
-        mockMvc.perform(get("/api/profiles/getAll")
+    void getProfilePage_shouldReturnAccessDeniedForStudent() throws Exception {
+        mockMvc.perform(get("/api/profiles/page")
                         .header("Authorization", "Bearer " + token))
                 .andExpect(status().is4xxClientError());
     }
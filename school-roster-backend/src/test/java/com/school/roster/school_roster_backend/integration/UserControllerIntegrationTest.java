@@ -64,8 +64,8 @@ class UserControllerIntegrationTest {
     }
 
     @Test
-    void getAllUsers_shouldReturnOk() throws Exception {
-        mockMvc.perform(get("/api/users")
+    void getUserPage_shouldReturnOk() throws Exception {
+        mockMvc.perform(get("/api/users/page")
                         .header("Authorization", "Bearer " + adminToken))
                 .andExpect(status().isOk());
     }
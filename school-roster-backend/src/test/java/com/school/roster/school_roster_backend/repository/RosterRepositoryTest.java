@@ -0,0 +1,119 @@
+package com.school.roster.school_roster_backend.repository;
+
+import com.school.roster.school_roster_backend.entity.Roster;
+import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.entity.enums.Role;
+import com.school.roster.school_roster_backend.support.JpaSliceTest;
+import com.school.roster.school_roster_backend.support.SqlStatementCounter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JpaSliceTest
+class RosterRepositoryTest {
+
+    @Autowired
+    private RosterRepository rosterRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int nextUserId = 1;
+
+    @Test
+    void findByStudentId_shouldReturnOnlyEnrolledRostersInOneQuery() {
+        User teacher = user("teacher", Role.TEACHER);
+        User alice = user("alice", Role.STUDENT);
+        User bob = user("bob", Role.STUDENT);
+        Long math = roster("Math", teacher, alice, bob);
+        roster("Art", teacher, bob);
+        Long science = roster("Science", teacher, alice);
+        entityManager.flush();
+        entityManager.clear();
+
+        SqlStatementCounter.reset();
+        List<Roster> rosters = rosterRepository.findByStudentId(alice.getId());
+
+        assertThat(rosters).extracting(Roster::getId).containsExactly(math, science);
+        // Membership is resolved by the join itself; no per-roster student collection loads.
+        assertThat(SqlStatementCounter.touching("roster_students")).isEqualTo(1);
+        assertThat(SqlStatementCounter.statements().get(0)).contains("roster_students");
+    }
+
+    @Test
+    void rosterStudents_shouldHaveStudentSideIndex() {
+        List<String> columns = jdbcTemplate.queryForList(
+                "SELECT ic.COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS ic " +
+                        "WHERE ic.INDEX_NAME = 'IDX_ROSTER_STUDENTS_STUDENT' ORDER BY ic.ORDINAL_POSITION",
+                String.class);
+
+        assertThat(columns).containsExactly("STUDENT_ID", "ROSTER_ID");
+    }
+
+    @Test
+    void enrolmentChanges_shouldWriteOnlyTheChangedJoinTableRow() {
+        User teacher = user("teacher", Role.TEACHER);
+        User[] section = new User[50];
+        for (int i = 0; i < section.length; i++) {
+            section[i] = user("student" + i, Role.STUDENT);
+        }
+        Long rosterId = roster("Math", teacher, section);
+        User newcomer = user("newcomer", Role.STUDENT);
+        entityManager.flush();
+        entityManager.clear();
+
+        Roster roster = rosterRepository.findById(rosterId).orElseThrow();
+        roster.getStudents().size();
+        SqlStatementCounter.reset();
+        roster.getStudents().add(entityManager.find(User.class, newcomer.getId()));
+        entityManager.flush();
+
+        assertThat(joinTableWrites()).containsExactly("insert into roster_students (roster_id,student_id) values (?,?)");
+
+        SqlStatementCounter.reset();
+        roster.getStudents().remove(entityManager.find(User.class, section[7].getId()));
+        entityManager.flush();
+
+        assertThat(joinTableWrites()).containsExactly("delete from roster_students where roster_id=? and student_id=?");
+        entityManager.clear();
+        assertThat(rosterRepository.findById(rosterId).orElseThrow().getStudents()).hasSize(50);
+    }
+
+    private List<String> joinTableWrites() {
+        return SqlStatementCounter.statements().stream()
+                .filter(sql -> sql.contains("roster_students") && !sql.startsWith("select"))
+                .toList();
+    }
+
+    private Long roster(String subject, User teacher, User... students) {
+        Roster roster = new Roster();
+        roster.setSubjectName(subject);
+        roster.setGradeLevel("7");
+        roster.setTeacher(teacher);
+        roster.setStudents(new LinkedHashSet<>(List.of(students)));
+        roster.setGrades(new ArrayList<>());
+        entityManager.persist(roster);
+        return roster.getId();
+    }
+
+    private User user(String name, Role role) {
+        User user = new User();
+        user.setId(String.format("%012d", nextUserId++));
+        user.setEmail(name + "@school.test");
+        user.setPassword("secret");
+        user.setRoles(Set.of(role));
+        entityManager.persist(user);
+        return user;
+    }
+}
@@ -0,0 +1,93 @@
+package com.school.roster.school_roster_backend.security;
+
+import com.school.roster.school_roster_backend.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    // "Hashes" by prefixing; the password "block" holds its pool thread until released
+    private final PasswordEncoder slowEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if ("block".contentEquals(rawPassword)) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if ("fail".contentEquals(rawPassword)) {
+                throw new IllegalArgumentException("bad password");
+            }
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    };
+
+    private final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(slowEncoder, 1, 1, registry);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test
+    void shouldHashOnThePoolAndRecordLatency() {
+        assertThat(encoder.encode("secret")).isEqualTo("hashed:secret");
+        assertThat(encoder.matches("secret", "hashed:secret")).isTrue();
+        assertThat(encoder.matches("wrong", "hashed:secret")).isFalse();
+
+        assertThat(registry.get("password.hash").tag("op", "encode").timer().count()).isEqualTo(1);
+        assertThat(registry.get("password.hash").tag("op", "matches").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRejectImmediatelyOnceTheQueueIsFull() throws Exception {
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("block"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("queued"));
+        waitForQueueDepth(1);
+
+        assertThatThrownBy(() -> encoder.encode("rejected")).isInstanceOf(ServiceBusyException.class);
+        assertThat(registry.get("password.hash.rejected").counter().count()).isEqualTo(1.0);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:block");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:queued");
+    }
+
+    @Test
+    void shouldRethrowDelegateFailuresToTheCaller() {
+        assertThatThrownBy(() -> encoder.encode("fail"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("bad password");
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("password.hash.queue").gauge().value() < depth && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(registry.get("password.hash.queue").gauge().value()).isEqualTo(depth);
+    }
+}
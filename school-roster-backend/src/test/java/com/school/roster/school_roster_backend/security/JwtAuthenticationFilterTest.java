@@ -0,0 +1,94 @@
+package com.school.roster.school_roster_backend.security;
+
+import com.school.roster.school_roster_backend.entity.enums.Role;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtAuthenticationFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final JwtSigningKeys signingKeys = new JwtSigningKeys("k1",
+            "k1:" + Base64.getEncoder().encodeToString("k".repeat(32).getBytes()), "", "");
+    private final JwtUtils jwtUtils = new JwtUtils(registry, signingKeys, 10_000);
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtUtils);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void extractPrincipal_shouldCarryIdEmailAndRolesFromTheToken() {
+        String token = jwtUtils.generateToken("123456789012", "teacher@school.test", List.of("TEACHER", "TEACHER_LEAD"));
+
+        AuthenticatedUser principal = jwtUtils.extractPrincipal(token);
+
+        assertThat(principal.getId()).isEqualTo("123456789012");
+        assertThat(principal.getEmail()).isEqualTo("teacher@school.test");
+        assertThat(principal.getRoles()).containsExactlyInAnyOrder(Role.TEACHER, Role.TEACHER_LEAD);
+    }
+
+    @Test
+    void filter_shouldAuthenticateWithThePrincipalAndKeepTheEmailAsName() throws Exception {
+        String token = jwtUtils.generateToken("123456789012", "teacher@school.test", List.of("TEACHER"));
+
+        Authentication authentication = filter(token);
+
+        assertThat(authentication.getPrincipal()).isInstanceOf(AuthenticatedUser.class);
+        assertThat(authentication.getName()).isEqualTo("teacher@school.test");
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_TEACHER");
+    }
+
+    @Test
+    void filter_shouldLeaveTokensWithoutUserIdUnauthenticated() throws Exception {
+        String token = jwtUtils.generateToken(null, "teacher@school.test", List.of("TEACHER"));
+
+        assertThat(filter(token)).isNull();
+    }
+
+    @Test
+    void filter_shouldVerifyARepeatedTokenOnlyOnce() throws Exception {
+        String token = jwtUtils.generateToken("123456789012", "teacher@school.test", List.of("TEACHER"));
+
+        Authentication first = filter(token);
+        SecurityContextHolder.clearContext();
+        Authentication second = filter(token);
+
+        assertThat(second.getPrincipal()).isSameAs(first.getPrincipal());
+        assertThat(registry.get("jwt.verified.cache").tag("result", "miss").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("jwt.verified.cache").tag("result", "hit").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void filter_shouldRejectATamperedCopyOfACachedToken() throws Exception {
+        String token = jwtUtils.generateToken("123456789012", "teacher@school.test", List.of("TEACHER"));
+        filter(token);
+        SecurityContextHolder.clearContext();
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> filter(tampered)).isInstanceOf(JwtException.class);
+    }
+
+    private Authentication filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,106 @@
+package com.school.roster.school_roster_backend.security;
+
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtSigningKeysTest {
+
+    private static final String OLD_SECRET = secret('a');
+    private static final String NEW_SECRET = secret('b');
+
+    @Test
+    void tokensShouldVerifyOnEveryNodeSharingTheKeys() {
+        JwtUtils nodeA = node("k1", "k1:" + OLD_SECRET);
+        JwtUtils nodeB = node("k1", "k1:" + OLD_SECRET);
+
+        String token = nodeA.generateToken("123456789012", "teacher@school.test", List.of("TEACHER"));
+
+        assertThat(nodeB.extractPrincipal(token).getId()).isEqualTo("123456789012");
+    }
+
+    @Test
+    void rotationShouldKeepVerifyingTokensSignedWithThePreviousKey() {
+        JwtUtils beforeRotation = node("k1", "k1:" + OLD_SECRET);
+        JwtUtils afterRotation = node("k2", "k2:" + NEW_SECRET + ", k1:" + OLD_SECRET);
+        JwtUtils afterRetirement = node("k2", "k2:" + NEW_SECRET);
+
+        String oldToken = beforeRotation.generateToken("123456789012", "teacher@school.test", List.of("TEACHER"));
+        String newToken = afterRotation.generateToken("123456789012", "teacher@school.test", List.of("TEACHER"));
+
+        assertThat(afterRotation.extractPrincipal(oldToken)).isNotNull();
+        assertThat(afterRetirement.extractPrincipal(newToken)).isNotNull();
+        assertThatThrownBy(() -> afterRetirement.extractPrincipal(oldToken))
+                .isInstanceOf(UnsupportedJwtException.class)
+                .hasMessageContaining("k1");
+    }
+
+    @Test
+    void unconfiguredNodesShouldNotAcceptEachOthersTokens() {
+        JwtUtils nodeA = node("", "");
+        JwtUtils nodeB = node("", "");
+
+        String token = nodeA.generateToken("123456789012", "teacher@school.test", List.of("TEACHER"));
+
+        assertThatThrownBy(() -> nodeB.extractPrincipal(token)).isInstanceOf(UnsupportedJwtException.class);
+    }
+
+    @Test
+    void keysShouldLoadFromAPkcs12Keystore(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("jwt.p12");
+        char[] password = "changeit".toCharArray();
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, password);
+        keyStore.setEntry("k1",
+                new KeyStore.SecretKeyEntry(new SecretKeySpec(Base64.getDecoder().decode(OLD_SECRET), "HmacSHA256")),
+                new KeyStore.PasswordProtection(password));
+        try (OutputStream out = Files.newOutputStream(path)) {
+            keyStore.store(out, password);
+        }
+
+        JwtSigningKeys fromKeystore = new JwtSigningKeys("", "", path.toString(), "changeit");
+
+        assertThat(fromKeystore.getActiveKeyId()).isEqualTo("k1");
+        String token = new JwtUtils(new SimpleMeterRegistry(), fromKeystore, 0)
+                .generateToken("123456789012", "teacher@school.test", List.of("TEACHER"));
+        assertThat(node("k1", "k1:" + OLD_SECRET).extractPrincipal(token)).isNotNull();
+    }
+
+    @Test
+    void misconfiguredKeysShouldFailAtStartup() {
+        assertThatThrownBy(() -> keys("", "k1:" + OLD_SECRET + ",k2:" + NEW_SECRET))
+                .hasMessageContaining("jwt.active-key-id must name one of the JWT keys");
+        assertThatThrownBy(() -> keys("k3", "k1:" + OLD_SECRET))
+                .hasMessageContaining("is not one of the JWT keys");
+        assertThatThrownBy(() -> keys("k1", "k1:" + Base64.getEncoder().encodeToString(new byte[16])))
+                .hasMessageContaining("at least 256 bits");
+        assertThatThrownBy(() -> keys("k1", "k1:" + OLD_SECRET + ",k1:" + NEW_SECRET))
+                .hasMessageContaining("Duplicate JWT key ID");
+        assertThatThrownBy(() -> keys("k1", OLD_SECRET))
+                .hasMessageContaining("<key-id>:<base64 secret>");
+    }
+
+    private static JwtSigningKeys keys(String activeKeyId, String keys) {
+        return new JwtSigningKeys(activeKeyId, keys, "", "");
+    }
+
+    private static JwtUtils node(String activeKeyId, String keys) {
+        return new JwtUtils(new SimpleMeterRegistry(), keys(activeKeyId, keys), 0);
+    }
+
+    private static String secret(char fill) {
+        return Base64.getEncoder().encodeToString(String.valueOf(fill).repeat(32).getBytes());
+    }
+}
@@ -0,0 +1,109 @@
+package com.school.roster.school_roster_backend.security;
+
+import com.school.roster.school_roster_backend.entity.enums.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VerifiedTokenCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger verified = new AtomicInteger();
+    private SimpleMeterRegistry registry;
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new VerifiedTokenCache(registry, 3, now::get);
+    }
+
+    @Test
+    void get_shouldVerifyOncePerTokenUntilItExpires() {
+        AuthenticatedUser first = get("token-a", 1_000);
+        assertThat(get("token-a", 1_000)).isSameAs(first);
+        assertThat(verified.get()).isEqualTo(1);
+
+        now.set(1_000);
+        get("token-a", 1_000);
+        assertThat(verified.get()).isEqualTo(2);
+
+        assertThat(registry.get("jwt.verified.cache").tag("result", "hit").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("jwt.verified.cache").tag("result", "miss").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void get_shouldEvictLeastRecentlyUsedBeyondMaxEntries() {
+        get("t1", 1_000);
+        get("t2", 1_000);
+        get("t3", 1_000);
+        get("t1", 1_000); // t1 is now the most recently used
+        get("t4", 1_000); // evicts t2
+
+        assertThat(cache.size()).isEqualTo(3);
+        verified.set(0);
+        get("t1", 1_000);
+        get("t2", 1_000);
+        assertThat(verified.get()).isEqualTo(1);
+    }
+
+    @Test
+    void get_shouldNotCacheRejectedTokensOrMissingPrincipals() {
+        assertThatThrownBy(() -> cache.get("forged", () -> {
+            throw new IllegalArgumentException("bad signature");
+        })).hasMessage("bad signature");
+        assertThat(cache.get("no-uid", () -> new VerifiedTokenCache.Verified(null, 1_000))).isNull();
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void get_shouldStayCorrectAndNearItsBoundUnderConcurrentUse() throws Exception {
+        VerifiedTokenCache shared = new VerifiedTokenCache(registry, 50, now::get);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        String token = "token-" + ThreadLocalRandom.current().nextInt(200);
+                        AuthenticatedUser principal = shared.get(token, () -> new VerifiedTokenCache.Verified(
+                                new AuthenticatedUser(token, token + "@school.test", Set.of()), 1_000));
+                        assertThat(principal.getId()).isEqualTo(token);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // each thread can insert once past the bound before an eviction pass catches up
+        assertThat(shared.size()).isLessThanOrEqualTo(50 + threads);
+    }
+
+    private AuthenticatedUser get(String token, long expiresAt) {
+        return cache.get(token, () -> {
+            verified.incrementAndGet();
+            AuthenticatedUser principal = new AuthenticatedUser(token, token + "@school.test", Set.of(Role.TEACHER));
+            return new VerifiedTokenCache.Verified(principal, expiresAt);
+        });
+    }
+}
@@ -1,6 +1,7 @@
 package com.school.roster.school_roster_backend.service;
 
 import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.exception.ServiceBusyException;
 import com.school.roster.school_roster_backend.repository.UserRepository;
 import com.school.roster.school_roster_backend.security.JwtUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,8 +12,8 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 
 
 import java.util.List;
@@ -27,9 +28,6 @@ class AuthenticationServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @Mock
-    private PasswordEncoder passwordEncoder;
-
     @Mock
     private JwtUtils jwtUtils;
 
@@ -62,7 +60,7 @@ class AuthenticationServiceTest {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(auth);
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-        when(jwtUtils.generateToken(eq(email), anyList()))
+        when(jwtUtils.generateToken(eq(user.getId()), eq(email), anyList()))
                 .thenReturn(token);
 
         // Act
@@ -72,7 +70,7 @@ class AuthenticationServiceTest {
         assertEquals(token, result);
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(userRepository, times(1)).findByEmail(email);
-        verify(jwtUtils, times(1)).generateToken(eq(email), anyList());
+        verify(jwtUtils, times(1)).generateToken(eq(user.getId()), eq(email), anyList());
     }
 
     @Test
@@ -92,7 +90,20 @@ class AuthenticationServiceTest {
         assertEquals("Invalid email or password.", exception.getMessage());
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(userRepository, never()).findByEmail(any());
-        verify(jwtUtils, never()).generateToken(any(), anyList());
+        verify(jwtUtils, never()).generateToken(any(), any(), anyList());
+    }
+
+    @Test
+    void authenticate_busyHashingPoolWrappedByTheProvider_shouldStayBusy() {
+        ServiceBusyException busy = new ServiceBusyException("Too many sign-ins are in progress. Please try again shortly.");
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new InternalAuthenticationServiceException(busy.getMessage(), busy));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> authenticationService.authenticate("test@example.com", "password"));
+
+        assertSame(busy, exception);
+        verify(jwtUtils, never()).generateToken(any(), any(), anyList());
     }
 
 }
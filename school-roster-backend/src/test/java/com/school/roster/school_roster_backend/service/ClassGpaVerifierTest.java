@@ -0,0 +1,116 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.entity.Grade;
+import com.school.roster.school_roster_backend.entity.Roster;
+import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.entity.embedded.ScoreDetails;
+import com.school.roster.school_roster_backend.entity.enums.Role;
+import com.school.roster.school_roster_backend.repository.GradeRepository;
+import com.school.roster.school_roster_backend.repository.RosterRepository;
+import com.school.roster.school_roster_backend.support.JpaSliceTest;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JpaSliceTest
+@Import(ClassGpaVerifier.class)
+class ClassGpaVerifierTest {
+
+    @Autowired
+    private ClassGpaVerifier verifier;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private RosterRepository rosterRepository;
+
+    private int nextUserId = 1;
+
+    @Test
+    void reconcileAll_shouldRepairDriftedRostersOnly() {
+        Long inSync = seedRoster("in-sync", 80.0, 90.0);
+        Long drifted = seedRoster("drifted", 70.0, 100.0);
+        Long legacy = seedRoster("legacy", 60.0);
+        Long emptyButCounted = seedRoster("empty");
+
+        rosterRepository.setGradeTotals(inSync, 170.0, 2, 85f);
+        rosterRepository.setGradeTotals(drifted, 120.0, 2, 60f);
+        rosterRepository.setGradeTotals(emptyButCounted, 50.0, 1, 50f);
+        entityManager.clear();
+
+        int repaired = verifier.reconcileAll();
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(repaired).isEqualTo(3);
+        assertThat(entityManager.find(Roster.class, inSync).getClassGpa()).isEqualTo(85f);
+        assertThat(entityManager.find(Roster.class, drifted).getClassGpa()).isEqualTo(85f);
+        assertThat(entityManager.find(Roster.class, drifted).getInitialGradeSum()).isEqualTo(170.0);
+        assertThat(entityManager.find(Roster.class, legacy).getGradeCount()).isEqualTo(1);
+        assertThat(entityManager.find(Roster.class, legacy).getClassGpa()).isEqualTo(60f);
+        assertThat(entityManager.find(Roster.class, emptyButCounted).getGradeCount()).isZero();
+        assertThat(entityManager.find(Roster.class, emptyButCounted).getClassGpa()).isEqualTo(0f);
+
+        assertThat(verifier.reconcileAll()).isZero();
+    }
+
+    @Test
+    void repair_shouldNotOverwriteTotalsChangedAfterTheyWereRead() {
+        Long rosterId = seedRoster("racing", 80.0);
+        rosterRepository.setGradeTotals(rosterId, 80.0, 1, 80f);
+        GradeRepository.GradeTotals read = rosterRepository.findStoredGradeTotalsById(rosterId).orElseThrow();
+
+        // a grade change commits between the verifier's read and its repair
+        rosterRepository.addToGradeTotals(rosterId, 10.0, 0);
+
+        assertThat(rosterRepository.replaceGradeTotals(rosterId, 80.0, 1, 80f,
+                read.getGradeSum(), Math.toIntExact(read.getGradeCount()))).isZero();
+        assertThat(rosterRepository.findStoredGradeTotalsById(rosterId).orElseThrow().getGradeSum()).isEqualTo(90.0);
+
+        // a never-seeded roster (NULL totals) is still repaired
+        Long legacy = seedRoster("legacy", 60.0);
+        assertThat(rosterRepository.replaceGradeTotals(legacy, 60.0, 1, 60f, null, null)).isEqualTo(1);
+    }
+
+    /**
+     * Persist a roster with one grade per initialGrade and no running totals yet.
+     */
+    private Long seedRoster(String name, double... initialGrades) {
+        Roster roster = new Roster();
+        roster.setSubjectName(name);
+        roster.setGradeLevel("7");
+        roster.setTeacher(user(name + "-teacher", Role.TEACHER));
+        roster.setStudents(new LinkedHashSet<>());
+        roster.setGrades(new ArrayList<>());
+        entityManager.persist(roster);
+
+        for (int i = 0; i < initialGrades.length; i++) {
+            Grade grade = new Grade();
+            grade.setStudent(user(name + "-student-" + i, Role.STUDENT));
+            grade.setRoster(roster);
+            grade.setScoreDetails(new ScoreDetails());
+            grade.setInitialGrade(initialGrades[i]);
+            entityManager.persist(grade);
+        }
+        entityManager.flush();
+        return roster.getId();
+    }
+
+    private User user(String name, Role role) {
+        User user = new User();
+        user.setId(String.format("%012d", nextUserId++));
+        user.setEmail(name + "@school.test");
+        user.setPassword("secret");
+        user.setRoles(Set.of(role));
+        entityManager.persist(user);
+        return user;
+    }
+}
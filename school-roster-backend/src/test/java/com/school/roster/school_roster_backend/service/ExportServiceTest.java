@@ -0,0 +1,188 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.school.roster.school_roster_backend.entity.Grade;
+import com.school.roster.school_roster_backend.entity.NonStudentProfile;
+import com.school.roster.school_roster_backend.entity.Roster;
+import com.school.roster.school_roster_backend.entity.StudentProfile;
+import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.entity.enums.Role;
+import com.school.roster.school_roster_backend.entity.enums.StudentGradeStatus;
+import com.school.roster.school_roster_backend.support.JpaSliceTest;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Streaming roster and gradebook exports against H2, with a fetch size smaller than the result.
+ */
+@JpaSliceTest
+class ExportServiceTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ExportService exportService;
+
+    private int nextUserId = 1;
+    private Long mathId;
+    private Long scienceId;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ExportService(dataSource, objectMapper, 2);
+
+        User teacher = user(Role.TEACHER);
+        NonStudentProfile teacherProfile = new NonStudentProfile();
+        teacherProfile.setFirstName("Ana");
+        teacherProfile.setLastName("Santos");
+        teacherProfile.setLinkedUser(teacher);
+        entityManager.persist(teacherProfile);
+
+        Roster math = roster(teacher, "Math", "Algebra, Part 1");
+        Roster science = roster(teacher, "Science", null);
+        for (int i = 0; i < 3; i++) {
+            enrol(math, "Student" + i, 80.0 + i);
+        }
+        enrol(science, "Quote \"Q\"", 90.0);
+        entityManager.flush();
+        mathId = math.getId();
+        scienceId = science.getId();
+    }
+
+    @Test
+    void exportRosters_ndjsonShouldWriteOneObjectPerRoster() throws IOException {
+        List<JsonNode> rows = ndjson(out -> exportService.exportRosters(ExportService.Format.NDJSON, out));
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).get("roster_id").asLong()).isEqualTo(mathId);
+        assertThat(rows.get(0).get("nickname").asText()).isEqualTo("Algebra, Part 1");
+        assertThat(rows.get(0).get("teacher_last_name").asText()).isEqualTo("Santos");
+        assertThat(rows.get(0).get("student_count").asInt()).isEqualTo(3);
+        assertThat(rows.get(1).get("nickname").isNull()).isTrue();
+        assertThat(rows.get(1).get("student_count").asInt()).isEqualTo(1);
+    }
+
+    @Test
+    void exportRosters_csvShouldQuoteFieldsThatNeedIt() throws IOException {
+        String[] lines = text(out -> exportService.exportRosters(ExportService.Format.CSV, out)).split("\r\n");
+
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).startsWith("roster_id,subject_name,period,nickname,");
+        assertThat(lines[1]).startsWith(mathId + ",Math,,\"Algebra, Part 1\",7,");
+        assertThat(lines[2]).startsWith(scienceId + ",Science,,,7,");
+    }
+
+    @Test
+    void exportGradebook_shouldStreamEveryGradeInRosterOrder() throws IOException {
+        List<JsonNode> all = ndjson(out -> exportService.exportGradebook(null, ExportService.Format.NDJSON, out));
+        assertThat(all).extracting(row -> row.get("roster_id").asLong())
+                .containsExactly(mathId, mathId, mathId, scienceId);
+        assertThat(all.get(0).get("first_name").asText()).isEqualTo("Student0");
+        assertThat(all.get(0).get("initial_grade").asDouble()).isEqualTo(80.0);
+        assertThat(all.get(0).get("final_status").asText()).isEqualTo("PASSED");
+
+        String csv = text(out -> exportService.exportGradebook(scienceId, ExportService.Format.CSV, out));
+        assertThat(csv.split("\r\n")).hasSize(2);
+        assertThat(csv).contains(",\"Quote \"\"Q\"\"\",");
+    }
+
+    @Test
+    void export_shouldPropagateClientWriteFailures() {
+        OutputStream closed = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatThrownBy(() -> exportService.exportGradebook(null, ExportService.Format.CSV, closed))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Broken pipe");
+    }
+
+    @Test
+    void formatParse_shouldDefaultToNdjsonAndRejectUnknownFormats() {
+        assertThat(ExportService.Format.parse(null)).isEqualTo(ExportService.Format.NDJSON);
+        assertThat(ExportService.Format.parse("csv")).isEqualTo(ExportService.Format.CSV);
+        assertThatThrownBy(() -> ExportService.Format.parse("xlsx"))
+                .hasMessageContaining("Unsupported export format");
+    }
+
+    private interface Export {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private String text(Export export) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private List<JsonNode> ndjson(Export export) throws IOException {
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : text(export).split("\n")) {
+            rows.add(objectMapper.readTree(line));
+        }
+        return rows;
+    }
+
+    private Roster roster(User teacher, String subject, String nickname) {
+        Roster roster = new Roster();
+        roster.setSubjectName(subject);
+        roster.setNickname(nickname);
+        roster.setGradeLevel("7");
+        roster.setTeacher(teacher);
+        roster.setStudents(new LinkedHashSet<>());
+        roster.setGrades(new ArrayList<>());
+        entityManager.persist(roster);
+        return roster;
+    }
+
+    private void enrol(Roster roster, String firstName, double initialGrade) {
+        User student = user(Role.STUDENT);
+        StudentProfile profile = new StudentProfile();
+        profile.setFirstName(firstName);
+        profile.setLastName("Reyes");
+        profile.setLinkedUser(student);
+        entityManager.persist(profile);
+        roster.getStudents().add(student);
+
+        Grade grade = new Grade();
+        grade.setRoster(roster);
+        grade.setStudent(student);
+        grade.setInitialGrade(initialGrade);
+        grade.setFinalStatus(StudentGradeStatus.PASSED);
+        entityManager.persist(grade);
+    }
+
+    private User user(Role role) {
+        User user = new User();
+        user.setId(String.format("%012d", nextUserId));
+        user.setEmail("user" + nextUserId++ + "@school.test");
+        user.setPassword("secret");
+        user.setRoles(Set.of(role));
+        entityManager.persist(user);
+        return user;
+    }
+}
@@ -0,0 +1,181 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.entity.Grade;
+import com.school.roster.school_roster_backend.entity.HighestPossibleScore;
+import com.school.roster.school_roster_backend.entity.Roster;
+import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.entity.embedded.ScoreDetails;
+import com.school.roster.school_roster_backend.entity.enums.CategoryType;
+import com.school.roster.school_roster_backend.entity.enums.OperationType;
+import com.school.roster.school_roster_backend.entity.enums.Role;
+import com.school.roster.school_roster_backend.support.JpaSliceTest;
+import jakarta.persistence.EntityManager;
+import com.school.roster.school_roster_backend.support.SqlStatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the engine against an in-memory H2 schema and counts the SQL statements Hibernate prepares.
+ */
+@JpaSliceTest
+class GradeRecalculationEngineTest {
+
+    @Autowired
+    private GradeRecalculationEngine engine;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private RecalculationProgress progress;
+
+    private int nextUserId = 1;
+
+    @Test
+    void recalculateRoster_shouldApplySlotChangeAndRecomputeClassGpa() {
+        Long rosterId = seedRoster("small", 3);
+        HighestPossibleScore hps = entityManager.find(HighestPossibleScore.class, rosterId);
+        hps.getScoreDetails().getQuizScores().add(10);
+        hps.getScoreDetails().recalcTotals();
+
+        engine.recalculateRoster(rosterId, hps.getScoreDetails(),
+                GradeRecalculationEngine.slotChange(CategoryType.QUIZ, OperationType.ADD, null));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Grade> grades = entityManager
+                .createQuery("select g from Grade g where g.roster.id = :id", Grade.class)
+                .setParameter("id", rosterId)
+                .getResultList();
+        assertThat(grades).hasSize(3);
+        grades.forEach(g -> {
+            assertThat(g.getScoreDetails().getQuizScores()).containsExactly(10, 0);
+            // performance 10/10 → 40, quiz 10/20 → 20, exam 10/10 → 20
+            assertThat(g.getInitialGrade()).isEqualTo(80.0);
+        });
+        assertThat(entityManager.find(Roster.class, rosterId).getClassGpa()).isEqualTo(80.0f);
+    }
+
+    @Test
+    void recalculateRoster_shouldReportProgressToWatcher() {
+        Long rosterId = seedRoster("watched", 4);
+        HighestPossibleScore hps = entityManager.find(HighestPossibleScore.class, rosterId);
+        List<String> reports = new ArrayList<>();
+
+        progress.watch(rosterId, (processed, total) -> reports.add(processed + "/" + total));
+        try {
+            engine.recalculateRoster(rosterId, hps.getScoreDetails(), null);
+        } finally {
+            progress.unwatch(rosterId);
+        }
+
+        assertThat(reports).containsExactly("1/4", "2/4", "3/4", "4/4");
+    }
+
+    @Test
+    void recalculateRoster_psChangeStatementCountShouldStayFlatAsRosterGrows() {
+        int small = statementsFor(seedRoster("small", 5), null);
+        int large = statementsFor(seedRoster("large", 45), null);
+
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void recalculateRoster_slotChangeStatementCountShouldStayFlatAsRosterGrows() {
+        var addSlot = GradeRecalculationEngine.slotChange(CategoryType.PERFORMANCE, OperationType.ADD, null);
+        int small = statementsFor(seedRoster("small", 5), addSlot);
+        int large = statementsFor(seedRoster("large", 45), addSlot);
+
+        // packed score columns travel with the grade row, so a slot change is one batched UPDATE too
+        assertThat(large).isEqualTo(small);
+    }
+
+    private int statementsFor(Long rosterId, Consumer<ScoreDetails> slotChange) {
+        HighestPossibleScore hps = entityManager.find(HighestPossibleScore.class, rosterId);
+        if (slotChange != null) {
+            hps.getScoreDetails().getPerformanceScores().add(5);
+            hps.getScoreDetails().recalcTotals();
+        } else {
+            hps.getScoreDetails().setQuizPs(50.0);
+        }
+        entityManager.flush();
+        SqlStatementCounter.reset();
+
+        engine.recalculateRoster(rosterId, hps.getScoreDetails(), slotChange);
+        entityManager.flush();
+
+        int prepared = SqlStatementCounter.total();
+        entityManager.clear();
+        return prepared;
+    }
+
+    /**
+     * Persist a roster with one slot of 10 per category and {@code size} students scoring full marks.
+     */
+    private Long seedRoster(String name, int size) {
+        User teacher = user(name + "-teacher", Role.TEACHER);
+
+        Roster roster = new Roster();
+        roster.setSubjectName(name);
+        roster.setGradeLevel("7");
+        roster.setTeacher(teacher);
+        roster.setStudents(new LinkedHashSet<>());
+        roster.setGrades(new ArrayList<>());
+        roster.resetGradeTotals(100.0 * size, size);
+        entityManager.persist(roster);
+
+        HighestPossibleScore hps = new HighestPossibleScore();
+        hps.setRoster(roster);
+        hps.setScoreDetails(fullMarks());
+        entityManager.persist(hps);
+        hps.getScoreDetails().setPerformancePs(100.0);
+        hps.getScoreDetails().setQuizPs(100.0);
+        hps.getScoreDetails().setQuarterlyExamPs(100.0);
+        hps.getScoreDetails().setPerformanceWs(40.0);
+        hps.getScoreDetails().setQuizWs(40.0);
+        hps.getScoreDetails().setQuarterlyExamWs(20.0);
+
+        for (int i = 0; i < size; i++) {
+            User student = user(name + "-student-" + i, Role.STUDENT);
+            roster.getStudents().add(student);
+
+            Grade grade = new Grade();
+            grade.setStudent(student);
+            grade.setRoster(roster);
+            grade.setScoreDetails(fullMarks());
+            grade.setInitialGrade(100.0);
+            entityManager.persist(grade);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        return roster.getId();
+    }
+
+    private ScoreDetails fullMarks() {
+        ScoreDetails details = new ScoreDetails();
+        details.getPerformanceScores().add(10);
+        details.getQuizScores().add(10);
+        details.getQuarterlyExamScores().add(10);
+        details.recalcTotals();
+        return details;
+    }
+
+    private User user(String name, Role role) {
+        User user = new User();
+        user.setId(String.format("%012d", nextUserId++));
+        user.setEmail(name + "@school.test");
+        user.setPassword("secret");
+        user.setRoles(Set.of(role));
+        entityManager.persist(user);
+        return user;
+    }
+}
@@ -4,9 +4,11 @@ import com.school.roster.school_roster_backend.entity.Grade;
 import com.school.roster.school_roster_backend.entity.HighestPossibleScore;
 import com.school.roster.school_roster_backend.entity.Roster;
 import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.entity.embedded.GradeArithmetic;
 import com.school.roster.school_roster_backend.entity.embedded.ScoreDetails;
 import com.school.roster.school_roster_backend.entity.enums.Role;
 import com.school.roster.school_roster_backend.entity.enums.StudentGradeStatus;
+import com.school.roster.school_roster_backend.exception.ConflictException;
 import com.school.roster.school_roster_backend.repository.GradeRepository;
 import com.school.roster.school_roster_backend.repository.HighestPossibleScoreRepository;
 import com.school.roster.school_roster_backend.repository.RosterRepository;
@@ -35,6 +37,10 @@ class GradeServiceTest {
     private RosterService rosterService;
     @Mock
     private HighestPossibleScoreRepository hpsRepository;
+    @Spy
+    private GradeCalculator gradeCalculator = new GradeCalculator(GradeArithmetic.DOUBLE);
+    @Mock
+    private GradeRecalculationEngine recalculationEngine;
 
     @InjectMocks
     private GradeService gradeService;
@@ -119,6 +125,9 @@ class GradeServiceTest {
         assertNotNull(result.getInitialGrade());
         // finalStatus must come from calculateGradeStatus(Double)
         assertNotNull(result.getFinalStatus());
+        // classGpa moves by this grade's change only (previous initialGrade was 0.0)
+        verify(rosterService).applyGradeDelta(rosterId, result.getInitialGrade(), 0);
+        verify(rosterService, never()).recalculateClassGpa(anyLong());
     }
 
     @Test
@@ -132,6 +141,29 @@ class GradeServiceTest {
         assertTrue(ex.getMessage().contains("Grade not found"));
     }
 
+    @Test
+    void updateGrade_staleVersion_shouldThrowConflictWithCurrentGrade() {
+        Roster roster = new Roster();
+        roster.setId(1L);
+        Grade current = Grade.builder()
+                .id(100L)
+                .roster(roster)
+                .scoreDetails(new com.school.roster.school_roster_backend.entity.embedded.ScoreDetails())
+                .initialGrade(0.0)
+                .version(3L)
+                .build();
+        when(gradeRepository.findById(100L)).thenReturn(Optional.of(current));
+
+        ConflictException ex = assertThrows(ConflictException.class, () ->
+                gradeService.updateGrade(100L, List.of(5), List.of(5), List.of(5), 2L)
+        );
+
+        assertSame(current, ex.getCurrent());
+        assertTrue(ex.getMessage().contains("version 3"));
+        verify(gradeRepository, never()).save(any());
+        verify(rosterService, never()).applyGradeDelta(anyLong(), anyDouble(), anyInt());
+    }
+
     // === calculateGradeStatus ===
     @Test
     void calculateGradeStatus_shouldReturnCorrectStatus() {
@@ -143,6 +175,66 @@ class GradeServiceTest {
         assertEquals(StudentGradeStatus.FAILED, invokeCalculateGradeStatus(null));
     }
 
+    // === updateGrades (bulk) ===
+    @Test
+    void updateGrades_shouldLoadOnceAndRecalculateInOnePass() {
+        Long rosterId = 7L;
+        Roster roster = new Roster();
+        roster.setId(rosterId);
+        Grade first = Grade.builder().id(1L).roster(roster).scoreDetails(new ScoreDetails()).build();
+        Grade second = Grade.builder().id(2L).roster(roster).scoreDetails(new ScoreDetails()).build();
+
+        HighestPossibleScore hps = new HighestPossibleScore();
+        hps.setScoreDetails(new ScoreDetails());
+        when(gradeRepository.findAllById(any())).thenReturn(List.of(second, first));
+        when(hpsRepository.findByRosterId(rosterId)).thenReturn(Optional.of(hps));
+        when(recalculationEngine.recalculateGrades(eq(rosterId), anyList(), eq(hps.getScoreDetails()), isNull()))
+                .thenAnswer(inv -> inv.getArgument(1));
+
+        List<Grade> result = gradeService.updateGrades(rosterId, List.of(
+                new GradeService.GradeScores(1L, List.of(9), List.of(8), List.of(18)),
+                new GradeService.GradeScores(2L, List.of(5), List.of(4), List.of(12))
+        ));
+
+        // request order is kept, and each row's lists were applied before recalculation
+        assertEquals(List.of(first, second), result);
+        assertEquals(List.of(9), first.getScoreDetails().getPerformanceScores());
+        assertEquals(List.of(12), second.getScoreDetails().getQuarterlyExamScores());
+        verify(gradeRepository, times(1)).findAllById(any());
+        verify(hpsRepository, times(1)).findByRosterId(rosterId);
+        verify(gradeRepository, never()).save(any(Grade.class));
+        verify(rosterService, never()).applyGradeDelta(anyLong(), anyDouble(), anyInt());
+    }
+
+    @Test
+    void updateGrades_gradeFromAnotherRoster_shouldThrow() {
+        Roster other = new Roster();
+        other.setId(99L);
+        Grade foreign = Grade.builder().id(1L).roster(other).scoreDetails(new ScoreDetails()).build();
+        when(gradeRepository.findAllById(any())).thenReturn(List.of(foreign));
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> gradeService.updateGrades(7L, List.of(
+                new GradeService.GradeScores(1L, List.of(), List.of(), List.of()))));
+        assertTrue(ex.getMessage().contains("does not belong to roster 7"));
+        verifyNoInteractions(recalculationEngine);
+    }
+
+    @Test
+    void updateGrades_missingOrDuplicateGrade_shouldThrow() {
+        when(gradeRepository.findAllById(any())).thenReturn(List.of());
+        when(hpsRepository.findByRosterId(7L)).thenReturn(Optional.of(new HighestPossibleScore()));
+
+        RuntimeException missing = assertThrows(RuntimeException.class, () -> gradeService.updateGrades(7L, List.of(
+                new GradeService.GradeScores(1L, List.of(), List.of(), List.of()))));
+        assertTrue(missing.getMessage().contains("Grade not found: 1"));
+
+        RuntimeException duplicate = assertThrows(RuntimeException.class, () -> gradeService.updateGrades(7L, List.of(
+                new GradeService.GradeScores(1L, List.of(), List.of(), List.of()),
+                new GradeService.GradeScores(1L, List.of(), List.of(), List.of()))));
+        assertTrue(duplicate.getMessage().contains("Duplicate grade ID"));
+        verifyNoInteractions(recalculationEngine);
+    }
+
     // === deleteGrade ===
     @Test
     void deleteGrade_existingGrade_shouldDelete() {
@@ -153,6 +245,7 @@ class GradeServiceTest {
         Grade grade = Grade.builder()
                 .id(gradeId)
                 .roster(roster)
+                .initialGrade(85.0)
                 .build();
         roster.setGrades(new ArrayList<>(List.of(grade)));
 
@@ -162,7 +255,7 @@ class GradeServiceTest {
 
         gradeService.deleteGrade(gradeId);
         verify(gradeRepository).delete(grade);
-        verify(rosterService).recalculateClassGpa(roster.getId());
+        verify(rosterService).applyGradeDelta(roster.getId(), -85.0, -1);
     }
 
     @Test
@@ -383,20 +476,16 @@ class GradeServiceTest {
         User student = new User();
         student.setId("student5");
 
-        Grade grade = Grade.builder().student(student).build();
-        when(gradeRepository.findById(gradeId)).thenReturn(Optional.of(grade));
+        when(gradeRepository.findOwnershipById(gradeId)).thenReturn(Optional.of(ownership(null, "student5")));
 
         assertTrue(gradeService.canViewGrade(gradeId, student));
+        verify(gradeRepository, never()).findById(any());
     }
 
     @Test
     void canViewGrade_shouldAllowWhenRosterViewableByTeacherOrAdmin() {
         Long gradeId = 13L;
-        Roster roster = new Roster();
-        roster.setId(999L);
-
-        Grade grade = Grade.builder().roster(roster).build();
-        when(gradeRepository.findById(gradeId)).thenReturn(Optional.of(grade));
+        when(gradeRepository.findOwnershipById(gradeId)).thenReturn(Optional.of(ownership(999L, null)));
 
         User viewer = new User();
         viewer.setRoles(Set.of(Role.TEACHER)); // assume rosterService.canViewRoster returns true
@@ -408,11 +497,7 @@ class GradeServiceTest {
     @Test
     void canViewGrade_shouldReturnFalseOtherwise() {
         Long gradeId = 14L;
-        Roster roster = new Roster();
-        roster.setId(1000L);
-
-        Grade grade = Grade.builder().roster(roster).build();
-        when(gradeRepository.findById(gradeId)).thenReturn(Optional.of(grade));
+        when(gradeRepository.findOwnershipById(gradeId)).thenReturn(Optional.of(ownership(1000L, null)));
 
         User viewer = new User();
         viewer.setRoles(Set.of()); // no roles, not the student, not roster-viewable
@@ -420,6 +505,85 @@ class GradeServiceTest {
         assertFalse(gradeService.canViewGrade(gradeId, viewer));
     }
 
+    @Test
+    void canViewGrade_shouldThrowWhenGradeMissing() {
+        when(gradeRepository.findOwnershipById(15L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> gradeService.canViewGrade(15L, new User()));
+    }
+
+    private static GradeRepository.GradeOwnership ownership(Long rosterId, String studentId) {
+        return new GradeRepository.GradeOwnership() {
+            public Long getRosterId() {
+                return rosterId;
+            }
+
+            public String getStudentId() {
+                return studentId;
+            }
+        };
+    }
+
+    // === propagateSlotChange / updateAllGradesPs ===
+    @Test
+    void propagateSlotChange_shouldRecalculateRosterInOnePass() {
+        Long rosterId = 20L;
+        HighestPossibleScore hps = new HighestPossibleScore();
+        hps.setScoreDetails(new ScoreDetails());
+        when(hpsRepository.findByRosterId(rosterId)).thenReturn(Optional.of(hps));
+
+        gradeService.propagateSlotChange(rosterId,
+                com.school.roster.school_roster_backend.entity.enums.CategoryType.QUIZ,
+                com.school.roster.school_roster_backend.entity.enums.OperationType.ADD,
+                null);
+
+        verify(recalculationEngine, times(1))
+                .recalculateRoster(eq(rosterId), eq(hps.getScoreDetails()), notNull());
+        verify(gradeRepository, never()).save(any(Grade.class));
+        verify(rosterService, never()).recalculateClassGpa(anyLong());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void propagateSlotChanges_shouldApplyEveryChangeInOrderInOnePass() {
+        Long rosterId = 22L;
+        HighestPossibleScore hps = new HighestPossibleScore();
+        hps.setScoreDetails(new ScoreDetails());
+        when(hpsRepository.findByRosterId(rosterId)).thenReturn(Optional.of(hps));
+
+        gradeService.propagateSlotChanges(rosterId, List.of(
+                GradeRecalculationEngine.slotChange(
+                        com.school.roster.school_roster_backend.entity.enums.CategoryType.QUIZ,
+                        com.school.roster.school_roster_backend.entity.enums.OperationType.ADD, null),
+                GradeRecalculationEngine.slotChange(
+                        com.school.roster.school_roster_backend.entity.enums.CategoryType.QUIZ,
+                        com.school.roster.school_roster_backend.entity.enums.OperationType.ADD, null),
+                GradeRecalculationEngine.slotChange(
+                        com.school.roster.school_roster_backend.entity.enums.CategoryType.QUIZ,
+                        com.school.roster.school_roster_backend.entity.enums.OperationType.REMOVE, 0)));
+
+        var captor = org.mockito.ArgumentCaptor.forClass(java.util.function.Consumer.class);
+        verify(recalculationEngine, times(1))
+                .recalculateRoster(eq(rosterId), eq(hps.getScoreDetails()), captor.capture());
+
+        ScoreDetails grade = new ScoreDetails();
+        grade.getQuizScores().add(7);
+        captor.getValue().accept(grade);
+        assertEquals(List.of(0, 0), grade.getQuizScores());
+    }
+
+    @Test
+    void updateAllGradesPs_shouldDelegateToEngineOnce() {
+        Long rosterId = 21L;
+        HighestPossibleScore hps = new HighestPossibleScore();
+        hps.setScoreDetails(new ScoreDetails());
+
+        gradeService.updateAllGradesPs(rosterId, hps);
+
+        verify(recalculationEngine, times(1)).recalculateRoster(rosterId, hps.getScoreDetails(), null);
+        verify(rosterService, never()).recalculateClassGpa(anyLong());
+    }
+
     // === SubjectGrade constructor ===
     @Test
     void test_subject_grade_constructor() {
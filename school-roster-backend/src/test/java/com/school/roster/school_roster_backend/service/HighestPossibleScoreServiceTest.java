@@ -0,0 +1,228 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.controller.HighestPossibleScoreController;
+import com.school.roster.school_roster_backend.entity.HighestPossibleScore;
+import com.school.roster.school_roster_backend.entity.Roster;
+import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.entity.enums.CategoryType;
+import com.school.roster.school_roster_backend.entity.enums.OperationType;
+import com.school.roster.school_roster_backend.entity.enums.Role;
+import com.school.roster.school_roster_backend.exception.ConflictException;
+import com.school.roster.school_roster_backend.repository.HighestPossibleScoreRepository;
+import com.school.roster.school_roster_backend.repository.RosterRepository;
+import com.school.roster.school_roster_backend.repository.UserRepository;
+import com.school.roster.school_roster_backend.support.JpaSliceTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Optimistic versioning on HPS: PS/WS recomputes retry on a concurrent write, slot edits report a 409.
+ * Runs without a test transaction so every attempt really commits against H2.
+ */
+@JpaSliceTest
+@TestPropertySource(properties = "grading.optimistic-retry.backoff-ms=0")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HighestPossibleScoreServiceTest {
+
+    @Autowired
+    private HighestPossibleScoreService hpsService;
+
+    @Autowired
+    private HighestPossibleScoreRepository hpsRepository;
+
+    @Autowired
+    private RosterRepository rosterRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private GradeService gradeService;
+
+    @AfterEach
+    void tearDown() {
+        hpsRepository.deleteAll();
+        rosterRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void updatePs_shouldRetryWhenAnotherWriterBumpsTheVersion() {
+        Long rosterId = seedRoster();
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(inv -> {
+            if (attempts.incrementAndGet() == 1) {
+                bumpVersionElsewhere(rosterId);
+            }
+            return null;
+        }).when(gradeService).updateAllGradesPs(eq(rosterId), any());
+
+        HighestPossibleScore updated = hpsService.updatePs(psRequest(rosterId, 90.0));
+
+        assertThat(attempts.get()).isEqualTo(2);
+        HighestPossibleScore stored = hpsRepository.findById(rosterId).orElseThrow();
+        assertThat(stored.getScoreDetails().getPerformancePs()).isEqualTo(90.0);
+        assertThat(stored.getVersion()).isEqualTo(updated.getVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    void updatePs_shouldReportCurrentStateWhenRetriesRunOut() {
+        Long rosterId = seedRoster();
+        doAnswer(inv -> {
+            bumpVersionElsewhere(rosterId);
+            return null;
+        }).when(gradeService).updateAllGradesPs(eq(rosterId), any());
+
+        ConflictException ex = assertThrows(ConflictException.class,
+                () -> hpsService.updatePs(psRequest(rosterId, 90.0)));
+
+        verify(gradeService, times(4)).updateAllGradesPs(eq(rosterId), any());
+        HighestPossibleScore current = (HighestPossibleScore) ex.getCurrent();
+        assertThat(current.getVersion()).isEqualTo(4L);
+        assertThat(current.getScoreDetails().getPerformancePs()).isEqualTo(100.0);
+    }
+
+    @Test
+    void updateSlot_staleVersion_shouldConflictWithoutTouchingGrades() {
+        Long rosterId = seedRoster();
+        bumpVersionElsewhere(rosterId);
+
+        HighestPossibleScoreController.SlotChangeRequest req = new HighestPossibleScoreController.SlotChangeRequest();
+        req.setRosterId(rosterId);
+        req.setCategory(CategoryType.QUIZ);
+        req.setOperation(OperationType.REMOVE);
+        req.setIndex(0);
+        req.setVersion(0L);
+
+        ConflictException ex = assertThrows(ConflictException.class, () -> hpsService.updateSlot(req));
+
+        assertThat(((HighestPossibleScore) ex.getCurrent()).getVersion()).isEqualTo(1L);
+        verify(gradeService, never()).propagateSlotChanges(any(), any());
+        assertThat(hpsRepository.findById(rosterId).orElseThrow().getScoreDetails().getQuizScores()).hasSize(1);
+    }
+
+    @Test
+    void updateSlots_shouldApplyEditsInOrderPropagateOnceAndSnapshotEachEdit() {
+        Long rosterId = seedRoster();
+
+        List<HighestPossibleScoreService.SlotOutcome> outcomes = hpsService.updateSlots(rosterId, List.of(
+                slot(rosterId, OperationType.ADD, null, 10),
+                slot(rosterId, OperationType.ADD, null, 20),
+                slot(rosterId, OperationType.REMOVE, 7, null),   // out of range: fails alone
+                slot(rosterId, OperationType.REMOVE, 0, null)));
+
+        assertThat(outcomes.get(0).orThrow().getScoreDetails().getQuizScores()).containsExactly(0, 10);
+        assertThat(outcomes.get(1).orThrow().getScoreDetails().getQuizScores()).containsExactly(0, 10, 20);
+        assertThrows(IllegalArgumentException.class, () -> outcomes.get(2).orThrow());
+        assertThat(outcomes.get(3).orThrow().getScoreDetails().getQuizScores()).containsExactly(10, 20);
+        assertThat(outcomes.get(3).orThrow().getScoreDetails().getQuizTotal()).isEqualTo(30);
+
+        verify(gradeService, times(1)).propagateSlotChanges(eq(rosterId), argThat(changes -> changes.size() == 3));
+        HighestPossibleScore stored = hpsRepository.findById(rosterId).orElseThrow();
+        assertThat(stored.getScoreDetails().getQuizScores()).containsExactly(10, 20);
+        assertThat(stored.getVersion()).isEqualTo(1L);
+        assertThat(outcomes.get(0).orThrow().getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void updateSlots_secondClientAtSameVersion_shouldConflictAgainstTheSheetTheFirstEditLeft() {
+        Long rosterId = seedRoster();
+        // Both clients loaded version 0 with quizzes [0]; A adds a slot, B removes what it saw at index 0
+        HighestPossibleScoreController.SlotChangeRequest first = slot(rosterId, OperationType.ADD, null, 10);
+        first.setVersion(0L);
+        HighestPossibleScoreController.SlotChangeRequest second = slot(rosterId, OperationType.REMOVE, 0, null);
+        second.setVersion(0L);
+
+        List<HighestPossibleScoreService.SlotOutcome> outcomes = hpsService.updateSlots(rosterId, List.of(first, second));
+
+        assertThat(outcomes.get(0).orThrow().getScoreDetails().getQuizScores()).containsExactly(0, 10);
+        ConflictException ex = assertThrows(ConflictException.class, () -> outcomes.get(1).orThrow());
+        HighestPossibleScore current = (HighestPossibleScore) ex.getCurrent();
+        assertThat(current.getScoreDetails().getQuizScores()).containsExactly(0, 10);
+        assertThat(current.getVersion()).isEqualTo(1L);
+
+        verify(gradeService, times(1)).propagateSlotChanges(eq(rosterId), argThat(changes -> changes.size() == 1));
+        HighestPossibleScore stored = hpsRepository.findById(rosterId).orElseThrow();
+        assertThat(stored.getScoreDetails().getQuizScores()).containsExactly(0, 10);
+        assertThat(stored.getVersion()).isEqualTo(1L);
+    }
+
+    private HighestPossibleScoreController.SlotChangeRequest slot(Long rosterId, OperationType operation,
+                                                                  Integer index, Integer maxScore) {
+        HighestPossibleScoreController.SlotChangeRequest req = new HighestPossibleScoreController.SlotChangeRequest();
+        req.setRosterId(rosterId);
+        req.setCategory(CategoryType.QUIZ);
+        req.setOperation(operation);
+        req.setIndex(index);
+        req.setMaxScore(maxScore);
+        return req;
+    }
+
+    /**
+     * A committed write from another connection, as a second app instance would make.
+     */
+    private void bumpVersionElsewhere(Long rosterId) {
+        CompletableFuture.runAsync(() -> jdbcTemplate.update(
+                "UPDATE highest_possible_score SET version = version + 1 WHERE roster_id = ?", rosterId)).join();
+    }
+
+    private HighestPossibleScoreController.UpdatePsRequest psRequest(Long rosterId, double performancePs) {
+        HighestPossibleScoreController.UpdatePsRequest req = new HighestPossibleScoreController.UpdatePsRequest();
+        req.setRosterId(rosterId);
+        req.setPerformancePs(performancePs);
+        req.setQuizPs(100.0);
+        req.setQuarterlyExamPs(100.0);
+        return req;
+    }
+
+    private Long seedRoster() {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            User teacher = new User();
+            teacher.setId("000000000001");
+            teacher.setEmail("teacher@school.test");
+            teacher.setPassword("secret");
+            teacher.setRoles(Set.of(Role.TEACHER));
+            userRepository.save(teacher);
+
+            Roster roster = new Roster();
+            roster.setSubjectName("Math");
+            roster.setGradeLevel("7");
+            roster.setTeacher(teacher);
+            roster.setStudents(new LinkedHashSet<>());
+            roster.setGrades(new ArrayList<>());
+            roster.resetGradeTotals(0.0, 0);
+            rosterRepository.save(roster);
+
+            hpsService.createHighestPossibleScore(roster);
+            return roster.getId();
+        });
+    }
+}
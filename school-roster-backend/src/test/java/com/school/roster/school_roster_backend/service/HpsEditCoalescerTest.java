@@ -0,0 +1,169 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.controller.HighestPossibleScoreController;
+import com.school.roster.school_roster_backend.entity.HighestPossibleScore;
+import com.school.roster.school_roster_backend.entity.enums.CategoryType;
+import com.school.roster.school_roster_backend.entity.enums.OperationType;
+import com.school.roster.school_roster_backend.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class HpsEditCoalescerTest {
+
+    private HighestPossibleScoreService hpsService;
+    private EntityManager entityManager;
+    private RosterLockManager lockManager;
+    private ExecutorService clients;
+
+    @BeforeEach
+    void setUp() {
+        hpsService = mock(HighestPossibleScoreService.class);
+        entityManager = mock(EntityManager.class);
+        lockManager = new RosterLockManager(new SimpleMeterRegistry(), 10_000);
+        clients = Executors.newFixedThreadPool(5);
+
+        // one outcome per edit: a snapshot tagged with the edit's maxScore, or an error for maxScore < 0
+        when(hpsService.updateSlots(anyLong(), anyList())).thenAnswer(inv -> {
+            List<HighestPossibleScoreController.SlotChangeRequest> edits = inv.getArgument(1);
+            List<HighestPossibleScoreService.SlotOutcome> outcomes = new ArrayList<>();
+            for (HighestPossibleScoreController.SlotChangeRequest edit : edits) {
+                outcomes.add(edit.getMaxScore() < 0
+                        ? outcome(null, new IllegalArgumentException("bad slot " + edit.getMaxScore()))
+                        : outcome(hpsTagged(edit.getMaxScore()), null));
+            }
+            return outcomes;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        clients.shutdownNow();
+    }
+
+    @Test
+    void submit_shouldMergeEditsWithinWindowIntoOnePropagation() throws Exception {
+        HpsEditCoalescer coalescer = new HpsEditCoalescer(hpsService, lockManager, entityManager, 300, 50);
+
+        List<Future<HighestPossibleScore>> responses = new ArrayList<>();
+        for (int click = 1; click <= 5; click++) {
+            int maxScore = click * 10;
+            responses.add(clients.submit(() -> coalescer.submit(addSlot(1L, maxScore))));
+        }
+
+        for (int click = 1; click <= 5; click++) {
+            // each caller sees its own edit
+            assertEquals(click * 10L, responses.get(click - 1).get(5, TimeUnit.SECONDS).getVersion());
+        }
+        verify(hpsService, times(1)).updateSlots(eq(1L), argThat(edits -> edits.size() == 5));
+        verify(entityManager).clear();
+        assertThat(lockManager.activeLocks()).isZero();
+    }
+
+    @Test
+    void submit_shouldFailOnlyTheCallerWhoseEditWasRejected() throws Exception {
+        HpsEditCoalescer coalescer = new HpsEditCoalescer(hpsService, lockManager, entityManager, 300, 50);
+
+        Future<HighestPossibleScore> good = clients.submit(() -> coalescer.submit(addSlot(1L, 10)));
+        Future<HighestPossibleScore> bad = clients.submit(() -> coalescer.submit(addSlot(1L, -1)));
+
+        assertEquals(10L, good.get(5, TimeUnit.SECONDS).getVersion());
+        Exception ex = assertThrows(Exception.class, () -> bad.get(5, TimeUnit.SECONDS));
+        assertThat(ex.getCause()).isInstanceOf(IllegalArgumentException.class).hasMessage("bad slot -1");
+    }
+
+    @Test
+    void submit_shouldKeepRostersInSeparateBatches() throws Exception {
+        HpsEditCoalescer coalescer = new HpsEditCoalescer(hpsService, lockManager, entityManager, 200, 50);
+
+        Future<HighestPossibleScore> first = clients.submit(() -> coalescer.submit(addSlot(1L, 10)));
+        Future<HighestPossibleScore> second = clients.submit(() -> coalescer.submit(addSlot(2L, 20)));
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+
+        verify(hpsService).updateSlots(eq(1L), argThat(edits -> edits.size() == 1));
+        verify(hpsService).updateSlots(eq(2L), argThat(edits -> edits.size() == 1));
+    }
+
+    @Test
+    void submit_withZeroWindow_shouldApplyEachEditOnItsOwn() {
+        HpsEditCoalescer coalescer = new HpsEditCoalescer(hpsService, lockManager, entityManager, 0, 50);
+
+        assertEquals(10L, coalescer.submit(addSlot(1L, 10)).getVersion());
+        assertEquals(20L, coalescer.submit(addSlot(1L, 20)).getVersion());
+        verify(hpsService, times(2)).updateSlots(eq(1L), argThat(edits -> edits.size() == 1));
+    }
+
+    @Test
+    void submit_whenTheBatchFailsWithAnError_shouldReleaseEveryCaller() throws Exception {
+        reset(hpsService);
+        when(hpsService.updateSlots(anyLong(), anyList())).thenThrow(new AssertionError("boom"));
+        HpsEditCoalescer coalescer = new HpsEditCoalescer(hpsService, lockManager, entityManager, 300, 50);
+
+        Future<HighestPossibleScore> first = clients.submit(() -> coalescer.submit(addSlot(1L, 10)));
+        Future<HighestPossibleScore> second = clients.submit(() -> coalescer.submit(addSlot(1L, 20)));
+
+        for (Future<HighestPossibleScore> response : List.of(first, second)) {
+            Exception ex = assertThrows(Exception.class, () -> response.get(5, TimeUnit.SECONDS));
+            assertThat(ex.getCause()).isInstanceOf(AssertionError.class).hasMessage("boom");
+        }
+        assertThat(lockManager.activeLocks()).isZero();
+    }
+
+    @Test
+    void submit_whenTheBatchHangs_shouldStopWaitingAfterTheWindowPlusLockTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        reset(hpsService);
+        when(hpsService.updateSlots(anyLong(), anyList())).thenAnswer(inv -> {
+            release.await();
+            return List.of();
+        });
+        RosterLockManager shortLocks = new RosterLockManager(new SimpleMeterRegistry(), 200);
+        HpsEditCoalescer coalescer = new HpsEditCoalescer(hpsService, shortLocks, entityManager, 200, 50);
+
+        try {
+            clients.submit(() -> coalescer.submit(addSlot(1L, 10)));
+            Thread.sleep(50);
+            Future<HighestPossibleScore> joiner = clients.submit(() -> coalescer.submit(addSlot(1L, 20)));
+
+            Exception ex = assertThrows(Exception.class, () -> joiner.get(5, TimeUnit.SECONDS));
+            assertThat(ex.getCause()).isInstanceOf(ServiceBusyException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static HighestPossibleScoreController.SlotChangeRequest addSlot(Long rosterId, int maxScore) {
+        HighestPossibleScoreController.SlotChangeRequest req = new HighestPossibleScoreController.SlotChangeRequest();
+        req.setRosterId(rosterId);
+        req.setCategory(CategoryType.PERFORMANCE);
+        req.setOperation(OperationType.ADD);
+        req.setMaxScore(maxScore);
+        return req;
+    }
+
+    private static HighestPossibleScore hpsTagged(long tag) {
+        HighestPossibleScore hps = new HighestPossibleScore();
+        hps.setVersion(tag);
+        return hps;
+    }
+
+    private static HighestPossibleScoreService.SlotOutcome outcome(HighestPossibleScore hps, RuntimeException error) {
+        return new HighestPossibleScoreService.SlotOutcome(hps, error);
+    }
+}
@@ -0,0 +1,200 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.controller.HighestPossibleScoreController;
+import com.school.roster.school_roster_backend.entity.HighestPossibleScore;
+import com.school.roster.school_roster_backend.entity.HpsPropagationJob;
+import com.school.roster.school_roster_backend.exception.ServiceBusyException;
+import com.school.roster.school_roster_backend.repository.HpsPropagationJobRepository;
+import com.school.roster.school_roster_backend.support.JpaSliceTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Job status goes through the real job table, so a second service instance stands in for another node.
+ */
+@JpaSliceTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HpsPropagationJobServiceTest {
+
+    @Autowired
+    private HpsPropagationJobRepository jobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private HighestPossibleScoreService hpsService;
+    private RecalculationProgress progress;
+    private RosterLockManager lockManager;
+    private HpsPropagationJobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        hpsService = mock(HighestPossibleScoreService.class);
+        progress = new RecalculationProgress();
+        lockManager = new RosterLockManager(new SimpleMeterRegistry(), 10_000);
+        jobService = newJobService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+        jobRepository.deleteAll();
+    }
+
+    @Test
+    void submitPsChange_shouldReturnImmediatelyAndReportProgressUntilDone() throws Exception {
+        CountDownLatch halfway = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        HighestPossibleScore updated = new HighestPossibleScore();
+        when(hpsService.getByRosterId(1L)).thenReturn(updated);
+        when(hpsService.updatePs(any())).thenAnswer(inv -> {
+            progress.listenerFor(1L).onProgress(2, 4);
+            halfway.countDown();
+            finish.await(5, TimeUnit.SECONDS);
+            progress.listenerFor(1L).onProgress(4, 4);
+            return updated;
+        });
+
+        HpsPropagationJobService.HpsJob job = jobService.submitPsChange(psRequest(1L));
+        assertThat(halfway.await(5, TimeUnit.SECONDS)).isTrue();
+
+        HpsPropagationJobService.HpsJob running = jobService.getJob(job.getJobId());
+        assertEquals(HpsPropagationJob.Status.RUNNING, running.getStatus());
+        assertEquals(2, running.getProcessed());
+        assertEquals(4, running.getTotal());
+
+        finish.countDown();
+        HpsPropagationJobService.HpsJob done = awaitFinished(job.getJobId());
+        assertEquals(HpsPropagationJob.Status.SUCCEEDED, done.getStatus());
+        assertEquals(4, done.getProcessed());
+        assertSame(updated, done.getResult());
+        assertNull(progress.listenerFor(1L));
+    }
+
+    @Test
+    void failingJob_shouldRecordErrorAndReleaseRosterLock() throws Exception {
+        when(hpsService.updateWs(any())).thenThrow(new RuntimeException("HPS not found for roster 1"));
+
+        HighestPossibleScoreController.UpdateWsRequest req = new HighestPossibleScoreController.UpdateWsRequest();
+        req.setRosterId(1L);
+        HpsPropagationJobService.HpsJob done = awaitFinished(jobService.submitWsChange(req).getJobId());
+
+        assertEquals(HpsPropagationJob.Status.FAILED, done.getStatus());
+        assertEquals("HPS not found for roster 1", done.getError());
+        assertThat(lockManager.activeLocks()).isZero();
+    }
+
+    @Test
+    void failingJob_withAMessageLongerThanTheColumn_shouldStillRecordFailure() throws Exception {
+        when(hpsService.updatePs(any())).thenThrow(new RuntimeException("x".repeat(5000)));
+
+        HpsPropagationJobService.HpsJob done = awaitFinished(jobService.submitPsChange(psRequest(1L)).getJobId());
+
+        assertEquals(HpsPropagationJob.Status.FAILED, done.getStatus());
+        assertEquals(HpsPropagationJob.MAX_ERROR_LENGTH, done.getError().length());
+    }
+
+    @Test
+    void submit_shouldFailJobsLeftUnfinishedPastTheRetention() throws Exception {
+        HpsPropagationJob abandoned = new HpsPropagationJob("abandoned", 9L, "PS");
+        abandoned.setStatus(HpsPropagationJob.Status.RUNNING);
+        abandoned.setSubmittedAt(Instant.now().minus(Duration.ofHours(2)));
+        jobRepository.save(abandoned);
+        HpsPropagationJob recent = new HpsPropagationJob("recent", 9L, "PS");
+        jobRepository.save(recent);
+        when(hpsService.updatePs(any())).thenReturn(new HighestPossibleScore());
+
+        awaitFinished(jobService.submitPsChange(psRequest(1L)).getJobId());
+
+        HpsPropagationJobService.HpsJob failed = jobService.getJob("abandoned");
+        assertEquals(HpsPropagationJob.Status.FAILED, failed.getStatus());
+        assertNotNull(failed.getFinishedAt());
+        assertThat(failed.getError()).contains("did not finish");
+        assertEquals(HpsPropagationJob.Status.QUEUED, jobService.getJob("recent").getStatus());
+    }
+
+    @Test
+    void submit_shouldRejectWhenQueueIsFull() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(hpsService.updatePs(any())).thenAnswer(inv -> {
+            running.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new HighestPossibleScore();
+        });
+
+        jobService.submitPsChange(psRequest(1L));          // runs on the only worker
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        jobService.submitPsChange(psRequest(2L));          // fills the one queue slot
+
+        ServiceBusyException ex = assertThrows(ServiceBusyException.class,
+                () -> jobService.submitPsChange(psRequest(3L)));
+        assertThat(ex.getMessage()).contains("Too many");
+        release.countDown();
+    }
+
+    @Test
+    void getJob_shouldAnswerOnANodeOtherThanTheOneRunningTheJob() throws Exception {
+        HighestPossibleScore updated = new HighestPossibleScore();
+        when(hpsService.getByRosterId(1L)).thenReturn(updated);
+        when(hpsService.updatePs(any())).thenReturn(updated);
+        HpsPropagationJobService otherNode = newJobService();
+        try {
+            String jobId = jobService.submitPsChange(psRequest(1L)).getJobId();
+            awaitFinished(jobId);
+
+            HpsPropagationJobService.HpsJob polled = otherNode.getJob(jobId);
+            assertEquals(HpsPropagationJob.Status.SUCCEEDED, polled.getStatus());
+            assertEquals(1L, polled.getRosterId());
+            assertSame(updated, polled.getResult());
+        } finally {
+            otherNode.shutdown();
+        }
+    }
+
+    @Test
+    void getJob_unknownId_shouldThrow() {
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> jobService.getJob("nope"));
+        assertThat(ex.getMessage()).contains("Job not found");
+    }
+
+    private HpsPropagationJobService newJobService() {
+        return new HpsPropagationJobService(hpsService, lockManager, progress, jobRepository, transactionManager,
+                1, 1, 60, 0);
+    }
+
+    private HpsPropagationJobService.HpsJob awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        HpsPropagationJobService.HpsJob job = jobService.getJob(jobId);
+        while (job.getFinishedAt() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            job = jobService.getJob(jobId);
+        }
+        assertNotNull(job.getFinishedAt(), "job did not finish in time");
+        return job;
+    }
+
+    private HighestPossibleScoreController.UpdatePsRequest psRequest(Long rosterId) {
+        HighestPossibleScoreController.UpdatePsRequest req = new HighestPossibleScoreController.UpdatePsRequest();
+        req.setRosterId(rosterId);
+        req.setPerformancePs(90.0);
+        req.setQuizPs(100.0);
+        req.setQuarterlyExamPs(100.0);
+        return req;
+    }
+}
@@ -0,0 +1,224 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.controller.ProfileController;
+import com.school.roster.school_roster_backend.controller.RosterController;
+import com.school.roster.school_roster_backend.controller.UserController;
+import com.school.roster.school_roster_backend.entity.NonStudentProfile;
+import com.school.roster.school_roster_backend.entity.Roster;
+import com.school.roster.school_roster_backend.entity.StudentProfile;
+import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.entity.enums.Role;
+import com.school.roster.school_roster_backend.support.JpaSliceTest;
+import com.school.roster.school_roster_backend.support.SqlStatementCounter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Keyset-paginated roster, user and profile listings against H2: pages follow the cursor without
+ * gaps or repeats, filters run in SQL, and the page limit is part of the statement.
+ */
+@JpaSliceTest
+class KeysetListingTest {
+
+    @Autowired
+    private RosterViewService rosterViewService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ProfileService profileService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private int nextUserId = 1;
+
+    @Test
+    void rosterPage_shouldWalkAllRostersInIdOrderAndFilterInSql() {
+        User teacher = user(Role.TEACHER);
+        List<Long> ids = List.of(
+                roster(teacher, "Math A", "7"), roster(teacher, "Math B", "7"), roster(teacher, "Science", "7"),
+                roster(teacher, "Math C", "8"), roster(teacher, "M_th", "8"));
+        entityManager.clear();
+
+        SqlStatementCounter.reset();
+        KeysetPage<RosterController.RosterResponse> first = rosterViewService.getRosterViewPage(null, null, null, 2);
+        assertThat(SqlStatementCounter.statements()).anyMatch(sql -> sql.contains("from rosters") && sql.contains("fetch first"));
+
+        List<Long> walked = walk(first,
+                cursor -> rosterViewService.getRosterViewPage(null, null, cursor, 2),
+                RosterController.RosterResponse::getRosterId);
+        assertThat(walked).containsExactlyElementsOf(ids);
+
+        assertThat(rosterViewService.getRosterViewPage("7", "Ma", null, null).getItems())
+                .extracting(RosterController.RosterResponse::getSubjectName).containsExactly("Math A", "Math B");
+        // LIKE wildcards in the prefix are matched literally
+        assertThat(rosterViewService.getRosterViewPage(null, "M_", null, null).getItems())
+                .extracting(RosterController.RosterResponse::getSubjectName).containsExactly("M_th");
+        assertThatThrownBy(() -> rosterViewService.getRosterViewPage(null, null, "not-a-cursor!", null))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Invalid cursor");
+    }
+
+    @Test
+    void userPage_shouldExcludeAdminsAndFilterByRoleAndName() {
+        user(Role.ADMIN);
+        User teacher = user(Role.TEACHER);
+        nonStudentProfile(teacher, "Ana", "Santos", "7");
+        User lead = user(Role.TEACHER_LEAD);
+        User student = user(Role.STUDENT);
+        studentProfile(student, "Sam", "Reyes", "7");
+        User other = user(Role.STUDENT);
+        studentProfile(other, "Ben", "Cruz", "8");
+        entityManager.flush();
+        entityManager.clear();
+
+        KeysetPage<UserController.UserPageItem> first = userService.getUserPage(null, null, null, 3);
+        assertThat(first.getItems()).extracting(UserController.UserPageItem::getId)
+                .containsExactly(teacher.getId(), lead.getId(), student.getId());
+        assertThat(first.getItems().get(0).getRoles()).containsExactly(Role.TEACHER);
+        assertThat(first.getItems().get(0).getLastName()).isEqualTo("Santos");
+
+        KeysetPage<UserController.UserPageItem> second = userService.getUserPage(null, null, first.getNextCursor(), 3);
+        assertThat(second.getItems()).extracting(UserController.UserPageItem::getId).containsExactly(other.getId());
+        assertThat(second.getNextCursor()).isNull();
+
+        assertThat(userService.getUserPage("student", null, null, null).getItems())
+                .extracting(UserController.UserPageItem::getId).containsExactly(student.getId(), other.getId());
+        assertThat(userService.getUserPage(null, "S", null, null).getItems())
+                .extracting(UserController.UserPageItem::getId).containsExactly(teacher.getId(), student.getId());
+        assertThat(userService.getUserPage("ADMIN", null, null, null).getItems()).isEmpty();
+        assertThatThrownBy(() -> userService.getUserPage("JANITOR", null, null, null))
+                .hasMessageContaining("Unknown role");
+    }
+
+    @Test
+    void userLookups_shouldExcludeAdminsInSqlAndLoadRolesInOneStatement() {
+        User admin = user(Role.ADMIN);
+        User teacher = user(Role.TEACHER);
+        nonStudentProfile(teacher, "Ana", "Santos", "7");
+        entityManager.flush();
+        entityManager.clear();
+
+        SqlStatementCounter.reset();
+        assertThat(userService.getUserByEmail(teacher.getEmail()))
+                .hasValueSatisfying(found -> assertThat(found.getRoles()).containsExactly(Role.TEACHER));
+        assertThat(SqlStatementCounter.total()).isEqualTo(1);
+        assertThat(userService.getUserById(teacher.getId())).isPresent();
+
+        assertThat(userService.getUserById(admin.getId())).isEmpty();
+        assertThat(userService.getUserByEmail(admin.getEmail())).isEmpty();
+        assertThat(userService.getUserPage(null, null, null, null).getItems())
+                .extracting(UserController.UserPageItem::getId).containsExactly(teacher.getId());
+    }
+
+    @Test
+    void profilePage_shouldListStudentProfilesThenNonStudentProfiles() {
+        for (String name : List.of("Ada", "Bea", "Cal")) {
+            studentProfile(user(Role.STUDENT), name, "Student", "7");
+        }
+        for (String name : List.of("Dan", "Eve")) {
+            nonStudentProfile(user(Role.TEACHER), name, "Teacher", "8");
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<String> bySize2 = walk(profileService.getProfilePage(null, null, null, 2),
+                cursor -> profileService.getProfilePage(null, null, cursor, 2),
+                item -> item.getType() + ":" + item.getFirstName());
+        assertThat(bySize2).containsExactly(
+                "STUDENT:Ada", "STUDENT:Bea", "STUDENT:Cal", "NON_STUDENT:Dan", "NON_STUDENT:Eve");
+
+        // Student profiles fill the first page exactly; the cursor then moves on to non-student profiles
+        KeysetPage<ProfileController.ProfileListItem> exact = profileService.getProfilePage(null, null, null, 3);
+        assertThat(exact.getItems()).extracting(ProfileController.ProfileListItem::getFirstName)
+                .containsExactly("Ada", "Bea", "Cal");
+        assertThat(profileService.getProfilePage(null, null, exact.getNextCursor(), 3).getItems())
+                .extracting(ProfileController.ProfileListItem::getFirstName).containsExactly("Dan", "Eve");
+
+        assertThat(profileService.getProfilePage("8", null, null, null).getItems())
+                .extracting(ProfileController.ProfileListItem::getFirstName).containsExactly("Dan", "Eve");
+        assertThat(profileService.getProfilePage(null, "Be", null, null).getItems())
+                .extracting(ProfileController.ProfileListItem::getFirstName).containsExactly("Bea");
+    }
+
+    @Test
+    void listingIndexesShouldExist() {
+        assertThat(indexes("ROSTERS")).contains("IDX_ROSTERS_GRADE_LEVEL", "IDX_ROSTERS_SUBJECT_NAME");
+        assertThat(indexes("STUDENT_PROFILES")).contains("IDX_STUDENT_PROFILES_GRADE_LEVEL",
+                "IDX_STUDENT_PROFILES_LAST_NAME", "IDX_STUDENT_PROFILES_FIRST_NAME");
+        assertThat(indexes("NON_STUDENT_PROFILES")).contains("IDX_NON_STUDENT_PROFILES_GRADE_LEVEL",
+                "IDX_NON_STUDENT_PROFILES_LAST_NAME", "IDX_NON_STUDENT_PROFILES_FIRST_NAME");
+        assertThat(indexes("USER_ROLES")).contains("IDX_USER_ROLES_ROLE");
+    }
+
+    private <T, K> List<K> walk(KeysetPage<T> page, Function<String, KeysetPage<T>> next, Function<T, K> key) {
+        List<K> keys = new ArrayList<>();
+        while (true) {
+            page.getItems().forEach(item -> keys.add(key.apply(item)));
+            if (page.getNextCursor() == null) {
+                return keys;
+            }
+            page = next.apply(page.getNextCursor());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> indexes(String table) {
+        return entityManager.createNativeQuery(
+                        "SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = :table")
+                .setParameter("table", table)
+                .getResultList();
+    }
+
+    private Long roster(User teacher, String subject, String gradeLevel) {
+        Roster roster = new Roster();
+        roster.setSubjectName(subject);
+        roster.setGradeLevel(gradeLevel);
+        roster.setTeacher(teacher);
+        roster.setStudents(new LinkedHashSet<>());
+        roster.setGrades(new ArrayList<>());
+        entityManager.persist(roster);
+        entityManager.flush();
+        return roster.getId();
+    }
+
+    private void studentProfile(User user, String firstName, String lastName, String gradeLevel) {
+        StudentProfile profile = new StudentProfile();
+        profile.setFirstName(firstName);
+        profile.setLastName(lastName);
+        profile.setGradeLevel(gradeLevel);
+        profile.setLinkedUser(user);
+        entityManager.persist(profile);
+    }
+
+    private void nonStudentProfile(User user, String firstName, String lastName, String gradeLevel) {
+        NonStudentProfile profile = new NonStudentProfile();
+        profile.setFirstName(firstName);
+        profile.setLastName(lastName);
+        profile.setGradeLevel(gradeLevel);
+        profile.setLinkedUser(user);
+        entityManager.persist(profile);
+    }
+
+    private User user(Role role) {
+        User user = new User();
+        user.setId(String.format("%012d", nextUserId));
+        user.setEmail("user" + nextUserId++ + "@school.test");
+        user.setPassword("secret");
+        user.setRoles(Set.of(role));
+        entityManager.persist(user);
+        return user;
+    }
+}
@@ -225,15 +225,6 @@ class ProfileServiceTest {
     }
 
 
-    @Test
-    void getAllProfiles_success() {
-        when(studentProfileRepository.findAll()).thenReturn(List.of(new StudentProfile()));
-        when(nonStudentProfileRepository.findAll()).thenReturn(List.of(new NonStudentProfile()));
-
-        List<Object> result = profileService.getAllProfiles();
-        assertThat(result).hasSize(2);
-    }
-
     @Test
     void createStudentProfile_shouldThrowIfStudentProfileAlreadyExists() {
         User user = new User();
@@ -0,0 +1,118 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.entity.enums.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RosterAccessCacheTest {
+
+    private static final RosterAccessCache.Decision VIEW_ONLY = new RosterAccessCache.Decision(true, false);
+    private static final Set<Role> TEACHER = Set.of(Role.TEACHER);
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger computed = new AtomicInteger();
+    private SimpleMeterRegistry registry;
+    private RosterAccessCache cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new RosterAccessCache(registry, 60, 3, now::get);
+    }
+
+    @Test
+    void get_shouldComputeOncePerUserAndRosterUntilExpiry() {
+        assertThat(get("u1", 1L)).isEqualTo(VIEW_ONLY);
+        assertThat(get("u1", 1L)).isEqualTo(VIEW_ONLY);
+        get("u2", 1L);
+        assertThat(computed.get()).isEqualTo(2);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        get("u1", 1L);
+        assertThat(computed.get()).isEqualTo(3);
+
+        assertThat(registry.get("roster.access.cache").tag("result", "hit").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("roster.access.cache").tag("result", "miss").counter().count()).isEqualTo(3.0);
+        assertThat(cache.hitRate()).isEqualTo(0.25);
+    }
+
+    @Test
+    void get_shouldEvictLeastRecentlyUsedBeyondMaxEntries() {
+        get("u1", 1L);
+        get("u2", 1L);
+        get("u3", 1L);
+        get("u1", 1L); // u1 is now the most recently used
+        get("u4", 1L); // evicts u2
+
+        assertThat(cache.size()).isEqualTo(3);
+        computed.set(0);
+        get("u1", 1L);
+        get("u2", 1L);
+        assertThat(computed.get()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidation_shouldDropOnlyMatchingEntries() {
+        get("u1", 1L);
+        get("u1", 2L);
+        get("u2", 1L);
+
+        cache.on(new RosterMembershipIndex.MembersChanged(1L, "teacher", Set.of()));
+        assertThat(cache.size()).isEqualTo(1);
+
+        get("u1", 1L);
+        cache.on(new RosterAccessCache.UserAccessChanged("u1"));
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void get_shouldNotStoreDecisionComputedBeforeAnInvalidation() {
+        cache.get("u1", TEACHER, 1L, () -> {
+            // a reassignment commits while this decision is being computed
+            cache.on(new RosterMembershipIndex.TeacherChanged(1L, "newTeacher"));
+            return VIEW_ONLY;
+        });
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void get_shouldKeepDecisionsForDifferentRoleSetsApart() {
+        get("u1", TEACHER, 1L);
+        // same user presenting a token with different roles, e.g. one issued after a role change
+        get("u1", Set.of(Role.TEACHER, Role.ADMIN), 1L);
+        get("u1", EnumSet.of(Role.ADMIN, Role.TEACHER), 1L);
+
+        assertThat(computed.get()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void get_shouldNotCacheAnonymousUsers() {
+        get(null, 1L);
+        get(null, 1L);
+
+        assertThat(computed.get()).isEqualTo(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    private RosterAccessCache.Decision get(String userId, Long rosterId) {
+        return get(userId, TEACHER, rosterId);
+    }
+
+    private RosterAccessCache.Decision get(String userId, Set<Role> roles, Long rosterId) {
+        return cache.get(userId, roles, rosterId, () -> {
+            computed.incrementAndGet();
+            return VIEW_ONLY;
+        });
+    }
+}
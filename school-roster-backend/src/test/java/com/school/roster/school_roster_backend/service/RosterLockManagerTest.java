@@ -0,0 +1,257 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.entity.Roster;
+import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.entity.enums.Role;
+import com.school.roster.school_roster_backend.exception.ServiceBusyException;
+import com.school.roster.school_roster_backend.repository.RosterRepository;
+import com.school.roster.school_roster_backend.repository.UserRepository;
+import com.school.roster.school_roster_backend.support.JpaSliceTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@JpaSliceTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RosterLockManagerTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 25;
+
+    @Autowired
+    private RosterService rosterService;
+
+    @Autowired
+    private RosterRepository rosterRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private GradeService gradeService;
+
+    @MockitoBean
+    private HighestPossibleScoreService highestPossibleScoreService;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RosterLockManager lockManager = new RosterLockManager(registry, 5_000);
+    private final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+        rosterRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    // === No lost updates on the running class-GPA totals ===
+    @Test
+    void concurrentGradeDeltas_shouldAllLandWhenSerializedPerRoster() throws Exception {
+        Long first = seedRoster("first", 1);
+        Long second = seedRoster("second", 2);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Long rosterId = t % 2 == 0 ? first : second;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < ROUNDS; i++) {
+                    lockManager.withLock(rosterId, () -> rosterService.applyGradeDelta(rosterId, 1.0, 0));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+
+        double expected = (THREADS / 2) * ROUNDS;
+        assertThat(rosterRepository.findById(first).orElseThrow().getInitialGradeSum()).isEqualTo(expected);
+        assertThat(rosterRepository.findById(second).orElseThrow().getInitialGradeSum()).isEqualTo(expected);
+        assertThat(lockManager.activeLocks()).isZero();
+        assertThat(registry.get("roster.lock.wait").timer().count()).isEqualTo((long) THREADS * ROUNDS);
+    }
+
+    // === Deltas are atomic in SQL, so they also hold with no shared lock (separate nodes) ===
+    @Test
+    void concurrentGradeDeltas_shouldAllLandWithoutTheRosterLock() throws Exception {
+        Long rosterId = seedRoster("unlocked", 3);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < ROUNDS; i++) {
+                    rosterService.applyGradeDelta(rosterId, 1.0, 0);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+
+        Roster roster = rosterRepository.findById(rosterId).orElseThrow();
+        assertThat(roster.getInitialGradeSum()).isEqualTo((double) THREADS * ROUNDS);
+        assertThat(roster.getGradeCount()).isEqualTo(1);
+        assertThat(roster.getClassGpa()).isEqualTo((float) THREADS * ROUNDS);
+    }
+
+    // === Plain read-modify-write under the lock ===
+    @Test
+    void withLock_shouldSerializeReadModifyWriteWithinRoster() throws Exception {
+        long[] counters = new long[2];
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int slot = t % 2;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    lockManager.withLock((long) slot, () -> {
+                        long read = counters[slot];
+                        Thread.yield();
+                        counters[slot] = read + 1;
+                    });
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+
+        assertThat(counters[0]).isEqualTo((THREADS / 2) * 1_000L);
+        assertThat(counters[1]).isEqualTo((THREADS / 2) * 1_000L);
+        assertThat(lockManager.activeLocks()).isZero();
+    }
+
+    // === Different rosters never wait on each other ===
+    @Test
+    void withLock_shouldLetDifferentRostersRunInParallel() throws Exception {
+        CountDownLatch firstHeld = new CountDownLatch(1);
+        CountDownLatch secondRan = new CountDownLatch(1);
+
+        Future<Boolean> holder = pool.submit(() -> lockManager.withLock(1L, () -> {
+            firstHeld.countDown();
+            try {
+                // only returns true if roster 2 got its lock while roster 1 is still held
+                return secondRan.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }));
+
+        assertThat(firstHeld.await(5, TimeUnit.SECONDS)).isTrue();
+        lockManager.withLock(2L, secondRan::countDown);
+
+        assertThat(holder.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(registry.get("roster.lock.contended").counter().count()).isZero();
+    }
+
+    // === Busy roster times out and is counted ===
+    @Test
+    void withLock_shouldTimeOutWhenRosterStaysBusy() throws Exception {
+        RosterLockManager impatient = new RosterLockManager(registry, 50);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> holder = pool.submit(() -> impatient.withLock(7L, () -> {
+            held.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(held.await(5, TimeUnit.SECONDS)).isTrue();
+
+        ServiceBusyException ex = assertThrows(ServiceBusyException.class,
+                () -> impatient.withLock(7L, () -> { }));
+        assertThat(ex.getMessage()).contains("busy");
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+
+        assertThat(registry.get("roster.lock.contended").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("roster.lock.timeouts").counter().count()).isEqualTo(1.0);
+        assertThat(impatient.activeLocks()).isZero();
+    }
+
+    // === Multi-roster locks are taken in ID order, so opposite request orders cannot deadlock ===
+    @Test
+    void withLocks_shouldNotDeadlockWhenCallersListRostersInOppositeOrder() throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            List<Long> rosterIds = t % 2 == 0 ? List.of(1L, 2L, 3L) : List.of(3L, 2L, 1L);
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < ROUNDS; i++) {
+                    lockManager.withLocks(rosterIds, () -> {
+                        Thread.yield();
+                        return null;
+                    });
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(registry.get("roster.lock.timeouts").counter().count()).isZero();
+        assertThat(lockManager.activeLocks()).isZero();
+    }
+
+    @Test
+    void withLocks_shouldReleaseLocksAlreadyTakenWhenALaterRosterTimesOut() throws Exception {
+        RosterLockManager impatient = new RosterLockManager(registry, 50);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> holder = pool.submit(() -> impatient.withLock(9L, () -> {
+            held.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(held.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThrows(ServiceBusyException.class, () -> impatient.withLocks(List.of(9L, 8L), () -> null));
+        assertThat(impatient.withLock(8L, () -> "free")).isEqualTo("free");
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        assertThat(impatient.activeLocks()).isZero();
+    }
+
+    private Long seedRoster(String name, int teacherNumber) {
+        User teacher = new User();
+        teacher.setId(String.format("%012d", teacherNumber));
+        teacher.setEmail(name + "@school.test");
+        teacher.setPassword("secret");
+        teacher.setRoles(Set.of(Role.TEACHER));
+        userRepository.save(teacher);
+
+        Roster roster = new Roster();
+        roster.setSubjectName(name);
+        roster.setGradeLevel("7");
+        roster.setTeacher(teacher);
+        roster.setStudents(new LinkedHashSet<>());
+        roster.setGrades(new ArrayList<>());
+        // one (zero) grade on the books, so deltas accumulate in the running sum
+        roster.resetGradeTotals(0.0, 1);
+        return rosterRepository.save(roster).getId();
+    }
+}
@@ -0,0 +1,237 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.entity.Roster;
+import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.entity.enums.Role;
+import com.school.roster.school_roster_backend.repository.RosterRepository;
+import com.school.roster.school_roster_backend.repository.UserRepository;
+import com.school.roster.school_roster_backend.support.JpaSliceTest;
+import com.school.roster.school_roster_backend.support.SqlStatementCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Builds the index from H2, checks that membership events only land once their transaction commits,
+ * and that a periodic refresh picks up changes no local event announced.
+ */
+@JpaSliceTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RosterMembershipIndexTest {
+
+    @Autowired
+    private RosterMembershipIndex index;
+
+    @Autowired
+    private RosterRepository rosterRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SimpleMeterRegistry registry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RosterAccessCache accessCache;
+
+    @AfterEach
+    void tearDown() {
+        rosterRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void rebuild_shouldLoadTeachersAndEnrolmentsFromJoinTables() {
+        User teacher = user(1, Role.TEACHER);
+        User alice = user(2, Role.STUDENT);
+        User bob = user(3, Role.STUDENT);
+        Long math = roster(teacher, alice, bob);
+        Long art = roster(teacher, bob);
+        Long empty = roster(null);
+        double hitsBefore = lookups("hit");
+        double missesBefore = lookups("miss");
+
+        assertThat(index.lookup(-1L)).isEmpty();
+        index.rebuild();
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.enrolments()).isEqualTo(3);
+        assertThat(index.lookup(math)).get()
+                .isEqualTo(new RosterMembershipIndex.Membership(teacher.getId(), Set.of(alice.getId(), bob.getId())));
+        assertThat(index.lookup(art).get().studentIds()).containsExactly(bob.getId());
+        assertThat(index.lookup(empty).get().teacherId()).isNull();
+        assertThat(index.isStudentUnderTeacher(teacher.getId(), alice.getId())).contains(true);
+        assertThat(index.isStudentUnderTeacher(alice.getId(), bob.getId())).contains(false);
+        assertThat(lookups("hit") - hitsBefore).isEqualTo(5.0);
+        assertThat(lookups("miss") - missesBefore).isEqualTo(1.0);
+        assertThat(index.hitRate()).isBetween(0.0, 1.0);
+    }
+
+    @Test
+    void events_shouldApplyAfterCommitOnly() {
+        User teacher = user(1, Role.TEACHER);
+        User other = user(2, Role.TEACHER);
+        User alice = user(3, Role.STUDENT);
+        Long rosterId = roster(teacher);
+        index.rebuild();
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(
+                    new RosterMembershipIndex.MembersChanged(rosterId, teacher.getId(), Set.of(alice.getId())));
+            status.setRollbackOnly();
+        });
+        assertThat(index.isStudentUnderTeacher(teacher.getId(), alice.getId())).contains(false);
+
+        tx.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(
+                    new RosterMembershipIndex.MembersChanged(rosterId, teacher.getId(), Set.of(alice.getId())));
+            // not visible until commit
+            assertThat(index.lookup(rosterId).get().studentIds()).isEmpty();
+        });
+        assertThat(index.isStudentUnderTeacher(teacher.getId(), alice.getId())).contains(true);
+
+        tx.executeWithoutResult(status ->
+                eventPublisher.publishEvent(new RosterMembershipIndex.TeacherChanged(rosterId, other.getId())));
+        assertThat(index.isStudentUnderTeacher(teacher.getId(), alice.getId())).contains(false);
+        assertThat(index.isStudentUnderTeacher(other.getId(), alice.getId())).contains(true);
+
+        tx.executeWithoutResult(status ->
+                eventPublisher.publishEvent(new RosterMembershipIndex.StudentsRemoved(rosterId, Set.of(alice.getId()))));
+        assertThat(index.lookup(rosterId).get().teacherId()).isEqualTo(other.getId());
+        assertThat(index.isStudentUnderTeacher(other.getId(), alice.getId())).contains(false);
+
+        tx.executeWithoutResult(status ->
+                eventPublisher.publishEvent(new RosterMembershipIndex.RosterRemoved(rosterId)));
+        assertThat(index.lookup(rosterId)).isEmpty();
+        assertThat(index.isStudentUnderTeacher(other.getId(), alice.getId())).contains(false);
+    }
+
+    @Test
+    void refresh_shouldPickUpChangesCommittedWithoutALocalEvent() {
+        User teacher = user(1, Role.TEACHER);
+        User alice = user(2, Role.STUDENT);
+        Long rosterId = roster(teacher);
+        index.rebuild();
+        accessCache.get(teacher.getId(), Set.of(Role.TEACHER), rosterId,
+                () -> new RosterAccessCache.Decision(true, true));
+
+        // as another node would: committed to the join table with a version bump, no event reaches this index
+        Roster roster = rosterRepository.findByIdWithTeacherAndStudents(rosterId).orElseThrow();
+        roster.getStudents().add(alice);
+        rosterRepository.save(roster);
+        rosterRepository.bumpMembershipVersion(rosterId);
+        assertThat(index.isStudentUnderTeacher(teacher.getId(), alice.getId())).contains(false);
+
+        assertThat(index.refresh()).isTrue();
+        assertThat(index.isStudentUnderTeacher(teacher.getId(), alice.getId())).contains(true);
+        assertThat(accessCache.size()).isZero();
+
+        assertThat(index.refresh()).isFalse();
+    }
+
+    @Test
+    void refresh_shouldSkipTheReloadWhileTheFingerprintIsUnchanged() {
+        User teacher = user(1, Role.TEACHER);
+        User alice = user(2, Role.STUDENT);
+        Long rosterId = roster(teacher);
+        index.rebuild();
+        double reloadsBefore = reloads();
+
+        SqlStatementCounter.reset();
+        assertThat(index.refresh()).isFalse();
+        assertThat(SqlStatementCounter.total()).isEqualTo(1);
+        assertThat(SqlStatementCounter.touching("roster_students")).isZero();
+
+        // Written without the version bump (outside the application): only the full-reload backstop sees it
+        Roster roster = rosterRepository.findByIdWithTeacherAndStudents(rosterId).orElseThrow();
+        roster.getStudents().add(alice);
+        rosterRepository.save(roster);
+        assertThat(index.refresh()).isFalse();
+        assertThat(reloads()).isEqualTo(reloadsBefore);
+
+        // An event anywhere bumps the version, so the next refresh reloads
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> eventPublisher.publishEvent(
+                new RosterMembershipIndex.MembersChanged(rosterId, teacher.getId(), Set.of(alice.getId()))));
+        assertThat(index.refresh()).isFalse();
+        assertThat(reloads()).isEqualTo(reloadsBefore + 1);
+        assertThat(index.isStudentUnderTeacher(teacher.getId(), alice.getId())).contains(true);
+    }
+
+    @Test
+    void lookups_shouldNeverMissWhileTheIndexReloads() throws Exception {
+        User teacher = user(1, Role.TEACHER);
+        User alice = user(2, Role.STUDENT);
+        Long rosterId = roster(teacher, alice);
+        index.rebuild();
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicInteger wrong = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            while (!stop.get()) {
+                if (index.lookup(rosterId).isEmpty()
+                        || !index.isStudentUnderTeacher(teacher.getId(), alice.getId()).orElse(false)) {
+                    wrong.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+        try {
+            for (int i = 0; i < 20; i++) {
+                rosterRepository.bumpMembershipVersion(rosterId);
+                index.refresh();
+            }
+        } finally {
+            stop.set(true);
+            reader.join(5_000);
+        }
+
+        assertThat(wrong.get()).isZero();
+    }
+
+    private double reloads() {
+        return registry.get("roster.membership.reloads").counter().count();
+    }
+
+    private double lookups(String result) {
+        return registry.get("roster.membership.lookups").tag("result", result).counter().count();
+    }
+
+    private Long roster(User teacher, User... students) {
+        Roster roster = new Roster();
+        roster.setSubjectName("Math");
+        roster.setGradeLevel("7");
+        roster.setTeacher(teacher);
+        roster.setStudents(new LinkedHashSet<>(List.of(students)));
+        return rosterRepository.save(roster).getId();
+    }
+
+    private User user(int n, Role role) {
+        User user = new User();
+        user.setId(String.format("%012d", n));
+        user.setEmail("user" + n + "@school.test");
+        user.setPassword("secret");
+        user.setRoles(Set.of(role));
+        return userRepository.save(user);
+    }
+}
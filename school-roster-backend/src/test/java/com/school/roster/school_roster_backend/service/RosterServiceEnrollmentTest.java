@@ -0,0 +1,131 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.entity.Grade;
+import com.school.roster.school_roster_backend.entity.HighestPossibleScore;
+import com.school.roster.school_roster_backend.entity.Roster;
+import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.entity.embedded.ScoreDetails;
+import com.school.roster.school_roster_backend.entity.enums.Role;
+import com.school.roster.school_roster_backend.entity.enums.StudentGradeStatus;
+import com.school.roster.school_roster_backend.support.JpaSliceTest;
+import com.school.roster.school_roster_backend.support.SqlStatementCounter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Batched enrolment against H2: grades come out zero-filled to the HPS shape, and the number of
+ * Hibernate statements does not grow with the number of students enrolled.
+ */
+@JpaSliceTest
+class RosterServiceEnrollmentTest {
+
+    @Autowired
+    private RosterService rosterService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private int nextUserId = 1;
+
+    @Test
+    void addStudentToRoster_shouldCreateZeroFilledGradesMatchingHps() {
+        Long rosterId = seedRoster();
+        List<String> ids = students(3);
+        List<String> request = new ArrayList<>(ids);
+        request.add(ids.get(0));
+
+        rosterService.addStudentToRoster(rosterId, request);
+        entityManager.flush();
+        entityManager.clear();
+
+        Roster roster = entityManager.find(Roster.class, rosterId);
+        assertThat(roster.getStudents()).extracting(User::getId).containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(roster.getGrades()).hasSize(3).allSatisfy(grade -> {
+            ScoreDetails details = grade.getScoreDetails();
+            assertThat(details.getPerformanceScores()).containsExactly(0, 0);
+            assertThat(details.getQuizScores()).containsExactly(0);
+            assertThat(details.getQuarterlyExamScores()).containsExactly(0);
+            assertThat(grade.getInitialGrade()).isZero();
+            assertThat(grade.getFinalStatus()).isEqualTo(StudentGradeStatus.FAILED);
+            assertThat(grade.getVersion()).isZero();
+        });
+        assertThat(roster.getGradeCount()).isEqualTo(3);
+        assertThat(roster.getClassGpa()).isZero();
+
+        // Enrolling the same students again is a no-op
+        rosterService.addStudentToRoster(rosterId, ids);
+        entityManager.flush();
+        assertThat(entityManager.createQuery("select count(g) from Grade g where g.roster.id = :id", Long.class)
+                .setParameter("id", rosterId).getSingleResult()).isEqualTo(3L);
+    }
+
+    @Test
+    void addStudentToRoster_statementCountShouldNotGrowWithSectionSize() {
+        assertThat(enrolmentStatements(45)).isEqualTo(enrolmentStatements(5));
+    }
+
+    private long enrolmentStatements(int students) {
+        Long rosterId = seedRoster();
+        List<String> ids = students(students);
+        entityManager.clear();
+
+        SqlStatementCounter.reset();
+        rosterService.addStudentToRoster(rosterId, ids);
+        entityManager.flush();
+        long total = SqlStatementCounter.total();
+
+        entityManager.clear();
+        assertThat(entityManager.find(Roster.class, rosterId).getGrades()).hasSize(students);
+        return total;
+    }
+
+    private Long seedRoster() {
+        User teacher = user(Role.TEACHER);
+        Roster roster = new Roster();
+        roster.setSubjectName("Math");
+        roster.setGradeLevel("7");
+        roster.setTeacher(teacher);
+        roster.setStudents(new LinkedHashSet<>());
+        roster.setGrades(new ArrayList<>());
+        roster.resetGradeTotals(0.0, 0);
+        entityManager.persist(roster);
+
+        HighestPossibleScore hps = new HighestPossibleScore();
+        hps.setRoster(roster);
+        hps.getScoreDetails().getPerformanceScores().add(10);
+        hps.getScoreDetails().getPerformanceScores().add(10);
+        hps.getScoreDetails().getQuizScores().add(20);
+        hps.getScoreDetails().getQuarterlyExamScores().add(50);
+        hps.getScoreDetails().recalcTotals();
+        entityManager.persist(hps);
+        entityManager.flush();
+        return roster.getId();
+    }
+
+    private List<String> students(int count) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(user(Role.STUDENT).getId());
+        }
+        entityManager.flush();
+        return ids;
+    }
+
+    private User user(Role role) {
+        User user = new User();
+        user.setId(String.format("%012d", nextUserId));
+        user.setEmail("user" + nextUserId++ + "@school.test");
+        user.setPassword("secret");
+        user.setRoles(Set.of(role));
+        entityManager.persist(user);
+        return user;
+    }
+}
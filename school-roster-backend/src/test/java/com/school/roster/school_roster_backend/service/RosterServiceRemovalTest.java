@@ -0,0 +1,175 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.entity.Grade;
+import com.school.roster.school_roster_backend.entity.HighestPossibleScore;
+import com.school.roster.school_roster_backend.entity.Roster;
+import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.entity.enums.Role;
+import com.school.roster.school_roster_backend.support.JpaSliceTest;
+import com.school.roster.school_roster_backend.support.SqlStatementCounter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Student removal, roster deletion and user deletion against H2: rows go in set-based DELETEs,
+ * GPA totals follow, and the statement count does not grow with the size of the section.
+ */
+@JpaSliceTest
+class RosterServiceRemovalTest {
+
+    @Autowired
+    private RosterService rosterService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private int nextUserId = 1;
+
+    @Test
+    void removeStudentFromRoster_shouldDeleteOnlyTheirGradesAndLinks() {
+        Long rosterId = seedRoster();
+        List<String> ids = enrol(rosterId, 4);
+
+        rosterService.removeStudentFromRoster(rosterId, List.of(ids.get(0), ids.get(2)));
+        entityManager.flush();
+        entityManager.clear();
+
+        Roster roster = entityManager.find(Roster.class, rosterId);
+        assertThat(roster.getStudents()).extracting(User::getId).containsExactly(ids.get(1), ids.get(3));
+        assertThat(roster.getGrades()).extracting(grade -> grade.getStudent().getId())
+                .containsExactlyInAnyOrder(ids.get(1), ids.get(3));
+        // Seeded initial grades are 80, 81, 82, 83
+        assertThat(roster.getGradeCount()).isEqualTo(2);
+        assertThat(roster.getInitialGradeSum()).isEqualTo(81.0 + 83.0);
+    }
+
+    @Test
+    void removeStudentFromRoster_statementCountShouldNotGrowWithSectionSize() {
+        assertThat(removalStatements(45)).isEqualTo(removalStatements(5));
+    }
+
+    @Test
+    void deleteRoster_shouldRemoveGradesLinksAndHpsButKeepStudents() {
+        Long rosterId = seedRoster();
+        List<String> ids = enrol(rosterId, 3);
+
+        rosterService.deleteRoster(rosterId);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(entityManager.find(Roster.class, rosterId)).isNull();
+        assertThat(count("select count(g) from Grade g")).isZero();
+        assertThat(count("select count(h) from HighestPossibleScore h")).isZero();
+        assertThat(count("select count(u) from User u where u.id in :ids", ids)).isEqualTo(3L);
+    }
+
+    @Test
+    void deleteUser_shouldUnlinkStudentAndKeepTheirRosters() {
+        Long math = seedRoster();
+        Long science = seedRoster();
+        List<String> mathIds = enrol(math, 2);
+        String leaving = mathIds.get(0);
+        enrol(science, List.of(leaving, user(Role.STUDENT).getId()));
+
+        userService.deleteUser(leaving);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(entityManager.find(User.class, leaving)).isNull();
+        for (Long rosterId : List.of(math, science)) {
+            Roster roster = entityManager.find(Roster.class, rosterId);
+            assertThat(roster).isNotNull();
+            assertThat(roster.getStudents()).extracting(User::getId).doesNotContain(leaving).hasSize(1);
+            assertThat(roster.getGrades()).hasSize(1);
+            assertThat(roster.getGradeCount()).isEqualTo(1);
+        }
+        assertThat(entityManager.find(Roster.class, math).getInitialGradeSum()).isEqualTo(81.0);
+    }
+
+    private long removalStatements(int students) {
+        Long rosterId = seedRoster();
+        List<String> ids = enrol(rosterId, students);
+        entityManager.clear();
+
+        SqlStatementCounter.reset();
+        rosterService.removeStudentFromRoster(rosterId, ids.subList(0, 2));
+        entityManager.flush();
+        long total = SqlStatementCounter.total();
+
+        entityManager.clear();
+        assertThat(entityManager.find(Roster.class, rosterId).getStudents()).hasSize(students - 2);
+        return total;
+    }
+
+    private Long seedRoster() {
+        Roster roster = new Roster();
+        roster.setSubjectName("Math");
+        roster.setGradeLevel("7");
+        roster.setTeacher(user(Role.TEACHER));
+        roster.setStudents(new LinkedHashSet<>());
+        roster.setGrades(new ArrayList<>());
+        roster.resetGradeTotals(0.0, 0);
+        entityManager.persist(roster);
+
+        HighestPossibleScore hps = new HighestPossibleScore();
+        hps.setRoster(roster);
+        entityManager.persist(hps);
+        entityManager.flush();
+        return roster.getId();
+    }
+
+    // Enrols new students with initial grades 80, 81, 82, ...
+    private List<String> enrol(Long rosterId, int count) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(user(Role.STUDENT).getId());
+        }
+        return enrol(rosterId, ids);
+    }
+
+    private List<String> enrol(Long rosterId, List<String> ids) {
+        Roster roster = entityManager.find(Roster.class, rosterId);
+        for (int i = 0; i < ids.size(); i++) {
+            User student = entityManager.find(User.class, ids.get(i));
+            roster.getStudents().add(student);
+
+            Grade grade = new Grade();
+            grade.setRoster(roster);
+            grade.setStudent(student);
+            grade.setInitialGrade(80.0 + i);
+            entityManager.persist(grade);
+            rosterService.applyGradeDelta(rosterId, grade.getInitialGrade(), 1);
+        }
+        entityManager.flush();
+        return ids;
+    }
+
+    private long count(String jpql) {
+        return entityManager.createQuery(jpql, Long.class).getSingleResult();
+    }
+
+    private long count(String jpql, List<String> ids) {
+        return entityManager.createQuery(jpql, Long.class).setParameter("ids", ids).getSingleResult();
+    }
+
+    private User user(Role role) {
+        User user = new User();
+        user.setId(String.format("%012d", nextUserId));
+        user.setEmail("user" + nextUserId++ + "@school.test");
+        user.setPassword("secret");
+        user.setRoles(Set.of(role));
+        entityManager.persist(user);
+        return user;
+    }
+}
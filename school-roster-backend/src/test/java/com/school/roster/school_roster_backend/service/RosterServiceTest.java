@@ -3,20 +3,26 @@ package com.school.roster.school_roster_backend.service;
 import com.school.roster.school_roster_backend.entity.Grade;
 import com.school.roster.school_roster_backend.entity.Roster;
 import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.entity.embedded.GradeArithmetic;
 import com.school.roster.school_roster_backend.repository.GradeRepository;
 import com.school.roster.school_roster_backend.repository.RosterRepository;
 import com.school.roster.school_roster_backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -27,6 +33,8 @@ class RosterServiceTest {
     private GradeRepository gradeRepository;
     private GradeService gradeService;
     private HighestPossibleScoreService highestPossibleScoreService;
+    private RosterMembershipIndex membershipIndex;
+    private ApplicationEventPublisher eventPublisher;
     private RosterService rosterService;
 
     @BeforeEach
@@ -36,6 +44,10 @@ class RosterServiceTest {
         gradeRepository = mock(GradeRepository.class);
         gradeService = mock(GradeService.class);
         highestPossibleScoreService = mock(HighestPossibleScoreService.class);
+        // Not built: lookups miss and fall back to the repository unless a test builds it
+        membershipIndex = new RosterMembershipIndex(rosterRepository, event -> { }, new SimpleMeterRegistry(), 3_600_000);
+        when(rosterRepository.findMembershipFingerprint()).thenReturn(mock(RosterRepository.MembershipFingerprint.class));
+        eventPublisher = mock(ApplicationEventPublisher.class);
 
         // Construct the service under test
         rosterService = new RosterService(
@@ -43,7 +55,12 @@ class RosterServiceTest {
                 userRepository,
                 gradeRepository,
                 gradeService,
-                highestPossibleScoreService
+                highestPossibleScoreService,
+                new GradeCalculator(GradeArithmetic.DOUBLE),
+                membershipIndex,
+                eventPublisher,
+                new RosterAccessCache(new SimpleMeterRegistry()),
+                mock(EntityManager.class)
         );
 
         // By default, stub save(...) to return its argument
@@ -91,19 +108,19 @@ class RosterServiceTest {
     void addStudentToRoster_shouldAddNewStudentAndGrade() {
         // Prepare a Roster with empty lists
         Roster roster = new Roster();
-        roster.setStudents(new ArrayList<>());
+        roster.setStudents(new LinkedHashSet<>());
         roster.setGrades(new ArrayList<>());
         when(rosterRepository.findById(1L)).thenReturn(Optional.of(roster));
 
         // Prepare a User as the student
         User student = new User();
         student.setId("studentId");
-        when(userRepository.findById("studentId")).thenReturn(Optional.of(student));
+        when(userRepository.findAllWithProfilesByIdIn(Set.of("studentId"))).thenReturn(List.of(student));
 
-        // Stub gradeService.createGrade(rosterId, studentId) to return a Grade whose student is set
+        // Stub gradeService.createGrades(roster, students) to return a Grade whose student is set
         Grade fakeGrade = new Grade();
         fakeGrade.setStudent(student);
-        when(gradeService.createGrade(roster, student)).thenReturn(fakeGrade);
+        when(gradeService.createGrades(roster, List.of(student))).thenReturn(List.of(fakeGrade));
         List<String> userId = new ArrayList<>();
         userId.add("studentId");
         // Act
@@ -117,6 +134,30 @@ class RosterServiceTest {
         assertEquals(student, updated.getGrades().get(0).getStudent());
     }
 
+    @Test
+    void addStudentToRoster_shouldResolveUsersOnceAndSkipDuplicatesAndEnrolled() {
+        User enrolled = new User();
+        enrolled.setId("enrolled");
+        User newcomer = new User();
+        newcomer.setId("newcomer");
+
+        Roster roster = new Roster();
+        roster.setId(1L);
+        roster.setStudents(new LinkedHashSet<>(List.of(enrolled)));
+        roster.setGrades(new ArrayList<>());
+        when(rosterRepository.findById(1L)).thenReturn(Optional.of(roster));
+        when(userRepository.findAllWithProfilesByIdIn(any())).thenReturn(List.of(enrolled, newcomer));
+        when(gradeService.createGrades(eq(roster), any())).thenReturn(List.of(new Grade()));
+
+        rosterService.addStudentToRoster(1L, List.of("newcomer", "enrolled", "newcomer"));
+
+        assertThat(roster.getStudents()).containsExactly(enrolled, newcomer);
+        verify(userRepository, times(1)).findAllWithProfilesByIdIn(any());
+        verify(userRepository, never()).findById(anyString());
+        verify(gradeService).createGrades(roster, List.of(newcomer));
+        verify(gradeService, never()).createGrade(any(), any());
+    }
+
     @Test
     void addStudentToRoster_rosterOrStudentNotFound_shouldThrow() {
         // Case 1: Roster not found
@@ -129,10 +170,10 @@ class RosterServiceTest {
 
         // Case 2: Roster exists, but student not found
         Roster roster = new Roster();
-        roster.setStudents(new ArrayList<>());
+        roster.setStudents(new LinkedHashSet<>());
         roster.setGrades(new ArrayList<>());
         when(rosterRepository.findById(1L)).thenReturn(Optional.of(roster));
-        when(userRepository.findById("badId")).thenReturn(Optional.empty());
+        when(userRepository.findAllWithProfilesByIdIn(Set.of("badId"))).thenReturn(List.of());
         List<String> userId2 = new ArrayList<>();
         userId2.add("badId");
         assertThrows(RuntimeException.class,
@@ -146,7 +187,7 @@ class RosterServiceTest {
         student.setId("studentId");
 
         Roster roster = new Roster();
-        roster.setStudents(List.of(student));
+        roster.setStudents(Set.of(student));
 
         when(rosterRepository.findByTeacherId("teacherId")).thenReturn(List.of(roster));
 
@@ -155,31 +196,48 @@ class RosterServiceTest {
     }
 
     @Test
-    void removeStudentFromRoster_shouldRemoveStudentAndDeleteGrade() {
-        // Prepare a roster that contains exactly one student
-        User student = new User();
-        student.setId("studentId");
-
+    void removeStudentFromRoster_shouldBulkDeleteGradesAndLinksAndApplyGpaDelta() {
         Roster roster = new Roster();
-        roster.setId(1L);  // <— FIX: set the ID here
-        roster.setStudents(new ArrayList<>(List.of(student)));
-        roster.setGrades(new ArrayList<>());
+        roster.setId(1L);
+        roster.resetGradeTotals(170.0, 2);
 
+        GradeRepository.GradeTotals removed = mock(GradeRepository.GradeTotals.class);
+        when(removed.getGradeSum()).thenReturn(80.0);
+        when(removed.getGradeCount()).thenReturn(1L);
+
+        when(rosterRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findExistingIds(Set.of("studentId"))).thenReturn(List.of("studentId"));
+        when(gradeRepository.sumInitialGradesByRosterIdAndStudentIdIn(1L, Set.of("studentId")))
+                .thenReturn(Optional.of(removed));
         when(rosterRepository.findById(1L)).thenReturn(Optional.of(roster));
-        when(userRepository.findById("studentId")).thenReturn(Optional.of(student));
+        when(rosterRepository.addToGradeTotals(1L, -80.0, -1)).thenReturn(1);
+        GradeRepository.GradeTotals remaining = mock(GradeRepository.GradeTotals.class);
+        when(remaining.getGradeSum()).thenReturn(90.0);
+        when(remaining.getGradeCount()).thenReturn(1L);
+        when(rosterRepository.findStoredGradeTotalsById(1L)).thenReturn(Optional.of(remaining));
+
+        Roster result = rosterService.removeStudentFromRoster(1L, List.of("studentId", "studentId"));
+
+        assertThat(result).isSameAs(roster);
+        verify(gradeRepository).deleteByRosterIdAndStudentIdIn(1L, Set.of("studentId"));
+        verify(rosterRepository).deleteStudentLinks(1L, Set.of("studentId"));
+        verify(gradeRepository, never()).findByRosterId(anyLong());
+        verify(rosterRepository).addToGradeTotals(1L, -80.0, -1);
+        verify(rosterRepository).updateClassGpa(1L, 90f);
+        verify(eventPublisher).publishEvent(new RosterMembershipIndex.StudentsRemoved(1L, Set.of("studentId")));
+    }
 
-        // Stub gradeRepository.findByRosterId so that no matching grades exist
-        when(gradeRepository.findByRosterId(1L)).thenReturn(new ArrayList<>());
-        List<String> userId = new ArrayList<>();
-        userId.add("studentId");
-        // Act
-        rosterService.removeStudentFromRoster(1L, userId);
+    @Test
+    void removeStudentFromRoster_shouldFailBeforeDeletingWhenAStudentIsUnknown() {
+        when(rosterRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findExistingIds(any())).thenReturn(List.of("studentId"));
 
-        // Assert: student removed
-        assertThat(roster.getStudents()).isEmpty();
+        assertThatThrownBy(() -> rosterService.removeStudentFromRoster(1L, List.of("studentId", "ghost")))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Student not found with ID: ghost");
 
-        // Verify that findByRosterId was called with 1L (not null)
-        verify(gradeRepository).findByRosterId(1L);
+        verify(gradeRepository, never()).deleteByRosterIdAndStudentIdIn(anyLong(), any());
+        verify(rosterRepository, never()).deleteStudentLinks(anyLong(), any());
     }
 
     @Test
@@ -214,19 +272,15 @@ class RosterServiceTest {
 
     @Test
     void deleteRoster_shouldDeleteRosterAndGrades() {
-        Roster roster = new Roster();
-        roster.setStudents(new ArrayList<>());
-        roster.setGrades(new ArrayList<>());
-
-        when(rosterRepository.findById(1L)).thenReturn(Optional.of(roster));
-        when(gradeRepository.findByRosterId(1L)).thenReturn(new ArrayList<>());
+        when(rosterRepository.existsById(1L)).thenReturn(true);
 
         // Act
         rosterService.deleteRoster(1L);
 
-        // Assert: both deleteAll(grades) and delete(roster) should be invoked
-        verify(gradeRepository).deleteAll(Collections.emptyList());
-        verify(rosterRepository).delete(roster);
+        // Assert: grades go in one bulk statement, then the roster itself
+        verify(gradeRepository).deleteByRosterId(1L);
+        verify(gradeRepository, never()).findByRosterId(anyLong());
+        verify(rosterRepository).deleteById(1L);
     }
 
     @Test
@@ -246,13 +300,14 @@ class RosterServiceTest {
         student.setId("studentId");
 
         Roster roster = new Roster();
-        roster.setStudents(List.of(student));
+        roster.setStudents(Set.of(student));
 
-        when(rosterRepository.findAll()).thenReturn(List.of(roster));
+        when(rosterRepository.findByStudentId("studentId")).thenReturn(List.of(roster));
 
         List<Roster> result = rosterService.getRostersByStudentId("studentId");
 
         assertThat(result).hasSize(1);
+        verify(rosterRepository, never()).findAll();
     }
 
     @Test
@@ -287,7 +342,7 @@ class RosterServiceTest {
 
         Roster roster = new Roster();
         roster.setTeacher(teacher);
-        roster.setStudents(List.of(student));
+        roster.setStudents(Set.of(student));
 
         when(rosterRepository.findByIdWithTeacherAndStudents(1L))
                 .thenReturn(Optional.of(roster));
@@ -367,4 +422,142 @@ class RosterServiceTest {
         officeAdmin.setRoles(Set.of(com.school.roster.school_roster_backend.entity.enums.Role.OFFICE_ADMINISTRATOR));
         assertTrue(rosterService.canViewRoster(1L, officeAdmin));
     }
+
+    // === Membership index ===
+    @Test
+    void authorizationChecks_shouldUseBuiltIndexWithoutLoadingRosters() {
+        when(rosterRepository.findAllTeacherLinks()).thenReturn(List.of(link(1L, "teacherId")));
+        when(rosterRepository.findAllStudentLinks()).thenReturn(List.of(link(1L, "studentId")));
+        membershipIndex.rebuild();
+
+        User teacher = new User();
+        teacher.setId("teacherId");
+        User student = new User();
+        student.setId("studentId");
+        User stranger = new User();
+        stranger.setId("strangerId");
+
+        assertTrue(rosterService.canEditRoster(1L, teacher));
+        assertFalse(rosterService.canEditRoster(1L, student));
+        assertTrue(rosterService.canViewRoster(1L, student));
+        assertFalse(rosterService.canViewRoster(1L, stranger));
+        assertTrue(rosterService.isStudentUnderTeacher("teacherId", "studentId"));
+        assertFalse(rosterService.isStudentUnderTeacher("teacherId", "strangerId"));
+
+        verify(rosterRepository, never()).findByIdWithTeacherAndStudents(anyLong());
+        verify(rosterRepository, never()).findByTeacherId(anyString());
+        assertEquals(1.0, membershipIndex.hitRate());
+    }
+
+    @Test
+    void canViewRoster_shouldFallBackToRepositoryForUnindexedRoster() {
+        when(rosterRepository.findAllTeacherLinks()).thenReturn(List.of());
+        when(rosterRepository.findAllStudentLinks()).thenReturn(List.of());
+        membershipIndex.rebuild();
+
+        User teacher = new User();
+        teacher.setId("teacherId");
+        Roster roster = new Roster();
+        roster.setTeacher(teacher);
+        when(rosterRepository.findByIdWithTeacherAndStudents(7L)).thenReturn(Optional.of(roster));
+
+        assertTrue(rosterService.canViewRoster(7L, teacher));
+        assertThrows(RuntimeException.class, () -> rosterService.canViewRoster(8L, teacher));
+        assertEquals(0.0, membershipIndex.hitRate());
+    }
+
+    @Test
+    void membershipChanges_shouldPublishIndexEvents() {
+        User teacher = new User();
+        teacher.setId("teacherId");
+        User student = new User();
+        student.setId("studentId");
+        Roster roster = new Roster();
+        roster.setId(1L);
+        roster.setTeacher(teacher);
+        roster.setStudents(new LinkedHashSet<>());
+        roster.setGrades(new ArrayList<>());
+        when(rosterRepository.findById(1L)).thenReturn(Optional.of(roster));
+        when(userRepository.findAllWithProfilesByIdIn(Set.of("studentId"))).thenReturn(List.of(student));
+        when(userRepository.findById("newTeacher")).thenReturn(Optional.of(new User()));
+        when(rosterRepository.existsById(1L)).thenReturn(true);
+
+        rosterService.addStudentToRoster(1L, List.of("studentId"));
+        rosterService.reassignTeacher(1L, "newTeacher");
+        rosterService.deleteRoster(1L);
+
+        verify(eventPublisher).publishEvent(
+                new RosterMembershipIndex.MembersChanged(1L, "teacherId", Set.of("studentId")));
+        verify(eventPublisher).publishEvent(new RosterMembershipIndex.TeacherChanged(1L, "newTeacher"));
+        verify(eventPublisher).publishEvent(new RosterMembershipIndex.RosterRemoved(1L));
+    }
+
+    @Test
+    void canViewAndEditRoster_shouldShareOneCachedDecisionPerUserAndRoster() {
+        User teacher = new User();
+        teacher.setId("teacherId");
+        Roster roster = new Roster();
+        roster.setTeacher(teacher);
+        when(rosterRepository.findByIdWithTeacherAndStudents(1L)).thenReturn(Optional.of(roster));
+
+        assertTrue(rosterService.canViewRoster(1L, teacher));
+        assertTrue(rosterService.canEditRoster(1L, teacher));
+        assertTrue(rosterService.canViewRoster(1L, teacher));
+
+        verify(rosterRepository, times(1)).findByIdWithTeacherAndStudents(1L);
+    }
+
+    private static RosterRepository.MembershipLink link(Long rosterId, String memberId) {
+        return new RosterRepository.MembershipLink() {
+            public Long getRosterId() {
+                return rosterId;
+            }
+
+            public String getMemberId() {
+                return memberId;
+            }
+        };
+    }
+
+    // === applyGradeDelta ===
+    @Test
+    void applyGradeDelta_shouldIncrementTotalsInSqlAndDeriveClassGpaFromTheResult() {
+        when(rosterRepository.addToGradeTotals(1L, 70.0, 1)).thenReturn(1);
+        GradeRepository.GradeTotals totals = mock(GradeRepository.GradeTotals.class);
+        when(totals.getGradeSum()).thenReturn(240.0);
+        when(totals.getGradeCount()).thenReturn(3L);
+        when(rosterRepository.findStoredGradeTotalsById(1L)).thenReturn(Optional.of(totals));
+
+        rosterService.applyGradeDelta(1L, 70.0, 1);
+
+        verify(rosterRepository).updateClassGpa(1L, 80f);
+        verify(rosterRepository, never()).findById(anyLong());
+        verify(rosterRepository, never()).save(any());
+        verifyNoInteractions(gradeRepository);
+    }
+
+    @Test
+    void applyGradeDelta_withoutRunningTotals_shouldSeedFromAggregate() {
+        when(rosterRepository.addToGradeTotals(1L, 5.0, 0)).thenReturn(0);
+        when(rosterRepository.existsById(1L)).thenReturn(true);
+
+        GradeRepository.GradeTotals totals = mock(GradeRepository.GradeTotals.class);
+        when(totals.getGradeSum()).thenReturn(181.0);
+        when(totals.getGradeCount()).thenReturn(2L);
+        when(gradeRepository.sumInitialGradesByRosterId(1L)).thenReturn(Optional.of(totals));
+
+        rosterService.applyGradeDelta(1L, 5.0, 0);
+
+        // the aggregate already includes the change, so the delta is not applied twice
+        verify(rosterRepository).setGradeTotals(1L, 181.0, 2, 90.5f);
+    }
+
+    @Test
+    void applyGradeDelta_shouldFailForUnknownRoster() {
+        when(rosterRepository.addToGradeTotals(9L, 1.0, 0)).thenReturn(0);
+        when(rosterRepository.existsById(9L)).thenReturn(false);
+
+        assertThatThrownBy(() -> rosterService.applyGradeDelta(9L, 1.0, 0))
+                .hasMessageContaining("Roster not found");
+    }
 }
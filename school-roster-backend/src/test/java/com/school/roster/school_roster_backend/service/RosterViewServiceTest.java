@@ -0,0 +1,156 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.controller.RosterController;
+import com.school.roster.school_roster_backend.entity.Grade;
+import com.school.roster.school_roster_backend.entity.NonStudentProfile;
+import com.school.roster.school_roster_backend.entity.Roster;
+import com.school.roster.school_roster_backend.entity.StudentProfile;
+import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.entity.embedded.ScoreDetails;
+import com.school.roster.school_roster_backend.entity.enums.Role;
+import com.school.roster.school_roster_backend.entity.enums.StudentGradeStatus;
+import com.school.roster.school_roster_backend.support.JpaSliceTest;
+import com.school.roster.school_roster_backend.support.SqlStatementCounter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@JpaSliceTest
+class RosterViewServiceTest {
+
+    @Autowired
+    private RosterViewService rosterViewService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private int nextUserId = 1;
+
+    @Test
+    void getRosterView_shouldMapTeacherStudentsAndGrades() {
+        User teacher = user(Role.TEACHER);
+        NonStudentProfile teacherProfile = new NonStudentProfile();
+        teacherProfile.setFirstName("Ada");
+        teacherProfile.setLastName("Lovelace");
+        teacherProfile.setLinkedUser(teacher);
+        entityManager.persist(teacherProfile);
+
+        User graded = student("Grace");
+        User ungraded = student("Alan");
+        Roster roster = roster(teacher, graded, ungraded);
+        grade(roster, graded, 91.5, StudentGradeStatus.PASSED);
+        entityManager.flush();
+        entityManager.clear();
+
+        RosterController.RosterResponse view = rosterViewService.getRosterView(roster.getId());
+
+        assertThat(view.getRosterId()).isEqualTo(roster.getId());
+        assertThat(view.getSubjectName()).isEqualTo("Math");
+        assertThat(view.getTeacherId()).isEqualTo(teacher.getId());
+        assertThat(view.getTeacherFirstName()).isEqualTo("Ada");
+        assertThat(view.getTeacherLastName()).isEqualTo("Lovelace");
+        assertThat(view.getStudents())
+                .extracting(RosterController.StudentInfo::getFirstName, RosterController.StudentInfo::getFinalGpa,
+                        RosterController.StudentInfo::getFinalStatus)
+                .containsExactlyInAnyOrder(
+                        tuple("Grace", 91.5, "PASSED"),
+                        tuple("Alan", null, null));
+    }
+
+    @Test
+    void getRosterView_shouldLeaveTeacherFieldsEmptyWithoutProfile() {
+        Roster roster = roster(user(Role.TEACHER));
+        entityManager.flush();
+        entityManager.clear();
+
+        RosterController.RosterResponse view = rosterViewService.getRosterView(roster.getId());
+
+        assertThat(view.getTeacherId()).isNull();
+        assertThat(view.getTeacherFirstName()).isNull();
+        assertThat(view.getStudents()).isEmpty();
+        assertThrows(RuntimeException.class, () -> rosterViewService.getRosterView(-1L));
+    }
+
+    @Test
+    void getRosterViewsByTeacherId_shouldUseThreeQueriesRegardlessOfSize() {
+        User teacher = user(Role.TEACHER);
+        User other = user(Role.TEACHER);
+        for (int r = 0; r < 3; r++) {
+            List<User> students = new ArrayList<>();
+            for (int s = 0; s < 10; s++) {
+                students.add(student("S" + r + "-" + s));
+            }
+            Roster roster = roster(teacher, students.toArray(User[]::new));
+            for (User student : students) {
+                grade(roster, student, 80.0 + r, StudentGradeStatus.PASSED);
+            }
+        }
+        roster(other);
+        entityManager.flush();
+        entityManager.clear();
+
+        SqlStatementCounter.reset();
+        List<RosterController.RosterResponse> views = rosterViewService.getRosterViewsByTeacherId(teacher.getId());
+
+        assertThat(views).hasSize(3);
+        assertThat(views).allSatisfy(view -> assertThat(view.getStudents()).hasSize(10)
+                .allSatisfy(info -> assertThat(info.getFinalGpa()).isNotNull()));
+        assertThat(SqlStatementCounter.total()).isEqualTo(3);
+
+        SqlStatementCounter.reset();
+        assertThat(rosterViewService.getAllRosterViews()).hasSize(4);
+        assertThat(rosterViewService.getRosterViewsByStudentId(views.get(1).getStudents().get(0).getStudentId()))
+                .extracting(RosterController.RosterResponse::getRosterId)
+                .containsExactly(views.get(1).getRosterId());
+        assertThat(SqlStatementCounter.total()).isEqualTo(6);
+    }
+
+    private Roster roster(User teacher, User... students) {
+        Roster roster = new Roster();
+        roster.setSubjectName("Math");
+        roster.setGradeLevel("7");
+        roster.setTeacher(teacher);
+        roster.setStudents(new LinkedHashSet<>(List.of(students)));
+        roster.setGrades(new ArrayList<>());
+        entityManager.persist(roster);
+        return roster;
+    }
+
+    private void grade(Roster roster, User student, double initialGrade, StudentGradeStatus status) {
+        Grade grade = new Grade();
+        grade.setRoster(roster);
+        grade.setStudent(student);
+        grade.setScoreDetails(new ScoreDetails());
+        grade.setInitialGrade(initialGrade);
+        grade.setFinalStatus(status);
+        entityManager.persist(grade);
+    }
+
+    private User student(String firstName) {
+        User student = user(Role.STUDENT);
+        StudentProfile profile = new StudentProfile();
+        profile.setFirstName(firstName);
+        profile.setLinkedUser(student);
+        entityManager.persist(profile);
+        return student;
+    }
+
+    private User user(Role role) {
+        User user = new User();
+        user.setId(String.format("%012d", nextUserId));
+        user.setEmail("user" + nextUserId++ + "@school.test");
+        user.setPassword("secret");
+        user.setRoles(Set.of(role));
+        entityManager.persist(user);
+        return user;
+    }
+}
@@ -0,0 +1,134 @@
+package com.school.roster.school_roster_backend.service;
+
+import com.school.roster.school_roster_backend.entity.User;
+import com.school.roster.school_roster_backend.entity.UserIdBlock;
+import com.school.roster.school_roster_backend.entity.enums.Role;
+import com.school.roster.school_roster_backend.repository.UserIdBlockRepository;
+import com.school.roster.school_roster_backend.repository.UserRepository;
+import com.school.roster.school_roster_backend.support.JpaSliceTest;
+import com.school.roster.school_roster_backend.support.SqlStatementCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Block-leased user ID allocation against H2. Leases commit in their own transaction, so the
+ * test runs without the usual wrapping transaction and cleans up after itself.
+ */
+@JpaSliceTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserIdAllocatorTest {
+
+    @Autowired
+    private UserIdBlockRepository blockRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+        blockRepository.deleteAll();
+    }
+
+    @Test
+    void nextId_shouldLeaseOneBlockPerBlockSizeIds() {
+        UserIdAllocator allocator = new UserIdAllocator(blockRepository, transactionManager, 5);
+
+        SqlStatementCounter.reset();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            ids.add(allocator.nextId());
+        }
+
+        assertThat(ids).doesNotHaveDuplicates().allMatch(id -> id.matches("\\d{12}"));
+        // Three leases (counter values 0-4, 5-9, 10-14); no statement touches the users table
+        assertThat(blockRepository.findById(UserIdAllocator.BLOCK_NAME))
+                .hasValueSatisfying(block -> assertThat(block.getNextValue()).isEqualTo(15));
+        assertThat(SqlStatementCounter.touching("users")).isZero();
+        assertThat(ids).isNotEqualTo(ids.stream().sorted().toList());
+    }
+
+    @Test
+    void nodesSharingTheCounter_shouldNeverCollide() {
+        UserIdAllocator nodeA = new UserIdAllocator(blockRepository, transactionManager, 3);
+        UserIdAllocator nodeB = new UserIdAllocator(blockRepository, transactionManager, 4);
+
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            assertThat(ids.add(nodeA.nextId())).isTrue();
+            assertThat(ids.add(nodeB.nextId())).isTrue();
+        }
+        assertThat(ids).hasSize(100);
+    }
+
+    @Test
+    void nextId_shouldKeepThePermutationKeyStoredWithTheCounter() {
+        blockRepository.save(new UserIdBlock(UserIdAllocator.BLOCK_NAME, 0, 42L));
+        List<String> first = new ArrayList<>();
+        UserIdAllocator allocator = new UserIdAllocator(blockRepository, transactionManager, 4);
+        for (int i = 0; i < 4; i++) {
+            first.add(allocator.nextId());
+        }
+
+        // Same key and counter values give the same IDs, so a restarted node can rely on the stored key
+        blockRepository.save(new UserIdBlock(UserIdAllocator.BLOCK_NAME, 0, 42L));
+        UserIdAllocator restarted = new UserIdAllocator(blockRepository, transactionManager, 4);
+        for (String id : first) {
+            assertThat(restarted.nextId()).isEqualTo(id);
+        }
+    }
+
+    @Test
+    void permute_shouldBeABijectionOnASample() {
+        long[] keys = {7L, 11L, 13L, 17L, 19L, 23L};
+        Set<Long> seen = new HashSet<>();
+        for (long value = 0; value < 20_000; value++) {
+            long permuted = UserIdAllocator.permute(value, keys);
+            assertThat(permuted).isBetween(0L, UserIdAllocator.ID_SPACE - 1);
+            seen.add(permuted);
+        }
+        // Top of the range too, where a naive modulus would wrap
+        for (long value = UserIdAllocator.ID_SPACE - 20_000; value < UserIdAllocator.ID_SPACE; value++) {
+            seen.add(UserIdAllocator.permute(value, keys));
+        }
+        assertThat(seen).hasSize(40_000);
+    }
+
+    @Test
+    void saveOfANewUser_shouldInsertRatherThanOverwriteAnExistingId() {
+        userRepository.save(user("000000000001", "first@school.test"));
+
+        SqlStatementCounter.reset();
+        assertThatThrownBy(() -> userRepository.save(user("000000000001", "second@school.test")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        // Persistable: no merge-style SELECT before the INSERT
+        assertThat(SqlStatementCounter.statements()).noneMatch(sql -> sql.startsWith("select") && sql.contains("from users"));
+        assertThat(userRepository.findById("000000000001"))
+                .hasValueSatisfying(user -> assertThat(user.getEmail()).isEqualTo("first@school.test"));
+    }
+
+    private User user(String id, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setPassword("secret");
+        user.setRoles(Set.of(Role.STUDENT));
+        return user;
+    }
+}
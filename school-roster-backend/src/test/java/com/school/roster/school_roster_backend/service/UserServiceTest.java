@@ -1,5 +1,6 @@
 package com.school.roster.school_roster_backend.service;
 
+import com.school.roster.school_roster_backend.controller.UserController;
 import com.school.roster.school_roster_backend.entity.*;
 import com.school.roster.school_roster_backend.entity.enums.Role;
 import com.school.roster.school_roster_backend.repository.*;
@@ -10,9 +11,10 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertFalse;
 
 
 import java.util.*;
@@ -35,6 +37,14 @@ class UserServiceTest {
     private RosterRepository rosterRepository;
     @Mock
     private GradeRepository gradeRepository;
+    @Mock
+    private RosterService rosterService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private UserIdAllocator userIdAllocator;
+    @Mock
+    private PasswordEncoder passwordEncoder;
 
     @InjectMocks
     private UserService userService;
@@ -53,41 +63,55 @@ class UserServiceTest {
 
     @Test
     void createUser_shouldSaveEncodedPasswordAndGeneratedId() {
-        when(userRepository.existsById(anyString())).thenReturn(false);
+        when(userIdAllocator.nextId()).thenReturn("000000000042");
+        when(passwordEncoder.encode("password")).thenReturn("encoded-password");
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         User createdUser = userService.createUser(user);
 
-        assertThat(createdUser.getPassword()).isNotEqualTo("password");
-        assertThat(createdUser.getId()).hasSize(12);
+        assertThat(createdUser.getPassword()).isEqualTo("encoded-password");
+        assertThat(createdUser.getId()).isEqualTo("000000000042");
         verify(userRepository).save(any(User.class));
+        verify(userRepository, never()).existsById(anyString());
     }
 
     @Test
-    void getAllUsers_shouldReturnAllUsers() {
-        when(userRepository.findAll()).thenReturn(List.of(user));
-
-        List<User> users = userService.getAllUsers();
-
-        assertThat(users).containsExactly(user);
+    void getUserPage_withoutFilters_shouldReturnFirstPageOfProjections() {
+        UserRepository.UserListRow row = mock(UserRepository.UserListRow.class);
+        when(row.getId()).thenReturn(user.getId());
+        when(row.getEmail()).thenReturn(user.getEmail());
+        UserRepository.UserRoleRow role = mock(UserRepository.UserRoleRow.class);
+        when(role.getUserId()).thenReturn(user.getId());
+        when(role.getRole()).thenReturn(Role.STUDENT);
+        when(userRepository.findListPage(isNull(), isNull(), isNull(), any())).thenReturn(List.of(row));
+        when(userRepository.findRolesByUserIdIn(List.of(user.getId()))).thenReturn(List.of(role));
+
+        KeysetPage<UserController.UserPageItem> page = userService.getUserPage(null, null, null, null);
+
+        assertThat(page.getItems()).extracting(UserController.UserPageItem::getId).containsExactly(user.getId());
+        assertThat(page.getItems().get(0).getRoles()).containsExactly(Role.STUDENT);
+        assertThat(page.getNextCursor()).isNull();
+        verify(userRepository, never()).findAll();
     }
 
     @Test
     void getUserById_shouldReturnUser() {
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userRepository.findNonAdminById(user.getId())).thenReturn(Optional.of(user));
 
         Optional<User> result = userService.getUserById(user.getId());
 
         assertThat(result).contains(user);
+        verify(userRepository, never()).findById(anyString());
     }
 
     @Test
     void getUserByEmail_shouldReturnUser() {
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(userRepository.findNonAdminByEmail(user.getEmail())).thenReturn(Optional.of(user));
 
         Optional<User> result = userService.getUserByEmail(user.getEmail());
 
         assertThat(result).contains(user);
+        verify(userRepository, never()).findByEmail(anyString());
     }
 
     @Test
@@ -100,12 +124,15 @@ class UserServiceTest {
 
         when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(passwordEncoder.encode("newPassword")).thenReturn("encoded-new-password");
 
         User updatedUser = userService.updateUser(user.getId(), updatedData);
 
         assertThat(updatedUser.getEmail()).isEqualTo("new@example.com");
+        assertThat(updatedUser.getPassword()).isEqualTo("encoded-new-password");
         assertThat(updatedUser.getRoles()).containsExactly(Role.TEACHER);
         verify(userRepository).save(any(User.class));
+        verify(eventPublisher).publishEvent(new RosterAccessCache.UserAccessChanged(user.getId()));
     }
 
     @Test
@@ -131,11 +158,12 @@ class UserServiceTest {
     @Test
     void deleteUser_shouldDeleteUserWithoutRoster() {
         when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(rosterRepository.findAll()).thenReturn(new ArrayList<>());
-        when(gradeRepository.findByStudentId(user.getId())).thenReturn(new ArrayList<>());
 
         userService.deleteUser(user.getId());
 
+        verify(gradeRepository).deleteByStudentId(user.getId());
+        verify(rosterRepository).deleteStudentLinksByStudentId(user.getId());
+        verify(rosterService, never()).applyGradeDelta(anyLong(), anyDouble(), anyInt());
         verify(userRepository).deleteById(user.getId());
     }
 
@@ -161,12 +189,13 @@ class UserServiceTest {
     }
 
     @Test
-    void generateUniqueUserId_shouldGenerate12DigitId() {
-        when(userRepository.existsById(anyString())).thenReturn(false);
+    void generateUniqueUserId_shouldComeFromAllocatorWithoutLookup() {
+        when(userIdAllocator.nextId()).thenReturn("000000000042");
 
         String id = userService.generateUniqueUserId();
 
-        assertThat(id).hasSize(12);
+        assertThat(id).isEqualTo("000000000042");
+        verifyNoInteractions(userRepository);
     }
 
     @Test
@@ -183,32 +212,31 @@ class UserServiceTest {
         nonStudentProfile.setLinkedUser(user);
         user.setNonStudentProfile(nonStudentProfile);
 
-        Roster roster1 = new Roster();
-        roster1.setStudents(new ArrayList<>(List.of(user)));
-        Roster roster2 = new Roster();
-        roster2.setStudents(new ArrayList<>(List.of(user)));
-
-        Grade grade = new Grade();
-        grade.setStudent(user);
+        GradeRepository.GradeTotals mathGrades = mock(GradeRepository.GradeTotals.class);
+        when(mathGrades.getRosterId()).thenReturn(1L);
+        when(mathGrades.getGradeSum()).thenReturn(85.0);
+        when(mathGrades.getGradeCount()).thenReturn(1L);
 
         // Mocking
         when(userRepository.findById("studentId")).thenReturn(Optional.of(user));
-        when(gradeRepository.findByStudentId("studentId")).thenReturn(List.of(grade));
-        // Mark this line as lenient
-        lenient().when(rosterRepository.findAll()).thenReturn(List.of(roster1, roster2));
+        when(gradeRepository.sumInitialGradesByStudentIdGroupByRoster("studentId")).thenReturn(List.of(mathGrades));
+        when(rosterRepository.findIdsByStudentId("studentId")).thenReturn(List.of(1L, 2L));
 
         // Act
         userService.deleteUser("studentId");
 
-        // Assert
-        // After deleting, roster students should be empty
-        assertFalse(roster1.getStudents().contains(user));
-        assertFalse(roster2.getStudents().contains(user));
+        // Assert: set-based deletes only, no scan of every roster or grade
+        verify(rosterRepository, never()).findAll();
+        verify(gradeRepository, never()).findByStudentId(anyString());
+        verify(gradeRepository).deleteByStudentId("studentId");
+        verify(rosterService).applyGradeDelta(1L, -85.0, -1);
+        verify(rosterRepository).deleteStudentLinksByStudentId("studentId");
 
         verify(studentProfileRepository).delete(studentProfile);
         verify(nonStudentProfileRepository).delete(nonStudentProfile);
-        verify(gradeRepository).deleteAll(List.of(grade));
         verify(userRepository).deleteById("studentId");
+        verify(eventPublisher).publishEvent(new RosterMembershipIndex.StudentsRemoved(1L, Set.of("studentId")));
+        verify(eventPublisher).publishEvent(new RosterMembershipIndex.StudentsRemoved(2L, Set.of("studentId")));
     }
 
     @Test
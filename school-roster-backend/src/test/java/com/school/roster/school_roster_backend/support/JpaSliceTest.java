@@ -0,0 +1,38 @@
+package com.school.roster.school_roster_backend.support;
+
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@code @DataJpaTest} against H2 with the roster/grade/user service graph from
+ * {@link JpaSliceTestConfiguration} and every statement recorded by {@link SqlStatementCounter}.
+ *
+ * Slice tests share one cached context (and one database) unless they add properties or mock
+ * beans, so tests that commit must clean up after themselves. Test-specific beans go in an
+ * extra {@code @Import} on the test class; extra properties in {@code @TestPropertySource}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.school.roster.school_roster_backend.support.SqlStatementCounter",
+        "spring.jpa.show-sql=false",
+        // Scheduled jobs would run inside other tests and add to their statement counts
+        "roster.membership.refresh-interval-ms=86400000",
+        "roster.class-gpa.verify-initial-delay-ms=86400000",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+})
+@Import(JpaSliceTestConfiguration.class)
+public @interface JpaSliceTest {
+}
@@ -0,0 +1,43 @@
+package com.school.roster.school_roster_backend.support;
+
+import com.school.roster.school_roster_backend.service.GradeCalculator;
+import com.school.roster.school_roster_backend.service.GradeRecalculationEngine;
+import com.school.roster.school_roster_backend.service.GradeService;
+import com.school.roster.school_roster_backend.service.HighestPossibleScoreService;
+import com.school.roster.school_roster_backend.service.OptimisticRetry;
+import com.school.roster.school_roster_backend.service.ProfileService;
+import com.school.roster.school_roster_backend.service.RecalculationProgress;
+import com.school.roster.school_roster_backend.service.RosterAccessCache;
+import com.school.roster.school_roster_backend.service.RosterMembershipIndex;
+import com.school.roster.school_roster_backend.service.RosterService;
+import com.school.roster.school_roster_backend.service.RosterViewService;
+import com.school.roster.school_roster_backend.service.UserIdAllocator;
+import com.school.roster.school_roster_backend.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Services (and the few infrastructure beans they need) available to every {@link JpaSliceTest}.
+ */
+@TestConfiguration
+@Import({RosterService.class, RosterViewService.class, UserService.class, ProfileService.class,
+        GradeService.class, GradeCalculator.class, GradeRecalculationEngine.class, HighestPossibleScoreService.class,
+        OptimisticRetry.class, RecalculationProgress.class, RosterMembershipIndex.class, RosterAccessCache.class,
+        UserIdAllocator.class})
+public class JpaSliceTestConfiguration {
+
+    @Bean
+    MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    @Bean
+    PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
+    }
+}
@@ -0,0 +1,42 @@
+package com.school.roster.school_roster_backend.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Hibernate StatementInspector that records every SQL string Hibernate prepares.
+ * Register with {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").trim());
+        return sql;
+    }
+
+    public static void reset() {
+        STATEMENTS.clear();
+    }
+
+    public static int total() {
+        return STATEMENTS.size();
+    }
+
+    /**
+     * Count statements that touch the given table (matched as a whole word).
+     */
+    public static long touching(String table) {
+        String pattern = ".*\\b" + table.toLowerCase(Locale.ROOT) + "\\b.*";
+        return STATEMENTS.stream().filter(sql -> sql.matches(pattern)).count();
+    }
+
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS);
+    }
+}